@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("groovy")
     id("io.freefair.lombok") version "8.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "pl.interpreter"
@@ -19,6 +20,10 @@ tasks.named<Test>("test"){
     useJUnitPlatform()
 }
 
+jmh {
+    jmhVersion = "1.37"
+}
+
 tasks.register("prepareKotlinBuildScriptModel") {}
 
 java {
@@ -0,0 +1,81 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.executor.Environment;
+import pl.interpreter.executor.ExecutionEngine;
+import pl.interpreter.executor.Value;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Runs a loop of operators producing booleans and small ints on each execution engine, one operation is one loop
+ * iteration. Meant to be run with the gc profiler ({@code -prof gc}), whose normalized allocation rate shows the bytes
+ * allocated per iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocationBenchmark {
+
+    static final int ITERATIONS = 1000;
+
+    static final String SOURCE = """
+            int main() {
+                var int i = 0;
+                var int hits = 0;
+                while (i < 1000) {
+                    if (i % 7 == 3 or i / 2 > 400 and !(i == 900)) {
+                        hits = hits + 1;
+                    }
+                    i = i + 1;
+                }
+                return hits;
+            }
+            """;
+
+    @Param({"AST", "BYTECODE", "NODES", "TIERED"})
+    private ExecutionEngine engine;
+    private Environment checked;
+    private Environment verified;
+
+    @Setup
+    public void setUp() {
+        checked = new Environment(parse(), engine);
+        verified = Environment.verified(parse(), engine);
+    }
+
+    private static Program parse() {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(SOURCE)))).parse();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Value operatorsChecked() {
+        return checked.executeUserFunction("main", List.of());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Value operatorsVerified() {
+        return verified.executeUserFunction("main", List.of());
+    }
+}
@@ -0,0 +1,80 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.executor.Environment;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Compares loading a parsed program of many functions, a few of them reachable from main, as a whole and through
+ * {@link Environment#forEntryPoint}. Meant to be run with the gc profiler ({@code -prof gc}) as well, whose normalized
+ * allocation rate shows the bytes allocated per load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryPointBenchmark {
+
+    static final int FUNCTIONS = 2000;
+    static final int REACHABLE_FUNCTIONS = 20;
+
+    private Program program;
+
+    @Setup
+    public void setUp() {
+        var builder = new StringBuilder("int main() {\n    var int sum = 0;\n");
+        for (int i = 0; i < REACHABLE_FUNCTIONS; ++i) {
+            builder.append("    sum = sum + ").append(name(i)).append("(").append(i).append(");\n");
+        }
+        builder.append("    return sum;\n}\n");
+        for (int i = 0; i < FUNCTIONS; ++i) {
+            builder.append("int ").append(name(i)).append("(int a) {\n")
+                    .append("    int limit = 4 * 2;\n")
+                    .append("    var int sum = 0;\n")
+                    .append("    while (a < limit) {\n")
+                    .append("        if (a % 2 == 0) { sum = sum + a * ").append(i).append("; }\n")
+                    .append("        a = a + 1;\n")
+                    .append("    }\n")
+                    .append("    return sum;\n")
+                    .append("}\n");
+        }
+        program = new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(builder.toString()))))
+                .parse();
+    }
+
+    // identifiers may not contain digits
+    private static String name(int number) {
+        var builder = new StringBuilder("f");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Environment loadAll() {
+        return new Environment(program);
+    }
+
+    @Benchmark
+    public Environment loadReachable() {
+        return Environment.forEntryPoint(program, "main");
+    }
+}
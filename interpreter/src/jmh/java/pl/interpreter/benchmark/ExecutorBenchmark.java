@@ -0,0 +1,118 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.executor.Environment;
+import pl.interpreter.executor.ExecutionEngine;
+import pl.interpreter.executor.Value;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Runs an arithmetic-heavy loop, a recursive Fibonacci and a loop over structure fields with the executor's dynamic
+ * type checks and in verified mode, after the type checker, on each execution engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    static final String SOURCE = """
+            int main() {
+                var int i = 0;
+                var int sum = 0;
+                var float average = 0.0;
+                while (i < 100000) {
+                    sum = sum + i * 3 % 7 - 1;
+                    average = (average * 2.0 + i) / 3.0;
+                    if (sum > 1000 and average < 100000.0) {
+                        sum = sum - 1000;
+                    }
+                    i = i + 1;
+                }
+                return sum;
+            }
+            int fib(int n) {
+                if (n == 0 or n == 1) {
+                    return n;
+                }
+                return fib(n - 1) + fib(n - 2);
+            }
+            int fibonacci() {
+                return fib(20);
+            }
+            struct Point { int x, float y }
+            float points() {
+                var int i = 0;
+                var float sum = 0.0;
+                while (i < 100000) {
+                    Point p = Point(i % 10, i / 1000.0);
+                    sum = sum + p.x * p.y;
+                    i = i + 1;
+                }
+                return sum;
+            }
+            """;
+
+    @Param({"AST", "BYTECODE", "NODES", "TIERED"})
+    private ExecutionEngine engine;
+    private Environment checked;
+    private Environment verified;
+
+    @Setup
+    public void setUp() {
+        checked = new Environment(parse(), engine);
+        verified = Environment.verified(parse(), engine);
+    }
+
+    private static Program parse() {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(SOURCE)))).parse();
+    }
+
+    @Benchmark
+    public Value runChecked() {
+        return checked.executeUserFunction("main", List.of());
+    }
+
+    @Benchmark
+    public Value runVerified() {
+        return verified.executeUserFunction("main", List.of());
+    }
+
+    @Benchmark
+    public Value fibonacciChecked() {
+        return checked.executeUserFunction("fibonacci", List.of());
+    }
+
+    @Benchmark
+    public Value fibonacciVerified() {
+        return verified.executeUserFunction("fibonacci", List.of());
+    }
+
+    @Benchmark
+    public Value pointsChecked() {
+        return checked.executeUserFunction("points", List.of());
+    }
+
+    @Benchmark
+    public Value pointsVerified() {
+        return verified.executeUserFunction("points", List.of());
+    }
+}
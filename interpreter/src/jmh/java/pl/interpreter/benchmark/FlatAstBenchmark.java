@@ -0,0 +1,174 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.flat_ast.FlatAst;
+import pl.interpreter.flat_ast.FlatNodeKind;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.PrintVisitor;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.TokenManager;
+import pl.interpreter.parser.WhileStatement;
+import pl.interpreter.snapshot.AstSnapshots;
+
+/**
+ * Compares a full traversal summing int literals of the object tree and of the same program in a {@link FlatAst}, and
+ * parsing and printing through either. Meant to be run with the gc profiler ({@code -prof gc}) as well, parsing into
+ * the flat tree allocates the objects of one definition at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlatAstBenchmark {
+
+    static final int FUNCTION_COUNT = 5000;
+
+    private String code;
+    private Program program;
+    private FlatAst flatAst;
+
+    @Setup
+    public void setUp() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < FUNCTION_COUNT; ++i) {
+            builder.append("int ").append(name(i)).append("(int a, Point p) {\n")
+                    .append("    var int sum = 0;\n")
+                    .append("    while (a > 0) {\n")
+                    .append("        if (a % 2 == 0) { sum = sum + p.x * ").append(i).append("; }\n")
+                    .append("        else { log(\"odd\", a); }\n")
+                    .append("        a = a - 1;\n")
+                    .append("    }\n")
+                    .append("    return sum;\n")
+                    .append("}\n");
+        }
+        code = builder.toString();
+        program = AstSnapshots.parse(code.getBytes(StandardCharsets.UTF_8), new SymbolTable());
+        flatAst = FlatAst.of(program);
+    }
+
+    // identifiers may not contain digits
+    private static String name(int number) {
+        var builder = new StringBuilder("f");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public long sumObjectTree() {
+        var sum = 0L;
+        for (var definition : program.getDefinitions().values()) {
+            sum += sumInstruction(((FunctionDefinition) definition).getBlock());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumFlatTree() {
+        var sum = 0L;
+        for (var node = 0; node < flatAst.size(); ++node) {
+            if (flatAst.getKind(node) == FlatNodeKind.INT_LITERAL) {
+                sum += flatAst.getPayloadA(node);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public FlatAst flatten() {
+        return FlatAst.of(program);
+    }
+
+    @Benchmark
+    public Program parseObjectTree() {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse();
+    }
+
+    @Benchmark
+    public FlatAst parseFlatTree() {
+        return FlatAst.parse(new TokenManager(new LexicalAnalyzer(new StringReader(code))));
+    }
+
+    @Benchmark
+    public void printObjectTree() {
+        new PrintVisitor(Writer.nullWriter()).visit(program);
+    }
+
+    @Benchmark
+    public void printFlatTree() {
+        flatAst.print(Writer.nullWriter());
+    }
+
+    private static long sumInstruction(Instruction instruction) {
+        return switch (instruction) {
+            case null -> 0;
+            case Block block -> {
+                var sum = 0L;
+                for (var nested : block.getInstructions()) {
+                    sum += sumInstruction(nested);
+                }
+                yield sum;
+            }
+            case IfStatement ifStatement -> sumExpression(ifStatement.getExpression())
+                    + sumInstruction(ifStatement.getInstruction()) + sumInstruction(ifStatement.getElseInstruction());
+            case WhileStatement whileStatement -> sumExpression(whileStatement.getExpression())
+                    + sumInstruction(whileStatement.getInstruction());
+            case Assignment assignment -> sumExpression(assignment.getExpression());
+            case Initialization initialization -> sumExpression(initialization.getExpression());
+            case ReturnStatement returnStatement -> sumExpression(returnStatement.getExpression());
+            case FunctionCall functionCall -> sumExpression(functionCall);
+            default -> 0;
+        };
+    }
+
+    private static long sumExpression(Expression expression) {
+        return switch (expression) {
+            case null -> 0;
+            case IntLiteral intLiteral -> intLiteral.getValue();
+            case Sum sum -> sumExpression(sum.getLeft()) + sumExpression(sum.getRight());
+            case Multiplication multiplication -> sumExpression(multiplication.getLeft())
+                    + sumExpression(multiplication.getRight());
+            case Relation relation -> sumExpression(relation.getLeft()) + sumExpression(relation.getRight());
+            case FunctionCall functionCall -> {
+                var sum = 0L;
+                for (var argument : functionCall.getArguments()) {
+                    sum += sumExpression(argument);
+                }
+                yield sum;
+            }
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package pl.interpreter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.parser.IncrementalProgramParser;
+import pl.interpreter.parser.Program;
+
+/**
+ * Measures an edit of the first function of sources of growing size, which moves all the following ones to other
+ * rows. Each invocation inserts a line break and removes it again, so the parser returns to the same source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalParserBenchmark {
+
+    @Param({"500", "5000"})
+    public int functions;
+
+    private IncrementalProgramParser parser;
+    private int editOffset;
+
+    @Setup
+    public void setUp() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < functions; ++i) {
+            builder.append("int ").append(name(i)).append("(int a) {\n")
+                    .append("    var int sum = 0;\n")
+                    .append("    while (a < 8) {\n")
+                    .append("        sum = sum + a * ").append(i).append(";\n")
+                    .append("        a = a + 1;\n")
+                    .append("    }\n")
+                    .append("    return sum;\n")
+                    .append("}\n");
+        }
+        var code = builder.toString();
+        parser = new IncrementalProgramParser(code);
+        editOffset = code.indexOf("return sum;");
+    }
+
+    // identifiers may not contain digits
+    private static String name(int number) {
+        var builder = new StringBuilder("f");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Program insertAndRemoveLine() {
+        parser.applyEdit(editOffset, editOffset, "\n");
+        return parser.applyEdit(editOffset, editOffset + 1, "");
+    }
+}
@@ -0,0 +1,89 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.interpreter.TokenBuffer;
+import pl.interpreter.TokenType;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+
+/**
+ * Lexes operator-dense code. Scores are tokens per second, run against an older revision to compare scanners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(LexerBenchmark.TOKEN_COUNT)
+public class LexerBenchmark {
+
+    static final int LINES = 10_000;
+    // tokens per generated line
+    static final int TOKENS_PER_LINE = 48;
+    static final int TOKEN_COUNT = LINES * TOKENS_PER_LINE + 1;
+
+    private String code;
+
+    @Setup
+    public void setUp() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < LINES; ++i) {
+            builder.append("a = (b+c)*d-e/f%g; x = a<=b!=c>=d==e; y = !a<b>c; f(p.q,r)->s;\n");
+        }
+        code = builder.toString();
+    }
+
+    @Benchmark
+    public void tokens(Blackhole blackhole) {
+        var lexer = new LexicalAnalyzer(new StringReader(code));
+        var count = 0;
+        while (true) {
+            var token = lexer.getNextToken();
+            blackhole.consume(token);
+            ++count;
+            if (token.type() == TokenType.EOF) {
+                break;
+            }
+        }
+        checkCount(count);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        var lexer = new LexicalAnalyzer(new StringReader(code));
+        var count = 0;
+        TokenType type;
+        do {
+            type = lexer.scanNextToken();
+            blackhole.consume(type);
+            ++count;
+        } while (type != TokenType.EOF);
+        checkCount(count);
+    }
+
+    @Benchmark
+    public TokenBuffer tokenBuffer() {
+        var buffer = TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(code)));
+        checkCount(buffer.size());
+        return buffer;
+    }
+
+    private static void checkCount(int count) {
+        if (count != TOKEN_COUNT) {
+            throw new IllegalStateException("Expected %d tokens, got %d".formatted(TOKEN_COUNT, count));
+        }
+    }
+}
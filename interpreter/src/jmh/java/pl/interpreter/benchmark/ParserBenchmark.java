@@ -0,0 +1,108 @@
+package pl.interpreter.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.TokenBuffer;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.ExpressionParser;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.LazyProgramParser;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Parses a large statement-heavy program and a long arithmetic expression. Parsing from a prepared token buffer
+ * leaves lexing out of the score, lazy parsing leaves out all function bodies but one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    static final int FUNCTIONS = 5_000;
+    static final int TERMS = 100_000;
+
+    private String code;
+    private TokenBuffer tokens;
+    private TokenBuffer expressionTokens;
+
+    @Setup
+    public void setUp() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < FUNCTIONS; ++i) {
+            builder.append("int ").append(name(i)).append("(int a, Point p) {\n")
+                    .append("    var int sum = 0;\n")
+                    .append("    Point q = Point(p.x + a, p.y * 2);\n")
+                    .append("    while (a > 0) {\n")
+                    .append("        if (a % 2 == 0 and !done) { sum = sum + q.x; } else { log(sum, a); }\n")
+                    .append("        a = a - 1;\n")
+                    .append("    }\n")
+                    .append("    return sum as float;\n")
+                    .append("}\n");
+        }
+        code = builder.toString();
+        tokens = TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(code)));
+
+        var expression = new StringBuilder("0");
+        for (int i = 0; i < TERMS; ++i) {
+            expression.append(i % 2 == 0 ? " + " : " - ").append(i).append(" * (a.b - 2.5) / f(x, ").append(i).append(')');
+        }
+        expressionTokens = TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(expression.toString())));
+    }
+
+    // identifiers may not contain digits
+    private static String name(int number) {
+        var builder = new StringBuilder("f");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Program parseStreamed() {
+        return parse(new TokenManager(new LexicalAnalyzer(new StringReader(code))));
+    }
+
+    @Benchmark
+    public Program parseBuffered() {
+        return parse(new TokenManager(tokens));
+    }
+
+    @Benchmark
+    public Program parseLazily() {
+        var program = new LazyProgramParser(code).parse();
+        ((FunctionDefinition) program.getDefinitions().get(name(0))).getBlock();
+        return program;
+    }
+
+    @Benchmark
+    public Expression parseLongExpression() {
+        return new ExpressionParser(new TokenManager(expressionTokens)).parseExpression().orElseThrow();
+    }
+
+    private static Program parse(TokenManager tokenManager) {
+        var program = new ProgramParser(tokenManager).parse();
+        if (program.getDefinitions().size() != FUNCTIONS) {
+            throw new IllegalStateException("Expected %d definitions, got %d"
+                    .formatted(FUNCTIONS, program.getDefinitions().size()));
+        }
+        return program;
+    }
+}
@@ -0,0 +1,98 @@
+package pl.interpreter.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+import pl.interpreter.parser.Program;
+import pl.interpreter.snapshot.AstSnapshotReader;
+import pl.interpreter.snapshot.AstSnapshotWriter;
+import pl.interpreter.snapshot.AstSnapshots;
+
+/**
+ * Compares getting a program of a 2 MB source by parsing it and by reading its snapshot, both from memory and through
+ * {@link AstSnapshots#loadOrParse} with a warm snapshot file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    static final int SOURCE_SIZE = 2 * 1024 * 1024;
+
+    private byte[] source;
+    private byte[] snapshot;
+    private Path directory;
+    private Path sourceFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        var builder = new StringBuilder();
+        for (int i = 0; builder.length() < SOURCE_SIZE; ++i) {
+            builder.append("int ").append(name(i)).append("(int a, Point p) {\n")
+                    .append("    var int sum = 0;\n")
+                    .append("    while (a > 0) {\n")
+                    .append("        if (a % 2 == 0) { sum = sum + p.x * ").append(i).append("; }\n")
+                    .append("        else { log(\"odd\", a); }\n")
+                    .append("        a = a - 1;\n")
+                    .append("    }\n")
+                    .append("    return sum;\n")
+                    .append("}\n");
+        }
+        source = builder.toString().getBytes(StandardCharsets.UTF_8);
+        snapshot = AstSnapshotWriter.write(AstSnapshots.parse(source, new SymbolTable()), AstSnapshots.hash(source));
+
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        sourceFile = directory.resolve("bundle.lang");
+        Files.write(sourceFile, source);
+        AstSnapshots.loadOrParse(sourceFile, new SymbolTable());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(AstSnapshots.snapshotPath(sourceFile));
+        Files.deleteIfExists(sourceFile);
+        Files.deleteIfExists(directory);
+    }
+
+    // identifiers may not contain digits
+    private static String name(int number) {
+        var builder = new StringBuilder("f");
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Program parse() {
+        return AstSnapshots.parse(source, new SymbolTable());
+    }
+
+    @Benchmark
+    public Program readSnapshot() {
+        return AstSnapshotReader.read(snapshot, new SymbolTable());
+    }
+
+    @Benchmark
+    public Program loadOrParse() throws IOException {
+        return AstSnapshots.loadOrParse(sourceFile, new SymbolTable());
+    }
+}
@@ -0,0 +1,207 @@
+package pl.interpreter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Struct-of-arrays token storage. Int and float literals and operator characters are kept inline in the value
+ * column, identifiers and keywords are symbols of the shared symbol table and string literals are indices into
+ * a deduplicated string table.
+ */
+public class TokenBuffer {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private int size;
+    private int[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] rows;
+    private int[] cols;
+    private int[] values;
+    private final SymbolTable symbolTable;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    public TokenBuffer() {
+        this(new SymbolTable(), DEFAULT_CAPACITY);
+    }
+
+    public TokenBuffer(int capacity) {
+        this(new SymbolTable(), capacity);
+    }
+
+    public TokenBuffer(SymbolTable symbolTable, int capacity) {
+        this.symbolTable = symbolTable;
+        capacity = Math.max(capacity, 1);
+        types = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        rows = new int[capacity];
+        cols = new int[capacity];
+        values = new int[capacity];
+    }
+
+    public static TokenBuffer tokenize(LexicalAnalyzer lexicalAnalyzer) {
+        var buffer = new TokenBuffer(lexicalAnalyzer.getSymbolTable(), DEFAULT_CAPACITY);
+        TokenType type;
+        do {
+            type = lexicalAnalyzer.scanNextToken();
+            if (type != TokenType.COMMENT) {
+                buffer.add(type, lexicalAnalyzer.getTokenOffset(), lexicalAnalyzer.getTokenLength(),
+                        lexicalAnalyzer.getTokenRow(), lexicalAnalyzer.getTokenCol(),
+                        buffer.encodeValue(type, lexicalAnalyzer));
+            }
+        } while (type != TokenType.EOF);
+        return buffer;
+    }
+
+    public void add(Token token, int start, int length) {
+        add(token.type(), start, length, token.row(), token.col(), encodeValue(token));
+    }
+
+    private void add(TokenType type, int start, int length, int row, int col, int value) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        rows[size] = row;
+        cols[size] = col;
+        values[size] = value;
+        ++size;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType getType(int index) {
+        return TOKEN_TYPES[types[index]];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getRow(int index) {
+        return rows[index];
+    }
+
+    public int getCol(int index) {
+        return cols[index];
+    }
+
+    public int getInt(int index) {
+        return values[index];
+    }
+
+    public float getFloat(int index) {
+        return Float.intBitsToFloat(values[index]);
+    }
+
+    public String getString(int index) {
+        return valueKind(getType(index)) == ValueKind.SYMBOL
+                ? symbolTable.getName(values[index])
+                : strings.get(values[index]);
+    }
+
+    public int getSymbol(int index) {
+        return valueKind(getType(index)) == ValueKind.SYMBOL ? values[index] : SymbolTable.NO_SYMBOL;
+    }
+
+    public Object getValue(int index) {
+        return switch (valueKind(getType(index))) {
+            case INT -> values[index];
+            case FLOAT -> getFloat(index);
+            case CHARACTER -> (char) values[index];
+            case STRING -> strings.get(values[index]);
+            case SYMBOL -> symbolTable.getName(values[index]);
+            case NONE -> null;
+        };
+    }
+
+    public Token getToken(int index) {
+        return new Token(getType(index), getValue(index), rows[index], cols[index]);
+    }
+
+    private int encodeValue(Token token) {
+        return switch (valueKind(token.type())) {
+            case INT -> (int) token.value();
+            case FLOAT -> Float.floatToRawIntBits((float) token.value());
+            case CHARACTER -> (char) token.value();
+            case STRING -> internString((String) token.value());
+            case SYMBOL -> symbolTable.intern((String) token.value());
+            case NONE -> 0;
+        };
+    }
+
+    private int encodeValue(TokenType type, LexicalAnalyzer lexicalAnalyzer) {
+        return switch (valueKind(type)) {
+            case INT -> lexicalAnalyzer.getTokenInt();
+            case FLOAT -> Float.floatToRawIntBits(lexicalAnalyzer.getTokenFloat());
+            case CHARACTER -> lexicalAnalyzer.getTokenChar();
+            case STRING -> internString(lexicalAnalyzer.getTokenText());
+            case SYMBOL -> lexicalAnalyzer.getTokenSymbol();
+            case NONE -> 0;
+        };
+    }
+
+    private int internString(String value) {
+        var index = stringIndices.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndices.put(value, index);
+        }
+        return index;
+    }
+
+    private void grow() {
+        var capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        cols = Arrays.copyOf(cols, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private enum ValueKind {
+        INT,
+        FLOAT,
+        CHARACTER,
+        STRING,
+        SYMBOL,
+        NONE
+    }
+
+    private static ValueKind valueKind(TokenType type) {
+        return switch (type) {
+            case INT_CONST -> ValueKind.INT;
+            case FLOAT_CONST -> ValueKind.FLOAT;
+            case STRING_CONST, ARROW, EQUALS_OPERATOR, NOT_EQUALS_OPERATOR, LESS_THAN_OR_EQUALS_OPERATOR,
+                 GREATER_THAN_OR_EQUALS_OPERATOR -> ValueKind.STRING;
+            case LEFT_CURLY_BRACKET, RIGHT_CURLY_BRACKET, LEFT_PARENTHESES, RIGHT_PARENTHESES, SEMICOLON, COMMA,
+                 ADD_OPERATOR, SUBTRACT_OPERATOR, MULTIPLY_OPERATOR, DIVIDE_OPERATOR, MODULO_OPERATOR,
+                 NEGATION_OPERATOR, LESS_THAN_OPERATOR, GREATER_THAN_OPERATOR, ASSIGNMENT, DOT -> ValueKind.CHARACTER;
+            case EOF, COMMENT -> ValueKind.NONE;
+            default -> ValueKind.SYMBOL;
+        };
+    }
+}
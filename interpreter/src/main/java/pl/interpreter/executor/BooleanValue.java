@@ -9,5 +9,14 @@ import lombok.Setter;
 @AllArgsConstructor
 @EqualsAndHashCode
 public class BooleanValue implements Value {
+
+    public static final BooleanValue TRUE = new BooleanValue(true);
+    public static final BooleanValue FALSE = new BooleanValue(false);
+
     private boolean isTruthy;
+
+    // values are immutable, so operators share the two instances instead of allocating results
+    public static BooleanValue of(boolean isTruthy) {
+        return isTruthy ? TRUE : FALSE;
+    }
 }
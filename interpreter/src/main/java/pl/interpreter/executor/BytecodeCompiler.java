@@ -0,0 +1,403 @@
+package pl.interpreter.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Lowers the prepared body of a user function, with calls linked, constants folded and variables resolved to frame
+ * slots, to the register bytecode run by {@link BytecodeInterpreter}. Variables use their frame slots as registers,
+ * intermediate values get temporaries, freed after each instruction, and constants are loaded into the registers
+ * following them when a call starts. Checked programs validate the type of each write like the tree walker does.
+ */
+class BytecodeCompiler {
+
+    private final int frameSize;
+    private final boolean verified;
+    private int[] code = new int[64];
+    private int size;
+    private final List<Value> constants = new ArrayList<>();
+    private final Map<Value, Integer> constantIndexes = new HashMap<>();
+    private final List<Object> symbols = new ArrayList<>();
+    // code positions holding the index of a constant, its register is known once all temporaries are
+    private final List<Integer> constantOperands = new ArrayList<>();
+    // temporaries below the floor hold values needed by the enclosing instruction
+    private int temporaryFloor;
+    private int nextTemporary;
+    private int constantBase;
+
+    BytecodeCompiler(int frameSize, boolean verified) {
+        this.frameSize = frameSize;
+        this.verified = verified;
+    }
+
+    CompiledFunction compile(Block body) {
+        temporaryFloor = frameSize;
+        nextTemporary = frameSize;
+        constantBase = frameSize;
+        compileBlock(body);
+        emit(Opcode.RETURN_VOID);
+        for (var position : constantOperands) {
+            code[position] += constantBase;
+        }
+        return new CompiledFunction(Arrays.copyOf(code, size), constants.toArray(new Value[0]), symbols.toArray(),
+                constantBase);
+    }
+
+    private void compileBlock(Block block) {
+        block.getLiveInstructions().forEach(this::compileInstruction);
+    }
+
+    private void compileInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> compileBlock(block);
+            case Initialization initialization -> compileInitialization(initialization);
+            case Assignment assignment -> compileAssignment(assignment);
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() == null) {
+                    emit(Opcode.RETURN_VOID);
+                } else {
+                    var value = compileLoaded(returnStatement.getExpression());
+                    emit(Opcode.RETURN);
+                    emitRegister(value);
+                }
+            }
+            case FunctionCall functionCall -> compileExpression(functionCall, -1);
+            case IfStatement ifStatement -> compileIf(ifStatement);
+            case WhileStatement whileStatement -> compileWhile(whileStatement);
+            case MatchStatement matchStatement -> compileMatch(matchStatement);
+            default -> throw new UnknownNodeException();
+        }
+        nextTemporary = temporaryFloor;
+    }
+
+    private void compileInitialization(Initialization initialization) {
+        if (verified) {
+            compileInto(initialization.getExpression(), initialization.getSlot());
+            return;
+        }
+        var value = compileLoaded(initialization.getExpression());
+        var type = UserFunctionDefinitionMapper.mapParameterType(
+                new ParameterType(initialization.getType(), initialization.getUserType()));
+        // a redeclared variable is checked into a temporary first, then assigned like any write to it
+        var target = initialization.isRedeclaration() ? allocate() : initialization.getSlot();
+        emit(Opcode.INITIALIZE);
+        emitInt(target);
+        emitRegister(value);
+        emitInt(symbol(type));
+        emitInt(symbol(initialization.getId()));
+        if (initialization.isRedeclaration()) {
+            emit(Opcode.ASSIGN);
+            emitInt(initialization.getSlot());
+            emitRegister(target);
+        }
+    }
+
+    private void compileAssignment(Assignment assignment) {
+        if (assignment.getSlot() == Statement.NO_SLOT) {
+            compileExpression(assignment.getExpression(), -1);
+            emitFail(unresolved(assignment.getId()));
+        } else if (verified) {
+            compileInto(assignment.getExpression(), assignment.getSlot());
+        } else {
+            var value = compileExpression(assignment.getExpression(), -1);
+            emit(Opcode.ASSIGN);
+            emitInt(assignment.getSlot());
+            emitRegister(value);
+        }
+    }
+
+    private void compileIf(IfStatement statement) {
+        var condition = compileExpression(statement.getExpression(), -1);
+        var toElse = emitJump(Opcode.JUMP_IF_FALSE, condition);
+        compileInstruction(statement.getInstruction());
+        if (statement.getElseInstruction() == null) {
+            patch(toElse);
+            return;
+        }
+        var toEnd = emitJump(Opcode.JUMP, -1);
+        patch(toElse);
+        compileInstruction(statement.getElseInstruction());
+        patch(toEnd);
+    }
+
+    private void compileWhile(WhileStatement statement) {
+        var start = size;
+        var condition = compileExpression(statement.getExpression(), -1);
+        var toEnd = emitJump(Opcode.JUMP_IF_FALSE, condition);
+        compileInstruction(statement.getInstruction());
+        emit(Opcode.JUMP);
+        emitInt(start);
+        patch(toEnd);
+    }
+
+    private void compileMatch(MatchStatement statement) {
+        var structure = compileExpression(statement.getExpression(), -1);
+        emit(Opcode.CHECK_STRUCTURE);
+        emitRegister(structure);
+        // the matched value has to survive the instructions of the branches
+        var enclosingFloor = temporaryFloor;
+        temporaryFloor = nextTemporary;
+        var toEnd = new ArrayList<Integer>();
+        for (var branch : statement.getBranches()) {
+            var toNext = -1;
+            if (branch.getStructureId() != null) {
+                emit(Opcode.JUMP_UNLESS_STRUCTURE);
+                emitRegister(structure);
+                emitInt(symbol(branch.getStructureId()));
+                toNext = size;
+                emitInt(-1);
+            }
+            if (branch.getSlot() != Statement.NO_SLOT) {
+                emitMove(branch.getSlot(), structure);
+            }
+            compileInstruction(branch.getInstruction());
+            toEnd.add(emitJump(Opcode.JUMP, -1));
+            if (toNext >= 0) {
+                patch(toNext);
+            }
+        }
+        toEnd.forEach(this::patch);
+        temporaryFloor = enclosingFloor;
+    }
+
+    private void compileInto(Expression expression, int target) {
+        var value = compileExpression(expression, target);
+        if (value != target) {
+            emitMove(target, value);
+        }
+    }
+
+    // the value of a void call is null, so an empty frame slot is only reported when moved out of it
+    private int compileLoaded(Expression expression) {
+        var value = compileExpression(expression, -1);
+        if (value < 0 || value >= frameSize) {
+            return value;
+        }
+        var loaded = allocate();
+        emitMove(loaded, value);
+        return loaded;
+    }
+
+    // returns the register holding the value, the target if given and the value had to be computed
+    private int compileExpression(Expression expression, int target) {
+        if (expression.getConstant() != null) {
+            return constant((Value) expression.getConstant());
+        }
+        return switch (expression) {
+            case IntLiteral intLiteral -> constant(IntValue.of(intLiteral.getValue()));
+            case FloatLiteral floatLiteral -> constant(new FloatValue(floatLiteral.getValue()));
+            case StringLiteral stringLiteral -> constant(new StringValue(stringLiteral.getValue()));
+            case BooleanLiteral booleanLiteral -> constant(BooleanValue.of(booleanLiteral.isTruthy()));
+            case Identifier identifier -> {
+                if (identifier.getSlot() != Statement.NO_SLOT) {
+                    yield identifier.getSlot();
+                }
+                emitFail(unresolved(identifier.getValue()));
+                yield destination(target);
+            }
+            case Sum sum -> compileBinary(switch (sum.getOperator()) {
+                case PLUS -> Opcode.ADD;
+                case MINUS -> Opcode.SUBTRACT;
+            }, sum.getLeft(), sum.getRight(), target);
+            case Multiplication multiplication -> compileBinary(switch (multiplication.getOperator()) {
+                case MULTIPLY -> Opcode.MULTIPLY;
+                case DIVIDE -> Opcode.DIVIDE;
+                case MODULO -> Opcode.MODULO;
+            }, multiplication.getLeft(), multiplication.getRight(), target);
+            case Relation relation -> compileBinary(switch (relation.getOperator()) {
+                case EQUALS -> Opcode.EQUAL;
+                case NOT_EQUALS -> Opcode.NOT_EQUAL;
+                case LESS_THAN -> Opcode.LESS_THAN;
+                case GREATER_THAN -> Opcode.GREATER_THAN;
+                case LESS_THAN_OR_EQUALS -> Opcode.LESS_THAN_OR_EQUAL;
+                case GREATER_THAN_OR_EQUALS -> Opcode.GREATER_THAN_OR_EQUAL;
+            }, relation.getLeft(), relation.getRight(), target);
+            case Conjunction conjunction ->
+                    compileLogical(Opcode.JUMP_IF_FALSE, conjunction.getLeft(), conjunction.getRight(), target);
+            case Alternative alternative ->
+                    compileLogical(Opcode.JUMP_IF_TRUE, alternative.getLeft(), alternative.getRight(), target);
+            case Negation negation -> {
+                var operand = compileExpression(negation.getExpression(), -1);
+                var result = destination(target);
+                emit(Opcode.NOT);
+                emitInt(result);
+                emitRegister(operand);
+                yield result;
+            }
+            case Cast cast -> {
+                var operand = compileExpression(cast.getExpression(), -1);
+                var result = destination(target);
+                var castType = switch (cast.getToType()) {
+                    case INT -> CastEvaluator.LegalCastType.INT;
+                    case FLOAT -> CastEvaluator.LegalCastType.FLOAT;
+                    case STRING -> CastEvaluator.LegalCastType.STRING;
+                    case BOOL -> CastEvaluator.LegalCastType.BOOLEAN;
+                };
+                emit(Opcode.CAST);
+                emitInt(result);
+                emitRegister(operand);
+                emitInt(castType.ordinal());
+                yield result;
+            }
+            case DotAccess dotAccess -> {
+                var structure = compileExpression(dotAccess.getExpression(), -1);
+                var result = destination(target);
+                emit(Opcode.FIELD);
+                emitInt(result);
+                emitRegister(structure);
+                emitInt(symbol(dotAccess.getFieldName()));
+                yield result;
+            }
+            case FunctionCall functionCall -> compileCall(functionCall, target);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private int compileBinary(int opcode, Expression left, Expression right, int target) {
+        var leftValue = compileExpression(left, -1);
+        var rightValue = compileExpression(right, -1);
+        var result = destination(target);
+        emit(opcode);
+        emitInt(result);
+        emitRegister(leftValue);
+        emitRegister(rightValue);
+        return result;
+    }
+
+    // the left operand decides alone when the jump is taken, otherwise the right one has to be a boolean
+    private int compileLogical(int shortCircuit, Expression left, Expression right, int target) {
+        var leftValue = compileExpression(left, -1);
+        var toShortCircuit = emitJump(shortCircuit, leftValue);
+        var rightValue = compileExpression(right, -1);
+        var result = destination(target);
+        emit(Opcode.TEST_BOOLEAN);
+        emitInt(result);
+        emitRegister(rightValue);
+        var toEnd = emitJump(Opcode.JUMP, -1);
+        patch(toShortCircuit);
+        emitMove(result, leftValue);
+        patch(toEnd);
+        return result;
+    }
+
+    // arguments are passed in consecutive temporaries
+    private int compileCall(FunctionCall functionCall, int target) {
+        var arguments = functionCall.getArguments();
+        var firstArgument = nextTemporary;
+        for (var i = 0; i < arguments.size(); ++i) {
+            allocate();
+        }
+        for (var i = 0; i < arguments.size(); ++i) {
+            compileInto(arguments.get(i), firstArgument + i);
+        }
+        var result = destination(target);
+        emit(Opcode.CALL);
+        emitInt(result);
+        emitInt(symbol(functionCall.getTarget()));
+        emitInt(firstArgument);
+        emitInt(arguments.size());
+        return result;
+    }
+
+    private int destination(int target) {
+        return target >= 0 ? target : allocate();
+    }
+
+    private int allocate() {
+        var register = nextTemporary++;
+        constantBase = Math.max(constantBase, nextTemporary);
+        return register;
+    }
+
+    // constants are returned as negative numbers until their register is known
+    private int constant(Value value) {
+        var index = constantIndexes.computeIfAbsent(value, v -> {
+            constants.add(v);
+            return constants.size() - 1;
+        });
+        return -index - 1;
+    }
+
+    private int symbol(Object value) {
+        symbols.add(value);
+        return symbols.size() - 1;
+    }
+
+    private String unresolved(String id) {
+        return "Could not resolve variable: \"" + id + "\" in this context";
+    }
+
+    private void emitMove(int target, int source) {
+        emit(Opcode.MOVE);
+        emitInt(target);
+        emitRegister(source);
+    }
+
+    private void emitFail(String message) {
+        emit(Opcode.FAIL);
+        emitInt(symbol(message));
+    }
+
+    // returns the position of the jump target to patch
+    private int emitJump(int opcode, int condition) {
+        emit(opcode);
+        if (opcode != Opcode.JUMP) {
+            emitRegister(condition);
+        }
+        emitInt(-1);
+        return size - 1;
+    }
+
+    private void patch(int position) {
+        code[position] = size;
+    }
+
+    private void emit(int opcode) {
+        emitInt(opcode);
+    }
+
+    private void emitRegister(int register) {
+        if (register < 0) {
+            constantOperands.add(size);
+            emitInt(-register - 1);
+        } else {
+            emitInt(register);
+        }
+    }
+
+    private void emitInt(int value) {
+        if (size == code.length) {
+            code = Arrays.copyOf(code, size * 2);
+        }
+        code[size++] = value;
+    }
+}
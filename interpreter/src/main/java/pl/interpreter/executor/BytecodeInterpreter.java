@@ -0,0 +1,160 @@
+package pl.interpreter.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import pl.interpreter.executor.exceptions.EnvironmentException;
+import pl.interpreter.executor.exceptions.InvalidValueTypeException;
+
+/**
+ * Runs user functions compiled by {@link BytecodeCompiler}, each call over its own register file. Operators go through
+ * {@link OperatorKernels} like in the tree walker, so both engines accept the same programs and fail with the same
+ * errors.
+ */
+class BytecodeInterpreter {
+
+    // operator opcodes are numbered in the order of the operators
+    private static final OperatorKernels.Operator[] OPERATORS = OperatorKernels.Operator.values();
+    private static final CastEvaluator.LegalCastType[] CAST_TYPES = CastEvaluator.LegalCastType.values();
+
+    private final Environment environment;
+    private final boolean verified;
+
+    BytecodeInterpreter(Environment environment, boolean verified) {
+        this.environment = environment;
+        this.verified = verified;
+    }
+
+    // arguments are already validated by the environment
+    Value execute(UserFunction function, List<Value> arguments) {
+        var compiled = environment.compile(function);
+        var registers = compiled.newRegisters();
+        for (var i = 0; i < arguments.size(); ++i) {
+            registers[i] = arguments.get(i);
+        }
+        return run(compiled, registers);
+    }
+
+    private Value run(CompiledFunction function, Value[] registers) {
+        var code = function.code();
+        var symbols = function.symbols();
+        var pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case Opcode.MOVE -> {
+                    registers[code[pc + 1]] = load(registers, code[pc + 2]);
+                    pc += 3;
+                }
+                case Opcode.INITIALIZE -> {
+                    var value = registers[code[pc + 2]];
+                    if (!((ValueType) symbols[code[pc + 3]]).typeOf(value)) {
+                        throw new InvalidValueTypeException(
+                                "Value does not match type of variable \"" + symbols[code[pc + 4]] + "\"");
+                    }
+                    registers[code[pc + 1]] = value;
+                    pc += 5;
+                }
+                case Opcode.ASSIGN -> {
+                    var value = load(registers, code[pc + 2]);
+                    if (!value.getClass().isInstance(registers[code[pc + 1]])) {
+                        throw new EnvironmentException("Changing variable type is forbidden");
+                    }
+                    registers[code[pc + 1]] = value;
+                    pc += 3;
+                }
+                case Opcode.ADD, Opcode.SUBTRACT, Opcode.MULTIPLY, Opcode.DIVIDE, Opcode.MODULO, Opcode.EQUAL,
+                     Opcode.NOT_EQUAL, Opcode.LESS_THAN, Opcode.GREATER_THAN, Opcode.LESS_THAN_OR_EQUAL,
+                     Opcode.GREATER_THAN_OR_EQUAL -> {
+                    registers[code[pc + 1]] = OperatorKernels.apply(OPERATORS[code[pc] - Opcode.ADD],
+                            load(registers, code[pc + 2]), load(registers, code[pc + 3]));
+                    pc += 4;
+                }
+                case Opcode.NOT -> {
+                    registers[code[pc + 1]] = OperatorKernels.negate(load(registers, code[pc + 2]));
+                    pc += 3;
+                }
+                case Opcode.CAST -> {
+                    registers[code[pc + 1]] = new CastEvaluator(load(registers, code[pc + 2]), CAST_TYPES[code[pc + 3]])
+                            .evaluate();
+                    pc += 4;
+                }
+                case Opcode.FIELD -> {
+                    registers[code[pc + 1]] = field(load(registers, code[pc + 2]), (String) symbols[code[pc + 3]]);
+                    pc += 4;
+                }
+                case Opcode.CALL -> {
+                    registers[code[pc + 1]] = call((Function) symbols[code[pc + 2]], registers, code[pc + 3], code[pc + 4]);
+                    pc += 5;
+                }
+                case Opcode.JUMP -> pc = code[pc + 1];
+                case Opcode.JUMP_IF_FALSE -> pc = condition(load(registers, code[pc + 1])) ? pc + 3 : code[pc + 2];
+                case Opcode.JUMP_IF_TRUE -> pc = condition(load(registers, code[pc + 1])) ? code[pc + 2] : pc + 3;
+                case Opcode.TEST_BOOLEAN -> {
+                    var value = load(registers, code[pc + 2]);
+                    condition(value);
+                    registers[code[pc + 1]] = value;
+                    pc += 3;
+                }
+                case Opcode.CHECK_STRUCTURE -> {
+                    if (!(load(registers, code[pc + 1]) instanceof StructureValue)) {
+                        throw new InvalidValueTypeException("Only structures can be matched");
+                    }
+                    pc += 2;
+                }
+                case Opcode.JUMP_UNLESS_STRUCTURE -> {
+                    var structure = (StructureValue) registers[code[pc + 1]];
+                    pc = structure.getStructureName().equals(symbols[code[pc + 2]]) ? pc + 4 : code[pc + 3];
+                }
+                case Opcode.RETURN -> {
+                    return registers[code[pc + 1]];
+                }
+                case Opcode.RETURN_VOID -> {
+                    return null;
+                }
+                case Opcode.FAIL -> throw new EnvironmentException((String) symbols[code[pc + 1]]);
+                default -> throw new IllegalStateException("Unknown opcode: " + code[pc]);
+            }
+        }
+    }
+
+    private Value call(Function function, Value[] registers, int firstArgument, int argumentCount) {
+        if (function instanceof UserFunction userFunction) {
+            if (!verified) {
+                Environment.validateFunctionArguments(userFunction.getParameters(),
+                        Arrays.asList(registers).subList(firstArgument, firstArgument + argumentCount));
+            }
+            var compiled = environment.compile(userFunction);
+            var frame = compiled.newRegisters();
+            System.arraycopy(registers, firstArgument, frame, 0, argumentCount);
+            return run(compiled, frame);
+        }
+        var arguments = new ArrayList<Value>(argumentCount);
+        for (var i = 0; i < argumentCount; ++i) {
+            arguments.add(registers[firstArgument + i]);
+        }
+        return function.execute(arguments);
+    }
+
+    // only frame slots of variables not initialized yet are empty
+    private static Value load(Value[] registers, int register) {
+        var value = registers[register];
+        if (value == null) {
+            throw new EnvironmentException("Variable is not initialized");
+        }
+        return value;
+    }
+
+    private static Value field(Value value, String fieldName) {
+        if (value instanceof StructureValue structure && structure.getFields().get(fieldName) instanceof Value field) {
+            return field;
+        }
+        return new DotAccessEvaluator(value, fieldName).evaluate();
+    }
+
+    private static boolean condition(Value value) {
+        if (!(value instanceof BooleanValue booleanValue)) {
+            throw new InvalidValueTypeException("Expected boolean");
+        }
+        return booleanValue.isTruthy();
+    }
+}
@@ -9,10 +9,52 @@ import pl.interpreter.executor.exceptions.EnvironmentException;
 
 public class CallContext {
     private final List<Scope> scopes;
+    // scopes of verified programs skip checking the type of every write
+    private final boolean verified;
+    // variables resolved to slots live here instead of scopes, null if the context only has scopes
+    private final Value[] frame;
     private final String MISSING_SCOPE_MESSAGE = "Call context does not contain any scope";
 
     public CallContext(List<Scope> scopes) {
+        this(scopes, false);
+    }
+
+    public CallContext(List<Scope> scopes, boolean verified) {
+        this(scopes, verified, null);
+    }
+
+    public CallContext(List<Scope> scopes, boolean verified, Value[] frame) {
         this.scopes = scopes;
+        this.verified = verified;
+        this.frame = frame;
+    }
+
+    public boolean hasFrame() {
+        return frame != null;
+    }
+
+    Value[] getFrame() {
+        return frame;
+    }
+
+    public Value loadSlot(int slot) {
+        var value = frame[slot];
+        if (value == null) {
+            throw new EnvironmentException("Variable is not initialized");
+        }
+        return value;
+    }
+
+    // slots are reused by variables of sibling blocks, so a declaration may change the type held by a slot
+    public void initializeSlot(int slot, Value value) {
+        frame[slot] = value;
+    }
+
+    public void assignSlot(int slot, Value value) {
+        if (!verified && !value.getClass().isInstance(frame[slot])) {
+            throw new EnvironmentException("Changing variable type is forbidden");
+        }
+        frame[slot] = value;
     }
 
     public void openNewScope() {
@@ -34,10 +76,27 @@ public class CallContext {
     }
 
     public void setVariableForClosestScope(String id, Value value) {
-        scopes.reversed().stream()
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException(MISSING_SCOPE_MESSAGE))
-                .setVariable(id, value);
+        setVariable(getClosestScope(), id, value);
+    }
+
+    // writes to the closest scope that already holds the variable
+    public void assignVariable(String id, Value value) {
+        for (var i = scopes.size() - 1; i >= 0; --i) {
+            var scope = scopes.get(i);
+            if (scope.hasVariable(id)) {
+                setVariable(scope, id, value);
+                return;
+            }
+        }
+        throw new EnvironmentException("Could not resolve variable: \"" + id + "\" in this context");
+    }
+
+    private void setVariable(Scope scope, String id, Value value) {
+        if (verified) {
+            scope.putVariable(id, value);
+        } else {
+            scope.setVariable(id, value);
+        }
     }
 
     public Value resolveVariable(String id) {
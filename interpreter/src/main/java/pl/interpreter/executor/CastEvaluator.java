@@ -7,7 +7,7 @@ import pl.interpreter.executor.exceptions.InvalidValueTypeException;
 @AllArgsConstructor
 public class CastEvaluator {
 
-    enum LegalCastType {
+    public enum LegalCastType {
         INT,
         FLOAT,
         STRING,
@@ -29,7 +29,7 @@ public class CastEvaluator {
     private Value validateIntCast() {
         return switch (leftHandSide) {
             case IntValue i -> leftHandSide;
-            case FloatValue f -> new IntValue((int) f.getValue());
+            case FloatValue f -> IntValue.of((int) f.getValue());
             default -> throw new InvalidValueTypeException("Conversion to integer is only allowed for integer and float types");
         };
     }
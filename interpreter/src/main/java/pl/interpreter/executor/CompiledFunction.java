@@ -0,0 +1,11 @@
+package pl.interpreter.executor;
+
+// registers are the frame slots of the function, then temporaries, then constants from constantBase on
+record CompiledFunction(int[] code, Value[] constants, Object[] symbols, int constantBase) {
+
+    Value[] newRegisters() {
+        var registers = new Value[constantBase + constants.length];
+        System.arraycopy(constants, 0, registers, constantBase, constants.length);
+        return registers;
+    }
+}
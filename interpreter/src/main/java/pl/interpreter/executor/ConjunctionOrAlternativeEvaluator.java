@@ -7,7 +7,7 @@ import pl.interpreter.executor.exceptions.InvalidValueTypeException;
 @AllArgsConstructor
 public class ConjunctionOrAlternativeEvaluator {
 
-    enum Operator {
+    public enum Operator {
         CONJUNCTION,
         ALTERNATIVE
     }
@@ -46,8 +46,8 @@ public class ConjunctionOrAlternativeEvaluator {
 
     private Value doConjunction(BooleanValue lhs, BooleanValue rhs) {
         return switch (operator) {
-            case CONJUNCTION -> new BooleanValue(lhs.isTruthy() && rhs.isTruthy());
-            case ALTERNATIVE -> new BooleanValue(lhs.isTruthy() || rhs.isTruthy());
+            case CONJUNCTION -> BooleanValue.of(lhs.isTruthy() && rhs.isTruthy());
+            case ALTERNATIVE -> BooleanValue.of(lhs.isTruthy() || rhs.isTruthy());
         };
     }
 
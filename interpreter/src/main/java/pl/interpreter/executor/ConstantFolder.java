@@ -0,0 +1,241 @@
+package pl.interpreter.executor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Stores the value of every literal, and of every operator whose operands are all constant, on its expression, so
+ * it is computed once instead of on each evaluation. Operators are computed by {@link ExpressionEvaluatingVisitor},
+ * an operator that fails there, like a division by zero, is left as it is and fails when executed. Equal constants
+ * of all functions folded by one folder share a single value.
+ * <p>
+ * Immutable variables initialized with a constant, and never assigned in the function, are propagated: their uses
+ * get the constant and the initialization is left out of the block's live instructions, so it is neither executed nor
+ * given a slot.
+ */
+class ConstantFolder {
+
+    private final Map<Value, Value> pool = new HashMap<>();
+    // only ever visits literals and operators, never needs the environment
+    private final ExpressionEvaluatingVisitor evaluator = new ExpressionEvaluatingVisitor(null);
+    // variables declared in each open scope, null for ones without a constant
+    private final List<Map<String, Value>> scopes = new ArrayList<>();
+    // names written by an assignment or a redeclaration anywhere in the function, never propagated
+    private final Set<String> assigned = new HashSet<>();
+
+    void fold(Block body) {
+        assigned.clear();
+        collectAssigned(body);
+        foldBlock(body);
+    }
+
+    private void foldBlock(Block block) {
+        scopes.add(new HashMap<>());
+        var instructions = new ArrayList<Instruction>(block.getInstructions().size());
+        for (var instruction : block.getInstructions()) {
+            // a propagated initialization has nothing left to execute
+            if (!(instruction instanceof Initialization initialization)) {
+                foldInstruction(instruction);
+            } else if (propagate(initialization)) {
+                continue;
+            }
+            instructions.add(instruction);
+        }
+        scopes.removeLast();
+        // the parsed instructions stay as they are, other passes over the program still need them
+        block.setLiveInstructions(instructions.size() != block.getInstructions().size() ? instructions : null);
+    }
+
+    // returns whether the variable got a constant, its initialization can then be dropped
+    private boolean propagate(Initialization initialization) {
+        var isConstant = foldExpression(initialization.getExpression());
+        var value = (Value) initialization.getExpression().getConstant();
+        // a mismatched type has to fail when executed
+        if (!isConstant
+                || initialization.isVar()
+                || assigned.contains(initialization.getId())
+                || !UserFunctionDefinitionMapper.mapParameterType(
+                        new ParameterType(initialization.getType(), initialization.getUserType())).typeOf(value)) {
+            declare(initialization.getId(), null);
+            return false;
+        }
+        declare(initialization.getId(), value);
+        return true;
+    }
+
+    private void foldInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> foldBlock(block);
+            case Initialization initialization -> propagate(initialization);
+            case Assignment assignment -> foldExpression(assignment.getExpression());
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() != null) {
+                    foldExpression(returnStatement.getExpression());
+                }
+            }
+            case FunctionCall functionCall -> foldExpression(functionCall);
+            case IfStatement ifStatement -> {
+                foldExpression(ifStatement.getExpression());
+                foldInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    foldInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                foldExpression(whileStatement.getExpression());
+                foldInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> {
+                foldExpression(matchStatement.getExpression());
+                for (var branch : matchStatement.getBranches()) {
+                    scopes.add(new HashMap<>());
+                    if (branch.getFieldName() != null) {
+                        declare(branch.getFieldName(), null);
+                    }
+                    foldInstruction(branch.getInstruction());
+                    scopes.removeLast();
+                }
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void collectAssigned(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> {
+                var declared = new HashSet<String>();
+                for (var blockInstruction : block.getInstructions()) {
+                    // declaring a variable again in its block writes the declared one
+                    if (blockInstruction instanceof Initialization initialization
+                            && !declared.add(initialization.getId())) {
+                        assigned.add(initialization.getId());
+                    }
+                    collectAssigned(blockInstruction);
+                }
+            }
+            case Assignment assignment -> assigned.add(assignment.getId());
+            case IfStatement ifStatement -> {
+                collectAssigned(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    collectAssigned(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> collectAssigned(whileStatement.getInstruction());
+            case MatchStatement matchStatement ->
+                    matchStatement.getBranches().forEach(branch -> collectAssigned(branch.getInstruction()));
+            default -> {}
+        }
+    }
+
+    // returns whether the expression got a constant
+    private boolean foldExpression(Expression expression) {
+        return switch (expression) {
+            case IntLiteral intLiteral -> store(intLiteral, IntValue.of(intLiteral.getValue()));
+            case FloatLiteral floatLiteral -> store(floatLiteral, new FloatValue(floatLiteral.getValue()));
+            case StringLiteral stringLiteral -> store(stringLiteral, new StringValue(stringLiteral.getValue()));
+            case BooleanLiteral booleanLiteral -> store(booleanLiteral, BooleanValue.of(booleanLiteral.isTruthy()));
+            case Identifier identifier -> {
+                var value = lookup(identifier.getValue());
+                yield value != null && store(identifier, value);
+            }
+            case Sum sum -> foldBinary(sum, sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> foldBinary(multiplication, multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> foldBinary(relation, relation.getLeft(), relation.getRight());
+            case Conjunction conjunction -> foldLogical(conjunction, conjunction.getLeft(), conjunction.getRight(),
+                    ConjunctionOrAlternativeEvaluator.Operator.CONJUNCTION);
+            case Alternative alternative -> foldLogical(alternative, alternative.getLeft(), alternative.getRight(),
+                    ConjunctionOrAlternativeEvaluator.Operator.ALTERNATIVE);
+            case Negation negation -> foldExpression(negation.getExpression()) && evaluate(negation);
+            case Cast cast -> foldExpression(cast.getExpression()) && evaluate(cast);
+            case DotAccess dotAccess -> {
+                foldExpression(dotAccess.getExpression());
+                yield false;
+            }
+            case FunctionCall functionCall -> {
+                functionCall.getArguments().forEach(this::foldExpression);
+                yield false;
+            }
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private boolean foldBinary(Expression expression, Expression left, Expression right) {
+        var isLeftConstant = foldExpression(left);
+        var isRightConstant = foldExpression(right);
+        return isLeftConstant && isRightConstant && evaluate(expression);
+    }
+
+    // a constant left operand deciding the result makes the whole expression constant, the right one is never run
+    private boolean foldLogical(Expression expression,
+                                Expression left,
+                                Expression right,
+                                ConjunctionOrAlternativeEvaluator.Operator operator) {
+        var isLeftConstant = foldExpression(left);
+        var isRightConstant = foldExpression(right);
+        if (isLeftConstant && !isRightConstant) {
+            return left.getConstant() instanceof BooleanValue lhs
+                    && ConjunctionOrAlternativeEvaluator.shouldShortCircuit(lhs, operator)
+                    && evaluate(expression);
+        }
+        return isLeftConstant && isRightConstant && evaluate(expression);
+    }
+
+    private boolean evaluate(Expression expression) {
+        try {
+            evaluator.visit(expression);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return store(expression, evaluator.getValue());
+    }
+
+    private void declare(String id, Value value) {
+        scopes.getLast().put(id, value);
+    }
+
+    // parameters are in no scope and never constant
+    private Value lookup(String id) {
+        for (var i = scopes.size() - 1; i >= 0; --i) {
+            var scope = scopes.get(i);
+            if (scope.containsKey(id)) {
+                return scope.get(id);
+            }
+        }
+        return null;
+    }
+
+    private boolean store(Expression expression, Value value) {
+        ((Statement) expression).setConstant(pool.computeIfAbsent(value, v -> v));
+        return true;
+    }
+}
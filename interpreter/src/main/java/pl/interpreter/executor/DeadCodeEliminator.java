@@ -0,0 +1,82 @@
+package pl.interpreter.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Removes instructions of a folded function body that can never run from the live instructions of its blocks: the
+ * ones following a return in a block, if statements with a constant condition, replaced by the branch taken, and
+ * loops with a constant false condition. Only instructions held by blocks are removed, others are left as they are.
+ */
+class DeadCodeEliminator {
+
+    // returns whether execution can continue past the end of the block
+    boolean eliminate(Block block) {
+        var live = block.getLiveInstructions();
+        var instructions = new ArrayList<Instruction>(live.size());
+        var isReachable = true;
+        for (var instruction : live) {
+            isReachable = addLive(instruction, instructions);
+            if (!isReachable) {
+                break;
+            }
+        }
+        if (!instructions.equals(live)) {
+            block.setLiveInstructions(instructions);
+        }
+        return isReachable;
+    }
+
+    // adds what is left of the instruction, returns whether instructions following it are reachable
+    private boolean addLive(Instruction instruction, List<Instruction> instructions) {
+        switch (instruction) {
+            case IfStatement ifStatement when ifStatement.getExpression().getConstant() instanceof BooleanValue condition -> {
+                var taken = condition.isTruthy() ? ifStatement.getInstruction() : ifStatement.getElseInstruction();
+                return taken == null || addLive(taken, instructions);
+            }
+            case WhileStatement whileStatement when isFalse(whileStatement.getExpression()) -> {
+                return true;
+            }
+            case ReturnStatement returnStatement -> {
+                instructions.add(returnStatement);
+                return false;
+            }
+            case Block block -> {
+                instructions.add(block);
+                return eliminate(block);
+            }
+            default -> {
+                eliminateNested(instruction);
+                instructions.add(instruction);
+                return true;
+            }
+        }
+    }
+
+    private void eliminateNested(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> eliminate(block);
+            case IfStatement ifStatement -> {
+                eliminateNested(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    eliminateNested(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> eliminateNested(whileStatement.getInstruction());
+            case MatchStatement matchStatement ->
+                    matchStatement.getBranches().forEach(branch -> eliminateNested(branch.getInstruction()));
+            default -> {}
+        }
+    }
+
+    private boolean isFalse(Expression expression) {
+        return expression.getConstant() instanceof BooleanValue condition && !condition.isTruthy();
+    }
+}
@@ -2,27 +2,91 @@ package pl.interpreter.executor;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.stream.IntStream;
 import pl.interpreter.executor.exceptions.EnvironmentException;
 import pl.interpreter.executor.exceptions.InvalidFunctionCallException;
+import pl.interpreter.executor.jit.JitCompiler;
+import pl.interpreter.executor.jit.JitLoop;
+import pl.interpreter.executor.node.NodeFunction;
+import pl.interpreter.parser.Block;
 import pl.interpreter.parser.Definition;
 import pl.interpreter.parser.FunctionDefinition;
 import pl.interpreter.parser.Program;
 import pl.interpreter.parser.StructureDefinition;
 import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+import pl.interpreter.semantic_analyzer.DeadDefinitionEliminator;
+import pl.interpreter.semantic_analyzer.TypeChecker;
 
 public class Environment {
 
+    // calls of a function or iterations of a loop after which the tiered engine compiles it
+    static final int COMPILE_THRESHOLD = 1000;
+
     private final Map<String, Function> functions;
+    private final FunctionLinker linker;
+    private final ConstantFolder folder;
+    private final DeadCodeEliminator eliminator;
+    private final ExecutionEngine engine;
+    // null unless functions are run by the bytecode engine
+    private final BytecodeInterpreter interpreter;
+    // null unless functions are run by the tiered engine
+    private final JitCompiler jit;
+    // loops of the bodies run by the tiered engine, keyed by their statements in this environment's copies
+    private final Map<WhileStatement, HotLoop> loops;
     private final Stack<CallContext> callContexts;
+    // program passed the type checker, dynamic type checks are skipped
+    private final boolean verified;
 
     public Environment(Program program) {
+        this(program, ExecutionEngine.AST);
+    }
+
+    public Environment(Program program, ExecutionEngine engine) {
+        this(program, false, engine);
+    }
+
+    private Environment(Program program, boolean verified, ExecutionEngine engine) {
         functions = new HashMap<>();
         callContexts = new Stack<>();
+        this.verified = verified;
+        linker = new FunctionLinker(functions);
+        folder = new ConstantFolder();
+        eliminator = new DeadCodeEliminator();
+        this.engine = engine;
+        interpreter = engine == ExecutionEngine.BYTECODE ? new BytecodeInterpreter(this, verified) : null;
+        jit = engine == ExecutionEngine.TIERED ? new JitCompiler() : null;
+        loops = new IdentityHashMap<>();
         loadDefinitions(program);
+        prepareParsedFunctions(program);
+    }
+
+    public static Environment verified(Program program) {
+        return verified(program, ExecutionEngine.AST);
+    }
+
+    public static Environment verified(Program program, ExecutionEngine engine) {
+        new TypeChecker(program).check();
+        return new Environment(program, true, engine);
+    }
+
+    public static Environment forEntryPoint(Program program, String entryPoint) {
+        return forEntryPoint(program, entryPoint, ExecutionEngine.AST);
+    }
+
+    // loads only definitions reachable from the entry point, the others are neither linked nor prepared
+    public static Environment forEntryPoint(Program program, String entryPoint, ExecutionEngine engine) {
+        return new Environment(new DeadDefinitionEliminator(program).eliminate(entryPoint), engine);
+    }
+
+    public boolean isVerified() {
+        return verified;
     }
 
     public CallContext getCurrentContext() {
@@ -30,13 +94,28 @@ public class Environment {
     }
 
     public void pushNewContext() {
-        callContexts.push(new CallContext(new ArrayList<>()));
+        callContexts.push(new CallContext(new ArrayList<>(), verified));
     }
 
     public void popContext() {
         callContexts.pop();
     }
 
+    public Value callFunction(String functionId, List<Value> arguments) {
+        var function = functions.get(functionId);
+        if (function == null) {
+            throw new InvalidFunctionCallException("Function \"" + functionId + "\" does not exist");
+        }
+        return callFunction(function, arguments);
+    }
+
+    public Value callFunction(Function function, List<Value> arguments) {
+        if (function instanceof UserFunction userFunction) {
+            return executeUserFunction(userFunction, arguments);
+        }
+        return function.execute(arguments);
+    }
+
     public Value executeUserFunction(String functionId, List<Value> arguments) {
         var function = functions.get(functionId);
         if (function == null) {
@@ -45,23 +124,93 @@ public class Environment {
         if (!(function instanceof UserFunction) ) {
             throw new InvalidFunctionCallException(functionId + " is not a function");
         }
-        var userFunction = (UserFunction) function;
-        pushNewContext();
-        var returnValue = executeFunctionBody(userFunction, arguments);
-        popContext();
-        return returnValue;
+        return executeUserFunction((UserFunction) function, arguments);
+    }
+
+    ExpressionEvaluatingVisitor createExpressionEvaluator() {
+        return verified ? new VerifiedExpressionEvaluatingVisitor(this) : new ExpressionEvaluatingVisitor(this);
+    }
+
+    private Value executeUserFunction(UserFunction function, List<Value> arguments) {
+        if (!function.isPrepared()) {
+            function.prepare(this::prepare);
+        }
+        if (!verified) {
+            validateFunctionArguments(function.getParameters(), arguments);
+        }
+        return switch (engine) {
+            case AST -> walk(function, arguments);
+            case BYTECODE -> interpreter.execute(function, arguments);
+            case NODES -> nodes(function).call(arguments);
+            case TIERED -> executeTiered(function, arguments);
+        };
+    }
+
+    private Value executeTiered(UserFunction function, List<Value> arguments) {
+        var jitted = function.getJitted();
+        if (jitted == null && function.countInvocation(COMPILE_THRESHOLD)) {
+            jitted = jit.compile(function).orElse(null);
+            function.setJitted(jitted);
+        }
+        return jitted != null ? jitted.call(arguments) : walk(function, arguments);
     }
 
-    private Value executeFunctionBody(UserFunction function, List<Value> arguments) {
-        getCurrentContext().openNewScope();
-        validateFunctionArguments(function.getParameters(), arguments);
+    private Value walk(UserFunction function, List<Value> arguments) {
+        // parameters take the first slots of the frame
+        var frame = new Value[function.getFrameSize()];
+        for (var i = 0; i < arguments.size(); ++i) {
+            frame[i] = arguments.get(i);
+        }
+        callContexts.push(new CallContext(new ArrayList<>(), verified, frame));
         var visitor = new UserFunctionCallingVisitor(this);
         visitor.visit(function.getBlock());
-        getCurrentContext().closeClosestScope();
+        popContext();
         return visitor.getReturnedValue();
     }
 
-    private void validateFunctionArguments(List<FunctionParameter> parameters, List<Value> arguments) {
+    // null while the loop is run by the tree walker
+    JitLoop compiledLoop(WhileStatement statement) {
+        if (jit == null) {
+            return null;
+        }
+        var loop = loops.computeIfAbsent(statement, s -> new HotLoop());
+        if (loop.compiled != null) {
+            return loop.compiled;
+        }
+        var context = getCurrentContext();
+        if (!loop.countBackEdge(COMPILE_THRESHOLD) || !context.hasFrame()) {
+            return null;
+        }
+        loop.compiled = jit.compileLoop(statement, context.getFrame()).orElse(null);
+        return loop.compiled;
+    }
+
+    CompiledFunction compile(UserFunction function) {
+        var compiled = function.getCompiled();
+        if (compiled != null) {
+            return compiled;
+        }
+        if (!function.isPrepared()) {
+            function.prepare(this::prepare);
+        }
+        return function.compile(verified);
+    }
+
+    private NodeFunction nodes(UserFunction function) {
+        var nodes = function.getNodes();
+        if (nodes != null) {
+            return nodes;
+        }
+        if (!function.isPrepared()) {
+            function.prepare(this::prepare);
+        }
+        return function.buildNodes(verified, this::nodes);
+    }
+
+    public static void validateFunctionArguments(List<FunctionParameter> parameters, List<Value> arguments) {
+        if (parameters.size() != arguments.size()) {
+            throw new InvalidFunctionCallException("Argument count does not match parameters");
+        }
         var isValid = IntStream.range(0, parameters.size())
                 .mapToObj(i -> parameters.get(i).valueType().typeOf(arguments.get(i)))
                 .allMatch(Boolean::booleanValue);
@@ -71,24 +220,59 @@ public class Environment {
     }
 
     private void loadDefinitions(Program program) {
+        // structures need the variants listing them before they are mapped
+        var variantNames = new HashMap<String, Set<String>>();
+        for (var definition : program.getDefinitions().values()) {
+            if (definition instanceof VariantDefinition variant) {
+                variant.getStructureIds().forEach(id -> variantNames.computeIfAbsent(id, k -> new HashSet<>())
+                        .add(variant.getId()));
+            }
+        }
         program.getDefinitions()
                 .values()
-                .forEach(this::loadDefinition);
+                .forEach(d -> loadDefinition(d, variantNames));
     }
 
-    private void loadDefinition(Definition d) {
+    private void loadDefinition(Definition d, Map<String, Set<String>> variantNames) {
         switch (d) {
             case FunctionDefinition fd -> registerFunction(d.getId(), UserFunctionDefinitionMapper.map(fd));
-            case StructureDefinition sd -> registerFunction(sd.getId(), StructureToFunctionMapper.map(sd));
-            case VariantDefinition vd -> {/*TODO: add variants support*/}
+            case StructureDefinition sd -> registerFunction(sd.getId(),
+                    StructureToFunctionMapper.map(sd, variantNames.getOrDefault(sd.getId(), Set.of())));
+            case VariantDefinition vd -> {/* variants only give their structures a type */}
             default -> throw new IllegalStateException("Unimplemented definition: " + d);
         }
     }
 
+    // lazily parsed bodies are prepared on their first call, parsing them here would defeat the laziness
+    private void prepareParsedFunctions(Program program) {
+        program.getDefinitions().values().stream()
+                .filter(d -> d instanceof FunctionDefinition fd && fd.isBlockParsed())
+                .forEach(d -> ((UserFunction) functions.get(d.getId())).prepare(this::prepare));
+    }
+
+    private void prepare(Block block) {
+        linker.link(block);
+        folder.fold(block);
+        eliminator.eliminate(block);
+    }
+
     private void registerFunction(String id, Function function) {
         if (functions.containsKey(id)) {
             throw new EnvironmentException("Function with name \"" + id + "\" already exists");
         }
         functions.put(id, function);
     }
+
+    private static final class HotLoop {
+
+        // iterations run by the tree walker until the loop is hot
+        private int backEdges;
+        // set once the loop is compiled
+        private JitLoop compiled;
+
+        // true only for the iteration reaching the threshold
+        private boolean countBackEdge(int threshold) {
+            return backEdges < threshold && ++backEdges == threshold;
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package pl.interpreter.executor;
+
+public enum ExecutionEngine {
+    // walks the tree of each function with the visitors
+    AST,
+    // compiles each function to register bytecode on its first call
+    BYTECODE,
+    // builds a tree of nodes for each function on its first call, operators specialize for the types they see
+    NODES,
+    // walks the tree of each function until it is called often enough to be compiled to JVM bytecode
+    TIERED
+}
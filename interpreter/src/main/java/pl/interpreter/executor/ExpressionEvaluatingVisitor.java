@@ -1,5 +1,6 @@
 package pl.interpreter.executor;
 
+import java.util.ArrayList;
 import lombok.Getter;
 import pl.interpreter.parser.Alternative;
 import pl.interpreter.parser.BooleanLiteral;
@@ -15,6 +16,7 @@ import pl.interpreter.parser.IntLiteral;
 import pl.interpreter.parser.Multiplication;
 import pl.interpreter.parser.Negation;
 import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.Statement;
 import pl.interpreter.parser.StringLiteral;
 import pl.interpreter.parser.Sum;
 import pl.interpreter.parser.UnknownNodeException;
@@ -22,7 +24,7 @@ import pl.interpreter.parser.UnknownNodeException;
 @Getter
 public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
 
-    private Value value;
+    protected Value value;
     private final Environment environment;
 
     public ExpressionEvaluatingVisitor(Environment environment) {
@@ -31,6 +33,11 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
 
     @Override
     public void visit(Expression expression) {
+        var constant = expression.getConstant();
+        if (constant != null) {
+            value = (Value) constant;
+            return;
+        }
         switch (expression) {
             case Alternative alternative -> visit(alternative);
             case Cast cast -> visit(cast);
@@ -55,7 +62,7 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
         visit(alternative.getLeft());
         var lhs = value;
         if (ConjunctionOrAlternativeEvaluator.shouldShortCircuit(value, ConjunctionOrAlternativeEvaluator.Operator.ALTERNATIVE)) {
-            value = new BooleanValue(true);
+            value = BooleanValue.TRUE;
             return;
         }
         visit(alternative.getRight());
@@ -64,7 +71,7 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
 
     @Override
     public void visit(BooleanLiteral booleanLiteral) {
-        value = new BooleanValue(booleanLiteral.isTruthy());
+        value = BooleanValue.of(booleanLiteral.isTruthy());
     }
 
     @Override
@@ -84,7 +91,7 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
         visit(conjunction.getLeft());
         var lhs = value;
         if (ConjunctionOrAlternativeEvaluator.shouldShortCircuit(value, ConjunctionOrAlternativeEvaluator.Operator.CONJUNCTION)) {
-            value = new BooleanValue(false);
+            value = BooleanValue.FALSE;
             return;
         }
         visit(conjunction.getRight());
@@ -104,17 +111,28 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
 
     @Override
     public void visit(FunctionCall functionCall) {
-
+        var arguments = new ArrayList<Value>(functionCall.getArguments().size());
+        for (var argument : functionCall.getArguments()) {
+            visit(argument);
+            arguments.add(value);
+        }
+        var target = (Function) functionCall.getTarget();
+        value = target == null
+                ? environment.callFunction(functionCall.getFunctionId(), arguments)
+                : environment.callFunction(target, arguments);
     }
 
     @Override
     public void visit(Identifier identifier) {
-        value = environment.getCurrentContext().resolveVariable(identifier.getValue());
+        var context = environment.getCurrentContext();
+        value = identifier.getSlot() == Statement.NO_SLOT
+                ? context.resolveVariable(identifier.getValue())
+                : context.loadSlot(identifier.getSlot());
     }
 
     @Override
     public void visit(IntLiteral intLiteral) {
-        value = new IntValue(intLiteral.getValue());
+        value = IntValue.of(intLiteral.getValue());
     }
 
     @Override
@@ -123,17 +141,17 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
         var leftHandSide = value;
         visit(multiplication.getRight());
         var operator = switch (multiplication.getOperator()) {
-            case MULTIPLY -> MultiplicationEvaluator.Operator.MULTIPLICATION;
-            case DIVIDE -> MultiplicationEvaluator.Operator.DIVISION;
-            case MODULO -> MultiplicationEvaluator.Operator.MODULO;
+            case MULTIPLY -> OperatorKernels.Operator.MULTIPLY;
+            case DIVIDE -> OperatorKernels.Operator.DIVIDE;
+            case MODULO -> OperatorKernels.Operator.MODULO;
         };
-        value = new MultiplicationEvaluator(leftHandSide, value, operator).evaluate();
+        value = OperatorKernels.apply(operator, leftHandSide, value);
     }
 
     @Override
     public void visit(Negation negation) {
         visit(negation.getExpression());
-        value = new NegationEvaluator(value).evaluate();
+        value = OperatorKernels.negate(value);
     }
 
     @Override
@@ -142,14 +160,14 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
         var leftHandSide = value;
         visit(relation.getRight());
         var operator = switch (relation.getOperator()) {
-            case EQUALS -> RelationEvaluator.Operator.EQUAL;
-            case NOT_EQUALS -> RelationEvaluator.Operator.NOT_EQUAL;
-            case LESS_THAN -> RelationEvaluator.Operator.LESS_THAN;
-            case GREATER_THAN -> RelationEvaluator.Operator.GREATER_THAN;
-            case LESS_THAN_OR_EQUALS -> RelationEvaluator.Operator.LESS_THAN_OR_EQUAL;
-            case GREATER_THAN_OR_EQUALS -> RelationEvaluator.Operator.GREATER_THAN_OR_EQUAL;
+            case EQUALS -> OperatorKernels.Operator.EQUAL;
+            case NOT_EQUALS -> OperatorKernels.Operator.NOT_EQUAL;
+            case LESS_THAN -> OperatorKernels.Operator.LESS_THAN;
+            case GREATER_THAN -> OperatorKernels.Operator.GREATER_THAN;
+            case LESS_THAN_OR_EQUALS -> OperatorKernels.Operator.LESS_THAN_OR_EQUAL;
+            case GREATER_THAN_OR_EQUALS -> OperatorKernels.Operator.GREATER_THAN_OR_EQUAL;
         };
-        value = new RelationEvaluator(leftHandSide, value, operator).evaluate();
+        value = OperatorKernels.apply(operator, leftHandSide, value);
     }
 
     @Override
@@ -163,9 +181,9 @@ public class ExpressionEvaluatingVisitor implements ExpressionVisitor {
         var leftHandSide = value;
         visit(sum.getRight());
         var operator = switch (sum.getOperator()) {
-            case PLUS -> SumEvaluator.Operator.PLUS;
-            case MINUS -> SumEvaluator.Operator.MINUS;
+            case PLUS -> OperatorKernels.Operator.ADD;
+            case MINUS -> OperatorKernels.Operator.SUBTRACT;
         };
-        value = new SumEvaluator(leftHandSide, value, operator).evaluate();
+        value = OperatorKernels.apply(operator, leftHandSide, value);
     }
 }
@@ -1,8 +1,9 @@
 package pl.interpreter.executor;
 
 import java.util.List;
+import pl.interpreter.parser.CallTarget;
 
-public interface Function {
+public interface Function extends CallTarget {
     Value execute(List<Value> arguments);
     ValueType getReturnType();
 }
@@ -0,0 +1,102 @@
+package pl.interpreter.executor;
+
+import lombok.experimental.UtilityClass;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+// each environment links, folds and resolves its own copy of a body, the parsed program is shared and never written
+@UtilityClass
+class FunctionBodyCopier {
+
+    Block copy(Block block) {
+        return new Block(block.getInstructions().stream().map(FunctionBodyCopier::copy).toList(),
+                block.getPackedPosition());
+    }
+
+    private Instruction copy(Instruction instruction) {
+        return switch (instruction) {
+            case Block block -> copy(block);
+            case Assignment assignment -> new Assignment(assignment.getId(), assignment.getSymbol(),
+                    copy(assignment.getExpression()), assignment.getPackedPosition());
+            case Initialization initialization -> new Initialization(initialization.getId(),
+                    initialization.getUserType(), initialization.getType(), initialization.isVar(),
+                    copy(initialization.getExpression()), initialization.getPackedPosition());
+            case IfStatement ifStatement -> new IfStatement(copy(ifStatement.getExpression()),
+                    copy(ifStatement.getInstruction()),
+                    ifStatement.getElseInstruction() != null ? copy(ifStatement.getElseInstruction()) : null,
+                    ifStatement.getPackedPosition());
+            case WhileStatement whileStatement -> new WhileStatement(copy(whileStatement.getExpression()),
+                    copy(whileStatement.getInstruction()), whileStatement.getPackedPosition());
+            case MatchStatement matchStatement -> new MatchStatement(copy(matchStatement.getExpression()),
+                    matchStatement.getBranches().stream().map(FunctionBodyCopier::copy).toList(),
+                    matchStatement.getPackedPosition());
+            case ReturnStatement returnStatement -> new ReturnStatement(
+                    returnStatement.getExpression() != null ? copy(returnStatement.getExpression()) : null,
+                    returnStatement.getPackedPosition());
+            case FunctionCall functionCall -> copy(functionCall);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private MatchBranch copy(MatchBranch branch) {
+        return new MatchBranch(branch.getStructureId(), branch.getFieldName(), copy(branch.getInstruction()),
+                branch.getPackedPosition());
+    }
+
+    private Expression copy(Expression expression) {
+        return switch (expression) {
+            case IntLiteral intLiteral -> new IntLiteral(intLiteral.getValue(), intLiteral.getPackedPosition());
+            case FloatLiteral floatLiteral -> new FloatLiteral(floatLiteral.getValue(), floatLiteral.getPackedPosition());
+            case StringLiteral stringLiteral -> new StringLiteral(stringLiteral.getValue(), stringLiteral.getPackedPosition());
+            case BooleanLiteral booleanLiteral -> new BooleanLiteral(booleanLiteral.isTruthy(),
+                    booleanLiteral.getPackedPosition());
+            case Identifier identifier -> new Identifier(identifier.getValue(), identifier.getSymbol(),
+                    identifier.getPackedPosition());
+            case Sum sum -> new Sum(copy(sum.getLeft()), sum.getOperator(), copy(sum.getRight()),
+                    sum.getPackedPosition());
+            case Multiplication multiplication -> new Multiplication(copy(multiplication.getLeft()),
+                    multiplication.getOperator(), copy(multiplication.getRight()), multiplication.getPackedPosition());
+            case Relation relation -> new Relation(copy(relation.getLeft()), relation.getOperator(),
+                    copy(relation.getRight()), relation.getPackedPosition());
+            case Conjunction conjunction -> new Conjunction(copy(conjunction.getLeft()), copy(conjunction.getRight()),
+                    conjunction.getPackedPosition());
+            case Alternative alternative -> new Alternative(copy(alternative.getLeft()), copy(alternative.getRight()),
+                    alternative.getPackedPosition());
+            case Negation negation -> new Negation(copy(negation.getExpression()), negation.getPackedPosition());
+            case Cast cast -> new Cast(copy(cast.getExpression()), cast.getToType(), cast.getPackedPosition());
+            case DotAccess dotAccess -> new DotAccess(copy(dotAccess.getExpression()), dotAccess.getFieldName(),
+                    dotAccess.getFieldSymbol(), dotAccess.getPackedPosition());
+            case FunctionCall functionCall -> copy(functionCall);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private FunctionCall copy(FunctionCall functionCall) {
+        return new FunctionCall(functionCall.getFunctionId(), functionCall.getFunctionSymbol(),
+                functionCall.getArguments().stream().map(FunctionBodyCopier::copy).toList(),
+                functionCall.getPackedPosition());
+    }
+}
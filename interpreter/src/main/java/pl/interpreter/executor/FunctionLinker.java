@@ -0,0 +1,111 @@
+package pl.interpreter.executor;
+
+import java.util.Map;
+import pl.interpreter.executor.exceptions.InvalidFunctionCallException;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Binds every call in a block to the function it calls, so executing it needs no lookup by name. Calls of
+ * functions missing from the environment are reported here, before the block runs.
+ */
+class FunctionLinker {
+
+    private final Map<String, Function> functions;
+
+    FunctionLinker(Map<String, Function> functions) {
+        this.functions = functions;
+    }
+
+    void link(Block block) {
+        block.getInstructions().forEach(this::linkInstruction);
+    }
+
+    private void linkInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> link(block);
+            case Initialization initialization -> linkExpression(initialization.getExpression());
+            case Assignment assignment -> linkExpression(assignment.getExpression());
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() != null) {
+                    linkExpression(returnStatement.getExpression());
+                }
+            }
+            case FunctionCall functionCall -> linkExpression(functionCall);
+            case IfStatement ifStatement -> {
+                linkExpression(ifStatement.getExpression());
+                linkInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    linkInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                linkExpression(whileStatement.getExpression());
+                linkInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> {
+                linkExpression(matchStatement.getExpression());
+                matchStatement.getBranches().forEach(branch -> linkInstruction(branch.getInstruction()));
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void linkExpression(Expression expression) {
+        switch (expression) {
+            case Identifier identifier -> {}
+            case IntLiteral intLiteral -> {}
+            case FloatLiteral floatLiteral -> {}
+            case StringLiteral stringLiteral -> {}
+            case BooleanLiteral booleanLiteral -> {}
+            case Sum sum -> linkBinary(sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> linkBinary(multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> linkBinary(relation.getLeft(), relation.getRight());
+            case Conjunction conjunction -> linkBinary(conjunction.getLeft(), conjunction.getRight());
+            case Alternative alternative -> linkBinary(alternative.getLeft(), alternative.getRight());
+            case Negation negation -> linkExpression(negation.getExpression());
+            case Cast cast -> linkExpression(cast.getExpression());
+            case DotAccess dotAccess -> linkExpression(dotAccess.getExpression());
+            case FunctionCall functionCall -> {
+                functionCall.getArguments().forEach(this::linkExpression);
+                functionCall.setTarget(find(functionCall.getFunctionId()));
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void linkBinary(Expression left, Expression right) {
+        linkExpression(left);
+        linkExpression(right);
+    }
+
+    private Function find(String functionId) {
+        var function = functions.get(functionId);
+        if (function == null) {
+            throw new InvalidFunctionCallException("Function \"" + functionId + "\" does not exist");
+        }
+        return function;
+    }
+}
@@ -9,5 +9,21 @@ import lombok.Setter;
 @AllArgsConstructor
 @EqualsAndHashCode
 public class IntValue implements Value {
+
+    // loop counters, indices and most small results fall in this range
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final IntValue[] CACHE = new IntValue[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (var i = 0; i < CACHE.length; ++i) {
+            CACHE[i] = new IntValue(CACHE_LOW + i);
+        }
+    }
+
     private int value;
+
+    public static IntValue of(int value) {
+        return value >= CACHE_LOW && value <= CACHE_HIGH ? CACHE[value - CACHE_LOW] : new IntValue(value);
+    }
 }
@@ -43,7 +43,7 @@ public class MultiplicationEvaluator {
 
     private Value doMultiply(IntValue lhs) {
         return switch (rightHandSide) {
-            case IntValue rhs -> new IntValue(lhs.getValue() * rhs.getValue());
+            case IntValue rhs -> IntValue.of(lhs.getValue() * rhs.getValue());
             case FloatValue rhs -> new FloatValue(lhs.getValue() * rhs.getValue());
             default -> throw new IllegalStateException("Unexpected value: " + rightHandSide);
         };
@@ -60,7 +60,7 @@ public class MultiplicationEvaluator {
     private Value doDivide(IntValue lhs) {
         validateNotZero(rightHandSide);
         return switch (rightHandSide) {
-            case IntValue rhs -> new IntValue(lhs.getValue() / rhs.getValue());
+            case IntValue rhs -> IntValue.of(lhs.getValue() / rhs.getValue());
             case FloatValue rhs -> new FloatValue(lhs.getValue() / rhs.getValue());
             default -> throw new IllegalStateException("Unexpected value: " + rightHandSide);
         };
@@ -78,7 +78,7 @@ public class MultiplicationEvaluator {
     private Value doModulo(IntValue lhs) {
         validateNotZero(rightHandSide);
         return switch (rightHandSide) {
-            case IntValue rhs -> new IntValue(lhs.getValue() % rhs.getValue());
+            case IntValue rhs -> IntValue.of(lhs.getValue() % rhs.getValue());
             case FloatValue rhs -> new FloatValue(lhs.getValue() % rhs.getValue());
             default -> throw new IllegalStateException("Unexpected value: " + rightHandSide);
         };
@@ -10,7 +10,7 @@ public class NegationEvaluator {
 
     public Value evaluate() {
         return switch (operand) {
-            case BooleanValue b -> new BooleanValue(!(b.isTruthy()));
+            case BooleanValue b -> BooleanValue.of(!(b.isTruthy()));
             default -> throw new InvalidValueTypeException("Expected boolean");
         };
     }
@@ -0,0 +1,37 @@
+package pl.interpreter.executor;
+
+// operands follow the opcode in the code array, "r" marks a register, "s" an index into the symbols
+final class Opcode {
+
+    private Opcode() {
+    }
+
+    static final int MOVE = 0;                  // r target, r source
+    static final int INITIALIZE = 1;            // r target, r source, s type, s variable name
+    static final int ASSIGN = 2;                // r target, r source
+    // operators follow the order of OperatorKernels.Operator
+    static final int ADD = 3;                   // r target, r left, r right
+    static final int SUBTRACT = 4;
+    static final int MULTIPLY = 5;
+    static final int DIVIDE = 6;
+    static final int MODULO = 7;
+    static final int EQUAL = 8;
+    static final int NOT_EQUAL = 9;
+    static final int LESS_THAN = 10;
+    static final int GREATER_THAN = 11;
+    static final int LESS_THAN_OR_EQUAL = 12;
+    static final int GREATER_THAN_OR_EQUAL = 13;
+    static final int NOT = 14;                  // r target, r operand
+    static final int CAST = 15;                 // r target, r operand, cast type ordinal
+    static final int FIELD = 16;                // r target, r structure, s field name
+    static final int CALL = 17;                 // r target, s function, r first argument, argument count
+    static final int JUMP = 18;                 // code index
+    static final int JUMP_IF_FALSE = 19;        // r condition, code index
+    static final int JUMP_IF_TRUE = 20;         // r condition, code index
+    static final int TEST_BOOLEAN = 21;         // r target, r operand
+    static final int CHECK_STRUCTURE = 22;      // r structure
+    static final int JUMP_UNLESS_STRUCTURE = 23; // r structure, s structure name, code index
+    static final int RETURN = 24;               // r value
+    static final int RETURN_VOID = 25;
+    static final int FAIL = 26;                 // s message
+}
@@ -0,0 +1,161 @@
+package pl.interpreter.executor;
+
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException;
+
+/**
+ * Arithmetic and relational operators as stateless kernels looked up by the operator and the types of both operands.
+ * Kernels return cached booleans and small ints, so most operations allocate nothing. Operand types without a kernel
+ * are passed to the evaluators, which report the errors. Every interpreting engine computes operators here, the node
+ * engine calls the int and float kernels directly once its nodes know their operand types.
+ */
+public final class OperatorKernels {
+
+    public enum Operator {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE,
+        MODULO,
+        EQUAL,
+        NOT_EQUAL,
+        LESS_THAN,
+        GREATER_THAN,
+        LESS_THAN_OR_EQUAL,
+        GREATER_THAN_OR_EQUAL
+    }
+
+    @FunctionalInterface
+    private interface Kernel {
+        Value apply(Value lhs, Value rhs);
+    }
+
+    private static final int TYPE_COUNT = ValueType.Type.values().length;
+    private static final Kernel[] KERNELS = new Kernel[Operator.values().length * TYPE_COUNT * TYPE_COUNT];
+
+    static {
+        register(Operator.ADD, ValueType.Type.STRING, ValueType.Type.STRING,
+                (lhs, rhs) -> new StringValue(((StringValue) lhs).getValue() + ((StringValue) rhs).getValue()));
+        // an int operand mixed with a float one is widened, like in the evaluators
+        var numbers = new ValueType.Type[] {ValueType.Type.INT, ValueType.Type.FLOAT};
+        for (var operator : Operator.values()) {
+            register(operator, ValueType.Type.INT, ValueType.Type.INT,
+                    (lhs, rhs) -> applyInt(operator, integer(lhs), integer(rhs)));
+            for (var left : numbers) {
+                for (var right : numbers) {
+                    if (left != ValueType.Type.INT || right != ValueType.Type.INT) {
+                        register(operator, left, right, (lhs, rhs) -> applyFloat(operator, real(lhs), real(rhs)));
+                    }
+                }
+            }
+        }
+    }
+
+    private OperatorKernels() {
+    }
+
+    public static Value apply(Operator operator, Value lhs, Value rhs) {
+        var kernel = KERNELS[index(operator, typeOf(lhs), typeOf(rhs))];
+        return kernel != null ? kernel.apply(lhs, rhs) : evaluate(operator, lhs, rhs);
+    }
+
+    // for callers which already know both operands are ints
+    public static Value applyInt(Operator operator, int lhs, int rhs) {
+        return switch (operator) {
+            case ADD -> IntValue.of(lhs + rhs);
+            case SUBTRACT -> IntValue.of(lhs - rhs);
+            case MULTIPLY -> IntValue.of(lhs * rhs);
+            case DIVIDE -> IntValue.of(lhs / nonZero(rhs));
+            case MODULO -> IntValue.of(lhs % nonZero(rhs));
+            case EQUAL -> BooleanValue.of(lhs == rhs);
+            case NOT_EQUAL -> BooleanValue.of(lhs != rhs);
+            case LESS_THAN -> BooleanValue.of(lhs < rhs);
+            case GREATER_THAN -> BooleanValue.of(lhs > rhs);
+            case LESS_THAN_OR_EQUAL -> BooleanValue.of(lhs <= rhs);
+            case GREATER_THAN_OR_EQUAL -> BooleanValue.of(lhs >= rhs);
+        };
+    }
+
+    // for callers which already know both operands are numbers, ints widened to floats
+    public static Value applyFloat(Operator operator, float lhs, float rhs) {
+        return switch (operator) {
+            case ADD -> new FloatValue(lhs + rhs);
+            case SUBTRACT -> new FloatValue(lhs - rhs);
+            case MULTIPLY -> new FloatValue(lhs * rhs);
+            case DIVIDE -> new FloatValue(lhs / nonZero(rhs));
+            case MODULO -> new FloatValue(lhs % nonZero(rhs));
+            case EQUAL -> BooleanValue.of(lhs == rhs);
+            case NOT_EQUAL -> BooleanValue.of(lhs != rhs);
+            case LESS_THAN -> BooleanValue.of(lhs < rhs);
+            case GREATER_THAN -> BooleanValue.of(lhs > rhs);
+            case LESS_THAN_OR_EQUAL -> BooleanValue.of(lhs <= rhs);
+            case GREATER_THAN_OR_EQUAL -> BooleanValue.of(lhs >= rhs);
+        };
+    }
+
+    public static Value negate(Value operand) {
+        return operand instanceof BooleanValue b
+                ? BooleanValue.of(!b.isTruthy())
+                : new NegationEvaluator(operand).evaluate();
+    }
+
+    private static void register(Operator operator, ValueType.Type left, ValueType.Type right, Kernel kernel) {
+        KERNELS[index(operator, left, right)] = kernel;
+    }
+
+    private static int index(Operator operator, ValueType.Type left, ValueType.Type right) {
+        return (operator.ordinal() * TYPE_COUNT + left.ordinal()) * TYPE_COUNT + right.ordinal();
+    }
+
+    private static ValueType.Type typeOf(Value value) {
+        return switch (value) {
+            case IntValue i -> ValueType.Type.INT;
+            case FloatValue f -> ValueType.Type.FLOAT;
+            case StringValue s -> ValueType.Type.STRING;
+            case BooleanValue b -> ValueType.Type.BOOLEAN;
+            case StructureValue s -> ValueType.Type.USER_TYPE;
+            default -> throw new IllegalStateException("Unexpected implementation: " + value);
+        };
+    }
+
+    // operands without a kernel are invalid, the evaluators fail with their usual errors
+    private static Value evaluate(Operator operator, Value lhs, Value rhs) {
+        return switch (operator) {
+            case ADD -> new SumEvaluator(lhs, rhs, SumEvaluator.Operator.PLUS).evaluate();
+            case SUBTRACT -> new SumEvaluator(lhs, rhs, SumEvaluator.Operator.MINUS).evaluate();
+            case MULTIPLY -> new MultiplicationEvaluator(lhs, rhs, MultiplicationEvaluator.Operator.MULTIPLICATION)
+                    .evaluate();
+            case DIVIDE -> new MultiplicationEvaluator(lhs, rhs, MultiplicationEvaluator.Operator.DIVISION).evaluate();
+            case MODULO -> new MultiplicationEvaluator(lhs, rhs, MultiplicationEvaluator.Operator.MODULO).evaluate();
+            case EQUAL -> new RelationEvaluator(lhs, rhs, RelationEvaluator.Operator.EQUAL).evaluate();
+            case NOT_EQUAL -> new RelationEvaluator(lhs, rhs, RelationEvaluator.Operator.NOT_EQUAL).evaluate();
+            case LESS_THAN -> new RelationEvaluator(lhs, rhs, RelationEvaluator.Operator.LESS_THAN).evaluate();
+            case GREATER_THAN -> new RelationEvaluator(lhs, rhs, RelationEvaluator.Operator.GREATER_THAN).evaluate();
+            case LESS_THAN_OR_EQUAL -> new RelationEvaluator(lhs, rhs, RelationEvaluator.Operator.LESS_THAN_OR_EQUAL)
+                    .evaluate();
+            case GREATER_THAN_OR_EQUAL -> new RelationEvaluator(lhs, rhs,
+                    RelationEvaluator.Operator.GREATER_THAN_OR_EQUAL).evaluate();
+        };
+    }
+
+    private static int integer(Value value) {
+        return ((IntValue) value).getValue();
+    }
+
+    private static float real(Value value) {
+        return value instanceof IntValue i ? i.getValue() : ((FloatValue) value).getValue();
+    }
+
+    private static int nonZero(int value) {
+        if (value == 0) {
+            throw new ExpressionEvaluationException("Division by zero is forbidden");
+        }
+        return value;
+    }
+
+    private static float nonZero(float value) {
+        if (Float.compare(value, 0.0f) == 0) {
+            throw new ExpressionEvaluationException("Division by zero is forbidden");
+        }
+        return value;
+    }
+}
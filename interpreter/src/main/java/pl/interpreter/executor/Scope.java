@@ -27,6 +27,15 @@ public class Scope {
         return variables.get(id);
     }
 
+    // for verified programs, the type checker already rejected writes that change a variable's type
+    public void putVariable(String id, Value value) {
+        variables.put(id, value);
+    }
+
+    public boolean hasVariable(String id) {
+        return variables.containsKey(id);
+    }
+
     public void checkIfVariableTypeIsTheSame(String id, Value value) {
         if (!value.getClass().isInstance(variables.get(id))) {
             throw new EnvironmentException("Changing variable type is forbidden");
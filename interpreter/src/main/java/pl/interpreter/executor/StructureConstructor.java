@@ -3,6 +3,7 @@ package pl.interpreter.executor;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.IntStream;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,11 +17,12 @@ public class StructureConstructor implements Function {
     private final String structureName;
     private final List<String> fieldNames;
     private final List<ValueType> expectedParameterTypes;
+    private final Set<String> variantNames;
 
     @Override
     public Value execute(List<Value> arguments) {
         validate(arguments);
-        return new StructureValue(structureName, getFields(arguments));
+        return new StructureValue(structureName, getFields(arguments), variantNames);
     }
 
     @Override
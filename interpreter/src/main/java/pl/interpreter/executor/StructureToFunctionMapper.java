@@ -1,6 +1,7 @@
 package pl.interpreter.executor;
 
 import java.util.List;
+import java.util.Set;
 import lombok.experimental.UtilityClass;
 import pl.interpreter.parser.Parameter;
 import pl.interpreter.parser.ParameterType;
@@ -10,7 +11,12 @@ import pl.interpreter.parser.StructureDefinition;
 public class StructureToFunctionMapper {
 
     public Function map(StructureDefinition definition) {
-        return new StructureConstructor(definition.getId(), getFieldNames(definition), getParameterTypes(definition));
+        return map(definition, Set.of());
+    }
+
+    public Function map(StructureDefinition definition, Set<String> variantNames) {
+        return new StructureConstructor(definition.getId(), getFieldNames(definition), getParameterTypes(definition),
+                variantNames);
     }
 
     private List<String> getFieldNames(StructureDefinition definition) {
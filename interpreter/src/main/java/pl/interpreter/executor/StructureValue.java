@@ -2,6 +2,7 @@ package pl.interpreter.executor;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -10,6 +11,12 @@ import lombok.Getter;
 public class StructureValue implements Value {
     private final String structureName;
     private final Map<String, Value> fields;
+    // variants listing the structure, the value has their types too
+    private final Set<String> variantNames;
+
+    public StructureValue(String structureName, Map<String, Value> fields) {
+        this(structureName, fields, Set.of());
+    }
 
     public Optional<Value> getField(String id) {
         return Optional.ofNullable(fields.get(id));
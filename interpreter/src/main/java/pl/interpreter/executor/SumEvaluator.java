@@ -71,7 +71,7 @@ public class SumEvaluator {
 
     private Value doAdd(IntValue lhs) {
         return switch (rightHandSide) {
-            case IntValue i -> new IntValue(lhs.getValue() + i.getValue());
+            case IntValue i -> IntValue.of(lhs.getValue() + i.getValue());
             case FloatValue f -> new FloatValue(lhs.getValue() + f.getValue());
             default -> throw new ExpressionEvaluationException();
         };
@@ -87,7 +87,7 @@ public class SumEvaluator {
 
     private Value doSub(IntValue lhs) {
         return switch (rightHandSide) {
-            case IntValue i -> new IntValue(lhs.getValue() - i.getValue());
+            case IntValue i -> IntValue.of(lhs.getValue() - i.getValue());
             case FloatValue f -> new FloatValue(lhs.getValue() - f.getValue());
             default -> throw new ExpressionEvaluationException();
         };
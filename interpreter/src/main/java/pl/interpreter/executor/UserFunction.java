@@ -1,17 +1,103 @@
 package pl.interpreter.executor;
 
 import java.util.List;
-import lombok.AllArgsConstructor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
 import lombok.Getter;
+import pl.interpreter.executor.jit.JitFunction;
+import pl.interpreter.executor.node.FunctionNodes;
+import pl.interpreter.executor.node.NodeBuilder;
+import pl.interpreter.executor.node.NodeFunction;
 import pl.interpreter.parser.Block;
+import pl.interpreter.semantic_analyzer.VariableResolver;
 
 @Getter
-@AllArgsConstructor
 public class UserFunction implements Function {
 
     private ValueType returnType;
     private List<FunctionParameter> parameters;
-    private Block block;
+    // lazily parsed definitions get their block on the first call
+    @Getter(AccessLevel.NONE)
+    private Supplier<Block> body;
+    // copy of the parsed block owned by the environment, set when the function is prepared
+    @Getter(AccessLevel.NONE)
+    private volatile Block prepared;
+    // the block is prepared and its variables resolved to frame slots before the first call
+    private volatile int frameSize = -1;
+    // compiled on the first call with the bytecode engine
+    @Getter(AccessLevel.NONE)
+    private volatile CompiledFunction compiled;
+    // built on the first call with the node engine
+    @Getter(AccessLevel.NONE)
+    private volatile NodeFunction nodes;
+    // calls counted by the tiered engine until the function is hot enough to compile
+    @Getter(AccessLevel.NONE)
+    private int invocations;
+    @Getter(AccessLevel.NONE)
+    private volatile JitFunction jitted;
+
+    public UserFunction(ValueType returnType, List<FunctionParameter> parameters, Supplier<Block> body) {
+        this.returnType = returnType;
+        this.parameters = parameters;
+        this.body = body;
+    }
+
+    // the parsed block until the function is prepared, then the copy the engines run
+    public Block getBlock() {
+        var block = prepared;
+        return block != null ? block : body.get();
+    }
+
+    public boolean isPrepared() {
+        return frameSize >= 0;
+    }
+
+    synchronized void prepare(Consumer<Block> preparation) {
+        if (frameSize < 0) {
+            var block = FunctionBodyCopier.copy(body.get());
+            preparation.accept(block);
+            var parameterIds = parameters.stream().map(FunctionParameter::id).toList();
+            var size = new VariableResolver().resolve(parameterIds, block);
+            prepared = block;
+            frameSize = size;
+        }
+    }
+
+    CompiledFunction getCompiled() {
+        return compiled;
+    }
+
+    synchronized CompiledFunction compile(boolean verified) {
+        if (compiled == null) {
+            compiled = new BytecodeCompiler(frameSize, verified).compile(getBlock());
+        }
+        return compiled;
+    }
+
+    NodeFunction getNodes() {
+        return nodes;
+    }
+
+    synchronized NodeFunction buildNodes(boolean verified, FunctionNodes functionNodes) {
+        if (nodes == null) {
+            nodes = new NodeBuilder(frameSize, verified, functionNodes).build(getBlock());
+        }
+        return nodes;
+    }
+
+    // true only for the call reaching the threshold
+    boolean countInvocation(int threshold) {
+        return invocations < threshold && ++invocations == threshold;
+    }
+
+    JitFunction getJitted() {
+        return jitted;
+    }
+
+    void setJitted(JitFunction jitted) {
+        this.jitted = jitted;
+    }
 
     @Override
     public Value execute(List<Value> arguments) {
@@ -1,14 +1,21 @@
 package pl.interpreter.executor;
 
+import java.util.HashMap;
 import lombok.Getter;
+import pl.interpreter.executor.exceptions.InvalidValueTypeException;
 import pl.interpreter.parser.Assignment;
 import pl.interpreter.parser.Block;
+import pl.interpreter.parser.Expression;
 import pl.interpreter.parser.FunctionCall;
 import pl.interpreter.parser.FunctionVisitor;
 import pl.interpreter.parser.IfStatement;
 import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
 import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.ParameterType;
 import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.UnknownNodeException;
 import pl.interpreter.parser.WhileStatement;
 
 public class UserFunctionCallingVisitor implements FunctionVisitor {
@@ -16,48 +23,154 @@ public class UserFunctionCallingVisitor implements FunctionVisitor {
     Environment environment;
     @Getter
     Value returnedValue;
+    private final ExpressionEvaluatingVisitor expressionEvaluator;
+    // set by a return statement, remaining instructions of the function are skipped
+    private boolean returned;
 
     public UserFunctionCallingVisitor(Environment environment) {
         this.environment = environment;
+        this.expressionEvaluator = environment.createExpressionEvaluator();
     }
 
     @Override
     public void visit(Block block) {
-
+        // variables of resolved functions live in the frame, blocks need no scope of their own
+        var context = environment.getCurrentContext();
+        var opensScope = !context.hasFrame();
+        if (opensScope) {
+            context.openNewScope();
+        }
+        for (var instruction : block.getLiveInstructions()) {
+            visit(instruction);
+            if (returned) {
+                break;
+            }
+        }
+        if (opensScope) {
+            context.closeClosestScope();
+        }
     }
 
     @Override
     public void visit(FunctionCall functionCall) {
-
+        evaluate(functionCall);
     }
 
     @Override
     public void visit(Assignment assignment) {
-
+        var value = evaluate(assignment.getExpression());
+        var context = environment.getCurrentContext();
+        if (assignment.getSlot() == Statement.NO_SLOT) {
+            context.assignVariable(assignment.getId(), value);
+        } else {
+            context.assignSlot(assignment.getSlot(), value);
+        }
     }
 
     @Override
     public void visit(Initialization initialization) {
-
+        var value = evaluate(initialization.getExpression());
+        if (!environment.isVerified()) {
+            var type = UserFunctionDefinitionMapper.mapParameterType(
+                    new ParameterType(initialization.getType(), initialization.getUserType()));
+            if (!type.typeOf(value)) {
+                throw new InvalidValueTypeException("Value does not match type of variable \"" + initialization.getId() + "\"");
+            }
+        }
+        var context = environment.getCurrentContext();
+        if (initialization.getSlot() == Statement.NO_SLOT) {
+            context.setVariableForClosestScope(initialization.getId(), value);
+        } else if (initialization.isRedeclaration()) {
+            context.assignSlot(initialization.getSlot(), value);
+        } else {
+            context.initializeSlot(initialization.getSlot(), value);
+        }
     }
 
     @Override
-    public void visit(ReturnStatement Statement) {
-
+    public void visit(ReturnStatement statement) {
+        if (statement.getExpression() != null) {
+            returnedValue = evaluate(statement.getExpression());
+        }
+        returned = true;
     }
 
     @Override
     public void visit(IfStatement statement) {
-
+        if (evaluateCondition(statement.getExpression())) {
+            visit(statement.getInstruction());
+        } else if (statement.getElseInstruction() != null) {
+            visit(statement.getElseInstruction());
+        }
     }
 
     @Override
     public void visit(WhileStatement statement) {
-
+        while (!returned && evaluateCondition(statement.getExpression())) {
+            visit(statement.getInstruction());
+            var compiledLoop = returned ? null : environment.compiledLoop(statement);
+            if (compiledLoop != null) {
+                // the compiled loop continues from the next test of the condition on the variables of the frame
+                var returnedValues = new Value[1];
+                returned = compiledLoop.run(environment.getCurrentContext().getFrame(), returnedValues);
+                returnedValue = returnedValues[0];
+                return;
+            }
+        }
     }
 
     @Override
     public void visit(MatchStatement statement) {
+        var value = evaluate(statement.getExpression());
+        if (!(value instanceof StructureValue structure)) {
+            throw new InvalidValueTypeException("Only structures can be matched");
+        }
+        for (var branch : statement.getBranches()) {
+            if (branch.getStructureId() == null || branch.getStructureId().equals(structure.getStructureName())) {
+                var context = environment.getCurrentContext();
+                if (context.hasFrame()) {
+                    if (branch.getSlot() != Statement.NO_SLOT) {
+                        context.initializeSlot(branch.getSlot(), structure);
+                    }
+                    visit(branch.getInstruction());
+                    return;
+                }
+                var variables = new HashMap<String, Value>();
+                if (branch.getFieldName() != null) {
+                    variables.put(branch.getFieldName(), structure);
+                }
+                context.openNewScope(variables);
+                visit(branch.getInstruction());
+                context.closeClosestScope();
+                return;
+            }
+        }
+    }
+
+    private void visit(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> visit(block);
+            case FunctionCall functionCall -> visit(functionCall);
+            case Assignment assignment -> visit(assignment);
+            case Initialization initialization -> visit(initialization);
+            case ReturnStatement returnStatement -> visit(returnStatement);
+            case IfStatement ifStatement -> visit(ifStatement);
+            case WhileStatement whileStatement -> visit(whileStatement);
+            case MatchStatement matchStatement -> visit(matchStatement);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private Value evaluate(Expression expression) {
+        expressionEvaluator.visit(expression);
+        return expressionEvaluator.getValue();
+    }
 
+    private boolean evaluateCondition(Expression expression) {
+        var value = evaluate(expression);
+        if (!environment.isVerified() && !(value instanceof BooleanValue)) {
+            throw new InvalidValueTypeException("Expected boolean");
+        }
+        return ((BooleanValue) value).isTruthy();
     }
 }
@@ -15,7 +15,7 @@ public class UserFunctionDefinitionMapper {
         functionDefinition.getReturnType();
         return new UserFunction(mapReturnType(functionDefinition.getReturnType()),
                 mapParameters(functionDefinition.getParameters()),
-                functionDefinition.getBlock());
+                functionDefinition::getBlock);
     }
 
     private ValueType mapReturnType(FunctionReturnType type) {
@@ -33,7 +33,7 @@ public class UserFunctionDefinitionMapper {
         return astParameters.stream().map((param) -> new FunctionParameter(param.getId(), mapParameterType(param.getType()))).toList();
     }
 
-    private ValueType mapParameterType(ParameterType parameterType) {
+    public ValueType mapParameterType(ParameterType parameterType) {
         return switch (parameterType.variableType()) {
             case INT -> new ValueType(ValueType.Type.INT);
             case FLOAT -> new ValueType(ValueType.Type.FLOAT);
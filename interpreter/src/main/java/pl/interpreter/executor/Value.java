@@ -1,3 +1,5 @@
 package pl.interpreter.executor;
 
-public interface Value {}
+import pl.interpreter.parser.Constant;
+
+public interface Value extends Constant {}
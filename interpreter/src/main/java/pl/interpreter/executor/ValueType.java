@@ -25,6 +25,8 @@ public class ValueType {
             case FloatValue f -> type == Type.FLOAT;
             case StringValue s -> type == Type.STRING;
             case BooleanValue b -> type == Type.BOOLEAN;
+            case StructureValue s -> type == Type.USER_TYPE
+                    && (userType.equals(s.getStructureName()) || s.getVariantNames().contains(userType));
             default -> throw new IllegalStateException("Unexpected implementation: " + value);
         };
     }
@@ -0,0 +1,33 @@
+package pl.interpreter.executor;
+
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Conjunction;
+
+/**
+ * Evaluates expressions of programs that passed the type checker. Logical operators unwrap their operands directly
+ * instead of validating them, other operators go through the same kernels as in unchecked programs.
+ */
+public class VerifiedExpressionEvaluatingVisitor extends ExpressionEvaluatingVisitor {
+
+    public VerifiedExpressionEvaluatingVisitor(Environment environment) {
+        super(environment);
+    }
+
+    @Override
+    public void visit(Alternative alternative) {
+        visit(alternative.getLeft());
+        if (((BooleanValue) value).isTruthy()) {
+            return;
+        }
+        visit(alternative.getRight());
+    }
+
+    @Override
+    public void visit(Conjunction conjunction) {
+        visit(conjunction.getLeft());
+        if (!((BooleanValue) value).isTruthy()) {
+            return;
+        }
+        visit(conjunction.getRight());
+    }
+}
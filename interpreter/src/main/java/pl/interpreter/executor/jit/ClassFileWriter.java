@@ -0,0 +1,82 @@
+package pl.interpreter.executor.jit;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Writes a class holding only static methods. The class file version predates stack map frames, so the code of the
+ * methods is checked by the verifier inferring types and needs no frames.
+ */
+class ClassFileWriter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final String name;
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private int methodCount;
+
+    ClassFileWriter(String name) {
+        this.name = name;
+    }
+
+    ConstantPool getPool() {
+        return pool;
+    }
+
+    void addMethod(String methodName, String descriptor, boolean isPublic, CodeWriter code, int maxLocals) {
+        var bytes = code.toByteArray();
+        if (bytes.length > 0xFFFF) {
+            throw new UnsupportedCodeException("Function is too large");
+        }
+        writeShort(methods, (isPublic ? ACC_PUBLIC : ACC_PRIVATE) | ACC_STATIC);
+        writeShort(methods, pool.utf8(methodName));
+        writeShort(methods, pool.utf8(descriptor));
+        writeShort(methods, 1);
+        writeShort(methods, pool.utf8("Code"));
+        // stacks, locals and lengths of the code and its empty exception table and attributes
+        writeInt(methods, 12 + bytes.length);
+        writeShort(methods, code.getMaxStack());
+        writeShort(methods, maxLocals);
+        writeInt(methods, bytes.length);
+        methods.writeBytes(bytes);
+        writeShort(methods, 0);
+        writeShort(methods, 0);
+        ++methodCount;
+    }
+
+    byte[] toByteArray() {
+        var thisClass = pool.classReference(name);
+        var superClass = pool.classReference("java/lang/Object");
+        var out = new ByteArrayOutputStream();
+        writeInt(out, MAGIC);
+        writeShort(out, 0);
+        writeShort(out, VERSION);
+        writeShort(out, pool.size());
+        out.writeBytes(pool.toByteArray());
+        writeShort(out, ACC_FINAL | ACC_SUPER);
+        writeShort(out, thisClass);
+        writeShort(out, superClass);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, methodCount);
+        out.writeBytes(methods.toByteArray());
+        writeShort(out, 0);
+        return out.toByteArray();
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        writeShort(out, value >>> 16);
+        writeShort(out, value);
+    }
+}
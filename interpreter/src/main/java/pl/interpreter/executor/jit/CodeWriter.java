@@ -0,0 +1,192 @@
+package pl.interpreter.executor.jit;
+
+import java.util.Arrays;
+
+/**
+ * Writes the code of a single method. The depth of the operand stack is tracked to compute its maximum, jumps to
+ * labels not placed yet are patched once they are.
+ */
+class CodeWriter {
+
+    static final int ACONST_NULL = 1;
+    static final int ICONST_0 = 3;
+    static final int BIPUSH = 16;
+    static final int SIPUSH = 17;
+    static final int LDC = 18;
+    static final int LDC_W = 19;
+    static final int ILOAD = 21;
+    static final int FLOAD = 23;
+    static final int ALOAD = 25;
+    static final int AALOAD = 50;
+    static final int ISTORE = 54;
+    static final int FSTORE = 56;
+    static final int AASTORE = 83;
+    static final int POP = 87;
+    static final int SWAP = 95;
+    static final int IADD = 96;
+    static final int FADD = 98;
+    static final int ISUB = 100;
+    static final int FSUB = 102;
+    static final int IMUL = 104;
+    static final int FMUL = 106;
+    static final int IDIV = 108;
+    static final int FDIV = 110;
+    static final int IREM = 112;
+    static final int FREM = 114;
+    static final int IXOR = 130;
+    static final int I2F = 134;
+    static final int F2I = 139;
+    static final int FCMPL = 149;
+    static final int FCMPG = 150;
+    static final int IFEQ = 153;
+    static final int IFNE = 154;
+    static final int IFLT = 155;
+    static final int IFGE = 156;
+    static final int IFGT = 157;
+    static final int IFLE = 158;
+    static final int IF_ICMPEQ = 159;
+    static final int IF_ICMPNE = 160;
+    static final int IF_ICMPLT = 161;
+    static final int IF_ICMPGE = 162;
+    static final int IF_ICMPGT = 163;
+    static final int IF_ICMPLE = 164;
+    static final int GOTO = 167;
+    static final int IRETURN = 172;
+    static final int FRETURN = 174;
+    static final int ARETURN = 176;
+    static final int RETURN = 177;
+    static final int INVOKEVIRTUAL = 182;
+    static final int INVOKESTATIC = 184;
+    static final int CHECKCAST = 192;
+
+    private final ConstantPool pool;
+    private byte[] code = new byte[64];
+    private int size;
+    private int stack;
+    private int maxStack;
+
+    CodeWriter(ConstantPool pool) {
+        this.pool = pool;
+    }
+
+    // stack change is the number of values pushed less the number of values popped
+    void instruction(int opcode, int stackChange) {
+        writeByte(opcode);
+        changeStack(stackChange);
+    }
+
+    void local(int opcode, int local, int stackChange) {
+        if (local > 0xFF) {
+            throw new UnsupportedCodeException("Too many variables");
+        }
+        writeByte(opcode);
+        writeByte(local);
+        changeStack(stackChange);
+    }
+
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            instruction(ICONST_0 + value, 1);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            writeByte(BIPUSH);
+            writeByte(value);
+            changeStack(1);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            writeByte(SIPUSH);
+            writeShort(value);
+            changeStack(1);
+        } else {
+            pushConstant(pool.integer(value));
+        }
+    }
+
+    void pushFloat(float value) {
+        pushConstant(pool.floating(value));
+    }
+
+    void method(int opcode, String owner, String name, String descriptor, int stackChange) {
+        writeByte(opcode);
+        writeShort(pool.methodReference(owner, name, descriptor));
+        changeStack(stackChange);
+    }
+
+    void type(int opcode, String internalName, int stackChange) {
+        writeByte(opcode);
+        writeShort(pool.classReference(internalName));
+        changeStack(stackChange);
+    }
+
+    void jump(int opcode, Label label, int stackChange) {
+        var start = size;
+        writeByte(opcode);
+        changeStack(stackChange);
+        label.stack = stack;
+        if (label.position == Label.UNPLACED) {
+            label.jumps.add(size);
+            writeShort(0);
+        } else {
+            writeOffset(size, label.position - start);
+            size += 2;
+        }
+    }
+
+    // code after an unconditional jump continues with the stack the jumps to the label had
+    void place(Label label) {
+        label.position = size;
+        if (label.stack != Label.UNPLACED) {
+            stack = label.stack;
+        }
+        for (var position : label.jumps) {
+            writeOffset(position, size - (position - 1));
+        }
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(code, size);
+    }
+
+    private void pushConstant(int index) {
+        if (index <= 0xFF) {
+            writeByte(LDC);
+            writeByte(index);
+        } else {
+            writeByte(LDC_W);
+            writeShort(index);
+        }
+        changeStack(1);
+    }
+
+    private void changeStack(int change) {
+        stack += change;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void writeOffset(int position, int offset) {
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new UnsupportedCodeException("Function is too large");
+        }
+        ensureCapacity(position + 2);
+        code[position] = (byte) (offset >> 8);
+        code[position + 1] = (byte) offset;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(size + 1);
+        code[size++] = (byte) value;
+    }
+
+    private void writeShort(int value) {
+        writeByte(value >> 8);
+        writeByte(value);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > code.length) {
+            code = Arrays.copyOf(code, Math.max(capacity, code.length * 2));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package pl.interpreter.executor.jit;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import pl.interpreter.executor.FunctionParameter;
+import pl.interpreter.executor.UserFunction;
+import pl.interpreter.executor.Value;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Class compiled for a hot function. Every user function it calls, directly or not, gets a static method of the
+ * class, so calls between them are plain static calls. The entry method unboxes the arguments, calls the method of
+ * the hot function and boxes its result. A hot loop is compiled to an entry method working on the frame of the tree
+ * walker.
+ */
+class CompilationUnit {
+
+    static final String ENTRY = "entry";
+    static final String ENTRY_DESCRIPTOR = "([Lpl/interpreter/executor/Value;)Lpl/interpreter/executor/Value;";
+    static final String LOOP_ENTRY_DESCRIPTOR = "([Lpl/interpreter/executor/Value;[Lpl/interpreter/executor/Value;)Z";
+
+    private final String className;
+    private final ClassFileWriter classFile;
+    private final Map<UserFunction, String> methods = new HashMap<>();
+    private final Queue<UserFunction> pending = new ArrayDeque<>();
+
+    CompilationUnit(String className) {
+        this.className = className;
+        this.classFile = new ClassFileWriter(className);
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    ConstantPool getPool() {
+        return classFile.getPool();
+    }
+
+    byte[] compile(UserFunction function) {
+        var method = methodOf(function);
+        compilePending();
+        classFile.addMethod(ENTRY, ENTRY_DESCRIPTOR, true, generateEntry(function, method), 1);
+        return classFile.toByteArray();
+    }
+
+    byte[] compileLoop(WhileStatement loop, Value[] frame) {
+        var code = new FunctionGenerator(this, frame.length).generateLoop(loop, frame);
+        classFile.addMethod(ENTRY, LOOP_ENTRY_DESCRIPTOR, true, code, frame.length + 2);
+        compilePending();
+        return classFile.toByteArray();
+    }
+
+    // functions not called yet are left for the interpreter to prepare
+    String methodOf(UserFunction function) {
+        var method = methods.get(function);
+        if (method != null) {
+            return method;
+        }
+        if (!function.isPrepared()) {
+            throw new UnsupportedCodeException("Called function is not prepared");
+        }
+        descriptor(function);
+        method = "function" + methods.size();
+        methods.put(function, method);
+        pending.add(function);
+        return method;
+    }
+
+    static String descriptor(UserFunction function) {
+        var descriptor = new StringBuilder("(");
+        function.getParameters().forEach(parameter -> descriptor.append(parameterType(parameter).getDescriptor()));
+        return descriptor.append(')').append(returnType(function).getDescriptor()).toString();
+    }
+
+    static JvmType parameterType(FunctionParameter parameter) {
+        var type = JvmType.of(parameter.valueType());
+        if (type == null || type == JvmType.VOID) {
+            throw new UnsupportedCodeException("Unsupported parameter type");
+        }
+        return type;
+    }
+
+    static JvmType returnType(UserFunction function) {
+        var type = JvmType.of(function.getReturnType());
+        if (type == null) {
+            throw new UnsupportedCodeException("Unsupported return type");
+        }
+        return type;
+    }
+
+    private void compilePending() {
+        while (!pending.isEmpty()) {
+            var next = pending.remove();
+            var code = new FunctionGenerator(this, next).generate(next.getBlock());
+            classFile.addMethod(methods.get(next), descriptor(next), false, code, next.getFrameSize());
+        }
+    }
+
+    private CodeWriter generateEntry(UserFunction function, String method) {
+        var code = new CodeWriter(getPool());
+        var parameters = function.getParameters();
+        for (var i = 0; i < parameters.size(); ++i) {
+            code.local(CodeWriter.ALOAD, 0, 1);
+            code.pushInt(i);
+            code.instruction(CodeWriter.AALOAD, -1);
+            FunctionGenerator.unbox(code, parameterType(parameters.get(i)));
+        }
+        var returnType = returnType(function);
+        code.method(CodeWriter.INVOKESTATIC, className, method, descriptor(function),
+                (returnType == JvmType.VOID ? 0 : 1) - parameters.size());
+        if (returnType == JvmType.VOID) {
+            code.instruction(CodeWriter.ACONST_NULL, 1);
+        } else {
+            FunctionGenerator.box(code, returnType);
+        }
+        code.instruction(CodeWriter.ARETURN, -1);
+        return code;
+    }
+}
@@ -0,0 +1,119 @@
+package pl.interpreter.executor.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// names written to the pool are plain ascii, so they need no modified utf-8 encoding
+class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int CLASS = 7;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private int count = 1;
+
+    int utf8(String value) {
+        var index = indexes.get("utf8 " + value);
+        if (index != null) {
+            return index;
+        }
+        var encoded = value.getBytes(StandardCharsets.US_ASCII);
+        bytes.write(UTF8);
+        writeShort(encoded.length);
+        bytes.writeBytes(encoded);
+        return add("utf8 " + value);
+    }
+
+    int integer(int value) {
+        var index = indexes.get("int " + value);
+        if (index != null) {
+            return index;
+        }
+        bytes.write(INTEGER);
+        writeInt(value);
+        return add("int " + value);
+    }
+
+    int floating(float value) {
+        var bits = Float.floatToRawIntBits(value);
+        var index = indexes.get("float " + bits);
+        if (index != null) {
+            return index;
+        }
+        bytes.write(FLOAT);
+        writeInt(bits);
+        return add("float " + bits);
+    }
+
+    int classReference(String internalName) {
+        var index = indexes.get("class " + internalName);
+        if (index != null) {
+            return index;
+        }
+        var name = utf8(internalName);
+        bytes.write(CLASS);
+        writeShort(name);
+        return add("class " + internalName);
+    }
+
+    int methodReference(String owner, String name, String descriptor) {
+        var key = "method " + owner + "." + name + descriptor;
+        var index = indexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        var ownerIndex = classReference(owner);
+        var nameAndType = nameAndType(name, descriptor);
+        bytes.write(METHOD_REF);
+        writeShort(ownerIndex);
+        writeShort(nameAndType);
+        return add(key);
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        var key = "nameAndType " + name + descriptor;
+        var index = indexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        var nameIndex = utf8(name);
+        var descriptorIndex = utf8(descriptor);
+        bytes.write(NAME_AND_TYPE);
+        writeShort(nameIndex);
+        writeShort(descriptorIndex);
+        return add(key);
+    }
+
+    private int add(String key) {
+        if (count > 0xFFFF) {
+            throw new UnsupportedCodeException("Too many constants");
+        }
+        indexes.put(key, count);
+        return count++;
+    }
+
+    private void writeShort(int value) {
+        bytes.write(value >>> 8);
+        bytes.write(value);
+    }
+
+    private void writeInt(int value) {
+        writeShort(value >>> 16);
+        writeShort(value);
+    }
+}
@@ -0,0 +1,452 @@
+package pl.interpreter.executor.jit;
+
+import pl.interpreter.executor.BooleanValue;
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.UserFunction;
+import pl.interpreter.executor.Value;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.RelationalOperator;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Generates the JVM code of a prepared user function. Frame slots become JVM locals holding ints, floats and
+ * booleans, types of values are inferred from the declarations of variables and functions, and anything not
+ * provably typed the way the interpreter would accept it makes the function unsupported. Values produced by
+ * compiled code therefore pass all the checks the interpreter makes, except for divisions by zero, which are
+ * checked at run time. A hot loop is compiled on its own, with the types of the variables it uses taken from the
+ * frame it is entered with.
+ */
+class FunctionGenerator {
+
+    private static final String RUNTIME = "pl/interpreter/executor/jit/JitRuntime";
+
+    private final CompilationUnit unit;
+    private final CodeWriter code;
+    // type of the variable declared last in each slot
+    private final JvmType[] slotTypes;
+    // null for a loop, which returns whether the function returned and passes the value through an array
+    private final JvmType returnType;
+    // a loop gets the frame and the array for the returned value in the first locals
+    private final int firstLocal;
+
+    FunctionGenerator(CompilationUnit unit, UserFunction function) {
+        this.unit = unit;
+        this.code = new CodeWriter(unit.getPool());
+        this.slotTypes = new JvmType[function.getFrameSize()];
+        this.returnType = CompilationUnit.returnType(function);
+        this.firstLocal = 0;
+        var parameters = function.getParameters();
+        for (var i = 0; i < parameters.size(); ++i) {
+            slotTypes[i] = CompilationUnit.parameterType(parameters.get(i));
+        }
+    }
+
+    FunctionGenerator(CompilationUnit unit, int frameSize) {
+        this.unit = unit;
+        this.code = new CodeWriter(unit.getPool());
+        this.slotTypes = new JvmType[frameSize];
+        this.returnType = null;
+        this.firstLocal = 2;
+    }
+
+    CodeWriter generate(Block body) {
+        if (generateBlock(body)) {
+            if (returnType != JvmType.VOID) {
+                throw new UnsupportedCodeException("Function can end without returning a value");
+            }
+            code.instruction(CodeWriter.RETURN, 0);
+        }
+        return code;
+    }
+
+    // the loop continues from the next test of its condition, assigned variables are written back when it ends
+    CodeWriter generateLoop(WhileStatement loop, Value[] frame) {
+        var variables = new LoopVariables(loop);
+        for (var slot : variables.getLiveSlots()) {
+            var type = JvmType.of(frame[slot]);
+            if (type == null) {
+                throw new UnsupportedCodeException("Unsupported variable type");
+            }
+            code.local(CodeWriter.ALOAD, 0, 1);
+            code.pushInt(slot);
+            code.instruction(CodeWriter.AALOAD, -1);
+            unbox(code, type);
+            store(slot, type);
+            slotTypes[slot] = type;
+        }
+        if (generateWhile(loop)) {
+            for (var slot : variables.getLiveSlots()) {
+                if (variables.isAssigned(slot)) {
+                    code.local(CodeWriter.ALOAD, 0, 1);
+                    code.pushInt(slot);
+                    load(slot, slotTypes[slot]);
+                    box(code, slotTypes[slot]);
+                    code.instruction(CodeWriter.AASTORE, -3);
+                }
+            }
+            code.pushInt(0);
+            code.instruction(CodeWriter.IRETURN, -1);
+        }
+        return code;
+    }
+
+    static void unbox(CodeWriter code, JvmType type) {
+        var box = switch (type) {
+            case INT -> "pl/interpreter/executor/IntValue";
+            case FLOAT -> "pl/interpreter/executor/FloatValue";
+            case BOOLEAN -> "pl/interpreter/executor/BooleanValue";
+            case VOID -> throw new IllegalStateException("Void has no value");
+        };
+        code.type(CodeWriter.CHECKCAST, box, 0);
+        code.method(CodeWriter.INVOKEVIRTUAL, box, type == JvmType.BOOLEAN ? "isTruthy" : "getValue",
+                "()" + type.getDescriptor(), 0);
+    }
+
+    static void box(CodeWriter code, JvmType type) {
+        if (type == JvmType.VOID) {
+            throw new UnsupportedCodeException("Value of a void function is used");
+        }
+        code.method(CodeWriter.INVOKESTATIC, RUNTIME, "box",
+                "(" + type.getDescriptor() + ")Lpl/interpreter/executor/Value;", 0);
+    }
+
+    // returns whether execution can continue past the instruction
+    private boolean generateInstruction(Instruction instruction) {
+        return switch (instruction) {
+            case Block block -> generateBlock(block);
+            case Initialization initialization -> {
+                var type = switch (initialization.getType()) {
+                    case INT -> JvmType.INT;
+                    case FLOAT -> JvmType.FLOAT;
+                    case BOOL -> JvmType.BOOLEAN;
+                    default -> throw new UnsupportedCodeException("Unsupported variable type");
+                };
+                if (initialization.isRedeclaration() && slotTypes[initialization.getSlot()] != type) {
+                    throw new UnsupportedCodeException("Redeclaration changes variable type");
+                }
+                expect(type, generateExpression(initialization.getExpression()));
+                store(initialization.getSlot(), type);
+                slotTypes[initialization.getSlot()] = type;
+                yield true;
+            }
+            case Assignment assignment -> {
+                if (assignment.getSlot() == Statement.NO_SLOT) {
+                    throw new UnsupportedCodeException("Unresolved variable");
+                }
+                var type = slotTypes[assignment.getSlot()];
+                expect(type, generateExpression(assignment.getExpression()));
+                store(assignment.getSlot(), type);
+                yield true;
+            }
+            case ReturnStatement returnStatement when returnType == null -> {
+                if (returnStatement.getExpression() != null) {
+                    code.local(CodeWriter.ALOAD, 1, 1);
+                    code.pushInt(0);
+                    box(code, generateExpression(returnStatement.getExpression()));
+                    code.instruction(CodeWriter.AASTORE, -3);
+                }
+                code.pushInt(1);
+                code.instruction(CodeWriter.IRETURN, -1);
+                yield false;
+            }
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() == null) {
+                    expect(returnType, JvmType.VOID);
+                    code.instruction(CodeWriter.RETURN, 0);
+                } else {
+                    expect(returnType, generateExpression(returnStatement.getExpression()));
+                    code.instruction(returnType == JvmType.FLOAT ? CodeWriter.FRETURN : CodeWriter.IRETURN, -1);
+                }
+                yield false;
+            }
+            case FunctionCall functionCall -> {
+                if (generateCall(functionCall) != JvmType.VOID) {
+                    code.instruction(CodeWriter.POP, -1);
+                }
+                yield true;
+            }
+            case IfStatement ifStatement -> generateIf(ifStatement);
+            case WhileStatement whileStatement -> generateWhile(whileStatement);
+            default -> throw new UnsupportedCodeException("Unsupported instruction");
+        };
+    }
+
+    private boolean generateBlock(Block block) {
+        for (var instruction : block.getLiveInstructions()) {
+            if (!generateInstruction(instruction)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean generateIf(IfStatement statement) {
+        var otherwise = new Label();
+        expect(JvmType.BOOLEAN, generateExpression(statement.getExpression()));
+        code.jump(CodeWriter.IFEQ, otherwise, -1);
+        var thenContinues = generateInstruction(statement.getInstruction());
+        if (statement.getElseInstruction() == null) {
+            code.place(otherwise);
+            return true;
+        }
+        var end = new Label();
+        if (thenContinues) {
+            code.jump(CodeWriter.GOTO, end, 0);
+        }
+        code.place(otherwise);
+        var elseContinues = generateInstruction(statement.getElseInstruction());
+        if (thenContinues) {
+            code.place(end);
+        }
+        return thenContinues || elseContinues;
+    }
+
+    // a loop with a constant true condition can only be left by returning
+    private boolean generateWhile(WhileStatement statement) {
+        var start = new Label();
+        var end = new Label();
+        code.place(start);
+        var isEndless = statement.getExpression().getConstant() instanceof BooleanValue condition
+                && condition.isTruthy();
+        if (!isEndless) {
+            expect(JvmType.BOOLEAN, generateExpression(statement.getExpression()));
+            code.jump(CodeWriter.IFEQ, end, -1);
+        }
+        generateInstruction(statement.getInstruction());
+        code.jump(CodeWriter.GOTO, start, 0);
+        if (isEndless) {
+            return false;
+        }
+        code.place(end);
+        return true;
+    }
+
+    private JvmType generateExpression(Expression expression) {
+        if (expression.getConstant() != null) {
+            return generateConstant((Value) expression.getConstant());
+        }
+        return switch (expression) {
+            case IntLiteral intLiteral -> generateConstant(IntValue.of(intLiteral.getValue()));
+            case FloatLiteral floatLiteral -> generateConstant(new FloatValue(floatLiteral.getValue()));
+            case BooleanLiteral booleanLiteral -> generateConstant(BooleanValue.of(booleanLiteral.isTruthy()));
+            case Identifier identifier -> {
+                if (identifier.getSlot() == Statement.NO_SLOT || slotTypes[identifier.getSlot()] == null) {
+                    throw new UnsupportedCodeException("Unresolved variable");
+                }
+                var type = slotTypes[identifier.getSlot()];
+                load(identifier.getSlot(), type);
+                yield type;
+            }
+            case Sum sum -> generateArithmetic(switch (sum.getOperator()) {
+                case PLUS -> CodeWriter.IADD;
+                case MINUS -> CodeWriter.ISUB;
+            }, sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> generateArithmetic(switch (multiplication.getOperator()) {
+                case MULTIPLY -> CodeWriter.IMUL;
+                case DIVIDE -> CodeWriter.IDIV;
+                case MODULO -> CodeWriter.IREM;
+            }, multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> generateRelation(relation);
+            case Conjunction conjunction ->
+                    generateLogical(CodeWriter.IFEQ, 0, conjunction.getLeft(), conjunction.getRight());
+            case Alternative alternative ->
+                    generateLogical(CodeWriter.IFNE, 1, alternative.getLeft(), alternative.getRight());
+            case Negation negation -> {
+                expect(JvmType.BOOLEAN, generateExpression(negation.getExpression()));
+                code.pushInt(1);
+                code.instruction(CodeWriter.IXOR, -1);
+                yield JvmType.BOOLEAN;
+            }
+            case Cast cast -> generateCast(cast);
+            case FunctionCall functionCall -> {
+                var type = generateCall(functionCall);
+                if (type == JvmType.VOID) {
+                    throw new UnsupportedCodeException("Value of a void function is used");
+                }
+                yield type;
+            }
+            default -> throw new UnsupportedCodeException("Unsupported expression");
+        };
+    }
+
+    private JvmType generateConstant(Value value) {
+        switch (value) {
+            case IntValue intValue -> {
+                code.pushInt(intValue.getValue());
+                return JvmType.INT;
+            }
+            case FloatValue floatValue -> {
+                code.pushFloat(floatValue.getValue());
+                return JvmType.FLOAT;
+            }
+            case BooleanValue booleanValue -> {
+                code.pushInt(booleanValue.isTruthy() ? 1 : 0);
+                return JvmType.BOOLEAN;
+            }
+            default -> throw new UnsupportedCodeException("Unsupported constant");
+        }
+    }
+
+    // float instructions follow the int ones, an int operand mixed with a float one is widened
+    private JvmType generateArithmetic(int intOpcode, Expression left, Expression right) {
+        var leftType = numeric(generateExpression(left));
+        var rightType = numeric(generateExpression(right));
+        var isDivision = intOpcode == CodeWriter.IDIV || intOpcode == CodeWriter.IREM;
+        if (leftType == JvmType.INT && rightType == JvmType.INT) {
+            if (isDivision) {
+                code.method(CodeWriter.INVOKESTATIC, RUNTIME, "checkDivisor", "(I)I", 0);
+            }
+            code.instruction(intOpcode, -1);
+            return JvmType.INT;
+        }
+        widen(leftType, rightType);
+        if (isDivision) {
+            code.method(CodeWriter.INVOKESTATIC, RUNTIME, "checkDivisor", "(F)F", 0);
+        }
+        code.instruction(intOpcode + 2, -1);
+        return JvmType.FLOAT;
+    }
+
+    private JvmType generateRelation(Relation relation) {
+        var leftType = numeric(generateExpression(relation.getLeft()));
+        var rightType = numeric(generateExpression(relation.getRight()));
+        var isTrue = new Label();
+        var operator = relation.getOperator();
+        if (leftType == JvmType.INT && rightType == JvmType.INT) {
+            code.jump(switch (operator) {
+                case EQUALS -> CodeWriter.IF_ICMPEQ;
+                case NOT_EQUALS -> CodeWriter.IF_ICMPNE;
+                case LESS_THAN -> CodeWriter.IF_ICMPLT;
+                case GREATER_THAN -> CodeWriter.IF_ICMPGT;
+                case LESS_THAN_OR_EQUALS -> CodeWriter.IF_ICMPLE;
+                case GREATER_THAN_OR_EQUALS -> CodeWriter.IF_ICMPGE;
+            }, isTrue, -2);
+        } else {
+            widen(leftType, rightType);
+            // a NaN compares as the value failing the test, like in Java
+            var isLess = operator == RelationalOperator.LESS_THAN || operator == RelationalOperator.LESS_THAN_OR_EQUALS;
+            code.instruction(isLess ? CodeWriter.FCMPG : CodeWriter.FCMPL, -1);
+            code.jump(switch (operator) {
+                case EQUALS -> CodeWriter.IFEQ;
+                case NOT_EQUALS -> CodeWriter.IFNE;
+                case LESS_THAN -> CodeWriter.IFLT;
+                case GREATER_THAN -> CodeWriter.IFGT;
+                case LESS_THAN_OR_EQUALS -> CodeWriter.IFLE;
+                case GREATER_THAN_OR_EQUALS -> CodeWriter.IFGE;
+            }, isTrue, -1);
+        }
+        var end = new Label();
+        code.pushInt(0);
+        code.jump(CodeWriter.GOTO, end, 0);
+        code.place(isTrue);
+        code.pushInt(1);
+        code.place(end);
+        return JvmType.BOOLEAN;
+    }
+
+    // the left operand alone gives the result when the jump is taken
+    private JvmType generateLogical(int shortCircuit, int shortCircuitValue, Expression left, Expression right) {
+        var shortCircuited = new Label();
+        var end = new Label();
+        expect(JvmType.BOOLEAN, generateExpression(left));
+        code.jump(shortCircuit, shortCircuited, -1);
+        expect(JvmType.BOOLEAN, generateExpression(right));
+        code.jump(CodeWriter.GOTO, end, 0);
+        code.place(shortCircuited);
+        code.pushInt(shortCircuitValue);
+        code.place(end);
+        return JvmType.BOOLEAN;
+    }
+
+    private JvmType generateCast(Cast cast) {
+        var type = numeric(generateExpression(cast.getExpression()));
+        return switch (cast.getToType()) {
+            case INT -> {
+                if (type == JvmType.FLOAT) {
+                    code.instruction(CodeWriter.F2I, 0);
+                }
+                yield JvmType.INT;
+            }
+            case FLOAT -> {
+                if (type == JvmType.INT) {
+                    code.instruction(CodeWriter.I2F, 0);
+                }
+                yield JvmType.FLOAT;
+            }
+            default -> throw new UnsupportedCodeException("Unsupported cast");
+        };
+    }
+
+    // arguments have to be of the exact types of the parameters, like the environment requires
+    private JvmType generateCall(FunctionCall functionCall) {
+        if (!(functionCall.getTarget() instanceof UserFunction callee)) {
+            throw new UnsupportedCodeException("Only user functions can be called");
+        }
+        var method = unit.methodOf(callee);
+        var parameters = callee.getParameters();
+        var arguments = functionCall.getArguments();
+        if (parameters.size() != arguments.size()) {
+            throw new UnsupportedCodeException("Argument count does not match parameters");
+        }
+        for (var i = 0; i < arguments.size(); ++i) {
+            expect(CompilationUnit.parameterType(parameters.get(i)), generateExpression(arguments.get(i)));
+        }
+        var type = CompilationUnit.returnType(callee);
+        code.method(CodeWriter.INVOKESTATIC, unit.getClassName(), method, CompilationUnit.descriptor(callee),
+                (type == JvmType.VOID ? 0 : 1) - arguments.size());
+        return type;
+    }
+
+    // converts both operands on the stack to floats
+    private void widen(JvmType leftType, JvmType rightType) {
+        if (rightType == JvmType.INT) {
+            code.instruction(CodeWriter.I2F, 0);
+        }
+        if (leftType == JvmType.INT) {
+            code.instruction(CodeWriter.SWAP, 0);
+            code.instruction(CodeWriter.I2F, 0);
+            code.instruction(CodeWriter.SWAP, 0);
+        }
+    }
+
+    private void load(int slot, JvmType type) {
+        code.local(type == JvmType.FLOAT ? CodeWriter.FLOAD : CodeWriter.ILOAD, firstLocal + slot, 1);
+    }
+
+    private void store(int slot, JvmType type) {
+        code.local(type == JvmType.FLOAT ? CodeWriter.FSTORE : CodeWriter.ISTORE, firstLocal + slot, -1);
+    }
+
+    private static JvmType numeric(JvmType type) {
+        if (type != JvmType.INT && type != JvmType.FLOAT) {
+            throw new UnsupportedCodeException("Expected a number");
+        }
+        return type;
+    }
+
+    private static void expect(JvmType expected, JvmType actual) {
+        if (expected != actual) {
+            throw new UnsupportedCodeException("Expected " + expected + " but got " + actual);
+        }
+    }
+}
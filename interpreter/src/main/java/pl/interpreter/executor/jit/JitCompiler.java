@@ -0,0 +1,51 @@
+package pl.interpreter.executor.jit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import pl.interpreter.executor.UserFunction;
+import pl.interpreter.executor.Value;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Compiles hot user functions and loops to JVM bytecode, defined as hidden classes, so they can be optimized by the
+ * JIT compiler of the JVM like Java code. Only code working on ints, floats and booleans, and calling only functions
+ * doing the same, can be compiled, the rest is left for the interpreter.
+ */
+public class JitCompiler {
+
+    private static final String CLASS_NAME = "pl/interpreter/executor/jit/HotFunction";
+    private static final String LOOP_CLASS_NAME = "pl/interpreter/executor/jit/HotLoop";
+
+    // empty when the function uses anything compiled code does not support
+    public Optional<JitFunction> compile(UserFunction function) {
+        try {
+            var classFile = new CompilationUnit(CLASS_NAME).compile(function);
+            return Optional.of(new JitFunction(define(classFile,
+                    MethodType.methodType(Value.class, Value[].class))));
+        } catch (UnsupportedCodeException e) {
+            return Optional.empty();
+        }
+    }
+
+    // the loop is specialized for the types of the variables in the frame, which cannot change while they are in scope
+    public Optional<JitLoop> compileLoop(WhileStatement loop, Value[] frame) {
+        try {
+            var classFile = new CompilationUnit(LOOP_CLASS_NAME).compileLoop(loop, frame);
+            return Optional.of(new JitLoop(define(classFile,
+                    MethodType.methodType(boolean.class, Value[].class, Value[].class))));
+        } catch (UnsupportedCodeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private MethodHandle define(byte[] classFile, MethodType entryType) {
+        try {
+            var lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return lookup.findStatic(lookup.lookupClass(), CompilationUnit.ENTRY, entryType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
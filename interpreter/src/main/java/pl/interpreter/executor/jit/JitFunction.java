@@ -0,0 +1,25 @@
+package pl.interpreter.executor.jit;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import pl.interpreter.executor.Value;
+
+public final class JitFunction {
+
+    private final MethodHandle entry;
+
+    JitFunction(MethodHandle entry) {
+        this.entry = entry;
+    }
+
+    // arguments are already validated by the environment
+    public Value call(List<Value> arguments) {
+        try {
+            return (Value) entry.invokeExact(arguments.toArray(new Value[0]));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pl.interpreter.executor.jit;
+
+import java.lang.invoke.MethodHandle;
+import pl.interpreter.executor.Value;
+
+public final class JitLoop {
+
+    private final MethodHandle entry;
+
+    JitLoop(MethodHandle entry) {
+        this.entry = entry;
+    }
+
+    // returns whether the loop returned from the function, the returned value is left in the array
+    public boolean run(Value[] frame, Value[] returned) {
+        try {
+            return (boolean) entry.invokeExact(frame, returned);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
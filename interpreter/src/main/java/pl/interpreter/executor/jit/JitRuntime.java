@@ -0,0 +1,40 @@
+package pl.interpreter.executor.jit;
+
+import pl.interpreter.executor.BooleanValue;
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException;
+
+// called by compiled code, reports errors like the evaluators
+final class JitRuntime {
+
+    private JitRuntime() {
+    }
+
+    static int checkDivisor(int divisor) {
+        if (divisor == 0) {
+            throw new ExpressionEvaluationException("Division by zero is forbidden");
+        }
+        return divisor;
+    }
+
+    static float checkDivisor(float divisor) {
+        if (Float.compare(divisor, 0.0f) == 0) {
+            throw new ExpressionEvaluationException("Division by zero is forbidden");
+        }
+        return divisor;
+    }
+
+    static Value box(int value) {
+        return IntValue.of(value);
+    }
+
+    static Value box(float value) {
+        return new FloatValue(value);
+    }
+
+    static Value box(boolean value) {
+        return BooleanValue.of(value);
+    }
+}
@@ -0,0 +1,57 @@
+package pl.interpreter.executor.jit;
+
+import pl.interpreter.executor.BooleanValue;
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.ValueType;
+
+// types of values kept in JVM primitives, booleans are ints holding 0 or 1
+enum JvmType {
+    INT("I"),
+    FLOAT("F"),
+    BOOLEAN("Z"),
+    VOID("V");
+
+    private final String descriptor;
+
+    JvmType(String descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    String getDescriptor() {
+        return descriptor;
+    }
+
+    // null for types without a primitive
+    static JvmType of(ValueType type) {
+        if (type == null) {
+            return VOID;
+        }
+        for (var jvmType : new JvmType[]{INT, FLOAT, BOOLEAN}) {
+            if (jvmType.toValueType().equals(type)) {
+                return jvmType;
+            }
+        }
+        return null;
+    }
+
+    // null for values without a primitive
+    static JvmType of(Value value) {
+        return switch (value) {
+            case IntValue i -> INT;
+            case FloatValue f -> FLOAT;
+            case BooleanValue b -> BOOLEAN;
+            case null, default -> null;
+        };
+    }
+
+    ValueType toValueType() {
+        return switch (this) {
+            case INT -> new ValueType(ValueType.Type.INT);
+            case FLOAT -> new ValueType(ValueType.Type.FLOAT);
+            case BOOLEAN -> new ValueType(ValueType.Type.BOOLEAN);
+            case VOID -> null;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package pl.interpreter.executor.jit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class Label {
+
+    static final int UNPLACED = -1;
+
+    int position = UNPLACED;
+    // stack depth at the jumps to the label, known once the first one is written
+    int stack = UNPLACED;
+    // positions of the offsets written before the label was placed
+    final List<Integer> jumps = new ArrayList<>();
+}
@@ -0,0 +1,122 @@
+package pl.interpreter.executor.jit;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Frame slots of the variables a loop uses but does not declare. Variables declared in the loop get slots above the
+ * ones of the variables in scope, so a slot used by the loop is either declared in it or holds a live variable.
+ */
+class LoopVariables {
+
+    private final Set<Integer> used = new TreeSet<>();
+    private final Set<Integer> declared = new HashSet<>();
+    private final Set<Integer> assigned = new HashSet<>();
+
+    LoopVariables(WhileStatement loop) {
+        collectInstruction(loop);
+        used.removeAll(declared);
+    }
+
+    // in ascending order
+    Set<Integer> getLiveSlots() {
+        return used;
+    }
+
+    boolean isAssigned(int slot) {
+        return assigned.contains(slot);
+    }
+
+    private void collectInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> block.getLiveInstructions().forEach(this::collectInstruction);
+            case Initialization initialization -> {
+                collectExpression(initialization.getExpression());
+                declared.add(initialization.getSlot());
+            }
+            case Assignment assignment -> {
+                collectExpression(assignment.getExpression());
+                if (assignment.getSlot() != Statement.NO_SLOT) {
+                    used.add(assignment.getSlot());
+                    assigned.add(assignment.getSlot());
+                }
+            }
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() != null) {
+                    collectExpression(returnStatement.getExpression());
+                }
+            }
+            case FunctionCall functionCall -> collectExpression(functionCall);
+            case IfStatement ifStatement -> {
+                collectExpression(ifStatement.getExpression());
+                collectInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    collectInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                collectExpression(whileStatement.getExpression());
+                collectInstruction(whileStatement.getInstruction());
+            }
+            default -> throw new UnsupportedCodeException("Unsupported instruction");
+        }
+    }
+
+    private void collectExpression(Expression expression) {
+        if (expression.getConstant() != null) {
+            return;
+        }
+        switch (expression) {
+            case Identifier identifier -> {
+                if (identifier.getSlot() != Statement.NO_SLOT) {
+                    used.add(identifier.getSlot());
+                }
+            }
+            case Sum sum -> {
+                collectExpression(sum.getLeft());
+                collectExpression(sum.getRight());
+            }
+            case Multiplication multiplication -> {
+                collectExpression(multiplication.getLeft());
+                collectExpression(multiplication.getRight());
+            }
+            case Relation relation -> {
+                collectExpression(relation.getLeft());
+                collectExpression(relation.getRight());
+            }
+            case Conjunction conjunction -> {
+                collectExpression(conjunction.getLeft());
+                collectExpression(conjunction.getRight());
+            }
+            case Alternative alternative -> {
+                collectExpression(alternative.getLeft());
+                collectExpression(alternative.getRight());
+            }
+            case Negation negation -> collectExpression(negation.getExpression());
+            case Cast cast -> collectExpression(cast.getExpression());
+            case DotAccess dotAccess -> collectExpression(dotAccess.getExpression());
+            case FunctionCall functionCall -> functionCall.getArguments().forEach(this::collectExpression);
+            default -> {}
+        }
+    }
+}
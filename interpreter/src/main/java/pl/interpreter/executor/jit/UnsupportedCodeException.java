@@ -0,0 +1,9 @@
+package pl.interpreter.executor.jit;
+
+// the function uses something compiled code cannot express, it stays with the interpreter
+class UnsupportedCodeException extends RuntimeException {
+
+    UnsupportedCodeException(String message) {
+        super(message);
+    }
+}
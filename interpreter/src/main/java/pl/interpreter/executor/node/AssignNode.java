@@ -0,0 +1,32 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.EnvironmentException;
+import pl.interpreter.parser.Statement;
+
+final class AssignNode extends StatementNode {
+
+    private final int slot;
+    private final String id;
+    private final boolean verified;
+
+    AssignNode(int slot, ExpressionNode value, String id, boolean verified) {
+        super(value);
+        this.slot = slot;
+        this.id = id;
+        this.verified = verified;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        var value = children[0].execute(frame);
+        if (slot == Statement.NO_SLOT) {
+            throw UnresolvedNode.unresolved(id);
+        }
+        if (!verified && !value.getClass().isInstance(frame[slot])) {
+            throw new EnvironmentException("Changing variable type is forbidden");
+        }
+        frame[slot] = value;
+        return false;
+    }
+}
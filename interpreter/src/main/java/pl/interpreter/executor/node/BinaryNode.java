@@ -0,0 +1,29 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.Value;
+
+/**
+ * Sum, multiplication or relation. The node starts uninitialized and, once it sees its first operands, replaces
+ * itself with a node specialized for their types. A specialized node seeing operands of other types replaces itself
+ * with the generic node, which stays for good.
+ */
+abstract class BinaryNode extends ExpressionNode {
+
+    protected final OperatorKernels.Operator operator;
+
+    BinaryNode(OperatorKernels.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(left, right);
+        this.operator = operator;
+    }
+
+    OperatorKernels.Operator getOperator() {
+        return operator;
+    }
+
+    abstract Value execute(Value left, Value right);
+
+    Value generalize(Value left, Value right) {
+        return replace(new GenericBinaryNode(operator, children[0], children[1])).execute(left, right);
+    }
+}
@@ -0,0 +1,22 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class BlockNode extends StatementNode {
+
+    private final StatementNode[] statements;
+
+    BlockNode(StatementNode... statements) {
+        this.statements = statements;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        for (var statement : statements) {
+            if (statement.execute(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
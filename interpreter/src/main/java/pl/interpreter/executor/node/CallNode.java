@@ -0,0 +1,56 @@
+package pl.interpreter.executor.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import pl.interpreter.executor.Environment;
+import pl.interpreter.executor.Function;
+import pl.interpreter.executor.UserFunction;
+import pl.interpreter.executor.Value;
+
+final class CallNode extends ExpressionNode {
+
+    private final Function function;
+    private final FunctionNodes functionNodes;
+    private final boolean verified;
+    // tree of the called user function, looked up on the first call
+    private NodeFunction callee;
+
+    CallNode(Function function, FunctionNodes functionNodes, boolean verified, ExpressionNode... arguments) {
+        super(arguments);
+        this.function = function;
+        this.functionNodes = functionNodes;
+        this.verified = verified;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        if (!(function instanceof UserFunction userFunction)) {
+            var arguments = new ArrayList<Value>(children.length);
+            for (var argument : children) {
+                arguments.add(argument.execute(frame));
+            }
+            return function.execute(arguments);
+        }
+        if (verified && callee != null) {
+            var calleeFrame = callee.newFrame();
+            for (var i = 0; i < children.length; ++i) {
+                calleeFrame[i] = children[i].execute(frame);
+            }
+            return callee.call(calleeFrame);
+        }
+        var arguments = new Value[children.length];
+        for (var i = 0; i < children.length; ++i) {
+            arguments[i] = children[i].execute(frame);
+        }
+        // the called function is prepared before its arguments are validated, like by the environment
+        if (callee == null) {
+            callee = functionNodes.of(userFunction);
+        }
+        if (!verified) {
+            Environment.validateFunctionArguments(userFunction.getParameters(), Arrays.asList(arguments));
+        }
+        var calleeFrame = callee.newFrame();
+        System.arraycopy(arguments, 0, calleeFrame, 0, arguments.length);
+        return callee.call(calleeFrame);
+    }
+}
@@ -0,0 +1,19 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.CastEvaluator;
+import pl.interpreter.executor.Value;
+
+final class CastNode extends ExpressionNode {
+
+    private final CastEvaluator.LegalCastType type;
+
+    CastNode(ExpressionNode operand, CastEvaluator.LegalCastType type) {
+        super(operand);
+        this.type = type;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        return new CastEvaluator(children[0].execute(frame), type).evaluate();
+    }
+}
@@ -0,0 +1,17 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class ConstantNode extends ExpressionNode {
+
+    private final Value value;
+
+    ConstantNode(Value value) {
+        this.value = value;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        return value;
+    }
+}
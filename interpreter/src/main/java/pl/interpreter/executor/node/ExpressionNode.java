@@ -0,0 +1,27 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+abstract class ExpressionNode extends Node {
+
+    private Node parent;
+    private int index;
+
+    ExpressionNode(ExpressionNode... children) {
+        super(children);
+    }
+
+    abstract Value execute(Value[] frame);
+
+    void adopt(Node parent, int index) {
+        this.parent = parent;
+        this.index = index;
+    }
+
+    // the node has to be built over the children of this one
+    <T extends ExpressionNode> T replace(T node) {
+        parent.children[index] = node;
+        node.adopt(parent, index);
+        return node;
+    }
+}
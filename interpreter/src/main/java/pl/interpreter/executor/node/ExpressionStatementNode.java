@@ -0,0 +1,16 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class ExpressionStatementNode extends StatementNode {
+
+    ExpressionStatementNode(ExpressionNode expression) {
+        super(expression);
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        children[0].execute(frame);
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.DotAccessEvaluator;
+import pl.interpreter.executor.StructureValue;
+import pl.interpreter.executor.Value;
+
+final class FieldNode extends ExpressionNode {
+
+    private final String fieldName;
+
+    FieldNode(ExpressionNode structure, String fieldName) {
+        super(structure);
+        this.fieldName = fieldName;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var value = children[0].execute(frame);
+        if (value instanceof StructureValue structure && structure.getFields().get(fieldName) instanceof Value field) {
+            return field;
+        }
+        return new DotAccessEvaluator(value, fieldName).evaluate();
+    }
+}
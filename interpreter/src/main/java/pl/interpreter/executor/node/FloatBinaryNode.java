@@ -0,0 +1,28 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.Value;
+
+final class FloatBinaryNode extends BinaryNode {
+
+    FloatBinaryNode(OperatorKernels.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        var right = children[1].execute(frame);
+        return execute(left, right);
+    }
+
+    // division by zero fails in the kernel without giving up the specialization
+    @Override
+    Value execute(Value left, Value right) {
+        if (!(left instanceof FloatValue lhs) || !(right instanceof FloatValue rhs)) {
+            return generalize(left, right);
+        }
+        return OperatorKernels.applyFloat(operator, lhs.getValue(), rhs.getValue());
+    }
+}
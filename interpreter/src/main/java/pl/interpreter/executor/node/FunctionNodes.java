@@ -0,0 +1,9 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.UserFunction;
+
+// gives the node tree of a called function, built on its first call
+@FunctionalInterface
+public interface FunctionNodes {
+    NodeFunction of(UserFunction function);
+}
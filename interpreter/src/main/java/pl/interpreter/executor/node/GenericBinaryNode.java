@@ -0,0 +1,23 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.Value;
+
+final class GenericBinaryNode extends BinaryNode {
+
+    GenericBinaryNode(OperatorKernels.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        var right = children[1].execute(frame);
+        return execute(left, right);
+    }
+
+    @Override
+    Value execute(Value left, Value right) {
+        return OperatorKernels.apply(operator, left, right);
+    }
+}
@@ -0,0 +1,24 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class IfNode extends StatementNode {
+
+    private final StatementNode then;
+    // null without an else branch
+    private final StatementNode otherwise;
+
+    IfNode(ExpressionNode condition, StatementNode then, StatementNode otherwise) {
+        super(condition);
+        this.then = then;
+        this.otherwise = otherwise;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        if (isTrue(children[0].execute(frame))) {
+            return then.execute(frame);
+        }
+        return otherwise != null && otherwise.execute(frame);
+    }
+}
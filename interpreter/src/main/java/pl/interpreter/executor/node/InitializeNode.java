@@ -0,0 +1,37 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.ValueType;
+import pl.interpreter.executor.exceptions.EnvironmentException;
+import pl.interpreter.executor.exceptions.InvalidValueTypeException;
+
+final class InitializeNode extends StatementNode {
+
+    private final int slot;
+    // null when the program is verified
+    private final ValueType type;
+    private final String id;
+    // a variable declared again in its scope keeps the type it has
+    private final boolean redeclaration;
+
+    InitializeNode(int slot, ExpressionNode value, ValueType type, String id, boolean redeclaration) {
+        super(value);
+        this.slot = slot;
+        this.type = type;
+        this.id = id;
+        this.redeclaration = redeclaration;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        var value = children[0].execute(frame);
+        if (type != null && !type.typeOf(value)) {
+            throw new InvalidValueTypeException("Value does not match type of variable \"" + id + "\"");
+        }
+        if (redeclaration && !value.getClass().isInstance(frame[slot])) {
+            throw new EnvironmentException("Changing variable type is forbidden");
+        }
+        frame[slot] = value;
+        return false;
+    }
+}
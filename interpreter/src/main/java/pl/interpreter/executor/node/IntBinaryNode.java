@@ -0,0 +1,28 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.Value;
+
+final class IntBinaryNode extends BinaryNode {
+
+    IntBinaryNode(OperatorKernels.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        var right = children[1].execute(frame);
+        return execute(left, right);
+    }
+
+    // division by zero fails in the kernel without giving up the specialization
+    @Override
+    Value execute(Value left, Value right) {
+        if (!(left instanceof IntValue lhs) || !(right instanceof IntValue rhs)) {
+            return generalize(left, right);
+        }
+        return OperatorKernels.applyInt(operator, lhs.getValue(), rhs.getValue());
+    }
+}
@@ -0,0 +1,24 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.ConjunctionOrAlternativeEvaluator;
+import pl.interpreter.executor.Value;
+
+final class LogicalNode extends ExpressionNode {
+
+    private final ConjunctionOrAlternativeEvaluator.Operator operator;
+
+    LogicalNode(ConjunctionOrAlternativeEvaluator.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(left, right);
+        this.operator = operator;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        if (ConjunctionOrAlternativeEvaluator.shouldShortCircuit(left, operator)) {
+            return left;
+        }
+        var right = children[1].execute(frame);
+        return new ConjunctionOrAlternativeEvaluator(left, right, operator).evaluate();
+    }
+}
@@ -0,0 +1,37 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.StructureValue;
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.InvalidValueTypeException;
+import pl.interpreter.parser.Statement;
+
+final class MatchNode extends StatementNode {
+
+    // null for the default branch
+    private final String[] structureIds;
+    private final int[] slots;
+    private final StatementNode[] branches;
+
+    MatchNode(ExpressionNode value, String[] structureIds, int[] slots, StatementNode[] branches) {
+        super(value);
+        this.structureIds = structureIds;
+        this.slots = slots;
+        this.branches = branches;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        if (!(children[0].execute(frame) instanceof StructureValue structure)) {
+            throw new InvalidValueTypeException("Only structures can be matched");
+        }
+        for (var i = 0; i < branches.length; ++i) {
+            if (structureIds[i] == null || structureIds[i].equals(structure.getStructureName())) {
+                if (slots[i] != Statement.NO_SLOT) {
+                    frame[slots[i]] = structure;
+                }
+                return branches[i].execute(frame);
+            }
+        }
+        return false;
+    }
+}
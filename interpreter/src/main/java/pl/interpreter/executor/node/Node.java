@@ -0,0 +1,17 @@
+package pl.interpreter.executor.node;
+
+/**
+ * Node of the tree built by {@link NodeBuilder}. Expression children are kept in an array, so a child can put a
+ * specialized version of itself in its place.
+ */
+abstract class Node {
+
+    protected final ExpressionNode[] children;
+
+    Node(ExpressionNode... children) {
+        this.children = children;
+        for (var i = 0; i < children.length; ++i) {
+            children[i].adopt(this, i);
+        }
+    }
+}
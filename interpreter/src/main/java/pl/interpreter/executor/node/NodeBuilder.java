@@ -0,0 +1,159 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.BooleanValue;
+import pl.interpreter.executor.CastEvaluator;
+import pl.interpreter.executor.ConjunctionOrAlternativeEvaluator;
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.Function;
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.StringValue;
+import pl.interpreter.executor.UserFunctionDefinitionMapper;
+import pl.interpreter.executor.Value;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Builds the executable tree of a user function from its prepared body, with calls linked, constants folded and
+ * variables resolved to frame slots. Operators start uninitialized and specialize themselves for the types of the
+ * operands they see while the function runs. Checked programs validate the type of each write like the tree walker
+ * does.
+ */
+public class NodeBuilder {
+
+    private final int frameSize;
+    private final boolean verified;
+    private final FunctionNodes functionNodes;
+
+    public NodeBuilder(int frameSize, boolean verified, FunctionNodes functionNodes) {
+        this.frameSize = frameSize;
+        this.verified = verified;
+        this.functionNodes = functionNodes;
+    }
+
+    public NodeFunction build(Block body) {
+        return new NodeFunction(buildBlock(body), frameSize);
+    }
+
+    private StatementNode buildBlock(Block block) {
+        return new BlockNode(block.getLiveInstructions().stream()
+                .map(this::buildInstruction)
+                .toArray(StatementNode[]::new));
+    }
+
+    private StatementNode buildInstruction(Instruction instruction) {
+        return switch (instruction) {
+            case Block block -> buildBlock(block);
+            case Initialization initialization -> new InitializeNode(initialization.getSlot(),
+                    buildExpression(initialization.getExpression()), verified ? null
+                    : UserFunctionDefinitionMapper.mapParameterType(
+                            new ParameterType(initialization.getType(), initialization.getUserType())),
+                    initialization.getId(), initialization.isRedeclaration());
+            case Assignment assignment -> new AssignNode(assignment.getSlot(),
+                    buildExpression(assignment.getExpression()), assignment.getId(), verified);
+            case ReturnStatement returnStatement -> returnStatement.getExpression() == null
+                    ? new ReturnNode(frameSize)
+                    : new ReturnNode(frameSize, buildExpression(returnStatement.getExpression()));
+            case FunctionCall functionCall -> new ExpressionStatementNode(buildExpression(functionCall));
+            case IfStatement ifStatement -> new IfNode(buildExpression(ifStatement.getExpression()),
+                    buildInstruction(ifStatement.getInstruction()),
+                    ifStatement.getElseInstruction() == null ? null
+                            : buildInstruction(ifStatement.getElseInstruction()));
+            case WhileStatement whileStatement -> new WhileNode(buildExpression(whileStatement.getExpression()),
+                    buildInstruction(whileStatement.getInstruction()));
+            case MatchStatement matchStatement -> buildMatch(matchStatement);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private StatementNode buildMatch(MatchStatement statement) {
+        var branches = statement.getBranches();
+        var structureIds = new String[branches.size()];
+        var slots = new int[branches.size()];
+        var bodies = new StatementNode[branches.size()];
+        for (var i = 0; i < branches.size(); ++i) {
+            structureIds[i] = branches.get(i).getStructureId();
+            slots[i] = branches.get(i).getSlot();
+            bodies[i] = buildInstruction(branches.get(i).getInstruction());
+        }
+        return new MatchNode(buildExpression(statement.getExpression()), structureIds, slots, bodies);
+    }
+
+    private ExpressionNode buildExpression(Expression expression) {
+        if (expression.getConstant() != null) {
+            return new ConstantNode((Value) expression.getConstant());
+        }
+        return switch (expression) {
+            case IntLiteral intLiteral -> new ConstantNode(IntValue.of(intLiteral.getValue()));
+            case FloatLiteral floatLiteral -> new ConstantNode(new FloatValue(floatLiteral.getValue()));
+            case StringLiteral stringLiteral -> new ConstantNode(new StringValue(stringLiteral.getValue()));
+            case BooleanLiteral booleanLiteral -> new ConstantNode(BooleanValue.of(booleanLiteral.isTruthy()));
+            case Identifier identifier -> identifier.getSlot() == Statement.NO_SLOT
+                    ? new UnresolvedNode(identifier.getValue())
+                    : new SlotNode(identifier.getSlot());
+            case Sum sum -> buildBinary(switch (sum.getOperator()) {
+                case PLUS -> OperatorKernels.Operator.ADD;
+                case MINUS -> OperatorKernels.Operator.SUBTRACT;
+            }, sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> buildBinary(switch (multiplication.getOperator()) {
+                case MULTIPLY -> OperatorKernels.Operator.MULTIPLY;
+                case DIVIDE -> OperatorKernels.Operator.DIVIDE;
+                case MODULO -> OperatorKernels.Operator.MODULO;
+            }, multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> buildBinary(switch (relation.getOperator()) {
+                case EQUALS -> OperatorKernels.Operator.EQUAL;
+                case NOT_EQUALS -> OperatorKernels.Operator.NOT_EQUAL;
+                case LESS_THAN -> OperatorKernels.Operator.LESS_THAN;
+                case GREATER_THAN -> OperatorKernels.Operator.GREATER_THAN;
+                case LESS_THAN_OR_EQUALS -> OperatorKernels.Operator.LESS_THAN_OR_EQUAL;
+                case GREATER_THAN_OR_EQUALS -> OperatorKernels.Operator.GREATER_THAN_OR_EQUAL;
+            }, relation.getLeft(), relation.getRight());
+            case Conjunction conjunction -> new LogicalNode(ConjunctionOrAlternativeEvaluator.Operator.CONJUNCTION,
+                    buildExpression(conjunction.getLeft()), buildExpression(conjunction.getRight()));
+            case Alternative alternative -> new LogicalNode(ConjunctionOrAlternativeEvaluator.Operator.ALTERNATIVE,
+                    buildExpression(alternative.getLeft()), buildExpression(alternative.getRight()));
+            case Negation negation -> new NotNode(buildExpression(negation.getExpression()));
+            case Cast cast -> new CastNode(buildExpression(cast.getExpression()), switch (cast.getToType()) {
+                case INT -> CastEvaluator.LegalCastType.INT;
+                case FLOAT -> CastEvaluator.LegalCastType.FLOAT;
+                case STRING -> CastEvaluator.LegalCastType.STRING;
+                case BOOL -> CastEvaluator.LegalCastType.BOOLEAN;
+            });
+            case DotAccess dotAccess -> new FieldNode(buildExpression(dotAccess.getExpression()),
+                    dotAccess.getFieldName());
+            case FunctionCall functionCall -> new CallNode((Function) functionCall.getTarget(), functionNodes,
+                    verified, functionCall.getArguments().stream()
+                            .map(this::buildExpression)
+                            .toArray(ExpressionNode[]::new));
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private ExpressionNode buildBinary(OperatorKernels.Operator operator, Expression left, Expression right) {
+        return new UninitializedBinaryNode(operator, buildExpression(left), buildExpression(right));
+    }
+}
@@ -0,0 +1,34 @@
+package pl.interpreter.executor.node;
+
+import java.util.List;
+import pl.interpreter.executor.Value;
+
+// the frame holds the variable slots of the function followed by the returned value
+public final class NodeFunction {
+
+    private final StatementNode body;
+    private final int frameSize;
+
+    NodeFunction(StatementNode body, int frameSize) {
+        this.body = body;
+        this.frameSize = frameSize;
+    }
+
+    // arguments are already validated by the environment
+    public Value call(List<Value> arguments) {
+        var frame = newFrame();
+        for (var i = 0; i < arguments.size(); ++i) {
+            frame[i] = arguments.get(i);
+        }
+        return call(frame);
+    }
+
+    Value[] newFrame() {
+        return new Value[frameSize + 1];
+    }
+
+    Value call(Value[] frame) {
+        body.execute(frame);
+        return frame[frameSize];
+    }
+}
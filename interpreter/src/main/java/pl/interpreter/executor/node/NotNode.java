@@ -0,0 +1,16 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.Value;
+
+final class NotNode extends ExpressionNode {
+
+    NotNode(ExpressionNode operand) {
+        super(operand);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        return OperatorKernels.negate(children[0].execute(frame));
+    }
+}
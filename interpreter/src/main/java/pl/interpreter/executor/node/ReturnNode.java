@@ -0,0 +1,21 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class ReturnNode extends StatementNode {
+
+    private final int returnSlot;
+
+    ReturnNode(int returnSlot, ExpressionNode... value) {
+        super(value);
+        this.returnSlot = returnSlot;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        if (children.length > 0) {
+            frame[returnSlot] = children[0].execute(frame);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.EnvironmentException;
+
+final class SlotNode extends ExpressionNode {
+
+    private final int slot;
+
+    SlotNode(int slot) {
+        this.slot = slot;
+    }
+
+    // only frame slots of variables not initialized yet are empty
+    @Override
+    Value execute(Value[] frame) {
+        var value = frame[slot];
+        if (value == null) {
+            throw new EnvironmentException("Variable is not initialized");
+        }
+        return value;
+    }
+}
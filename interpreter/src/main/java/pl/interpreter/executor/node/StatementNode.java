@@ -0,0 +1,22 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.BooleanValue;
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.InvalidValueTypeException;
+
+abstract class StatementNode extends Node {
+
+    StatementNode(ExpressionNode... children) {
+        super(children);
+    }
+
+    // returns whether a return statement was executed, its value is left in the return slot of the frame
+    abstract boolean execute(Value[] frame);
+
+    static boolean isTrue(Value condition) {
+        if (!(condition instanceof BooleanValue booleanValue)) {
+            throw new InvalidValueTypeException("Expected boolean");
+        }
+        return booleanValue.isTruthy();
+    }
+}
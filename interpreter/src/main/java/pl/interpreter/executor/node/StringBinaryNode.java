@@ -0,0 +1,28 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.StringValue;
+import pl.interpreter.executor.Value;
+
+// only strings can be added to strings, other operators are handled by the generic node
+final class StringBinaryNode extends BinaryNode {
+
+    StringBinaryNode(ExpressionNode left, ExpressionNode right) {
+        super(OperatorKernels.Operator.ADD, left, right);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        var right = children[1].execute(frame);
+        return execute(left, right);
+    }
+
+    @Override
+    Value execute(Value left, Value right) {
+        if (!(left instanceof StringValue lhs) || !(right instanceof StringValue rhs)) {
+            return generalize(left, right);
+        }
+        return new StringValue(lhs.getValue() + rhs.getValue());
+    }
+}
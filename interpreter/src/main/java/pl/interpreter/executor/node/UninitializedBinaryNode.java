@@ -0,0 +1,41 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.FloatValue;
+import pl.interpreter.executor.IntValue;
+import pl.interpreter.executor.OperatorKernels;
+import pl.interpreter.executor.StringValue;
+import pl.interpreter.executor.Value;
+
+final class UninitializedBinaryNode extends BinaryNode {
+
+    UninitializedBinaryNode(OperatorKernels.Operator operator, ExpressionNode left, ExpressionNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        var left = children[0].execute(frame);
+        var right = children[1].execute(frame);
+        return execute(left, right);
+    }
+
+    @Override
+    Value execute(Value left, Value right) {
+        return specialize(left, right).execute(left, right);
+    }
+
+    private BinaryNode specialize(Value left, Value right) {
+        var leftNode = children[0];
+        var rightNode = children[1];
+        if (left instanceof IntValue && right instanceof IntValue) {
+            return replace(new IntBinaryNode(operator, leftNode, rightNode));
+        }
+        if (left instanceof FloatValue && right instanceof FloatValue) {
+            return replace(new FloatBinaryNode(operator, leftNode, rightNode));
+        }
+        if (operator == OperatorKernels.Operator.ADD && left instanceof StringValue && right instanceof StringValue) {
+            return replace(new StringBinaryNode(leftNode, rightNode));
+        }
+        return replace(new GenericBinaryNode(operator, leftNode, rightNode));
+    }
+}
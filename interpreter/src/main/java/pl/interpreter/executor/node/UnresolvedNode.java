@@ -0,0 +1,22 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+import pl.interpreter.executor.exceptions.EnvironmentException;
+
+final class UnresolvedNode extends ExpressionNode {
+
+    private final String id;
+
+    UnresolvedNode(String id) {
+        this.id = id;
+    }
+
+    @Override
+    Value execute(Value[] frame) {
+        throw unresolved(id);
+    }
+
+    static EnvironmentException unresolved(String id) {
+        return new EnvironmentException("Could not resolve variable: \"" + id + "\" in this context");
+    }
+}
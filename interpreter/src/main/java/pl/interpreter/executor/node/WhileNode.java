@@ -0,0 +1,23 @@
+package pl.interpreter.executor.node;
+
+import pl.interpreter.executor.Value;
+
+final class WhileNode extends StatementNode {
+
+    private final StatementNode body;
+
+    WhileNode(ExpressionNode condition, StatementNode body) {
+        super(condition);
+        this.body = body;
+    }
+
+    @Override
+    boolean execute(Value[] frame) {
+        while (isTrue(children[0].execute(frame))) {
+            if (body.execute(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package pl.interpreter.flat_ast;
+
+import java.io.Writer;
+import pl.interpreter.parser.Position;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Program stored in parallel arrays instead of an object graph. Nodes are int handles, children of a node are a range of
+ * the shared children array and strings live in a deduplicated pool. Payload meaning depends on {@link FlatNodeKind}.
+ * Nodes are stored in preorder, the program node is always handle 0.
+ */
+public class FlatAst {
+
+    public static final int ROOT = 0;
+
+    final byte[] kinds;
+    final int[] rows;
+    final int[] cols;
+    final int[] payloadsA;
+    final int[] payloadsB;
+    final int[] payloadsC;
+    final int[] childStarts;
+    final int[] childCounts;
+    final int[] children;
+    final String[] strings;
+
+    FlatAst(byte[] kinds, int[] rows, int[] cols, int[] payloadsA, int[] payloadsB, int[] payloadsC,
+            int[] childStarts, int[] childCounts, int[] children, String[] strings) {
+        this.kinds = kinds;
+        this.rows = rows;
+        this.cols = cols;
+        this.payloadsA = payloadsA;
+        this.payloadsB = payloadsB;
+        this.payloadsC = payloadsC;
+        this.childStarts = childStarts;
+        this.childCounts = childCounts;
+        this.children = children;
+        this.strings = strings;
+    }
+
+    public static FlatAst of(Program program) {
+        return FlatAstBuilder.build(program);
+    }
+
+    // each definition is flattened as soon as it is parsed, the objects of the whole program never exist at once
+    public static FlatAst parse(TokenManager tokenManager) {
+        var builder = new FlatAstBuilder(Position.pack(1, 1));
+        new ProgramParser(tokenManager).parseDefinitions(definition -> builder.add(definition, 0));
+        return builder.build();
+    }
+
+    // program whose definitions are materialized from this tree on first access, function bodies on first use
+    public Program toProgram() {
+        return new FlatAstAdapter(this).toProgram();
+    }
+
+    // writes the tree as PrintVisitor writes the program, without materializing its nodes
+    public void print(Writer writer) {
+        new FlatAstPrinter(this, writer).print();
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public FlatNodeKind getKind(int node) {
+        return FlatNodeKind.of(kinds[node]);
+    }
+
+    public int getRow(int node) {
+        return rows[node];
+    }
+
+    public int getCol(int node) {
+        return cols[node];
+    }
+
+    public int getPayloadA(int node) {
+        return payloadsA[node];
+    }
+
+    public int getPayloadB(int node) {
+        return payloadsB[node];
+    }
+
+    public int getPayloadC(int node) {
+        return payloadsC[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    public int getChild(int node, int index) {
+        if (index < 0 || index >= childCounts[node]) {
+            throw new IndexOutOfBoundsException("Child %d of node %d with %d children"
+                    .formatted(index, node, childCounts[node]));
+        }
+        return children[childStarts[node] + index];
+    }
+
+    public String getString(int index) {
+        return strings[index];
+    }
+
+    // nullable strings are stored as index + 1
+    public String getNullableString(int index) {
+        return index == 0 ? null : strings[index - 1];
+    }
+}
@@ -0,0 +1,272 @@
+package pl.interpreter.flat_ast;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import pl.interpreter.parser.AdditionOperator;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.FunctionReturnType;
+import pl.interpreter.parser.FunctionReturnTypeEnum;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.MultiplicationOperator;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.Position;
+import pl.interpreter.parser.PrimitiveType;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.RelationalOperator;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariableType;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Exposes a {@link FlatAst} as a {@link Program} for code written against the object tree. Definitions are
+ * materialized once, on first lookup, and function bodies once, on first use, so only the parts of the program that
+ * are actually reached exist as objects.
+ */
+class FlatAstAdapter {
+
+    private static final VariableType[] VARIABLE_TYPES = VariableType.values();
+    private static final FunctionReturnTypeEnum[] RETURN_TYPES = FunctionReturnTypeEnum.values();
+    private static final PrimitiveType[] PRIMITIVE_TYPES = PrimitiveType.values();
+    private static final RelationalOperator[] RELATIONAL_OPERATORS = RelationalOperator.values();
+    private static final AdditionOperator[] ADDITION_OPERATORS = AdditionOperator.values();
+    private static final MultiplicationOperator[] MULTIPLICATION_OPERATORS = MultiplicationOperator.values();
+
+    private final FlatAst ast;
+
+    FlatAstAdapter(FlatAst ast) {
+        this.ast = ast;
+    }
+
+    Program toProgram() {
+        var count = ast.getChildCount(FlatAst.ROOT);
+        var indexes = new HashMap<String, Integer>(count * 4 / 3 + 1);
+        for (var i = 0; i < count; ++i) {
+            indexes.put(ast.getString(ast.getPayloadA(ast.getChild(FlatAst.ROOT, i))), i);
+        }
+        return new Program(new DefinitionMap(indexes), position(FlatAst.ROOT));
+    }
+
+    // the block of a function is materialized when it is first asked for
+    Definition toDefinition(int node) {
+        var position = position(node);
+        return switch (ast.getKind(node)) {
+            case FUNCTION_DEFINITION -> {
+                var returnType = new FunctionReturnType(RETURN_TYPES[ast.getPayloadB(node)],
+                        ast.getNullableString(ast.getPayloadC(node)));
+                var parameterCount = ast.getChildCount(node) - 1;
+                var block = ast.getChild(node, parameterCount);
+                yield new FunctionDefinition(returnType, ast.getString(ast.getPayloadA(node)),
+                        toParameters(node, parameterCount), () -> toBlock(block), position);
+            }
+            case STRUCTURE_DEFINITION -> new StructureDefinition(ast.getString(ast.getPayloadA(node)),
+                    toParameters(node, ast.getChildCount(node)), position);
+            case VARIANT_DEFINITION -> {
+                var count = ast.getChildCount(node);
+                var structureIds = new ArrayList<String>(count);
+                for (var i = 0; i < count; ++i) {
+                    structureIds.add(ast.getString(ast.getChild(node, i)));
+                }
+                yield new VariantDefinition(ast.getString(ast.getPayloadA(node)), structureIds, position);
+            }
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private List<Parameter> toParameters(int node, int count) {
+        var parameters = new ArrayList<Parameter>(count);
+        for (var i = 0; i < count; ++i) {
+            var parameter = ast.getChild(node, i);
+            var type = new ParameterType(VARIABLE_TYPES[ast.getPayloadB(parameter)],
+                    ast.getNullableString(ast.getPayloadC(parameter)));
+            parameters.add(new Parameter(type, ast.getString(ast.getPayloadA(parameter)), position(parameter)));
+        }
+        return parameters;
+    }
+
+    private Block toBlock(int node) {
+        var count = ast.getChildCount(node);
+        var instructions = new ArrayList<Instruction>(count);
+        for (var i = 0; i < count; ++i) {
+            instructions.add(toInstruction(ast.getChild(node, i)));
+        }
+        return new Block(instructions, position(node));
+    }
+
+    private Instruction toInstruction(int node) {
+        var position = position(node);
+        return switch (ast.getKind(node)) {
+            case BLOCK -> toBlock(node);
+            case RETURN -> new ReturnStatement(ast.getChildCount(node) == 0 ? null : toChildExpression(node, 0),
+                    position);
+            case ASSIGNMENT -> new Assignment(ast.getString(ast.getPayloadA(node)), ast.getPayloadB(node),
+                    toChildExpression(node, 0), position);
+            case INITIALIZATION -> {
+                var typeAndVar = ast.getPayloadB(node);
+                yield new Initialization(ast.getString(ast.getPayloadA(node)),
+                        ast.getNullableString(ast.getPayloadC(node)), VARIABLE_TYPES[typeAndVar >>> 1],
+                        (typeAndVar & 1) != 0, toChildExpression(node, 0), position);
+            }
+            case FUNCTION_CALL -> toFunctionCall(node);
+            case IF -> new IfStatement(toChildExpression(node, 0), toInstruction(ast.getChild(node, 1)),
+                    ast.getChildCount(node) == 2 ? null : toInstruction(ast.getChild(node, 2)), position);
+            case WHILE -> new WhileStatement(toChildExpression(node, 0), toInstruction(ast.getChild(node, 1)),
+                    position);
+            case MATCH -> {
+                var count = ast.getChildCount(node);
+                var branches = new ArrayList<MatchBranch>(count - 1);
+                for (var i = 1; i < count; ++i) {
+                    var branch = ast.getChild(node, i);
+                    branches.add(new MatchBranch(ast.getNullableString(ast.getPayloadA(branch)),
+                            ast.getNullableString(ast.getPayloadB(branch)), toInstruction(ast.getChild(branch, 0)),
+                            position(branch)));
+                }
+                yield new MatchStatement(toChildExpression(node, 0), branches, position);
+            }
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private FunctionCall toFunctionCall(int node) {
+        var count = ast.getChildCount(node);
+        var arguments = new ArrayList<Expression>(count);
+        for (var i = 0; i < count; ++i) {
+            arguments.add(toChildExpression(node, i));
+        }
+        return new FunctionCall(ast.getString(ast.getPayloadA(node)), ast.getPayloadB(node), arguments,
+                position(node));
+    }
+
+    private Expression toChildExpression(int node, int index) {
+        return toExpression(ast.getChild(node, index));
+    }
+
+    private Expression toExpression(int node) {
+        var position = position(node);
+        return switch (ast.getKind(node)) {
+            case ALTERNATIVE -> new Alternative(toChildExpression(node, 0), toChildExpression(node, 1), position);
+            case CONJUNCTION -> new Conjunction(toChildExpression(node, 0), toChildExpression(node, 1), position);
+            case RELATION -> new Relation(toChildExpression(node, 0), RELATIONAL_OPERATORS[ast.getPayloadA(node)],
+                    toChildExpression(node, 1), position);
+            case CAST -> new Cast(toChildExpression(node, 0), PRIMITIVE_TYPES[ast.getPayloadA(node)], position);
+            case SUM -> new Sum(toChildExpression(node, 0), ADDITION_OPERATORS[ast.getPayloadA(node)],
+                    toChildExpression(node, 1), position);
+            case MULTIPLICATION -> new Multiplication(toChildExpression(node, 0),
+                    MULTIPLICATION_OPERATORS[ast.getPayloadA(node)], toChildExpression(node, 1), position);
+            case NEGATION -> new Negation(toChildExpression(node, 0), position);
+            case BOOLEAN_LITERAL -> new BooleanLiteral(ast.getPayloadA(node) != 0, position);
+            case INT_LITERAL -> new IntLiteral(ast.getPayloadA(node), position);
+            case FLOAT_LITERAL -> new FloatLiteral(Float.intBitsToFloat(ast.getPayloadA(node)), position);
+            case STRING_LITERAL -> new StringLiteral(ast.getString(ast.getPayloadA(node)), position);
+            case IDENTIFIER -> new Identifier(ast.getString(ast.getPayloadA(node)), ast.getPayloadB(node), position);
+            case DOT_ACCESS -> new DotAccess(toChildExpression(node, 0), ast.getString(ast.getPayloadA(node)),
+                    ast.getPayloadB(node), position);
+            case FUNCTION_CALL -> toFunctionCall(node);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private long position(int node) {
+        return Position.pack(ast.getRow(node), ast.getCol(node));
+    }
+
+    // definitions are materialized on first lookup and kept, indexed by their position among the program's children
+    private class DefinitionMap extends AbstractMap<String, Definition> {
+
+        private final Map<String, Integer> indexes;
+        private final AtomicReferenceArray<Definition> definitions;
+
+        DefinitionMap(Map<String, Integer> indexes) {
+            this.indexes = indexes;
+            this.definitions = new AtomicReferenceArray<>(indexes.size());
+        }
+
+        @Override
+        public Definition get(Object key) {
+            var index = indexes.get(key);
+            return index == null ? null : definition(index);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexes.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return indexes.size();
+        }
+
+        @Override
+        public Set<Entry<String, Definition>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Definition>> iterator() {
+                    var iterator = indexes.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Definition> next() {
+                            var entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), definition(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return indexes.size();
+                }
+            };
+        }
+
+        // a definition built by a racing thread is dropped, every caller sees the one stored first
+        private Definition definition(int index) {
+            var definition = definitions.get(index);
+            if (definition == null) {
+                var built = toDefinition(ast.getChild(FlatAst.ROOT, index));
+                definition = definitions.compareAndExchange(index, null, built);
+                if (definition == null) {
+                    definition = built;
+                }
+            }
+            return definition;
+        }
+    }
+}
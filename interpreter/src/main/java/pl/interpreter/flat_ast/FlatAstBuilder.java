@@ -0,0 +1,334 @@
+package pl.interpreter.flat_ast;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.Position;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+class FlatAstBuilder {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int[] cols = new int[INITIAL_CAPACITY];
+    private int[] payloadsA = new int[INITIAL_CAPACITY];
+    private int[] payloadsB = new int[INITIAL_CAPACITY];
+    private int[] payloadsC = new int[INITIAL_CAPACITY];
+    private int[] childStarts = new int[INITIAL_CAPACITY];
+    private int[] childCounts = new int[INITIAL_CAPACITY];
+    private int size;
+    private int[] children = new int[INITIAL_CAPACITY];
+    private int childrenSize;
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private int stringsSize;
+    // handles of the definitions, children of the program node
+    private int[] definitions = new int[INITIAL_CAPACITY];
+    private int definitionsSize;
+    // of the definition being added
+    private int rowOffset;
+
+    // the program node comes first, definitions are added after it
+    FlatAstBuilder(long programPosition) {
+        addNode(FlatNodeKind.PROGRAM, programPosition);
+    }
+
+    static FlatAst build(Program program) {
+        var builder = new FlatAstBuilder(program.getPackedPosition());
+        for (var definition : program.getDefinitions().values()) {
+            builder.add(definition, program.getRowOffset(definition));
+        }
+        return builder.build();
+    }
+
+    // nothing refers to the definition once it is added
+    void add(Definition definition, int rowOffset) {
+        this.rowOffset = rowOffset;
+        if (definitionsSize == definitions.length) {
+            definitions = Arrays.copyOf(definitions, definitionsSize * 2);
+        }
+        definitions[definitionsSize++] = addDefinition(definition);
+    }
+
+    FlatAst build() {
+        setChildren(FlatAst.ROOT, Arrays.copyOf(definitions, definitionsSize));
+        return new FlatAst(Arrays.copyOf(kinds, size), Arrays.copyOf(rows, size), Arrays.copyOf(cols, size),
+                Arrays.copyOf(payloadsA, size), Arrays.copyOf(payloadsB, size), Arrays.copyOf(payloadsC, size),
+                Arrays.copyOf(childStarts, size), Arrays.copyOf(childCounts, size),
+                Arrays.copyOf(children, childrenSize), Arrays.copyOf(strings, stringsSize));
+    }
+
+    private int addDefinition(Definition definition) {
+        return switch (definition) {
+            case FunctionDefinition functionDefinition -> {
+                var node = addNode(FlatNodeKind.FUNCTION_DEFINITION, functionDefinition);
+                setPayloads(node, string(functionDefinition.getId()), functionDefinition.getReturnType().type().ordinal(),
+                        nullableString(functionDefinition.getReturnType().userType()));
+                var parameters = functionDefinition.getParameters();
+                var handles = new int[parameters.size() + 1];
+                for (var i = 0; i < parameters.size(); ++i) {
+                    handles[i] = addParameter(parameters.get(i));
+                }
+                handles[parameters.size()] = addBlock(functionDefinition.getBlock());
+                setChildren(node, handles);
+                yield node;
+            }
+            case StructureDefinition structureDefinition -> {
+                var node = addNode(FlatNodeKind.STRUCTURE_DEFINITION, structureDefinition);
+                setPayloads(node, string(structureDefinition.getId()), 0, 0);
+                var parameters = structureDefinition.getParameters();
+                var handles = new int[parameters.size()];
+                for (var i = 0; i < parameters.size(); ++i) {
+                    handles[i] = addParameter(parameters.get(i));
+                }
+                setChildren(node, handles);
+                yield node;
+            }
+            case VariantDefinition variantDefinition -> {
+                var node = addNode(FlatNodeKind.VARIANT_DEFINITION, variantDefinition);
+                setPayloads(node, string(variantDefinition.getId()), 0, 0);
+                setChildren(node, variantDefinition.getStructureIds().stream().mapToInt(this::string).toArray());
+                yield node;
+            }
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private int addParameter(Parameter parameter) {
+        var node = addNode(FlatNodeKind.PARAMETER, parameter);
+        setPayloads(node, string(parameter.getId()), parameter.getType().variableType().ordinal(),
+                nullableString(parameter.getType().userType()));
+        return node;
+    }
+
+    private int addBlock(Block block) {
+        var node = addNode(FlatNodeKind.BLOCK, block);
+        var instructions = block.getInstructions();
+        var handles = new int[instructions.size()];
+        for (var i = 0; i < instructions.size(); ++i) {
+            handles[i] = addInstruction(instructions.get(i));
+        }
+        setChildren(node, handles);
+        return node;
+    }
+
+    private int addInstruction(Instruction instruction) {
+        return switch (instruction) {
+            case Block block -> addBlock(block);
+            case ReturnStatement returnStatement -> {
+                var node = addNode(FlatNodeKind.RETURN, returnStatement);
+                if (returnStatement.getExpression() != null) {
+                    setChildren(node, addExpression(returnStatement.getExpression()));
+                }
+                yield node;
+            }
+            case Assignment assignment -> {
+                var node = addNode(FlatNodeKind.ASSIGNMENT, assignment);
+                setPayloads(node, string(assignment.getId()), assignment.getSymbol(), 0);
+                setChildren(node, addExpression(assignment.getExpression()));
+                yield node;
+            }
+            case Initialization initialization -> {
+                var node = addNode(FlatNodeKind.INITIALIZATION, initialization);
+                setPayloads(node, string(initialization.getId()),
+                        initialization.getType().ordinal() << 1 | (initialization.isVar() ? 1 : 0),
+                        nullableString(initialization.getUserType()));
+                setChildren(node, addExpression(initialization.getExpression()));
+                yield node;
+            }
+            case FunctionCall functionCall -> addFunctionCall(functionCall);
+            case IfStatement ifStatement -> {
+                var node = addNode(FlatNodeKind.IF, ifStatement);
+                var expression = addExpression(ifStatement.getExpression());
+                var then = addInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() == null) {
+                    setChildren(node, expression, then);
+                } else {
+                    setChildren(node, expression, then, addInstruction(ifStatement.getElseInstruction()));
+                }
+                yield node;
+            }
+            case WhileStatement whileStatement -> {
+                var node = addNode(FlatNodeKind.WHILE, whileStatement);
+                var expression = addExpression(whileStatement.getExpression());
+                setChildren(node, expression, addInstruction(whileStatement.getInstruction()));
+                yield node;
+            }
+            case MatchStatement matchStatement -> {
+                var node = addNode(FlatNodeKind.MATCH, matchStatement);
+                List<MatchBranch> branches = matchStatement.getBranches();
+                var handles = new int[branches.size() + 1];
+                handles[0] = addExpression(matchStatement.getExpression());
+                for (var i = 0; i < branches.size(); ++i) {
+                    var branch = branches.get(i);
+                    var branchNode = addNode(FlatNodeKind.MATCH_BRANCH, branch);
+                    setPayloads(branchNode, nullableString(branch.getStructureId()),
+                            nullableString(branch.getFieldName()), 0);
+                    setChildren(branchNode, addInstruction(branch.getInstruction()));
+                    handles[i + 1] = branchNode;
+                }
+                setChildren(node, handles);
+                yield node;
+            }
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private int addFunctionCall(FunctionCall functionCall) {
+        var node = addNode(FlatNodeKind.FUNCTION_CALL, functionCall);
+        setPayloads(node, string(functionCall.getFunctionId()), functionCall.getFunctionSymbol(), 0);
+        var arguments = functionCall.getArguments();
+        var handles = new int[arguments.size()];
+        for (var i = 0; i < arguments.size(); ++i) {
+            handles[i] = addExpression(arguments.get(i));
+        }
+        setChildren(node, handles);
+        return node;
+    }
+
+    private int addExpression(Expression expression) {
+        return switch (expression) {
+            case Alternative alternative -> addBinary(FlatNodeKind.ALTERNATIVE, alternative, 0,
+                    alternative.getLeft(), alternative.getRight());
+            case Conjunction conjunction -> addBinary(FlatNodeKind.CONJUNCTION, conjunction, 0,
+                    conjunction.getLeft(), conjunction.getRight());
+            case Relation relation -> addBinary(FlatNodeKind.RELATION, relation, relation.getOperator().ordinal(),
+                    relation.getLeft(), relation.getRight());
+            case Sum sum -> addBinary(FlatNodeKind.SUM, sum, sum.getOperator().ordinal(), sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> addBinary(FlatNodeKind.MULTIPLICATION, multiplication,
+                    multiplication.getOperator().ordinal(), multiplication.getLeft(), multiplication.getRight());
+            case Cast cast -> {
+                var node = addNode(FlatNodeKind.CAST, cast);
+                setPayloads(node, cast.getToType().ordinal(), 0, 0);
+                setChildren(node, addExpression(cast.getExpression()));
+                yield node;
+            }
+            case Negation negation -> {
+                var node = addNode(FlatNodeKind.NEGATION, negation);
+                setChildren(node, addExpression(negation.getExpression()));
+                yield node;
+            }
+            case BooleanLiteral booleanLiteral -> addLeaf(FlatNodeKind.BOOLEAN_LITERAL, booleanLiteral,
+                    booleanLiteral.isTruthy() ? 1 : 0, 0);
+            case IntLiteral intLiteral -> addLeaf(FlatNodeKind.INT_LITERAL, intLiteral, intLiteral.getValue(), 0);
+            case FloatLiteral floatLiteral -> addLeaf(FlatNodeKind.FLOAT_LITERAL, floatLiteral,
+                    Float.floatToRawIntBits(floatLiteral.getValue()), 0);
+            case StringLiteral stringLiteral -> addLeaf(FlatNodeKind.STRING_LITERAL, stringLiteral,
+                    string(stringLiteral.getValue()), 0);
+            case Identifier identifier -> addLeaf(FlatNodeKind.IDENTIFIER, identifier, string(identifier.getValue()),
+                    identifier.getSymbol());
+            case DotAccess dotAccess -> {
+                var node = addNode(FlatNodeKind.DOT_ACCESS, dotAccess);
+                setPayloads(node, string(dotAccess.getFieldName()), dotAccess.getFieldSymbol(), 0);
+                setChildren(node, addExpression(dotAccess.getExpression()));
+                yield node;
+            }
+            case FunctionCall functionCall -> addFunctionCall(functionCall);
+            default -> throw new UnknownNodeException();
+        };
+    }
+
+    private int addBinary(FlatNodeKind kind, Statement statement, int operator, Expression left, Expression right) {
+        var node = addNode(kind, statement);
+        setPayloads(node, operator, 0, 0);
+        var leftNode = addExpression(left);
+        setChildren(node, leftNode, addExpression(right));
+        return node;
+    }
+
+    private int addLeaf(FlatNodeKind kind, Statement statement, int payloadA, int payloadB) {
+        var node = addNode(kind, statement);
+        setPayloads(node, payloadA, payloadB, 0);
+        return node;
+    }
+
+    private int addNode(FlatNodeKind kind, Statement statement) {
+        return addNode(kind, statement.getPackedPosition());
+    }
+
+    private int addNode(FlatNodeKind kind, long position) {
+        if (size == kinds.length) {
+            var capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            payloadsA = Arrays.copyOf(payloadsA, capacity);
+            payloadsB = Arrays.copyOf(payloadsB, capacity);
+            payloadsC = Arrays.copyOf(payloadsC, capacity);
+            childStarts = Arrays.copyOf(childStarts, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        rows[size] = Position.rowOf(position) + rowOffset;
+        cols[size] = Position.colOf(position);
+        return size++;
+    }
+
+    private void setPayloads(int node, int a, int b, int c) {
+        payloadsA[node] = a;
+        payloadsB[node] = b;
+        payloadsC[node] = c;
+    }
+
+    // children are appended after all of them were built, so ranges of nested nodes never interleave
+    private void setChildren(int node, int... handles) {
+        while (childrenSize + handles.length > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        System.arraycopy(handles, 0, children, childrenSize, handles.length);
+        childStarts[node] = childrenSize;
+        childCounts[node] = handles.length;
+        childrenSize += handles.length;
+    }
+
+    private int string(String string) {
+        var index = stringIndexes.get(string);
+        if (index == null) {
+            if (stringsSize == strings.length) {
+                strings = Arrays.copyOf(strings, stringsSize * 2);
+            }
+            index = stringsSize++;
+            strings[index] = string;
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    private int nullableString(String string) {
+        return string == null ? 0 : string(string) + 1;
+    }
+}
@@ -0,0 +1,197 @@
+package pl.interpreter.flat_ast;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import pl.interpreter.parser.AdditionOperator;
+import pl.interpreter.parser.FunctionReturnTypeEnum;
+import pl.interpreter.parser.MultiplicationOperator;
+import pl.interpreter.parser.PrimitiveType;
+import pl.interpreter.parser.RelationalOperator;
+import pl.interpreter.parser.VariableType;
+
+/**
+ * Writes a {@link FlatAst} in the format of {@link pl.interpreter.parser.PrintVisitor}, reading the node handles
+ * directly. Children are written in the order they are stored, which is the order the visitor writes them in.
+ */
+class FlatAstPrinter {
+
+    private static final VariableType[] VARIABLE_TYPES = VariableType.values();
+    private static final FunctionReturnTypeEnum[] RETURN_TYPES = FunctionReturnTypeEnum.values();
+    private static final PrimitiveType[] PRIMITIVE_TYPES = PrimitiveType.values();
+    private static final RelationalOperator[] RELATIONAL_OPERATORS = RelationalOperator.values();
+    private static final AdditionOperator[] ADDITION_OPERATORS = AdditionOperator.values();
+    private static final MultiplicationOperator[] MULTIPLICATION_OPERATORS = MultiplicationOperator.values();
+
+    private static final int DEPTH_STEP = 2;
+
+    private final FlatAst ast;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder();
+    private boolean firstParam;
+
+    FlatAstPrinter(FlatAst ast, Writer writer) {
+        this.ast = ast;
+        this.writer = writer;
+    }
+
+    void print() {
+        beginNode("Program", FlatAst.ROOT, 0);
+        endNode();
+        var definitions = new Integer[ast.getChildCount(FlatAst.ROOT)];
+        for (var i = 0; i < definitions.length; ++i) {
+            definitions[i] = ast.getChild(FlatAst.ROOT, i);
+        }
+        Arrays.sort(definitions, Comparator.comparing(definition -> ast.getString(ast.getPayloadA(definition))));
+        for (var definition : definitions) {
+            printNode(definition, DEPTH_STEP);
+        }
+    }
+
+    private void printNode(int node, int depth) {
+        switch (ast.getKind(node)) {
+            case FUNCTION_DEFINITION -> {
+                beginNode("FunctionDefinition", node, depth);
+                param("id", ast.getString(ast.getPayloadA(node)));
+                param("return_type", RETURN_TYPES[ast.getPayloadB(node)].toString());
+                var userType = ast.getNullableString(ast.getPayloadC(node));
+                if (userType != null) {
+                    param("user_type", userType);
+                }
+            }
+            case STRUCTURE_DEFINITION -> {
+                beginNode("StructureDefinition", node, depth);
+                param("id", ast.getString(ast.getPayloadA(node)));
+            }
+            case VARIANT_DEFINITION -> {
+                beginNode("VariantDefinition", node, depth);
+                param("id", ast.getString(ast.getPayloadA(node)));
+                endNode();
+                for (var i = 0; i < ast.getChildCount(node); ++i) {
+                    prefix(depth + DEPTH_STEP);
+                    line.append("Type id=").append(ast.getString(ast.getChild(node, i)));
+                    endNode();
+                }
+                return;
+            }
+            case PARAMETER -> {
+                prefix(depth);
+                line.append("Parameter id=").append(ast.getString(ast.getPayloadA(node)))
+                        .append(", type=").append(VARIABLE_TYPES[ast.getPayloadB(node)]);
+                var userType = ast.getNullableString(ast.getPayloadC(node));
+                if (userType != null) {
+                    line.append(", userType=").append(userType);
+                }
+            }
+            case BLOCK -> beginNode("Block", node, depth);
+            case RETURN -> beginNode("ReturnStatement", node, depth);
+            case ASSIGNMENT -> {
+                beginNode("Assignment", node, depth);
+                param("id", ast.getString(ast.getPayloadA(node)));
+            }
+            case INITIALIZATION -> {
+                beginNode("Initialization", node, depth);
+                var typeAndVar = ast.getPayloadB(node);
+                param("id", ast.getString(ast.getPayloadA(node)));
+                param("var", String.valueOf((typeAndVar & 1) != 0));
+                param("type", VARIABLE_TYPES[typeAndVar >>> 1].toString());
+                var userType = ast.getNullableString(ast.getPayloadC(node));
+                if (userType != null) {
+                    param("user_type", userType);
+                }
+            }
+            case IF -> beginNode("IfStatement", node, depth);
+            case WHILE -> beginNode("WhileStatement", node, depth);
+            case MATCH -> beginNode("MatchStatement", node, depth);
+            case MATCH_BRANCH -> {
+                beginNode("MatchBranch", node, depth);
+                param("type", ast.getNullableString(ast.getPayloadA(node)));
+                param("field_name", ast.getNullableString(ast.getPayloadB(node)));
+            }
+            case FUNCTION_CALL -> {
+                beginNode("FunctionCall", node, depth);
+                param("function_id", ast.getString(ast.getPayloadA(node)));
+            }
+            case ALTERNATIVE -> beginNode("Alternative", node, depth);
+            case CONJUNCTION -> beginNode("Conjunction", node, depth);
+            case RELATION -> {
+                beginNode("Relation", node, depth);
+                param("operator", '"' + RELATIONAL_OPERATORS[ast.getPayloadA(node)].toString() + '"');
+            }
+            case CAST -> {
+                beginNode("Cast", node, depth);
+                param("type", PRIMITIVE_TYPES[ast.getPayloadA(node)].toString());
+            }
+            case SUM -> {
+                beginNode("Sum", node, depth);
+                param("operator", '"' + ADDITION_OPERATORS[ast.getPayloadA(node)].toString() + '"');
+            }
+            case MULTIPLICATION -> {
+                beginNode("Multiplication", node, depth);
+                param("operator", '"' + MULTIPLICATION_OPERATORS[ast.getPayloadA(node)].toString() + '"');
+            }
+            case NEGATION -> beginNode("Negation", node, depth);
+            case BOOLEAN_LITERAL -> {
+                beginNode("BooleanLiteral", node, depth);
+                param("value", String.valueOf(ast.getPayloadA(node) != 0));
+            }
+            case INT_LITERAL -> {
+                beginNode("IntLiteral", node, depth);
+                param("value", String.valueOf(ast.getPayloadA(node)));
+            }
+            case FLOAT_LITERAL -> {
+                beginNode("FloatLiteral", node, depth);
+                param("value", String.valueOf(Float.intBitsToFloat(ast.getPayloadA(node))));
+            }
+            case STRING_LITERAL -> {
+                beginNode("StringLiteral", node, depth);
+                param("value", ast.getString(ast.getPayloadA(node)));
+            }
+            case IDENTIFIER -> {
+                beginNode("Identifier", node, depth);
+                param("id", ast.getString(ast.getPayloadA(node)));
+            }
+            case DOT_ACCESS -> {
+                beginNode("DotAccess", node, depth);
+                param("field_name", ast.getString(ast.getPayloadA(node)));
+            }
+            case PROGRAM -> throw new IllegalStateException("Program node below the root");
+        }
+        endNode();
+        for (var i = 0; i < ast.getChildCount(node); ++i) {
+            printNode(ast.getChild(node, i), depth + DEPTH_STEP);
+        }
+    }
+
+    private void prefix(int depth) {
+        if (depth >= DEPTH_STEP) {
+            line.repeat(' ', depth - DEPTH_STEP).append("|-");
+        }
+    }
+
+    private void beginNode(String name, int node, int depth) {
+        prefix(depth);
+        line.append(name).append(" <row: ").append(ast.getRow(node)).append(", col: ").append(ast.getCol(node))
+                .append("> ");
+        firstParam = true;
+    }
+
+    private void param(String name, String value) {
+        if (!firstParam) {
+            line.append(", ");
+        }
+        firstParam = false;
+        line.append(name).append('=').append(value);
+    }
+
+    private void endNode() {
+        line.append('\n');
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            throw new RuntimeException("IOException occurred when writing");
+        }
+        line.setLength(0);
+    }
+}
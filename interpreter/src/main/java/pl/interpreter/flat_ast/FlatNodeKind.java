@@ -0,0 +1,68 @@
+package pl.interpreter.flat_ast;
+
+/**
+ * Kinds of {@link FlatAst} nodes. Comments list the payloads (a, b, c) and children of each kind, strings are indexes
+ * into the string pool and nullable strings are stored as index + 1 with 0 meaning null.
+ */
+public enum FlatNodeKind {
+    // children: definitions
+    PROGRAM,
+    // a: id, b: return type ordinal, c: nullable user type; children: parameters, block
+    FUNCTION_DEFINITION,
+    // a: id; children: parameters
+    STRUCTURE_DEFINITION,
+    // a: id; children: string indexes of structure ids
+    VARIANT_DEFINITION,
+    // a: id, b: variable type ordinal, c: nullable user type
+    PARAMETER,
+    // children: instructions
+    BLOCK,
+    // children: expression if present
+    RETURN,
+    // a: id, b: symbol; children: expression
+    ASSIGNMENT,
+    // a: id, b: variable type ordinal << 1 | var, c: nullable user type; children: expression
+    INITIALIZATION,
+    // children: expression, instruction, else instruction if present
+    IF,
+    // children: expression, instruction
+    WHILE,
+    // children: expression, branches
+    MATCH,
+    // a: nullable structure id, b: nullable field name; children: instruction
+    MATCH_BRANCH,
+    // a: function id, b: symbol; children: arguments
+    FUNCTION_CALL,
+    // children: left, right
+    ALTERNATIVE,
+    // children: left, right
+    CONJUNCTION,
+    // a: operator ordinal; children: left, right
+    RELATION,
+    // a: primitive type ordinal; children: expression
+    CAST,
+    // a: operator ordinal; children: left, right
+    SUM,
+    // a: operator ordinal; children: left, right
+    MULTIPLICATION,
+    // children: expression
+    NEGATION,
+    // a: 1 if true
+    BOOLEAN_LITERAL,
+    // a: value
+    INT_LITERAL,
+    // a: raw float bits
+    FLOAT_LITERAL,
+    // a: value
+    STRING_LITERAL,
+    // a: name, b: symbol
+    IDENTIFIER,
+    // a: field name, b: symbol; children: expression
+    DOT_ACCESS;
+
+    private static final FlatNodeKind[] VALUES = values();
+
+    static FlatNodeKind of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
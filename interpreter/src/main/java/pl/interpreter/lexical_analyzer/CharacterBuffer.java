@@ -0,0 +1,156 @@
+package pl.interpreter.lexical_analyzer;
+
+class CharacterBuffer {
+
+    static final char EOF = 0xFFFF;
+    private static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    @FunctionalInterface
+    interface CharPredicate {
+        boolean test(char c);
+    }
+
+    private final CharacterSource source;
+    private final char[] block;
+    private int position;
+    private int limit;
+    private int blockOffset;
+    private boolean exhausted;
+    private int row;
+    private int col;
+
+    CharacterBuffer(CharacterSource source) {
+        this(source, DEFAULT_BLOCK_SIZE, 1, 1);
+    }
+
+    CharacterBuffer(CharacterSource source, int row, int col) {
+        this(source, blockSize(source), row, col);
+    }
+
+    CharacterBuffer(CharacterSource source, int blockSize, int row, int col) {
+        this.source = source;
+        this.block = new char[blockSize];
+        this.row = row;
+        this.col = col;
+    }
+
+    // fragments lexed on their own are usually much shorter than the default block
+    private static int blockSize(CharacterSource source) {
+        var remaining = source.remaining();
+        return remaining < 0 ? DEFAULT_BLOCK_SIZE : Math.max(1, Math.min(remaining, DEFAULT_BLOCK_SIZE));
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    int getCol() {
+        return col;
+    }
+
+    int getOffset() {
+        return blockOffset + position;
+    }
+
+    void retreatColumn() {
+        --col;
+    }
+
+    char current() {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return block[position];
+    }
+
+    void advance() {
+        if (position == limit && !fill()) {
+            return;
+        }
+        if (block[position++] == '\n') {
+            ++row;
+            col = 1;
+        } else {
+            ++col;
+        }
+    }
+
+    void skipWhitespaces() {
+        while (position < limit || fill()) {
+            var chars = block;
+            var end = limit;
+            var i = position;
+            while (i < end && Character.isWhitespace(chars[i])) {
+                if (chars[i] == '\n') {
+                    ++row;
+                    col = 1;
+                } else {
+                    ++col;
+                }
+                ++i;
+            }
+            position = i;
+            if (i < end) {
+                return;
+            }
+        }
+    }
+
+    // predicate must not accept a newline character, columns are advanced without checking
+    int appendWhile(CharPredicate predicate, StringBuilder builder) {
+        var count = 0;
+        while (position < limit || fill()) {
+            var chars = block;
+            var end = limit;
+            var start = position;
+            var i = start;
+            while (i < end && predicate.test(chars[i])) {
+                ++i;
+            }
+            builder.append(chars, start, i - start);
+            count += i - start;
+            col += i - start;
+            position = i;
+            if (i < end) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    // predicate must not accept a newline character, columns are advanced without checking
+    int skipWhile(CharPredicate predicate) {
+        var count = 0;
+        while (position < limit || fill()) {
+            var chars = block;
+            var end = limit;
+            var start = position;
+            var i = start;
+            while (i < end && predicate.test(chars[i])) {
+                ++i;
+            }
+            count += i - start;
+            col += i - start;
+            position = i;
+            if (i < end) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private boolean fill() {
+        if (exhausted) {
+            return false;
+        }
+        var read = source.read(block);
+        if (read <= 0) {
+            exhausted = true;
+            return false;
+        }
+        blockOffset += limit;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
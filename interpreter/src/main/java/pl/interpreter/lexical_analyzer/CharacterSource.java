@@ -0,0 +1,18 @@
+package pl.interpreter.lexical_analyzer;
+
+@FunctionalInterface
+public interface CharacterSource {
+
+    /**
+     * Fills given block with next characters of the source, starting at index 0.
+     * @return number of characters written or -1 if the source is exhausted
+     */
+    int read(char[] block);
+
+    /**
+     * @return number of characters left in the source or -1 if it is not known, lets short sources use a smaller block
+     */
+    default int remaining() {
+        return -1;
+    }
+}
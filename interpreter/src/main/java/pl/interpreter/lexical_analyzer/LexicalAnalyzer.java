@@ -1,11 +1,6 @@
 package pl.interpreter.lexical_analyzer;
 
-import java.io.IOException;
 import java.io.Reader;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Supplier;
 import lombok.NonNull;
 import pl.interpreter.Token;
 import pl.interpreter.TokenType;
@@ -15,289 +10,248 @@ public class LexicalAnalyzer {
     private static final int MAX_INTEGER_VALUE = Integer.MAX_VALUE;
     private static final int MAX_WORD_LENGTH_LIMIT = 256;
     private static final int MAX_FLOAT_PRECISION = 7;
-    private static final Character STRING_BORDER_CHARACTER = '"';
-    private static final Character RADIX_POINT = '.';
+    private static final char STRING_BORDER_CHARACTER = '"';
+    private static final char RADIX_POINT = '.';
 
-    final Reader reader;
-    private char lastCharacterRead;
-    private int cursorRow;
-    private int cursorCol;
+    private final CharacterBuffer characters;
+    private final StringBuilder lexeme;
+    private TokenType tokenType;
+    private int tokenRow;
+    private int tokenCol;
+    private int tokenOffset;
+    private int tokenSymbol;
+    private int tokenInt;
+    private float tokenFloat;
+    private char tokenChar;
+    private String tokenText;
 
-    private final Map<String, TokenType> keywords;
-    private final Map<Character, Supplier<Token>> operatorTokenSuppliers;
+    private final SymbolTable symbolTable;
 
     public LexicalAnalyzer(@NonNull Reader reader) {
-        this.reader = reader;
-        readNext();
-        cursorCol = 1;
-        cursorRow = 1;
-        keywords = LexicalAnalysisStaticProvider.getKeywords();
-        operatorTokenSuppliers = new HashMap<>();
-        prepareOperatorTokenSuppliers();
+        this(new ReaderCharacterSource(reader));
     }
 
-    public Token getNextToken() {
-        clearWhitespacesUntilFirstCharacterRead();
-        if (lastCharacterRead == 0xFFFF) {
-            return new Token(TokenType.EOF, null, cursorRow, cursorCol);
-        }
-        Optional<Token> optionalToken = tryToBuildOperatorToken();
-        if (optionalToken.isPresent()) {
-            return optionalToken.get();
-        }
-        optionalToken = tryToBuildNumberToken();
-        if (optionalToken.isPresent()) {
-            return optionalToken.get();
-        }
-        optionalToken = tryToBuildStringToken();
-        if (optionalToken.isPresent()) {
-            return optionalToken.get();
-        }
-        optionalToken = tryToBuildWordToken();
-        if (optionalToken.isPresent()) {
-            return optionalToken.get();
-        }
-        throw new LexicalAnalyzerException("Illegal character found.", cursorRow, cursorCol);
+    public LexicalAnalyzer(@NonNull CharacterSource source) {
+        this(source, new SymbolTable());
     }
 
-    private void prepareOperatorTokenSuppliers() {
-        operatorTokenSuppliers.put('+', () -> new Token(TokenType.ADD_OPERATOR, '+', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('-', () -> chooseOperatorToken('>',
-                new Token(TokenType.SUBTRACT_OPERATOR, '-', cursorRow, cursorCol),
-                new Token(TokenType.ARROW, "->", cursorRow, cursorCol)));
-        operatorTokenSuppliers.put('*', () -> new Token(TokenType.MULTIPLY_OPERATOR, '*', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('/', this::supplyForwardDash);
-        operatorTokenSuppliers.put('%', () -> new Token(TokenType.MODULO_OPERATOR, '%', cursorRow, cursorCol));
-        operatorTokenSuppliers.put(',', () -> new Token(TokenType.COMMA, ',', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('.', () -> new Token(TokenType.DOT, '.', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('<', () -> chooseOperatorToken('=',
-                new Token(TokenType.LESS_THAN_OPERATOR, '<', cursorRow, cursorCol),
-                new Token(TokenType.LESS_THAN_OR_EQUALS_OPERATOR, "<=", cursorRow, cursorCol)));
-        operatorTokenSuppliers.put('>', () -> chooseOperatorToken('=',
-                new Token(TokenType.GREATER_THAN_OPERATOR, '>', cursorRow, cursorCol),
-                new Token(TokenType.GREATER_THAN_OR_EQUALS_OPERATOR, ">=", cursorRow, cursorCol)));
-        operatorTokenSuppliers.put('!', () -> chooseOperatorToken('=',
-                new Token(TokenType.NEGATION_OPERATOR, '!', cursorRow, cursorCol),
-                new Token(TokenType.NOT_EQUALS_OPERATOR, "!=", cursorRow, cursorCol)));
-        operatorTokenSuppliers.put('=', () -> chooseOperatorToken('=',
-                new Token(TokenType.ASSIGNMENT, '=', cursorRow, cursorCol),
-                new Token(TokenType.EQUALS_OPERATOR, "==", cursorRow, cursorCol)));
-        operatorTokenSuppliers.put('(', () -> new Token(TokenType.LEFT_PARENTHESES, '(', cursorRow, cursorCol));
-        operatorTokenSuppliers.put(')', () -> new Token(TokenType.RIGHT_PARENTHESES, ')', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('{', () -> new Token(TokenType.LEFT_CURLY_BRACKET, '{', cursorRow, cursorCol));
-        operatorTokenSuppliers.put('}', () -> new Token(TokenType.RIGHT_CURLY_BRACKET, '}', cursorRow, cursorCol));
-        operatorTokenSuppliers.put(';', () -> new Token(TokenType.SEMICOLON, ';', cursorRow, cursorCol));
+    public LexicalAnalyzer(@NonNull CharacterSource source, @NonNull SymbolTable symbolTable) {
+        this(source, symbolTable, 1, 1);
     }
 
-    private Token supplyForwardDash() {
-        return switch (lastCharacterRead) {
-            case '/' -> getLineCommentToken();
-            case '*' -> getMultilineCommentToken();
-            default -> new Token(TokenType.DIVIDE_OPERATOR, '/', cursorRow, cursorCol);
-        };
+    // row and col of the first character, used when lexing a fragment of a larger source
+    public LexicalAnalyzer(@NonNull CharacterSource source, @NonNull SymbolTable symbolTable, int row, int col) {
+        characters = new CharacterBuffer(source, row, col);
+        lexeme = new StringBuilder();
+        this.symbolTable = symbolTable;
     }
 
-    private Token getLineCommentToken() {
-        var cursorColIncrement = 0;
-        while (lastCharacterRead != 0xFFFF && lastCharacterRead != '\n') {
-            ++cursorColIncrement;
-            readNext();
-        }
-        var token = new Token(TokenType.COMMENT, null, cursorRow, cursorCol);
-        cursorCol += cursorColIncrement;
-        if(lastCharacterRead == '\n') {
-            cursorCol = 1;
-            ++cursorRow;
-        }
-        readNext();
-        return token;
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
     }
 
-    private Token getMultilineCommentToken() {
-        var lastCharBeforeRead = ' ';
-        readNext();
-        var newCursorCol = cursorCol;
-        var cursorRowIncrement = 0;
-        while (!concatChars(lastCharBeforeRead, lastCharacterRead).equals("*/")) {
-            if (lastCharacterRead == '\n') {
-                newCursorCol = 1;
-                ++cursorRowIncrement;
-            } else {
-                ++newCursorCol;
-            }
-            lastCharBeforeRead = lastCharacterRead;
-            readNext();
-        }
-        var token = new Token(TokenType.COMMENT, null, cursorCol, cursorRow);
-        cursorCol = newCursorCol + 3;
-        cursorRow += cursorRowIncrement;
-        readNext();
-        return token;
+    public TokenType getTokenType() {
+        return tokenType;
     }
 
-    private String concatChars(char a, char b) {
-        return String.valueOf(a) + b;
+    public int getTokenRow() {
+        return tokenRow;
     }
 
-    private Token chooseOperatorToken(char secondOperatorChar, Token ifIsSingly, Token ifIsDoubly) {
-        return lastCharacterRead == secondOperatorChar ? ifIsDoubly : ifIsSingly;
+    public int getTokenCol() {
+        return tokenCol;
     }
 
-    private void readNext() {
-        try {
-            lastCharacterRead = (char) reader.read();
-        } catch (IOException e) {
-            throw new InterpreterIOException(e.getMessage());
-        }
+    public int getTokenSymbol() {
+        return tokenSymbol;
     }
 
-    private void clearWhitespacesUntilFirstCharacterRead() {
-        while (Character.isWhitespace(lastCharacterRead)) {
-            if (lastCharacterRead == '\n') {
-                cursorCol = 1;
-                ++cursorRow;
-            } else {
-                ++cursorCol;
-            }
-            readNext();
-        }
+    public int getTokenOffset() {
+        return tokenOffset;
+    }
+
+    public int getTokenLength() {
+        return characters.getOffset() - tokenOffset;
+    }
+
+    public int getTokenInt() {
+        return tokenInt;
+    }
+
+    public float getTokenFloat() {
+        return tokenFloat;
     }
 
-    private Optional<Token> tryToBuildOperatorToken() {
-        if(!operatorTokenSuppliers.containsKey(lastCharacterRead)) {
-            return Optional.empty();
+    public char getTokenChar() {
+        return tokenChar;
+    }
+
+    public String getTokenText() {
+        return tokenText;
+    }
+
+    public Object getTokenValue() {
+        return switch (tokenType) {
+            case INT_CONST -> tokenInt;
+            case FLOAT_CONST -> tokenFloat;
+            case EOF, COMMENT -> null;
+            default -> tokenText == null ? (Object) tokenChar : tokenText;
+        };
+    }
+
+    public Token getNextToken() {
+        scanNextToken();
+        return new Token(tokenType, getTokenValue(), tokenRow, tokenCol);
+    }
+
+    /**
+     * Scans the next token without materializing it, its attributes are available through the getToken* accessors
+     * until the next call.
+     */
+    public TokenType scanNextToken() {
+        characters.skipWhitespaces();
+        tokenRow = characters.getRow();
+        tokenCol = characters.getCol();
+        tokenOffset = characters.getOffset();
+        tokenSymbol = SymbolTable.NO_SYMBOL;
+        tokenText = null;
+        var current = characters.current();
+        if (current == CharacterBuffer.EOF) {
+            return tokenType = TokenType.EOF;
         }
+        return tokenType = switch (ScannerTables.classOf(current)) {
+            case ScannerTables.OPERATOR -> scanOperator();
+            case ScannerTables.DIGIT -> scanNumber();
+            case ScannerTables.QUOTE -> scanString();
+            case ScannerTables.LETTER -> scanWord();
+            default -> throw new LexicalAnalyzerException("Illegal character found.", tokenRow, tokenCol);
+        };
+    }
 
-        var firstCharacter = lastCharacterRead;
-        readNext();
-        var token = operatorTokenSuppliers.get(firstCharacter).get();
-        if (token.type() == TokenType.COMMENT) {
-            return Optional.of(token);
+    private TokenType scanOperator() {
+        var state = ScannerTables.START;
+        var next = ScannerTables.next(state, characters.current());
+        while (next != ScannerTables.NO_STATE) {
+            characters.advance();
+            state = next;
+            next = ScannerTables.next(state, characters.current());
         }
-        var tokenValue = token.value();
-        if (tokenValue instanceof String s) {
-            cursorCol += s.length();
-            readNext();
-        } else if (tokenValue instanceof Character) {
-            cursorCol += 1;
+        if (state == ScannerTables.LINE_COMMENT) {
+            skipLineComment();
+        } else if (state == ScannerTables.MULTILINE_COMMENT) {
+            skipMultilineComment();
+        }
+        var text = ScannerTables.acceptedText(state);
+        if (text.length() == 1) {
+            tokenChar = text.charAt(0);
         } else {
-            throw new LexicalAnalyzerException("Could not build operator token", cursorRow, cursorCol);
+            tokenText = text;
         }
-        return Optional.of(token);
+        return ScannerTables.acceptedType(state);
     }
 
-    private Optional<Token> tryToBuildNumberToken() {
-        if(!Character.isDigit(lastCharacterRead)) {
-            return Optional.empty();
+    private void skipLineComment() {
+        characters.skipWhile(c -> c != '\n' && c != CharacterBuffer.EOF);
+        if (characters.current() == CharacterBuffer.EOF) {
+            // EOF following a line comment has always been reported at the comment's last column
+            characters.retreatColumn();
         }
+        characters.advance();
+    }
 
-        int number = Character.getNumericValue(lastCharacterRead);
-        int numberDigits = 1;
-        readNext();
+    private void skipMultilineComment() {
+        var lastCharBeforeRead = ' ';
+        while (lastCharBeforeRead != '*' || characters.current() != '/') {
+            if (characters.current() == CharacterBuffer.EOF) {
+                throw new LexicalAnalyzerException("Expected \"*/\"", tokenRow, tokenCol);
+            }
+            lastCharBeforeRead = characters.current();
+            characters.advance();
+        }
+        characters.advance();
+    }
+
+    private TokenType scanNumber() {
+        int number = Character.getNumericValue(characters.current());
+        characters.advance();
         if(number != 0) {
-            while (Character.isDigit(lastCharacterRead)) {
-                int lastDigitRead = Character.getNumericValue(lastCharacterRead);
+            lexeme.setLength(0);
+            characters.appendWhile(Character::isDigit, lexeme);
+            for (var i = 0; i < lexeme.length(); ++i) {
+                int lastDigitRead = Character.getNumericValue(lexeme.charAt(i));
                 checkDoesNotExceedLimit(number, lastDigitRead);
                 number = number * 10 + lastDigitRead;
-                ++numberDigits;
-                readNext();
             }
         }
 
-        if (lastCharacterRead != RADIX_POINT) {
-            var token = Optional.of(new Token(TokenType.INT_CONST, number, cursorRow, cursorCol));
-            cursorCol += numberDigits;
-            return token;
+        if (characters.current() != RADIX_POINT) {
+            tokenInt = number;
+            return TokenType.INT_CONST;
         }
-        readNext();
+        characters.advance();
 
-        if (!Character.isDigit(lastCharacterRead)) {
-            throw new LexicalAnalyzerException("Invalid float literal" , cursorRow, cursorCol);
+        if (!Character.isDigit(characters.current())) {
+            throw new LexicalAnalyzerException("Invalid float literal" , tokenRow, tokenCol);
         }
 
         int decimalNumber = 0;
         int decimalPrecision = 0;
-        while (Character.isDigit(lastCharacterRead)) {
-            int lastDigitRead = Character.getNumericValue(lastCharacterRead);
+        lexeme.setLength(0);
+        characters.appendWhile(Character::isDigit, lexeme);
+        for (var i = 0; i < lexeme.length(); ++i) {
+            int lastDigitRead = Character.getNumericValue(lexeme.charAt(i));
             checkDoesNotExceedLimit(decimalNumber, lastDigitRead);
             checkDoesNotExceedMaxPrecision(decimalPrecision);
             decimalNumber = decimalNumber * 10 + lastDigitRead;
             ++decimalPrecision;
-            readNext();
         }
-        float floatNumber = (float) (number + decimalNumber / Math.pow(10, decimalPrecision));
-        var token = Optional.of(new Token(TokenType.FLOAT_CONST, floatNumber, cursorRow, cursorCol));
-        cursorCol += numberDigits + 1 + decimalPrecision;
-        return token;
+        tokenFloat = (float) (number + decimalNumber / Math.pow(10, decimalPrecision));
+        return TokenType.FLOAT_CONST;
     }
 
     private void checkDoesNotExceedLimit(int number, int newDigit) {
         if ((MAX_INTEGER_VALUE - newDigit) / 10 < number) {
-            throw new LexicalAnalyzerException("Integer is too large", cursorRow, cursorCol);
+            throw new LexicalAnalyzerException("Integer is too large", tokenRow, tokenCol);
         }
     }
 
     private void checkDoesNotExceedMaxPrecision(int decimalPrecision) {
         if (MAX_FLOAT_PRECISION < decimalPrecision) {
-            throw new LexicalAnalyzerException("Float precision is too big", cursorRow, cursorCol);
+            throw new LexicalAnalyzerException("Float precision is too big", tokenRow, tokenCol);
         }
     }
 
-    private Optional<Token> tryToBuildStringToken() {
-        if(!STRING_BORDER_CHARACTER.equals(lastCharacterRead)) {
-            return Optional.empty();
-        }
-        var builder = new StringBuilder();
+    private TokenType scanString() {
+        lexeme.setLength(0);
         var escapeNext = false;
-        var backslashCounter = 0;
-        readNext();
-        while (!STRING_BORDER_CHARACTER.equals(lastCharacterRead) || escapeNext) {
-            if(lastCharacterRead == '\\' && !escapeNext) {
+        characters.advance();
+        while (characters.current() != STRING_BORDER_CHARACTER || escapeNext) {
+            var character = characters.current();
+            if(character == '\\' && !escapeNext) {
                 escapeNext = true;
-                ++backslashCounter;
-                readNext();
+                characters.advance();
                 continue;
             }
-            if(lastCharacterRead == 0xFFFF || lastCharacterRead == '\n') {
-                throw new LexicalAnalyzerException("Expected '\"'" , cursorCol, cursorRow);
+            if(character == CharacterBuffer.EOF || character == '\n') {
+                throw new LexicalAnalyzerException("Expected '\"'" , tokenRow, tokenCol);
             }
             escapeNext = false;
-            builder.append(lastCharacterRead);
-            readNext();
+            lexeme.append(character);
+            characters.advance();
         }
-        readNext();
-        var token = new Token(TokenType.STRING_CONST, builder.toString(), cursorRow, cursorCol);
-        cursorCol += builder.length() + backslashCounter + 2;
-        return Optional.of(token);
+        characters.advance();
+        tokenText = lexeme.toString();
+        return TokenType.STRING_CONST;
     }
 
-    private boolean isLegalWordCharacter(Character c) {
-        return c == '_' || Character.isLetter(c);
-    }
-
-    private Optional<Token> tryToBuildWordToken() {
-        if(!isLegalWordCharacter(lastCharacterRead)) {
-            return Optional.empty();
-        }
-        var builder = new StringBuilder();
-        var counter = 0;
-        builder.append(lastCharacterRead);
-        readNext();
-        while (isLegalWordCharacter(lastCharacterRead) && counter < MAX_WORD_LENGTH_LIMIT) {
-            builder.append(lastCharacterRead);
-            ++counter;
-            readNext();
-        }
-        if(counter >= MAX_WORD_LENGTH_LIMIT) {
-            throw new LexicalAnalyzerException("Identifier length limit exceeded", cursorRow, cursorCol);
+    private TokenType scanWord() {
+        lexeme.setLength(0);
+        characters.appendWhile(ScannerTables::isWordCharacter, lexeme);
+        if(lexeme.length() > MAX_WORD_LENGTH_LIMIT) {
+            throw new LexicalAnalyzerException("Identifier length limit exceeded", tokenRow, tokenCol);
         }
-        var tokenValue = builder.toString();
-        var token = new Token(getWordTokenType(tokenValue), tokenValue, cursorRow, cursorCol);
-        cursorCol += builder.length();
-        return Optional.of(token);
-    }
-
-    private TokenType getWordTokenType(String tokenValue) {
-        return keywords.getOrDefault(tokenValue, TokenType.IDENTIFIER);
+        tokenSymbol = symbolTable.intern(lexeme);
+        tokenText = symbolTable.getName(tokenSymbol);
+        return symbolTable.getWordTokenType(tokenSymbol);
     }
 }
@@ -0,0 +1,103 @@
+package pl.interpreter.lexical_analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.NonNull;
+
+public class MappedUtf8CharacterSource implements CharacterSource {
+
+    private final ByteBuffer bytes;
+    private int position;
+
+    public MappedUtf8CharacterSource(@NonNull ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.position = bytes.position();
+    }
+
+    public static MappedUtf8CharacterSource open(@NonNull Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new InterpreterIOException("Source file is too large to be mapped: " + path);
+            }
+            return new MappedUtf8CharacterSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new InterpreterIOException(e.getMessage());
+        }
+    }
+
+    @Override
+    public int read(char[] block) {
+        var limit = bytes.limit();
+        if (position >= limit) {
+            return -1;
+        }
+        var index = position;
+        var count = 0;
+        while (count < block.length && index < limit) {
+            byte b;
+            while (count < block.length && index < limit && (b = bytes.get(index)) >= 0) {
+                block[count++] = (char) b;
+                ++index;
+            }
+            if (count == block.length || index == limit) {
+                break;
+            }
+            var length = sequenceLength(index);
+            var codePoint = decodeCodePoint(index, length, limit);
+            if (Character.isBmpCodePoint(codePoint)) {
+                block[count++] = (char) codePoint;
+            } else if (count + 1 < block.length) {
+                block[count++] = Character.highSurrogate(codePoint);
+                block[count++] = Character.lowSurrogate(codePoint);
+            } else if (count > 0) {
+                break;
+            } else {
+                throw new IllegalArgumentException("Block is too small to hold a surrogate pair");
+            }
+            index += length;
+        }
+        position = index;
+        return count;
+    }
+
+    private int sequenceLength(int index) {
+        var lead = bytes.get(index) & 0xFF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            return 2;
+        }
+        if (lead >= 0xE0 && lead <= 0xEF) {
+            return 3;
+        }
+        if (lead >= 0xF0 && lead <= 0xF4) {
+            return 4;
+        }
+        throw malformedInput(index);
+    }
+
+    private int decodeCodePoint(int index, int length, int limit) {
+        var codePoint = bytes.get(index) & (0xFF >> (length + 1));
+        for (var i = 1; i < length; ++i) {
+            codePoint = codePoint << 6 | continuation(index + i, limit);
+        }
+        var isOverlong = length == 3 && codePoint < 0x800 || length == 4 && codePoint < 0x10000;
+        if (isOverlong || codePoint > Character.MAX_CODE_POINT
+                || Character.isBmpCodePoint(codePoint) && Character.isSurrogate((char) codePoint)) {
+            throw malformedInput(index);
+        }
+        return codePoint;
+    }
+
+    private int continuation(int index, int limit) {
+        if (index >= limit || (bytes.get(index) & 0xC0) != 0x80) {
+            throw malformedInput(index);
+        }
+        return bytes.get(index) & 0x3F;
+    }
+
+    private InterpreterIOException malformedInput(int index) {
+        return new InterpreterIOException("Malformed UTF-8 input at byte " + index);
+    }
+}
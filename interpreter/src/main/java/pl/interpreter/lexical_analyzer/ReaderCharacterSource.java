@@ -0,0 +1,23 @@
+package pl.interpreter.lexical_analyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import lombok.NonNull;
+
+public class ReaderCharacterSource implements CharacterSource {
+
+    private final Reader reader;
+
+    public ReaderCharacterSource(@NonNull Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int read(char[] block) {
+        try {
+            return reader.read(block, 0, block.length);
+        } catch (IOException e) {
+            throw new InterpreterIOException(e.getMessage());
+        }
+    }
+}
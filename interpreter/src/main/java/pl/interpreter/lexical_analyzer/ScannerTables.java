@@ -0,0 +1,133 @@
+package pl.interpreter.lexical_analyzer;
+
+import java.util.Arrays;
+import pl.interpreter.TokenType;
+
+/**
+ * Character classes and the operator DFA used by the lexer. The operator automaton is a trie built from the operator
+ * spellings below, every state reached by maximal munch is accepting.
+ */
+final class ScannerTables {
+
+    static final byte OTHER = 0;
+    static final byte WHITESPACE = 1;
+    static final byte DIGIT = 2;
+    static final byte LETTER = 3;
+    static final byte QUOTE = 4;
+    static final byte OPERATOR = 5;
+
+    static final int START = 0;
+    static final int NO_STATE = -1;
+    static final int LINE_COMMENT;
+    static final int MULTILINE_COMMENT;
+
+    private static final int ASCII = 128;
+    private static final byte[] CHAR_CLASSES = new byte[ASCII];
+
+    private static int stateCount = 1;
+    private static int[] transitions = new int[ASCII * 32];
+    private static TokenType[] acceptedTypes = new TokenType[32];
+    private static String[] acceptedTexts = new String[32];
+
+    static {
+        for (char c = 0; c < ASCII; ++c) {
+            if (Character.isWhitespace(c)) {
+                CHAR_CLASSES[c] = WHITESPACE;
+            } else if (c >= '0' && c <= '9') {
+                CHAR_CLASSES[c] = DIGIT;
+            } else if (c == '_' || Character.isLetter(c)) {
+                CHAR_CLASSES[c] = LETTER;
+            }
+        }
+        CHAR_CLASSES['"'] = QUOTE;
+        Arrays.fill(transitions, NO_STATE);
+
+        addOperator("+", TokenType.ADD_OPERATOR);
+        addOperator("-", TokenType.SUBTRACT_OPERATOR);
+        addOperator("->", TokenType.ARROW);
+        addOperator("*", TokenType.MULTIPLY_OPERATOR);
+        addOperator("/", TokenType.DIVIDE_OPERATOR);
+        addOperator("%", TokenType.MODULO_OPERATOR);
+        addOperator(",", TokenType.COMMA);
+        addOperator(".", TokenType.DOT);
+        addOperator("<", TokenType.LESS_THAN_OPERATOR);
+        addOperator("<=", TokenType.LESS_THAN_OR_EQUALS_OPERATOR);
+        addOperator(">", TokenType.GREATER_THAN_OPERATOR);
+        addOperator(">=", TokenType.GREATER_THAN_OR_EQUALS_OPERATOR);
+        addOperator("!", TokenType.NEGATION_OPERATOR);
+        addOperator("!=", TokenType.NOT_EQUALS_OPERATOR);
+        addOperator("=", TokenType.ASSIGNMENT);
+        addOperator("==", TokenType.EQUALS_OPERATOR);
+        addOperator("(", TokenType.LEFT_PARENTHESES);
+        addOperator(")", TokenType.RIGHT_PARENTHESES);
+        addOperator("{", TokenType.LEFT_CURLY_BRACKET);
+        addOperator("}", TokenType.RIGHT_CURLY_BRACKET);
+        addOperator(";", TokenType.SEMICOLON);
+        LINE_COMMENT = addOperator("//", TokenType.COMMENT);
+        MULTILINE_COMMENT = addOperator("/*", TokenType.COMMENT);
+
+        transitions = Arrays.copyOf(transitions, stateCount * ASCII);
+        acceptedTypes = Arrays.copyOf(acceptedTypes, stateCount);
+        acceptedTexts = Arrays.copyOf(acceptedTexts, stateCount);
+    }
+
+    private ScannerTables() {}
+
+    static byte classOf(char c) {
+        if (c < ASCII) {
+            return CHAR_CLASSES[c];
+        }
+        if (Character.isWhitespace(c)) {
+            return WHITESPACE;
+        }
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        return Character.isLetter(c) ? LETTER : OTHER;
+    }
+
+    static boolean isWordCharacter(char c) {
+        return c < ASCII ? CHAR_CLASSES[c] == LETTER : Character.isLetter(c);
+    }
+
+    static int next(int state, char c) {
+        return c < ASCII ? transitions[state * ASCII + c] : NO_STATE;
+    }
+
+    static TokenType acceptedType(int state) {
+        return acceptedTypes[state];
+    }
+
+    // single character operators are reported with a Character value, longer ones with their spelling
+    static String acceptedText(int state) {
+        return acceptedTexts[state];
+    }
+
+    private static int addOperator(String spelling, TokenType type) {
+        CHAR_CLASSES[spelling.charAt(0)] = OPERATOR;
+        var state = START;
+        for (var i = 0; i < spelling.length(); ++i) {
+            var c = spelling.charAt(i);
+            var next = transitions[state * ASCII + c];
+            if (next == NO_STATE) {
+                next = newState();
+                transitions[state * ASCII + c] = next;
+            }
+            state = next;
+        }
+        acceptedTypes[state] = type;
+        acceptedTexts[state] = spelling;
+        return state;
+    }
+
+    private static int newState() {
+        if (stateCount == acceptedTypes.length) {
+            var capacity = stateCount * 2;
+            transitions = Arrays.copyOf(transitions, capacity * ASCII);
+            Arrays.fill(transitions, stateCount * ASCII, capacity * ASCII, NO_STATE);
+            acceptedTypes = Arrays.copyOf(acceptedTypes, capacity);
+            acceptedTexts = Arrays.copyOf(acceptedTexts, capacity);
+        }
+        return stateCount++;
+    }
+}
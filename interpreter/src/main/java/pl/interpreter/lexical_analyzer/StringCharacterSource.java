@@ -0,0 +1,39 @@
+package pl.interpreter.lexical_analyzer;
+
+import lombok.NonNull;
+
+public class StringCharacterSource implements CharacterSource {
+
+    private final String source;
+    private final int end;
+    private int position;
+
+    public StringCharacterSource(@NonNull String source) {
+        this(source, 0, source.length());
+    }
+
+    public StringCharacterSource(@NonNull String source, int start, int end) {
+        if (start < 0 || end > source.length() || start > end) {
+            throw new IndexOutOfBoundsException("Invalid source range: [%d, %d)".formatted(start, end));
+        }
+        this.source = source;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read(char[] block) {
+        if (position == end) {
+            return -1;
+        }
+        var count = Math.min(block.length, end - position);
+        source.getChars(position, position + count, block, 0);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int remaining() {
+        return end - position;
+    }
+}
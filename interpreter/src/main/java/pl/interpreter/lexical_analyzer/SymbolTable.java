@@ -0,0 +1,161 @@
+package pl.interpreter.lexical_analyzer;
+
+import java.util.Arrays;
+import pl.interpreter.TokenType;
+
+/**
+ * Interns words read by the lexer and assigns them dense int symbols. Keywords are interned first, so their symbols
+ * occupy the lowest ids. Lookup hashes character content directly, a word that was already seen is resolved without
+ * allocating a new String. The table is not synchronized, it is meant to be owned by a single lexing thread.
+ * Lexers running on other threads use {@link #newView()}, views cache symbols locally and intern new words in the
+ * shared table under its lock, so the whole program ends up with one numbering.
+ */
+public class SymbolTable {
+
+    public static final int NO_SYMBOL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final SymbolTable shared;
+    private String[] names;
+    private int[] hashes;
+    private int[] symbols;
+    private int[] slots;
+    private int size;
+    // names by symbol, for views it only holds symbols this view has interned
+    private String[] symbolNames;
+    private final TokenType[] keywordTypes;
+
+    public SymbolTable() {
+        this.shared = null;
+        allocate();
+        var keywords = LexicalAnalysisStaticProvider.getKeywords();
+        keywordTypes = new TokenType[keywords.size()];
+        keywords.entrySet().stream()
+                .sorted((a, b) -> a.getValue().compareTo(b.getValue()))
+                .forEach(entry -> keywordTypes[intern(entry.getKey())] = entry.getValue());
+    }
+
+    private SymbolTable(SymbolTable shared) {
+        this.shared = shared;
+        this.keywordTypes = shared.keywordTypes;
+        allocate();
+    }
+
+    public SymbolTable newView() {
+        return new SymbolTable(shared == null ? this : shared);
+    }
+
+    public int intern(CharSequence chars) {
+        var hash = hash(chars);
+        var mask = slots.length - 1;
+        var slot = hash & mask;
+        while (slots[slot] != 0) {
+            var entry = slots[slot] - 1;
+            if (hashes[entry] == hash && names[entry].contentEquals(chars)) {
+                return symbols[entry];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == names.length) {
+            grow();
+            return intern(chars);
+        }
+        String name;
+        int symbol;
+        if (shared == null) {
+            name = chars.toString();
+            symbol = size;
+        } else {
+            synchronized (shared) {
+                symbol = shared.intern(chars);
+                name = shared.symbolNames[symbol];
+            }
+        }
+        var entry = size++;
+        names[entry] = name;
+        hashes[entry] = hash;
+        symbols[entry] = symbol;
+        slots[slot] = entry + 1;
+        if (symbol >= symbolNames.length) {
+            symbolNames = Arrays.copyOf(symbolNames, Math.max(symbolNames.length * 2, symbol + 1));
+        }
+        symbolNames[symbol] = name;
+        return symbol;
+    }
+
+    public int lookup(CharSequence chars) {
+        var hash = hash(chars);
+        var mask = slots.length - 1;
+        var slot = hash & mask;
+        while (slots[slot] != 0) {
+            var entry = slots[slot] - 1;
+            if (hashes[entry] == hash && names[entry].contentEquals(chars)) {
+                return symbols[entry];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (shared != null) {
+            synchronized (shared) {
+                return shared.lookup(chars);
+            }
+        }
+        return NO_SYMBOL;
+    }
+
+    public String getName(int symbol) {
+        if (symbol >= 0 && symbol < symbolNames.length && symbolNames[symbol] != null) {
+            return symbolNames[symbol];
+        }
+        if (shared != null) {
+            synchronized (shared) {
+                return shared.getName(symbol);
+            }
+        }
+        throw new IllegalArgumentException("Unknown symbol: " + symbol);
+    }
+
+    public int size() {
+        if (shared != null) {
+            synchronized (shared) {
+                return shared.size;
+            }
+        }
+        return size;
+    }
+
+    public TokenType getWordTokenType(int symbol) {
+        return symbol < keywordTypes.length ? keywordTypes[symbol] : TokenType.IDENTIFIER;
+    }
+
+    private void allocate() {
+        names = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        symbols = new int[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY * 2];
+        symbolNames = new String[INITIAL_CAPACITY];
+    }
+
+    private void grow() {
+        var capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+        slots = new int[capacity * 2];
+        var mask = slots.length - 1;
+        for (int entry = 0; entry < size; ++entry) {
+            var slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int hash(CharSequence chars) {
+        var hash = 0;
+        for (int i = 0; i < chars.length(); ++i) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -2,6 +2,7 @@ package pl.interpreter.parser;
 
 import java.util.Optional;
 import pl.interpreter.Token;
+import pl.interpreter.TokenType;
 
 public enum AdditionOperator {
     PLUS("+"),
@@ -14,7 +15,11 @@ public enum AdditionOperator {
     }
 
     public static Optional<AdditionOperator> parse(Token token) {
-        return switch(token.type()) {
+        return parse(token.type());
+    }
+
+    public static Optional<AdditionOperator> parse(TokenType type) {
+        return switch(type) {
             case ADD_OPERATOR -> Optional.of(PLUS);
             case SUBTRACT_OPERATOR -> Optional.of(MINUS);
             default -> Optional.empty();
@@ -9,6 +9,10 @@ public class Alternative extends Statement implements Expression {
     private Expression right;
 
     public Alternative(Expression left, Expression right, Position tokenPosition) {
+        this(left, right, Position.pack(tokenPosition));
+    }
+
+    public Alternative(Expression left, Expression right, long tokenPosition) {
         super(tokenPosition);
         this.left = left;
         this.right = right;
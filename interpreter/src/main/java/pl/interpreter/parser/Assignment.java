@@ -1,19 +1,36 @@
 package pl.interpreter.parser;
 
 import lombok.Getter;
+import pl.interpreter.lexical_analyzer.SymbolTable;
 
 @Getter
 public class Assignment extends Statement implements Instruction {
 
     private final String id;
+    private final int symbol;
     private final Expression expression;
+    // frame slot of the variable written, set by VariableResolver
+    private int slot = NO_SLOT;
 
     public Assignment(String id, Expression expression, Position tokenPosition) {
+        this(id, SymbolTable.NO_SYMBOL, expression, tokenPosition);
+    }
+
+    public Assignment(String id, int symbol, Expression expression, Position tokenPosition) {
+        this(id, symbol, expression, Position.pack(tokenPosition));
+    }
+
+    public Assignment(String id, int symbol, Expression expression, long tokenPosition) {
         super(tokenPosition);
         this.id = id;
+        this.symbol = symbol;
         this.expression = expression;
     }
 
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
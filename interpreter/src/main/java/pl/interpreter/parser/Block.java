@@ -1,18 +1,34 @@
 package pl.interpreter.parser;
 
 import java.util.List;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 @Getter
 public class Block extends Statement implements Instruction {
 
     private List<Instruction> instructions;
+    // instructions left to execute by the executor's optimizations, null while they are the parsed ones
+    @Getter(AccessLevel.NONE)
+    private List<Instruction> liveInstructions;
 
     public Block(List<Instruction> instructions, Position tokenPosition) {
+        this(instructions, Position.pack(tokenPosition));
+    }
+
+    public Block(List<Instruction> instructions, long tokenPosition) {
         super(tokenPosition);
         this.instructions = instructions;
     }
 
+    public List<Instruction> getLiveInstructions() {
+        return liveInstructions != null ? liveInstructions : instructions;
+    }
+
+    public void setLiveInstructions(List<Instruction> liveInstructions) {
+        this.liveInstructions = liveInstructions;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
@@ -8,6 +8,10 @@ public class BooleanLiteral extends Statement implements Expression {
     private final boolean truthy;
 
     public BooleanLiteral(boolean on, Position tokenPosition) {
+        this(on, Position.pack(tokenPosition));
+    }
+
+    public BooleanLiteral(boolean on, long tokenPosition) {
         super(tokenPosition);
         this.truthy = on;
     }
@@ -0,0 +1,5 @@
+package pl.interpreter.parser;
+
+// function a call site is bound to by the executor, the parser only carries it
+public interface CallTarget {
+}
@@ -9,6 +9,10 @@ public class Cast extends Statement implements Expression {
     private PrimitiveType toType;
 
     public Cast(Expression expression, PrimitiveType toType, Position tokenPosition) {
+        this(expression, toType, Position.pack(tokenPosition));
+    }
+
+    public Cast(Expression expression, PrimitiveType toType, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
         this.toType = toType;
@@ -10,6 +10,10 @@ public class Conjunction extends Statement implements Expression {
     private final Expression right;
 
     public Conjunction(Expression left, Expression right, Position tokenPosition) {
+        this(left, right, Position.pack(tokenPosition));
+    }
+
+    public Conjunction(Expression left, Expression right, long tokenPosition) {
         super(tokenPosition);
         this.left = left;
         this.right = right;
@@ -0,0 +1,5 @@
+package pl.interpreter.parser;
+
+// value of an expression known before execution, computed by the executor, the parser only carries it
+public interface Constant {
+}
@@ -1,17 +1,28 @@
 package pl.interpreter.parser;
 
 import lombok.Getter;
+import pl.interpreter.lexical_analyzer.SymbolTable;
 
 @Getter
 public class DotAccess extends Statement implements Expression {
 
     private final Expression expression;
     private final String fieldName;
+    private final int fieldSymbol;
 
     public DotAccess(Expression expression, String fieldName, Position tokenPosition) {
+        this(expression, fieldName, SymbolTable.NO_SYMBOL, tokenPosition);
+    }
+
+    public DotAccess(Expression expression, String fieldName, int fieldSymbol, Position tokenPosition) {
+        this(expression, fieldName, fieldSymbol, Position.pack(tokenPosition));
+    }
+
+    public DotAccess(Expression expression, String fieldName, int fieldSymbol, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
         this.fieldName = fieldName;
+        this.fieldSymbol = fieldSymbol;
     }
 
     @Override
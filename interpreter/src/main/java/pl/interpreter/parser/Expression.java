@@ -1,3 +1,6 @@
 package pl.interpreter.parser;
 
-public interface Expression {}
+public interface Expression {
+    VariableType getResolvedType();
+    Constant getConstant();
+}
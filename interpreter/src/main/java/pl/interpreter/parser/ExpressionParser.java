@@ -6,226 +6,195 @@ import pl.interpreter.TokenType;
 
 public class ExpressionParser extends Parser {
 
+    // binding powers of binary and postfix operators, higher binds tighter
+    private static final int NONE = 0;
+    private static final int CONJUNCTION = 1;
+    private static final int ALTERNATIVE = 2;
+    private static final int RELATION = 3;
+    private static final int CAST = 4;
+    private static final int SUM = 5;
+    private static final int MULTIPLICATION = 6;
+
+    private static final int[] BINDING_POWERS = new int[TokenType.values().length];
+
+    static {
+        BINDING_POWERS[TokenType.KW_AND.ordinal()] = CONJUNCTION;
+        BINDING_POWERS[TokenType.KW_OR.ordinal()] = ALTERNATIVE;
+        BINDING_POWERS[TokenType.EQUALS_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.NOT_EQUALS_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.LESS_THAN_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.LESS_THAN_OR_EQUALS_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.GREATER_THAN_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.GREATER_THAN_OR_EQUALS_OPERATOR.ordinal()] = RELATION;
+        BINDING_POWERS[TokenType.KW_AS.ordinal()] = CAST;
+        BINDING_POWERS[TokenType.ADD_OPERATOR.ordinal()] = SUM;
+        BINDING_POWERS[TokenType.SUBTRACT_OPERATOR.ordinal()] = SUM;
+        BINDING_POWERS[TokenType.MULTIPLY_OPERATOR.ordinal()] = MULTIPLICATION;
+        BINDING_POWERS[TokenType.DIVIDE_OPERATOR.ordinal()] = MULTIPLICATION;
+        BINDING_POWERS[TokenType.MODULO_OPERATOR.ordinal()] = MULTIPLICATION;
+    }
+
     public ExpressionParser(TokenManager tokenManager) {
         super(tokenManager);
     }
 
-    // expression ::= alternative, {"and", alternative};
+    // expression     ::= alternative, {"and", alternative};
+    // alternative    ::= relation, {"or", relation};
+    // relation       ::= cast, [relationalOperator, cast];
+    // cast           ::= sum, ["as", primitiveType]
+    // sum            ::= multiplication, {additionOperator, multiplication};
+    // multiplication ::= negation, {multiplicationOperator, negation};
     public Optional<Expression> parseExpression() {
-        var position = getTokenPosition();
-        var left = parseAlternative();
-        if (left.isEmpty()) {
-            return Optional.empty();
-        }
-        while (tokenIsOfType(TokenType.KW_AND)) {
-            consumeToken();
-            var right = parseAlternative()
-                    .orElseThrow(() -> getParserException("Expected operand"));
-            left = Optional.of(new Conjunction(left.get(), right, position));
-        }
-        return left;
+        return Optional.ofNullable(parseExpressionOrNull());
     }
 
-    // alternative ::= relation, {"or", relation};
-    private Optional<Expression> parseAlternative() {
-        var position = getTokenPosition();
-        var left = parseRelation();
-        if (left.isEmpty()) {
-            return Optional.empty();
-        }
-        while (tokenIsOfType(TokenType.KW_OR)) {
-            consumeToken();
-            var right = parseRelation()
-                    .orElseThrow(() -> getParserException("Expected operand"));
-            left = Optional.of(new Alternative(left.get(), right, position));
-        }
-        return left;
-    }
-
-    // relation ::= cast, [relationalOperator, cast];
-    private Optional<Expression> parseRelation() {
-        var position = getTokenPosition();
-        var left = parseCast();
-        if (left.isEmpty()) {
-            return Optional.empty();
-        }
-        var operator = RelationalOperator.parse(token());
-        if (operator.isEmpty()) {
-            return left;
-        }
-        consumeToken();
-        var right = parseCast()
-                .orElseThrow(() -> getParserException("Expected operand"));
-        return Optional.of(new Relation(left.get(), operator.get(), right, position));
+    // returns null if current token does not start an expression
+    Expression parseExpressionOrNull() {
+        return parseOperators(CONJUNCTION);
     }
 
-    // cast ::= sum, ["as", primitiveType]
-    private Optional<Expression> parseCast() {
-        var position = getTokenPosition();
-        var sum = parseSum();
-        if (sum.isEmpty()) {
-            return Optional.empty();
-        }
-        if (tokenIsOfType(TokenType.KW_AS)) {
-            consumeToken();
-            var type = PrimitiveType.parse(token())
-                    .orElseThrow(() -> getParserException(" Expected primitive type"));
-            consumeToken();
-            return Optional.of(new Cast(sum.get(), type, position));
-        }
-        return sum;
-    }
-
-    // sum ::= multiplication, {additionOperator, multiplication};
-    private Optional<Expression> parseSum() {
-        var position = getTokenPosition();
-        var left = parseMultiplication();
-        if (left.isEmpty()) {
-            return Optional.empty();
-        }
-        var operator = AdditionOperator.parse(token());
-        while (operator.isPresent()) {
-            consumeToken();
-            var right = parseMultiplication()
-                    .orElseThrow(() -> getParserException("Expected expression"));
-            left = Optional.of(new Sum(left.get(), operator.get(), right, position));
-            operator = AdditionOperator.parse(token());
+    Expression parseMustBeExpression() {
+        var expression = parseOperators(CONJUNCTION);
+        if (expression == null) {
+            throwParserException("Expected expression");
         }
-        return left;
+        return expression;
     }
 
-    // multiplication ::= negation, {multiplicationOperator, negation};
-    private Optional<Expression> parseMultiplication() {
-        var position = getTokenPosition();
-        var left = parseNegation();
-        if (left.isEmpty()) {
-            return Optional.empty();
-        }
-        var operator = MultiplicationOperator.parse(token());
-        while (operator.isPresent()) {
+    // parses operators binding at least as tight as given power, every node built here starts where left operand does
+    private Expression parseOperators(int minimalPower) {
+        var position = tokenPosition();
+        var left = parseNegation(position);
+        if (left == null) {
+            return null;
+        }
+        // power of the operator that built left, relations and casts do not chain
+        var leftPower = Integer.MAX_VALUE;
+        while (true) {
+            var type = tokenType();
+            var power = BINDING_POWERS[type.ordinal()];
+            if (power < minimalPower || power > leftPower || power == leftPower && (power == RELATION || power == CAST)) {
+                return left;
+            }
             consumeToken();
-            var right = parseNegation()
-                    .orElseThrow(() -> getParserException("Expected expression"));
-            left = Optional.of(new Multiplication(left.get(), operator.get(), right, position));
-            operator = MultiplicationOperator.parse(token());
+            if (power == CAST) {
+                var primitiveType = PrimitiveType.parse(tokenType())
+                        .orElseThrow(() -> getParserException(" Expected primitive type"));
+                consumeToken();
+                left = new Cast(left, primitiveType, position);
+            } else {
+                var right = parseOperators(power + 1);
+                if (right == null) {
+                    throwParserException(power >= SUM ? "Expected expression" : "Expected operand");
+                }
+                left = switch (power) {
+                    case CONJUNCTION -> new Conjunction(left, right, position);
+                    case ALTERNATIVE -> new Alternative(left, right, position);
+                    case RELATION -> new Relation(left, RelationalOperator.parse(type).orElseThrow(), right, position);
+                    case SUM -> new Sum(left, AdditionOperator.parse(type).orElseThrow(), right, position);
+                    default -> new Multiplication(left, MultiplicationOperator.parse(type).orElseThrow(), right, position);
+                };
+            }
+            leftPower = power;
         }
-        return left;
     }
 
     // negation ::= ["!"] factor;
-    private Optional<Expression> parseNegation() {
-        var position = getTokenPosition();
-        if (tokenIsOfType(TokenType.NEGATION_OPERATOR)) {
-            consumeToken();
-            var factor = parseFactor()
-                    .orElseThrow(() -> getParserException("Expected expression"));
-            return Optional.of(new Negation(factor, position));
+    private Expression parseNegation(long position) {
+        if (!tokenIsOfType(TokenType.NEGATION_OPERATOR)) {
+            return parseFactor(position);
         }
-        return parseFactor();
+        consumeToken();
+        var factor = parseFactor(tokenPosition());
+        if (factor == null) {
+            throwParserException("Expected expression");
+        }
+        return new Negation(factor, position);
     }
 
     // factor ::= identifierOrFunctionCall {"." identifier} // dot is access to structure field
     //          | number // integer or float literal
     //          | booleanLiteral
     //          | "(", expression, ")";
-    private Optional<Expression> parseFactor() {
-        return parseDotAccess()
-                .or(this::parseNumber)
-                .or(this::parseBooleanLiteral)
-                .or(this::parseNestedExpression)
-                .or(this::parseStringLiteral);
+    private Expression parseFactor(long position) {
+        return switch (tokenType()) {
+            case IDENTIFIER -> parseDotAccess(position);
+            case INT_CONST -> {
+                var value = tokenInt();
+                consumeToken();
+                yield new IntLiteral(value, position);
+            }
+            case FLOAT_CONST -> {
+                var value = tokenFloat();
+                consumeToken();
+                yield new FloatLiteral(value, position);
+            }
+            case KW_TRUE -> {
+                consumeToken();
+                yield new BooleanLiteral(true, position);
+            }
+            case KW_FALSE -> {
+                consumeToken();
+                yield new BooleanLiteral(false, position);
+            }
+            case LEFT_PARENTHESES -> parseNestedExpression();
+            case STRING_CONST -> {
+                var value = tokenString();
+                consumeToken();
+                yield new StringLiteral(value, position);
+            }
+            default -> null;
+        };
     }
 
     // dotAccess ::= identifierOrFunctionCall {"." identifier}
     public Optional<Expression> parseDotAccess() {
-        var position = getTokenPosition();
-        var expressionOptional = parseIdentifierOrFunctionCall();
-        if (expressionOptional.isEmpty()) {
+        if (!tokenIsOfType(TokenType.IDENTIFIER)) {
             return Optional.empty();
         }
-        var expression = expressionOptional.get();
-        while (tokenIsOfType(TokenType.DOT)) {
-            consumeToken();
-            var fieldId = parseMustBeIdentifier();
-            expression = new DotAccess(expression, fieldId, position);
-        }
-        return Optional.of(expression);
+        return Optional.of(parseDotAccess(tokenPosition()));
     }
 
-    private Optional<Expression> parseBooleanLiteral() {
-        var position = getTokenPosition();
-        if (tokenIsOfType(TokenType.KW_TRUE)) {
-            consumeToken();
-            return Optional.of(new BooleanLiteral(true, position));
-        }
-        if (tokenIsOfType(TokenType.KW_FALSE)) {
-            consumeToken();
-            return Optional.of(new BooleanLiteral(false, position));
-        }
-        return Optional.empty();
-    }
-
-    private Optional<Expression> parseNumber() {
-        var position = getTokenPosition();
-        if (tokenIsOfType(TokenType.INT_CONST)) {
-            var value = (int) token().value();
-            consumeToken();
-            return Optional.of(new IntLiteral(value, position));
-        } else if (tokenIsOfType(TokenType.FLOAT_CONST)) {
-            var value = (float) token().value();
+    private Expression parseDotAccess(long position) {
+        var expression = parseIdentifierOrFunctionCall(position);
+        while (tokenIsOfType(TokenType.DOT)) {
             consumeToken();
-            return Optional.of(new FloatLiteral(value, position));
+            var fieldSymbol = tokenSymbol();
+            var fieldId = parseMustBeIdentifier();
+            expression = new DotAccess(expression, fieldId, fieldSymbol, position);
         }
-        return Optional.empty();
+        return expression;
     }
 
     // identifierOrFunctionCall ::= identifier ["("[ expression {"," expression } ]")"]
-    private Optional<Expression> parseIdentifierOrFunctionCall() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.IDENTIFIER)) {
-            return Optional.empty();
-        }
-        var id = (String) token().value();
+    private Expression parseIdentifierOrFunctionCall(long position) {
+        var id = tokenString();
+        var symbol = tokenSymbol();
         consumeToken();
         if (!tokenIsOfType(TokenType.LEFT_PARENTHESES)) {
-            return Optional.of(new Identifier(id, position));
+            return new Identifier(id, symbol, position);
         }
         consumeToken();
         var arguments = new ArrayList<Expression>();
-        parseExpression().ifPresent(arguments::add);
+        var argument = parseExpressionOrNull();
+        if (argument != null) {
+            arguments.add(argument);
+        }
         while (tokenIsOfType(TokenType.COMMA)) {
             consumeToken();
-            var expression = parseExpression()
-                    .orElseThrow(() -> getParserException("Expected expression"));
-            arguments.add(expression);
+            arguments.add(parseMustBeExpression());
         }
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
-        return Optional.of(new FunctionCall(id, arguments, position));
+        return new FunctionCall(id, symbol, arguments, position);
     }
 
     // "(", expression, ")";
-    private Optional<Expression> parseNestedExpression() {
-        if (!tokenIsOfType(TokenType.LEFT_PARENTHESES)) {
-            return Optional.empty();
-        }
+    private Expression parseNestedExpression() {
         consumeToken();
-        var expression = parseExpression();
-        if (expression.isEmpty()) {
-            throwParserException("Expected expression");
-        }
+        var expression = parseMustBeExpression();
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
         return expression;
     }
-
-    private Optional<Expression> parseStringLiteral() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.STRING_CONST)) {
-            return Optional.empty();
-        }
-        var value = (String) token().value();
-        consumeToken();
-        return Optional.of(new StringLiteral(value, position));
-    }
 }
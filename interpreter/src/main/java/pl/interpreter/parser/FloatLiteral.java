@@ -8,6 +8,10 @@ public class FloatLiteral extends Statement implements Expression {
     private final float value;
 
     public FloatLiteral(float value, Position tokenPosition) {
+        this(value, Position.pack(tokenPosition));
+    }
+
+    public FloatLiteral(float value, long tokenPosition) {
         super(tokenPosition);
         this.value = value;
     }
@@ -2,19 +2,36 @@ package pl.interpreter.parser;
 
 import java.util.List;
 import lombok.Getter;
+import pl.interpreter.lexical_analyzer.SymbolTable;
 
 @Getter
 public class FunctionCall extends Statement implements Expression, Instruction {
 
     private final String functionId;
+    private final int functionSymbol;
     private final List<Expression> arguments;
+    // bound when an environment links its copy of the calling function, null in parsed programs
+    private CallTarget target;
 
     public FunctionCall(String functionId, List<Expression> arguments, Position position) {
+        this(functionId, SymbolTable.NO_SYMBOL, arguments, position);
+    }
+
+    public FunctionCall(String functionId, int functionSymbol, List<Expression> arguments, Position position) {
+        this(functionId, functionSymbol, arguments, Position.pack(position));
+    }
+
+    public FunctionCall(String functionId, int functionSymbol, List<Expression> arguments, long position) {
         super(position);
         this.functionId = functionId;
+        this.functionSymbol = functionSymbol;
         this.arguments = arguments;
     }
 
+    public void setTarget(CallTarget target) {
+        this.target = target;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
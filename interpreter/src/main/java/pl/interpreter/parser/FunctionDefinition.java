@@ -1,6 +1,8 @@
 package pl.interpreter.parser;
 
 import java.util.List;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 @Getter
@@ -9,13 +11,24 @@ public class FunctionDefinition extends Statement implements Definition {
     private final FunctionReturnType returnType;
     private final String id;
     private final List<Parameter> parameters;
-    private final Block block;
+    private volatile Block block;
+    // parses the block on first access, null once the block is known
+    @Getter(AccessLevel.NONE)
+    private Supplier<Block> body;
 
     public FunctionDefinition(FunctionReturnType returnType,
                               String id,
                               List<Parameter> parameters,
                               Block block,
                               Position tokenPosition) {
+        this(returnType, id, parameters, block, Position.pack(tokenPosition));
+    }
+
+    public FunctionDefinition(FunctionReturnType returnType,
+                              String id,
+                              List<Parameter> parameters,
+                              Block block,
+                              long tokenPosition) {
         super(tokenPosition);
         this.returnType = returnType;
         this.id = id;
@@ -23,6 +36,46 @@ public class FunctionDefinition extends Statement implements Definition {
         this.block = block;
     }
 
+    public FunctionDefinition(FunctionReturnType returnType,
+                              String id,
+                              List<Parameter> parameters,
+                              Supplier<Block> body,
+                              Position tokenPosition) {
+        this(returnType, id, parameters, body, Position.pack(tokenPosition));
+    }
+
+    public FunctionDefinition(FunctionReturnType returnType,
+                              String id,
+                              List<Parameter> parameters,
+                              Supplier<Block> body,
+                              long tokenPosition) {
+        super(tokenPosition);
+        this.returnType = returnType;
+        this.id = id;
+        this.parameters = parameters;
+        this.body = body;
+    }
+
+    // errors in a deferred body are thrown here, on every access until the body parses
+    public Block getBlock() {
+        var parsed = block;
+        if (parsed == null) {
+            synchronized (this) {
+                parsed = block;
+                if (parsed == null) {
+                    parsed = body.get();
+                    block = parsed;
+                    body = null;
+                }
+            }
+        }
+        return parsed;
+    }
+
+    public boolean isBlockParsed() {
+        return block != null;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
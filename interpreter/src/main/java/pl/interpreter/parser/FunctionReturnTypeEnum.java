@@ -2,6 +2,7 @@ package pl.interpreter.parser;
 
 import java.util.Optional;
 import pl.interpreter.Token;
+import pl.interpreter.TokenType;
 
 public enum FunctionReturnTypeEnum {
     VOID("void"),
@@ -23,7 +24,11 @@ public enum FunctionReturnTypeEnum {
     }
 
     public static Optional<FunctionReturnTypeEnum> parse(Token token) {
-        return switch (token.type()) {
+        return parse(token.type());
+    }
+
+    public static Optional<FunctionReturnTypeEnum> parse(TokenType type) {
+        return switch (type) {
             case KW_VOID -> Optional.of(VOID);
             case KW_INT -> Optional.of(INT);
             case KW_FLOAT -> Optional.of(FLOAT);
@@ -1,15 +1,32 @@
 package pl.interpreter.parser;
 
 import lombok.Getter;
+import pl.interpreter.lexical_analyzer.SymbolTable;
 
 @Getter
 public class Identifier extends Statement implements Expression {
 
     private final String value;
+    private final int symbol;
+    // frame slot of the variable read, set by VariableResolver
+    private int slot = NO_SLOT;
 
     public Identifier(String value, Position tokenPosition) {
+        this(value, SymbolTable.NO_SYMBOL, tokenPosition);
+    }
+
+    public Identifier(String value, int symbol, Position tokenPosition) {
+        this(value, symbol, Position.pack(tokenPosition));
+    }
+
+    public Identifier(String value, int symbol, long tokenPosition) {
         super(tokenPosition);
         this.value = value;
+        this.symbol = symbol;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
     }
 
     @Override
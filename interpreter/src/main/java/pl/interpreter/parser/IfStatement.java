@@ -10,6 +10,10 @@ public class IfStatement extends Statement implements Instruction {
     private final Instruction elseInstruction;
 
     public IfStatement(Expression expression, Instruction instruction, Instruction elseInstruction, Position tokenPosition) {
+        this(expression, instruction, elseInstruction, Position.pack(tokenPosition));
+    }
+
+    public IfStatement(Expression expression, Instruction instruction, Instruction elseInstruction, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
         this.instruction = instruction;
@@ -0,0 +1,148 @@
+package pl.interpreter.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NonNull;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Keeps a source together with its top level definitions parsed chunk by chunk (see {@link SourceChunker}). After an
+ * edit only chunks overlapping the edited range are lexed and parsed again, following chunks are reused as soon as
+ * chunking of the new source lines up with them again. Reused chunks only move their row, their nodes and the
+ * programs returned before are never changed, and the definitions of the program are updated only for the chunks
+ * parsed again.
+ */
+public class IncrementalProgramParser {
+
+    private final StringBuilder source;
+    private final SymbolTable symbolTable;
+    private final List<ParsedChunk> chunks;
+    // null while merging the chunks fails, the next program is then merged from all of them
+    private PersistentDefinitionMap definitions;
+
+    public IncrementalProgramParser(@NonNull String source) {
+        this.source = new StringBuilder(source);
+        this.symbolTable = new SymbolTable();
+        this.chunks = new ArrayList<>();
+        for (var chunk : SourceChunker.split(this.source)) {
+            chunks.add(parseChunk(chunk));
+        }
+    }
+
+    public String getSource() {
+        return source.toString();
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public Program getProgram() {
+        var merged = definitions;
+        if (merged == null) {
+            merged = PersistentDefinitionMap.of(ParsedChunk.merge(chunks).getDefinitions().values());
+            // merging may stop before the last chunk, leaving out the definitions following it
+            if (chunks.stream().allMatch(ParsedChunk::isComplete)) {
+                definitions = merged;
+            }
+        }
+        return new Program(merged, Position.pack(1, 1), ParsedChunk.rowOffsets(chunks));
+    }
+
+    // replaces characters in range [start, end) and returns the program of the edited source
+    public Program applyEdit(int start, int end, @NonNull String replacement) {
+        if (start < 0 || end > source.length() || start > end) {
+            throw new IndexOutOfBoundsException("Invalid edit range: [%d, %d)".formatted(start, end));
+        }
+        // an edit at the very start of a chunk may change where the previous one ends
+        var first = chunkIndex(Math.max(start - 1, 0));
+        var last = chunkIndex(end);
+        source.replace(start, end, replacement);
+        var offsetDelta = replacement.length() - (end - start);
+        var editEnd = start + replacement.length();
+
+        var firstChunk = chunks.get(first);
+        var chunker = new SourceChunker(source, firstChunk.getStart(), firstChunk.getRow(), firstChunk.getCol());
+        var parsed = new ArrayList<ParsedChunk>();
+        var reuseFrom = chunks.size();
+        for (var chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+            parsed.add(parseChunk(chunk));
+            if (chunk.end() >= editEnd && chunk.end() < source.length()) {
+                var next = findReusable(last + 1, chunk.end() - offsetDelta, chunker.col());
+                if (next != -1) {
+                    reuseFrom = next;
+                    break;
+                }
+            }
+        }
+
+        if (reuseFrom < chunks.size()) {
+            var rowDelta = chunker.row() - chunks.get(reuseFrom).getRow();
+            for (var i = reuseFrom; i < chunks.size(); ++i) {
+                var chunk = chunks.get(i).shift(offsetDelta, rowDelta);
+                // errors carry their position in the message
+                chunks.set(i, rowDelta != 0 && chunk.hasException() ? parseChunk(chunk.toChunk()) : chunk);
+            }
+        }
+        var replaced = chunks.subList(first, reuseFrom);
+        definitions = update(definitions, replaced, parsed);
+        replaced.clear();
+        replaced.addAll(parsed);
+        return getProgram();
+    }
+
+    // null if the chunks have to be merged again, when merging them could fail
+    private static PersistentDefinitionMap update(PersistentDefinitionMap definitions, List<ParsedChunk> replaced,
+                                                  List<ParsedChunk> parsed) {
+        if (definitions == null || !parsed.stream().allMatch(ParsedChunk::isComplete)) {
+            return null;
+        }
+        for (var chunk : replaced) {
+            for (var definition : chunk.getDefinitions()) {
+                definitions = definitions.without(definition.getId());
+            }
+        }
+        for (var chunk : parsed) {
+            for (var definition : chunk.getDefinitions()) {
+                if (definitions.containsKey(definition.getId())) {
+                    return null;
+                }
+                definitions = definitions.with(definition);
+            }
+        }
+        return definitions;
+    }
+
+    private ParsedChunk parseChunk(SourceChunker.Chunk chunk) {
+        var text = source.substring(chunk.start(), chunk.end());
+        return ParsedChunk.parse(chunk, new StringCharacterSource(text), symbolTable);
+    }
+
+    // index of the last chunk starting at or before given position
+    private int chunkIndex(int position) {
+        var low = 0;
+        var high = chunks.size() - 1;
+        while (low < high) {
+            var middle = (low + high + 1) >>> 1;
+            if (chunks.get(middle).getStart() <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    // index of an old chunk from given index on that starts at given old offset and column, -1 if there is none
+    private int findReusable(int from, int oldStart, int col) {
+        if (from >= chunks.size()) {
+            return -1;
+        }
+        var index = chunkIndex(oldStart);
+        if (index < from || chunks.get(index).getStart() != oldStart || chunks.get(index).getCol() != col) {
+            return -1;
+        }
+        return index;
+    }
+}
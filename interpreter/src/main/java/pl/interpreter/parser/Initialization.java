@@ -10,8 +10,16 @@ public class Initialization extends Statement implements Instruction {
     private final VariableType type;
     private final Expression expression;
     private final boolean var;
+    // frame slot of the declared variable, set by VariableResolver
+    private int slot = NO_SLOT;
+    // set by VariableResolver when the variable is declared again in its scope, which writes the existing slot
+    private boolean redeclaration;
 
     public Initialization(String id, String userType, VariableType type, boolean var, Expression expression, Position tokenPosition) {
+        this(id, userType, type, var, expression, Position.pack(tokenPosition));
+    }
+
+    public Initialization(String id, String userType, VariableType type, boolean var, Expression expression, long tokenPosition) {
         super(tokenPosition);
         this.id = id;
         this.type = type;
@@ -20,6 +28,14 @@ public class Initialization extends Statement implements Instruction {
         this.expression = expression;
     }
 
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public void setRedeclaration(boolean redeclaration) {
+        this.redeclaration = redeclaration;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
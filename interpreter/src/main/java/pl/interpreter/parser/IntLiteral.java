@@ -8,6 +8,10 @@ public class IntLiteral extends Statement implements Expression {
     private final int value;
 
     public IntLiteral(int value, Position tokenPosition) {
+        this(value, Position.pack(tokenPosition));
+    }
+
+    public IntLiteral(int value, long tokenPosition) {
         super(tokenPosition);
         this.value = value;
     }
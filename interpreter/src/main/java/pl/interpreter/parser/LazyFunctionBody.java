@@ -0,0 +1,41 @@
+package pl.interpreter.parser;
+
+import java.util.function.Supplier;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Source range of a function body that is lexed and parsed only when the block is first needed. The range starts at
+ * the opening bracket and may be followed by nothing but whitespace and comments.
+ */
+final class LazyFunctionBody implements Supplier<Block> {
+
+    // creates a body starting at given offset of the source being parsed
+    interface Factory {
+        LazyFunctionBody create(int offset, int row, int col);
+    }
+
+    private final String source;
+    private final int start;
+    private final int end;
+    private final int row;
+    private final int col;
+    private final SymbolTable symbolTable;
+
+    LazyFunctionBody(String source, int start, int end, int row, int col, SymbolTable symbolTable) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.row = row;
+        this.col = col;
+        this.symbolTable = symbolTable;
+    }
+
+    // names are interned through a view, the body may be parsed on any thread
+    @Override
+    public Block get() {
+        var lexer = new LexicalAnalyzer(new StringCharacterSource(source, start, end), symbolTable.newView(), row, col);
+        return new ProgramParser(new TokenManager(lexer)).parseFunctionBody();
+    }
+}
@@ -0,0 +1,41 @@
+package pl.interpreter.parser;
+
+import java.util.ArrayList;
+import lombok.NonNull;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Parses only headers of functions, their bodies are skipped by matching curly brackets (see {@link SourceChunker})
+ * and parsed when {@link FunctionDefinition#getBlock()} is first called. Errors inside a body are reported by that
+ * call instead of by {@link #parse()}, errors anywhere else are the same as {@link ProgramParser} would report.
+ */
+public class LazyProgramParser {
+
+    private final String source;
+    private final SymbolTable symbolTable;
+
+    public LazyProgramParser(@NonNull String source) {
+        this.source = source;
+        this.symbolTable = new SymbolTable();
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public Program parse() {
+        var chunker = new SourceChunker(source, 0, 1, 1);
+        var chunks = new ArrayList<ParsedChunk>();
+        for (var chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+            if (chunker.isBalanced()) {
+                var end = new Position(chunker.row(), chunker.col());
+                chunks.add(ParsedChunk.parseLazily(chunk, source, symbolTable, end));
+            } else {
+                var characters = new StringCharacterSource(source, chunk.start(), chunk.end());
+                chunks.add(ParsedChunk.parse(chunk, characters, symbolTable));
+            }
+        }
+        return ParsedChunk.merge(chunks);
+    }
+}
@@ -8,14 +8,24 @@ public class MatchBranch extends Statement {
     private final String structureId;
     private final String fieldName;
     private final Instruction instruction;
+    // frame slot the matched structure is bound to, set by VariableResolver
+    private int slot = NO_SLOT;
 
     public MatchBranch(String structureId, String fieldName, Instruction instruction, Position tokenPosition) {
+        this(structureId, fieldName, instruction, Position.pack(tokenPosition));
+    }
+
+    public MatchBranch(String structureId, String fieldName, Instruction instruction, long tokenPosition) {
         super(tokenPosition);
         this.structureId = structureId;
         this.fieldName = fieldName;
         this.instruction = instruction;
     }
 
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public void accept(StatementVisitor visitor) {
         visitor.visit(this);
@@ -10,6 +10,10 @@ public class MatchStatement extends Statement implements Instruction {
     private final List<MatchBranch> branches;
 
     public MatchStatement(Expression expression, List<MatchBranch> branches, Position tokenPosition) {
+        this(expression, branches, Position.pack(tokenPosition));
+    }
+
+    public MatchStatement(Expression expression, List<MatchBranch> branches, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
         this.branches = branches;
@@ -10,6 +10,10 @@ public class Multiplication extends Statement implements Expression {
     private Expression right;
 
     public Multiplication(Expression left, MultiplicationOperator operator, Expression right, Position tokenPosition) {
+        this(left, operator, right, Position.pack(tokenPosition));
+    }
+
+    public Multiplication(Expression left, MultiplicationOperator operator, Expression right, long tokenPosition) {
         super(tokenPosition);
         this.left = left;
         this.operator = operator;
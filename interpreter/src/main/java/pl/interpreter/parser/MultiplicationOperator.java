@@ -2,6 +2,7 @@ package pl.interpreter.parser;
 
 import java.util.Optional;
 import pl.interpreter.Token;
+import pl.interpreter.TokenType;
 
 public enum MultiplicationOperator {
     MULTIPLY("*"),
@@ -15,7 +16,11 @@ public enum MultiplicationOperator {
     }
 
     public static Optional<MultiplicationOperator> parse(Token token) {
-        return switch(token.type()) {
+        return parse(token.type());
+    }
+
+    public static Optional<MultiplicationOperator> parse(TokenType type) {
+        return switch(type) {
             case MULTIPLY_OPERATOR -> Optional.of(MULTIPLY);
             case DIVIDE_OPERATOR -> Optional.of(DIVIDE);
             case MODULO_OPERATOR -> Optional.of(MODULO);
@@ -8,6 +8,10 @@ public class Negation extends Statement implements Expression {
     private final Expression expression;
 
     public Negation(Expression expression, Position tokenPosition) {
+        this(expression, Position.pack(tokenPosition));
+    }
+
+    public Negation(Expression expression, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
     }
@@ -0,0 +1,74 @@
+package pl.interpreter.parser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import lombok.NonNull;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Parses top level definitions of a source on a fork join pool. The source is split by {@link SourceChunker}, each
+ * chunk is lexed and parsed on its own and results are merged in source order, so the program and the reported
+ * errors are the same as {@link ProgramParser} would give.
+ */
+public class ParallelProgramParser {
+
+    private static final int CHUNKS_PER_TASK = 64;
+
+    private final String source;
+    private final ForkJoinPool pool;
+    private final SymbolTable symbolTable;
+
+    public ParallelProgramParser(@NonNull String source) {
+        this(source, ForkJoinPool.commonPool());
+    }
+
+    public ParallelProgramParser(@NonNull String source, @NonNull ForkJoinPool pool) {
+        this.source = source;
+        this.pool = pool;
+        this.symbolTable = new SymbolTable();
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public Program parse() {
+        var chunks = SourceChunker.split(source);
+        var results = new ParsedChunk[chunks.size()];
+        pool.invoke(new ParseChunksTask(chunks, results, 0, chunks.size()));
+        return ParsedChunk.merge(Arrays.asList(results));
+    }
+
+    private class ParseChunksTask extends RecursiveAction {
+
+        private final List<SourceChunker.Chunk> chunks;
+        private final ParsedChunk[] results;
+        private final int from;
+        private final int to;
+
+        ParseChunksTask(List<SourceChunker.Chunk> chunks, ParsedChunk[] results, int from, int to) {
+            this.chunks = chunks;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNKS_PER_TASK) {
+                var view = symbolTable.newView();
+                for (var i = from; i < to; ++i) {
+                    var chunk = chunks.get(i);
+                    results[i] = ParsedChunk.parse(chunk, new StringCharacterSource(source, chunk.start(), chunk.end()), view);
+                }
+                return;
+            }
+            var middle = (from + to) >>> 1;
+            invokeAll(new ParseChunksTask(chunks, results, from, middle),
+                    new ParseChunksTask(chunks, results, middle, to));
+        }
+    }
+}
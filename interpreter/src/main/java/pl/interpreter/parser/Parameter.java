@@ -9,6 +9,10 @@ public class Parameter extends Statement {
     private final String id;
 
     public Parameter(ParameterType type, String id, Position position) {
+        this(type, id, Position.pack(position));
+    }
+
+    public Parameter(ParameterType type, String id, long position) {
         super(position);
         this.type = type;
         this.id = id;
@@ -0,0 +1,183 @@
+package pl.interpreter.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import pl.interpreter.TokenType;
+import pl.interpreter.lexical_analyzer.CharacterSource;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+
+/**
+ * Definitions parsed from a single {@link SourceChunker.Chunk}, together with what is needed to merge them the way
+ * {@link ProgramParser} would parse the whole source. Nodes keep the rows the chunk was parsed on, a chunk moved to
+ * other rows by an edit is a new chunk sharing them, whose row offset tells how far they moved.
+ */
+final class ParsedChunk {
+
+    private final int start;
+    private final int end;
+    private final int row;
+    private final int col;
+    // row the chunk started on when it was parsed
+    private final int parsedRow;
+    private final List<Definition> definitions;
+    // position of the token following each definition on the rows of parsing, duplicate definitions are reported there
+    private final List<Position> followingPositions;
+    private boolean reachedEnd;
+    private RuntimeException exception;
+
+    private ParsedChunk(SourceChunker.Chunk chunk) {
+        this.start = chunk.start();
+        this.end = chunk.end();
+        this.row = chunk.row();
+        this.col = chunk.col();
+        this.parsedRow = chunk.row();
+        this.definitions = new ArrayList<>(1);
+        this.followingPositions = new ArrayList<>(1);
+    }
+
+    private ParsedChunk(ParsedChunk chunk, int start, int end, int row) {
+        this.start = start;
+        this.end = end;
+        this.row = row;
+        this.col = chunk.col;
+        this.parsedRow = chunk.parsedRow;
+        this.definitions = chunk.definitions;
+        this.followingPositions = chunk.followingPositions;
+        this.reachedEnd = chunk.reachedEnd;
+        this.exception = chunk.exception;
+    }
+
+    // source has to deliver exactly the characters of the chunk
+    static ParsedChunk parse(SourceChunker.Chunk chunk, CharacterSource source, SymbolTable symbolTable) {
+        return parse(chunk, source, symbolTable, null, null);
+    }
+
+    // chunk has to have balanced brackets, a function body is then left unparsed up to the end of the chunk,
+    // end is the position following the chunk
+    static ParsedChunk parseLazily(SourceChunker.Chunk chunk, String source, SymbolTable symbolTable, Position end) {
+        return parse(chunk, new StringCharacterSource(source, chunk.start(), chunk.end()), symbolTable,
+                (offset, row, col) -> new LazyFunctionBody(source, chunk.start() + offset, chunk.end(), row, col,
+                        symbolTable), end);
+    }
+
+    private static ParsedChunk parse(SourceChunker.Chunk chunk, CharacterSource source, SymbolTable symbolTable,
+                                     LazyFunctionBody.Factory lazyBodies, Position end) {
+        var result = new ParsedChunk(chunk);
+        try {
+            var tokenManager = new TokenManager(new LexicalAnalyzer(source, symbolTable, chunk.row(), chunk.col()));
+            var parser = new ProgramParser(tokenManager, lazyBodies);
+            var definition = parser.parseDefinition();
+            while (definition != null) {
+                result.definitions.add(definition);
+                if (definition instanceof FunctionDefinition function && !function.isBlockParsed()) {
+                    result.followingPositions.add(end);
+                    result.reachedEnd = true;
+                    return result;
+                }
+                result.followingPositions.add(new Position(tokenManager.getCurrentRow(), tokenManager.getCurrentCol()));
+                definition = parser.parseDefinition();
+            }
+            result.reachedEnd = tokenManager.getCurrentType() == TokenType.EOF;
+        } catch (RuntimeException e) {
+            result.exception = e;
+        }
+        return result;
+    }
+
+    static Program merge(List<ParsedChunk> chunks) {
+        Map<String, Definition> definitions = new HashMap<>();
+        for (var chunk : chunks) {
+            for (var i = 0; i < chunk.definitions.size(); ++i) {
+                var definition = chunk.definitions.get(i);
+                if (definitions.containsKey(definition.getId())) {
+                    var position = chunk.followingPositions.get(i);
+                    var row = position.row() + chunk.getRowOffset();
+                    throw new ParserException("Multiple functions with same id found: %s: %d, col: %d"
+                            .formatted(definition.getId(), row, position.col()), row, position.col());
+                }
+                definitions.put(definition.getId(), definition);
+            }
+            if (chunk.exception != null) {
+                throw chunk.exception;
+            }
+            if (!chunk.reachedEnd) {
+                break;
+            }
+        }
+        return new Program(definitions, Position.pack(1, 1));
+    }
+
+    // offsets of the definitions of chunks moved to other rows, collected once the positions are asked for
+    static ToIntFunction<Definition> rowOffsets(List<ParsedChunk> chunks) {
+        var moved = chunks.stream().filter(chunk -> chunk.getRowOffset() != 0).toArray(ParsedChunk[]::new);
+        if (moved.length == 0) {
+            return definition -> 0;
+        }
+        return new ToIntFunction<>() {
+            private volatile Map<Definition, Integer> offsets;
+
+            @Override
+            public int applyAsInt(Definition definition) {
+                var offsets = this.offsets;
+                if (offsets == null) {
+                    offsets = new IdentityHashMap<>();
+                    for (var chunk : moved) {
+                        for (var movedDefinition : chunk.definitions) {
+                            offsets.put(movedDefinition, chunk.getRowOffset());
+                        }
+                    }
+                    this.offsets = offsets;
+                }
+                return offsets.getOrDefault(definition, 0);
+            }
+        };
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    int getCol() {
+        return col;
+    }
+
+    boolean hasException() {
+        return exception != null;
+    }
+
+    SourceChunker.Chunk toChunk() {
+        return new SourceChunker.Chunk(start, end, row, col);
+    }
+
+    List<Definition> getDefinitions() {
+        return definitions;
+    }
+
+    int getRowOffset() {
+        return row - parsedRow;
+    }
+
+    // false if merging stops at the chunk, with an exception or before the chunks following it
+    boolean isComplete() {
+        return exception == null && reachedEnd;
+    }
+
+    // the chunk moved along with the source text, chunks are only reused if their column did not change
+    ParsedChunk shift(int offsetDelta, int rowDelta) {
+        return new ParsedChunk(this, start + offsetDelta, end + offsetDelta, row + rowDelta);
+    }
+}
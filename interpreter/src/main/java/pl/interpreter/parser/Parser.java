@@ -1,6 +1,5 @@
 package pl.interpreter.parser;
 
-import pl.interpreter.Token;
 import pl.interpreter.TokenType;
 
 public class Parser {
@@ -11,39 +10,76 @@ public class Parser {
         this.tokenManager = tokenManager;
     }
 
-    protected Token token() {
-        return tokenManager.getCurrentToken();
+    protected TokenType tokenType() {
+        return tokenManager.getCurrentType();
+    }
+
+    protected int tokenRow() {
+        return tokenManager.getCurrentRow();
+    }
+
+    protected int tokenCol() {
+        return tokenManager.getCurrentCol();
+    }
+
+    protected int tokenOffset() {
+        return tokenManager.getCurrentOffset();
+    }
+
+    protected String tokenString() {
+        return tokenManager.getCurrentString();
+    }
+
+    protected int tokenSymbol() {
+        return tokenManager.getCurrentSymbol();
+    }
+
+    protected int tokenInt() {
+        return tokenManager.getCurrentInt();
+    }
+
+    protected float tokenFloat() {
+        return tokenManager.getCurrentFloat();
     }
 
     protected void consumeToken() {
         tokenManager.next();
     }
 
-    protected Position getTokenPosition() {
-        return new Position(token().row(), token().col());
+    // packed, see Position.pack
+    protected long tokenPosition() {
+        return Position.pack(tokenRow(), tokenCol());
     }
 
     protected boolean tokenIsOfType(TokenType type) {
-        return token().type() == type;
+        return tokenType() == type;
     }
 
-    protected Token mustBe(TokenType tokenType) {
-        if (token().type() != tokenType) {
-            throw new ParserException("Invalid token at row: %d, col: %d".formatted(token().row(), token().col()), token().row(), token().col());
+    protected TokenType peekType(int distance) {
+        return tokenManager.peekType(distance);
+    }
+
+    protected void mustBe(TokenType tokenType) {
+        if (tokenType() != tokenType) {
+            throw getInvalidTokenException();
         }
-        return token();
+    }
+
+    protected ParserException getInvalidTokenException() {
+        return new ParserException("Invalid token at row: %d, col: %d".formatted(tokenRow(), tokenCol()), tokenRow(), tokenCol());
     }
 
     protected ParserException getParserException(String message) {
-        return new ParserException(message.concat(": %d, col: %d".formatted(token().row(), token().col())), token().row(), token().col());
+        return new ParserException(message.concat(": %d, col: %d".formatted(tokenRow(), tokenCol())), tokenRow(), tokenCol());
     }
 
     protected void throwParserException(String message) {
-        throw new ParserException(message.concat(": %d, col: %d".formatted(token().row(), token().col())), token().row(), token().col());
+        throw new ParserException(message.concat(": %d, col: %d".formatted(tokenRow(), tokenCol())), tokenRow(), tokenCol());
     }
 
     protected String parseMustBeIdentifier() {
-        var id = (String) mustBe(TokenType.IDENTIFIER).value();
+        mustBe(TokenType.IDENTIFIER);
+        var id = tokenString();
         consumeToken();
         return id;
     }
@@ -0,0 +1,260 @@
+package pl.interpreter.parser;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map of definitions by id, a hash trie whose updates copy only the path to the changed entry, so programs
+ * of consecutive edits share all the other entries. Each slot of a node holds a definition, a child node or an array
+ * of definitions whose ids have the same hash.
+ */
+final class PersistentDefinitionMap extends AbstractMap<String, Definition> {
+
+    static final PersistentDefinitionMap EMPTY = new PersistentDefinitionMap(new Node(0, new Object[0]), 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private PersistentDefinitionMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static PersistentDefinitionMap of(Iterable<Definition> definitions) {
+        var map = EMPTY;
+        for (var definition : definitions) {
+            map = map.with(definition);
+        }
+        return map;
+    }
+
+    // replaces the definition with the same id if there is one
+    PersistentDefinitionMap with(Definition definition) {
+        var id = definition.getId();
+        var grows = get(id) == null;
+        return new PersistentDefinitionMap(root.with(definition, id.hashCode(), 0), grows ? size + 1 : size);
+    }
+
+    PersistentDefinitionMap without(String id) {
+        if (get(id) == null) {
+            return this;
+        }
+        var remaining = root.without(id, id.hashCode(), 0);
+        return remaining != null ? new PersistentDefinitionMap(remaining, size - 1) : EMPTY;
+    }
+
+    @Override
+    public Definition get(Object key) {
+        return key instanceof String id ? root.find(id, id.hashCode(), 0) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Definition>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Definition>> iterator() {
+                return new EntryIterator(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private record Node(int bitmap, Object[] slots) {
+
+        Definition find(String id, int hash, int shift) {
+            var bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            return switch (slots[index(bit)]) {
+                case Node child -> child.find(id, hash, shift + BITS);
+                case Definition definition -> definition.getId().equals(id) ? definition : null;
+                case Definition[] collisions -> Arrays.stream(collisions)
+                        .filter(definition -> definition.getId().equals(id))
+                        .findFirst()
+                        .orElse(null);
+                default -> throw new IllegalStateException();
+            };
+        }
+
+        Node with(Definition definition, int hash, int shift) {
+            var bit = bit(hash, shift);
+            var index = index(bit);
+            if ((bitmap & bit) == 0) {
+                var copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = definition;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                return new Node(bitmap | bit, copy);
+            }
+            var id = definition.getId();
+            return replace(index, switch (slots[index]) {
+                case Node child -> child.with(definition, hash, shift + BITS);
+                case Definition existing when existing.getId().equals(id) -> definition;
+                case Definition existing when existing.getId().hashCode() == hash ->
+                        new Definition[] {existing, definition};
+                case Definition existing -> pair(existing, existing.getId().hashCode(), definition, hash, shift + BITS);
+                case Definition[] collisions -> withCollision(collisions, definition);
+                default -> throw new IllegalStateException();
+            });
+        }
+
+        // null if no entries are left
+        Node without(String id, int hash, int shift) {
+            var bit = bit(hash, shift);
+            var index = index(bit);
+            Object remaining = switch (slots[index]) {
+                case Node child -> child.without(id, hash, shift + BITS);
+                case Definition[] collisions -> withoutCollision(collisions, id);
+                default -> null;
+            };
+            if (remaining != null) {
+                return replace(index, remaining);
+            }
+            if (slots.length == 1) {
+                return null;
+            }
+            var copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, copy.length - index);
+            return new Node(bitmap & ~bit, copy);
+        }
+
+        private Node replace(int index, Object slot) {
+            var copy = slots.clone();
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << (hash >>> shift & MASK);
+        }
+
+        // ids of different hashes part at some level before the hash runs out
+        private static Node pair(Definition first, int firstHash, Definition second, int secondHash, int shift) {
+            var firstBit = bit(firstHash, shift);
+            var secondBit = bit(secondHash, shift);
+            if (firstBit == secondBit) {
+                return new Node(firstBit, new Object[] {pair(first, firstHash, second, secondHash, shift + BITS)});
+            }
+            return new Node(firstBit | secondBit,
+                    Integer.compareUnsigned(firstBit, secondBit) < 0
+                            ? new Object[] {first, second}
+                            : new Object[] {second, first});
+        }
+
+        private static Definition[] withCollision(Definition[] collisions, Definition definition) {
+            for (var i = 0; i < collisions.length; ++i) {
+                if (collisions[i].getId().equals(definition.getId())) {
+                    var copy = collisions.clone();
+                    copy[i] = definition;
+                    return copy;
+                }
+            }
+            var copy = Arrays.copyOf(collisions, collisions.length + 1);
+            copy[collisions.length] = definition;
+            return copy;
+        }
+
+        // a single definition left takes the place of the array
+        private static Object withoutCollision(Definition[] collisions, String id) {
+            var remaining = Arrays.stream(collisions)
+                    .filter(definition -> !definition.getId().equals(id))
+                    .toArray(Definition[]::new);
+            return remaining.length == 1 ? remaining[0] : remaining;
+        }
+    }
+
+    private static final class EntryIterator implements Iterator<Entry<String, Definition>> {
+
+        // slots of the nodes on the path to the next entry, with the index of the next slot of each
+        private final ArrayDeque<Object[]> slots = new ArrayDeque<>();
+        private final ArrayDeque<Integer> indexes = new ArrayDeque<>();
+        private Definition[] collisions;
+        private int collisionIndex;
+        private Definition next;
+
+        EntryIterator(Node root) {
+            slots.push(root.slots());
+            indexes.push(0);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Definition> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            var definition = next;
+            advance();
+            return Map.entry(definition.getId(), definition);
+        }
+
+        private void advance() {
+            if (collisions != null && collisionIndex < collisions.length) {
+                next = collisions[collisionIndex++];
+                return;
+            }
+            collisions = null;
+            while (!slots.isEmpty()) {
+                var current = slots.peek();
+                var index = indexes.pop();
+                if (index == current.length) {
+                    slots.pop();
+                    continue;
+                }
+                indexes.push(index + 1);
+                switch (current[index]) {
+                    case Node child -> {
+                        slots.push(child.slots());
+                        indexes.push(0);
+                    }
+                    case Definition definition -> {
+                        next = definition;
+                        return;
+                    }
+                    case Definition[] array -> {
+                        collisions = array;
+                        collisionIndex = 1;
+                        next = array[0];
+                        return;
+                    }
+                    default -> throw new IllegalStateException();
+                }
+            }
+            next = null;
+        }
+    }
+}
@@ -1,3 +1,31 @@
 package pl.interpreter.parser;
 
-public record Position(int row, int col) {}
+/**
+ * Row and col of a node. Nodes keep them packed in a long, row in the high and col in the low half, and materialize
+ * a position only when it is asked for.
+ */
+public record Position(int row, int col) {
+
+    public static final long NONE = -1L;
+
+    public static long pack(int row, int col) {
+        return (long) row << Integer.SIZE | col & 0xFFFFFFFFL;
+    }
+
+    public static long pack(Position position) {
+        return position == null ? NONE : pack(position.row(), position.col());
+    }
+
+    // null for NONE
+    public static Position unpack(long packed) {
+        return packed == NONE ? null : new Position(rowOf(packed), colOf(packed));
+    }
+
+    public static int rowOf(long packed) {
+        return (int) (packed >> Integer.SIZE);
+    }
+
+    public static int colOf(long packed) {
+        return (int) packed;
+    }
+}
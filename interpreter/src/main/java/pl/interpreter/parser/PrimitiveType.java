@@ -2,6 +2,7 @@ package pl.interpreter.parser;
 
 import java.util.Optional;
 import pl.interpreter.Token;
+import pl.interpreter.TokenType;
 
 public enum PrimitiveType {
     INT("int"),
@@ -21,7 +22,11 @@ public enum PrimitiveType {
     }
 
     public static Optional<PrimitiveType> parse(Token token) {
-        return switch (token.type()) {
+        return parse(token.type());
+    }
+
+    public static Optional<PrimitiveType> parse(TokenType type) {
+        return switch (type) {
             case KW_INT -> Optional.of(INT);
             case KW_FLOAT -> Optional.of(FLOAT);
             case KW_STRING -> Optional.of(STRING);
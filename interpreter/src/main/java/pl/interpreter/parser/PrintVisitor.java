@@ -20,6 +20,8 @@ public class PrintVisitor implements StatementVisitor {
     private static final String DEPTH_SYMBOL = " ";
     private static final int NON_DEPTH_PREFIX_LENGTH = NAME_PREFIX.length() + BRANCH_SYMBOL.length();
     private int depth = 0;
+    // of the definition being printed
+    private int rowOffset = 0;
 
     private static final String ID_MSG = "id";
     private static final String TYPE_MSG = "type";
@@ -155,7 +157,11 @@ public class PrintVisitor implements StatementVisitor {
     public void visit(Program program) {
         printNode(program, List.of());
         diveIn();
-        program.getDefinitions().values().stream().sorted(Comparator.comparing(Definition::getId)).forEach(this::visit);
+        program.getDefinitions().values().stream().sorted(Comparator.comparing(Definition::getId)).forEach(definition -> {
+            rowOffset = program.getRowOffset(definition);
+            visit(definition);
+        });
+        rowOffset = 0;
         diveOut();
     }
 
@@ -337,9 +343,9 @@ public class PrintVisitor implements StatementVisitor {
                 statement.getClass().getSimpleName() +
                 ' ' +
                 "<row: " +
-                statement.getPosition().row() +
+                (statement.getRow() + rowOffset) +
                 ", col: " +
-                statement.getPosition().col() +
+                statement.getCol() +
                 "> " +
                 getParametersString(params) +
                 '\n');
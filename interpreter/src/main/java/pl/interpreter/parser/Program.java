@@ -1,17 +1,35 @@
 package pl.interpreter.parser;
 
-import java.util.List;
 import java.util.Map;
+import java.util.function.ToIntFunction;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 @Getter
 public class Program extends Statement {
 
     private final Map<String, Definition> definitions;
+    // rows of the nodes of a definition reused by the incremental parser on other rows are off by its offset
+    @Getter(AccessLevel.NONE)
+    private final ToIntFunction<Definition> rowOffsets;
 
     public Program(Map<String, Definition> definitions, Position tokenPosition) {
+        this(definitions, Position.pack(tokenPosition));
+    }
+
+    public Program(Map<String, Definition> definitions, long tokenPosition) {
+        this(definitions, tokenPosition, definition -> 0);
+    }
+
+    public Program(Map<String, Definition> definitions, long tokenPosition, ToIntFunction<Definition> rowOffsets) {
         super(tokenPosition);
         this.definitions = definitions;
+        this.rowOffsets = rowOffsets;
+    }
+
+    // added to the rows of the definition and its nodes to get their rows in the source
+    public int getRowOffset(Definition definition) {
+        return rowOffsets.applyAsInt(definition);
     }
 
     @Override
@@ -2,54 +2,69 @@ package pl.interpreter.parser;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Consumer;
 import pl.interpreter.TokenType;
 
 public class ProgramParser extends Parser {
 
     private final SingleStatementParser singleStatementParser;
     private final ExpressionParser expressionParser;
+    // function bodies are parsed right away when null
+    private final LazyFunctionBody.Factory lazyBodies;
 
     public ProgramParser(TokenManager tokenManager) {
+        this(tokenManager, null);
+    }
+
+    // with lazy bodies a function ends parsing, its body reaches to the end of the source
+    ProgramParser(TokenManager tokenManager, LazyFunctionBody.Factory lazyBodies) {
         super(tokenManager);
         this.expressionParser = new ExpressionParser(tokenManager);
         this.singleStatementParser = new SingleStatementParser(expressionParser, tokenManager);
+        this.lazyBodies = lazyBodies;
     }
 
-    // program ::= { definition };
     public Program parse() {
         Map<String, Definition> definitions = new HashMap<>();
-        Optional<Definition> definition = parseDefinition();
-        while(definition.isPresent()) {
-            var it = definition.get();
-            if (definitions.containsKey(it.getId())) {
-                throwParserException("Multiple functions with same id found: " + it.getId());
+        parseDefinitions(definition -> definitions.put(definition.getId(), definition));
+        return new Program(definitions, Position.pack(1, 1));
+    }
+
+    // program ::= { definition };
+    // each definition is handed over as soon as it is parsed, only the ids are kept to report duplicates
+    public void parseDefinitions(Consumer<Definition> consumer) {
+        var ids = new HashSet<String>();
+        var definition = parseDefinition();
+        while (definition != null) {
+            if (!ids.add(definition.getId())) {
+                throwParserException("Multiple functions with same id found: " + definition.getId());
             }
-            definitions.put(it.getId(), it);
+            consumer.accept(definition);
             definition = parseDefinition();
         }
-        return new Program(definitions, new Position(1, 1));
     }
 
     // definition               ::= functionDefinition
     //                            | structureDefinition
     //                            | variantDefinition;
-    private Optional<Definition> parseDefinition() {
-        return parseFunctionDefinition()
-                .or(this::parseStructureDefinition)
-                .or(this::parseVariant);
+    // returns null if current token does not start a definition
+    Definition parseDefinition() {
+        return switch (tokenType()) {
+            case KW_VOID, KW_INT, KW_FLOAT, KW_STRING, KW_BOOL, IDENTIFIER -> parseFunctionDefinition();
+            case KW_STRUCT -> parseStructureDefinition();
+            case KW_VARIANT -> parseVariant();
+            default -> null;
+        };
     }
 
     // functionDefinition ::= functionReturnType identifier "(" parameters ")" block;
-    private Optional<Definition> parseFunctionDefinition() {
-        var position = getTokenPosition();
-        var returnType = FunctionReturnTypeEnum.parse(token());
-        if (returnType.isEmpty()) {
-            return Optional.empty();
-        }
-        var userType = getUserType(returnType.get());
+    private Definition parseFunctionDefinition() {
+        var position = tokenPosition();
+        var returnType = FunctionReturnTypeEnum.parse(tokenType()).orElseThrow();
+        var userType = getUserType(returnType);
         consumeToken();
         var id = parseMustBeIdentifier();
         mustBe(TokenType.LEFT_PARENTHESES);
@@ -57,61 +72,85 @@ public class ProgramParser extends Parser {
         var parameters = parseParameterList();
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
-        var block = parseBlock()
-                .orElseThrow(() -> getParserException("Expected block"));
-        return Optional.of(new FunctionDefinition(new FunctionReturnType(returnType.get(), userType), id, parameters, block, position));
+        if (!tokenIsOfType(TokenType.LEFT_CURLY_BRACKET)) {
+            throwParserException("Expected block");
+        }
+        if (lazyBodies != null) {
+            var body = lazyBodies.create(tokenOffset(), tokenRow(), tokenCol());
+            return new FunctionDefinition(new FunctionReturnType(returnType, userType), id, parameters, body, position);
+        }
+        var block = parseBlock();
+        return new FunctionDefinition(new FunctionReturnType(returnType, userType), id, parameters, block, position);
+    }
+
+    // block of a function parsed lazily, nothing may follow it
+    Block parseFunctionBody() {
+        mustBe(TokenType.LEFT_CURLY_BRACKET);
+        var block = parseBlock();
+        mustBe(TokenType.EOF);
+        return block;
     }
 
     // block ::= "{" { instruction } "}";
-    private Optional<Block> parseBlock() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.LEFT_CURLY_BRACKET)) {
-            return Optional.empty();
-        }
+    private Block parseBlock() {
+        var position = tokenPosition();
         consumeToken();
         var instructions = new ArrayList<Instruction>();
         var instruction = parseInstruction();
-        while (instruction.isPresent()) {
-            instructions.add(instruction.get());
+        while (instruction != null) {
+            instructions.add(instruction);
             instruction = parseInstruction();
         }
         mustBe(TokenType.RIGHT_CURLY_BRACKET);
         consumeToken();
-        return Optional.of(new Block(instructions, position));
+        return new Block(instructions, position);
     }
 
+    // instruction       ::= block
+    //                     | singleStatement
+    //                     | compoundStatement;
+    // compoundStatement ::= if
+    //                     | while
+    //                     | match;
+    // returns null if current token does not start an instruction
+    private Instruction parseInstruction() {
+        return switch (tokenType()) {
+            case LEFT_CURLY_BRACKET -> parseBlock();
+            case KW_IF -> parseIfStatement();
+            case KW_WHILE -> parseWhileStatement();
+            case KW_MATCH -> parseMatchStatement();
+            default -> singleStatementParser.parseSingleStatementOrNull();
+        };
+    }
 
-    // instruction ::= block
-    //               | singleStatement
-    //               | compoundStatement;
-    private Optional<Instruction> parseInstruction() {
-        return singleStatementParser.parseSingleStatement()
-                .or(this::parseBlock)
-                .or(this::parseCompoundStatement);
+    private Instruction parseMustBeInstruction() {
+        var instruction = parseInstruction();
+        if (instruction == null) {
+            throwParserException("Expected instruction");
+        }
+        return instruction;
     }
 
     // structureDefinition ::= "struct " identifier "{" parameters "}";
-    private Optional<Definition> parseStructureDefinition() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_STRUCT)) {
-            return Optional.empty();
-        }
+    private Definition parseStructureDefinition() {
+        var position = tokenPosition();
         consumeToken();
-        var id = (String) mustBe(TokenType.IDENTIFIER).value();
+        mustBe(TokenType.IDENTIFIER);
+        var id = tokenString();
         consumeToken();
         mustBe(TokenType.LEFT_CURLY_BRACKET);
         consumeToken();
         var parameters = parseParameterList();
         mustBe(TokenType.RIGHT_CURLY_BRACKET);
         consumeToken();
-        return Optional.of(new StructureDefinition(id, parameters, position));
+        return new StructureDefinition(id, parameters, position);
     }
 
     // parameters ::= [ parameterType, identifier { "," parameterType, identifier } ];
     private List<Parameter> parseParameterList() {
-        var position = getTokenPosition();
+        var position = tokenPosition();
         List<Parameter> parameters = new ArrayList<>();
-        var parameterTypeEnum = VariableType.parse(token());
+        var parameterTypeEnum = VariableType.parse(tokenType());
         if (parameterTypeEnum.isEmpty()) {
             return parameters;
         }
@@ -121,7 +160,7 @@ public class ProgramParser extends Parser {
         parameters.add(new Parameter(new ParameterType(parameterTypeEnum.get(), userType), id, position));
         while (tokenIsOfType(TokenType.COMMA)) {
             consumeToken();
-            parameterTypeEnum = VariableType.parse(token());
+            parameterTypeEnum = VariableType.parse(tokenType());
             if (parameterTypeEnum.isEmpty()) {
                 throwParserException("Expected type");
             }
@@ -134,11 +173,8 @@ public class ProgramParser extends Parser {
     }
 
     // variantDefinition ::= "variant " identifier "{" identifier { "," identifier } "}";
-    private Optional<VariantDefinition> parseVariant() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_VARIANT)) {
-            return Optional.empty();
-        }
+    private VariantDefinition parseVariant() {
+        var position = tokenPosition();
         consumeToken();
         var structureIds = new ArrayList<String>();
         var id = parseMustBeIdentifier();
@@ -149,80 +185,57 @@ public class ProgramParser extends Parser {
         } while (tokenIsOfType(TokenType.COMMA));
         mustBe(TokenType.RIGHT_CURLY_BRACKET);
         consumeToken();
-        return Optional.of(new VariantDefinition(id, structureIds, position));
+        return new VariantDefinition(id, structureIds, position);
     }
 
     private String getUserType(VariableType variableType) {
         if (variableType == VariableType.USER_TYPE) {
-            return (String) token().value();
+            return tokenString();
         }
         return null;
     }
 
     private String getUserType(FunctionReturnTypeEnum functionReturnTypeEnum) {
         if (functionReturnTypeEnum == FunctionReturnTypeEnum.USER_TYPE) {
-            return (String) token().value();
+            return tokenString();
         }
         return null;
     }
 
-    // compoundStatement ::= if
-    //                     | while
-    //                     | match;
-    public Optional<Instruction> parseCompoundStatement() {
-        return parseIfStatement()
-                .or(this::parseWhileStatement)
-                .or(this::parseMatchStatement);
-    }
-
     // if ::= "if" "(" expression ")" instruction [ "else" instruction ];
-    public Optional<Instruction> parseIfStatement() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_IF)) {
-            return Optional.empty();
-        }
+    private Instruction parseIfStatement() {
+        var position = tokenPosition();
         consumeToken();
         mustBe(TokenType.LEFT_PARENTHESES);
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                        .orElseThrow(() -> getParserException("Expected expression"));
+        var expression = expressionParser.parseMustBeExpression();
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
-        var instruction = parseInstruction()
-                .orElseThrow(() -> getParserException("Expected instruction"));
+        var instruction = parseMustBeInstruction();
         if (!tokenIsOfType(TokenType.KW_ELSE)) {
-            return Optional.of(new IfStatement(expression, instruction, null, position));
+            return new IfStatement(expression, instruction, null, position);
         }
         consumeToken();
-        var elseInstruction = parseInstruction()
-                .orElseThrow(() -> getParserException("Expected instruction"));
-        return Optional.of(new IfStatement(expression, instruction, elseInstruction, position));
+        var elseInstruction = parseMustBeInstruction();
+        return new IfStatement(expression, instruction, elseInstruction, position);
     }
 
     // while ::= "while", "(" expression ")", instruction;
-    public Optional<WhileStatement> parseWhileStatement() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_WHILE)) {
-            return Optional.empty();
-        }
+    private WhileStatement parseWhileStatement() {
+        var position = tokenPosition();
         consumeToken();
         mustBe(TokenType.LEFT_PARENTHESES);
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                        .orElseThrow(() -> getParserException("Expected expression"));
+        var expression = expressionParser.parseMustBeExpression();
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
-        var instruction = parseInstruction()
-                .orElseThrow(() -> getParserException("Expected instruction"));
-        return Optional.of(new WhileStatement(expression, instruction, position));
+        var instruction = parseMustBeInstruction();
+        return new WhileStatement(expression, instruction, position);
     }
 
     // match ::= "match", "(", dotAccess, ")", "{", matchBranch, {matchBranch}, "}";
-    private Optional<Instruction> parseMatchStatement() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_MATCH)) {
-            return Optional.empty();
-        }
+    private Instruction parseMatchStatement() {
+        var position = tokenPosition();
         consumeToken();
         mustBe(TokenType.LEFT_PARENTHESES);
         consumeToken();
@@ -234,40 +247,37 @@ public class ProgramParser extends Parser {
         consumeToken();
         var branches = new ArrayList<MatchBranch>();
         var branch = parseMatchBranch();
-        if (branch.isEmpty()) {
+        if (branch == null) {
             throwParserException("Expected branch");
         }
-        branches.add(branch.get());
-        branch = parseMatchBranch();
-        while (branch.isPresent()) {
-            branches.add(branch.get());
+        while (branch != null) {
+            branches.add(branch);
             branch = parseMatchBranch();
         }
-        return Optional.of(new MatchStatement(expression, branches, position));
+        return new MatchStatement(expression, branches, position);
     }
 
     // matchBranch ::= identifier, identifier, "->" instruction;
     //               | "default" "->" instruction;
-    private Optional<MatchBranch> parseMatchBranch() {
-        var position = getTokenPosition();
+    // returns null if current token does not start a branch
+    private MatchBranch parseMatchBranch() {
+        var position = tokenPosition();
+        if (tokenIsOfType(TokenType.KW_DEFAULT)) {
+            consumeToken();
+            mustBe(TokenType.ARROW);
+            consumeToken();
+            var instruction = parseMustBeInstruction();
+            return new MatchBranch(null, null, instruction, position);
+        }
         if (!tokenIsOfType(TokenType.IDENTIFIER)) {
-            if (tokenIsOfType(TokenType.KW_DEFAULT)) {
-                consumeToken();
-                mustBe(TokenType.ARROW);
-                consumeToken();
-                var instruction = parseInstruction()
-                        .orElseThrow(() -> getParserException("Expected instruction"));
-                return Optional.of(new MatchBranch(null, null, instruction, position));
-            }
-            return Optional.empty();
+            return null;
         }
-        var structureId = (String) token().value();
+        var structureId = tokenString();
         consumeToken();
         var fieldName = parseMustBeIdentifier();
         mustBe(TokenType.ARROW);
         consumeToken();
-        var instruction = parseInstruction()
-                .orElseThrow(() -> getParserException("Expected instruction"));
-        return Optional.of(new MatchBranch(structureId, fieldName, instruction, position));
+        var instruction = parseMustBeInstruction();
+        return new MatchBranch(structureId, fieldName, instruction, position);
     }
-}
\ No newline at end of file
+}
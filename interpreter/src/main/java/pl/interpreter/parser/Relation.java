@@ -12,6 +12,10 @@ public class Relation extends Statement implements Expression {
     private final RelationalOperator operator;
 
     public Relation(Expression left, RelationalOperator operator, Expression right, Position position) {
+        this(left, operator, right, Position.pack(position));
+    }
+
+    public Relation(Expression left, RelationalOperator operator, Expression right, long position) {
         super(position);
         this.left = left;
         this.operator = operator;
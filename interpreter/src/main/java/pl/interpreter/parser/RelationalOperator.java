@@ -2,6 +2,7 @@ package pl.interpreter.parser;
 
 import java.util.Optional;
 import pl.interpreter.Token;
+import pl.interpreter.TokenType;
 
 public enum RelationalOperator {
     EQUALS("=="),
@@ -23,7 +24,11 @@ public enum RelationalOperator {
     }
 
     public static Optional<RelationalOperator> parse(Token token) {
-        return switch (token.type()) {
+        return parse(token.type());
+    }
+
+    public static Optional<RelationalOperator> parse(TokenType type) {
+        return switch (type) {
             case EQUALS_OPERATOR -> Optional.of(EQUALS);
             case NOT_EQUALS_OPERATOR -> Optional.of(NOT_EQUALS);
             case LESS_THAN_OPERATOR -> Optional.of(LESS_THAN);
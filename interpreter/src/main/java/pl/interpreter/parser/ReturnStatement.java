@@ -8,6 +8,10 @@ public class ReturnStatement extends Statement implements Instruction {
     private Expression expression;
 
     public ReturnStatement(Expression expression, Position tokenPosition) {
+        this(expression, Position.pack(tokenPosition));
+    }
+
+    public ReturnStatement(Expression expression, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
     }
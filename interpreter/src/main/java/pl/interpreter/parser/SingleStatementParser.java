@@ -18,131 +18,117 @@ public class SingleStatementParser extends Parser {
     //                   | var
     //                   | return) ";";
     public Optional<Instruction> parseSingleStatement() {
-        var statement = parseIdentifierStatement()
-                .or(this::parsePrimitiveInitialization)
-                .or(this::parseVar)
-                .or(this::parseReturn);
-        if (statement.isEmpty()) {
-            return Optional.empty();
+        return Optional.ofNullable(parseSingleStatementOrNull());
+    }
+
+    // returns null if current token does not start a single statement
+    Instruction parseSingleStatementOrNull() {
+        Instruction statement = switch (tokenType()) {
+            case IDENTIFIER -> parseIdentifierStatement();
+            case KW_INT, KW_FLOAT, KW_STRING, KW_BOOL -> parsePrimitiveInitialization();
+            case KW_VAR -> parseVar();
+            case KW_RETURN -> parseReturn();
+            default -> null;
+        };
+        if (statement == null) {
+            return null;
         }
         mustBe(TokenType.SEMICOLON);
         consumeToken();
-        return Optional.of(statement.get());
+        return statement;
     }
 
     // identifierStatement ::= identifier (arguments // function call
     //                       | "=" expression // assignment
     //                       | identifier "=" expression) // user type initialization
-    public Optional<Instruction> parseIdentifierStatement() {
-        if (!tokenIsOfType(TokenType.IDENTIFIER)) {
-            return Optional.empty();
-        }
-        var id = (String) token().value();
+    private Instruction parseIdentifierStatement() {
+        var next = peekType(1);
+        var id = tokenString();
+        var symbol = tokenSymbol();
         consumeToken();
-        return parseFunctionCall(id)
-                .or(() -> parseAssignment(id))
-                .or(() -> parseInitialization(id));
+        return switch (next) {
+            case LEFT_PARENTHESES -> parseFunctionCall(id, symbol);
+            case ASSIGNMENT -> parseAssignment(id, symbol);
+            case IDENTIFIER -> parseInitialization(id);
+            default -> throw getInvalidTokenException();
+        };
     }
 
     // functionCall ::= identifier, arguments;
     // arguments    ::= "(", [ expression {"," expression } ], ")";
-    public Optional<Instruction> parseFunctionCall(String id) {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.LEFT_PARENTHESES)) {
-            return Optional.empty();
-        }
+    private FunctionCall parseFunctionCall(String id, int symbol) {
+        var position = tokenPosition();
         consumeToken();
         var arguments = new ArrayList<Expression>();
-        expressionParser.parseExpression().ifPresent(arguments::add);
+        var argument = expressionParser.parseExpressionOrNull();
+        if (argument != null) {
+            arguments.add(argument);
+        }
         while(tokenIsOfType(TokenType.COMMA)) {
             consumeToken();
-            var expression = expressionParser.parseExpression()
-                            .orElseThrow(() -> getParserException("Expected expression"));
+            var expression = expressionParser.parseMustBeExpression();
             arguments.add(expression);
         }
         mustBe(TokenType.RIGHT_PARENTHESES);
         consumeToken();
-        return Optional.of(new FunctionCall(id, arguments, position));
+        return new FunctionCall(id, symbol, arguments, position);
     }
 
     // "=" expression
-    private Optional<Assignment> parseAssignment(String id) {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.ASSIGNMENT)) {
-            return Optional.empty();
-        }
+    private Assignment parseAssignment(String id, int symbol) {
+        var position = tokenPosition();
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                .orElseThrow(() -> getParserException("Expected expression"));
-        return Optional.of(new Assignment(id, expression, position));
+        var expression = expressionParser.parseMustBeExpression();
+        return new Assignment(id, symbol, expression, position);
     }
 
     // primitiveInitialization ::= primitiveType identifier "=" expression;
-    private Optional<Initialization> parsePrimitiveInitialization() {
-        var position = getTokenPosition();
-        var type = VariableType.parse(token());
-        if (type.isEmpty() || type.get() == VariableType.USER_TYPE) {
-            return Optional.empty();
-        }
+    private Initialization parsePrimitiveInitialization() {
+        var position = tokenPosition();
+        var type = VariableType.parse(tokenType()).orElseThrow();
         consumeToken();
         var id = parseMustBeIdentifier();
         mustBe(TokenType.ASSIGNMENT);
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                .orElseThrow(() -> getParserException("Expected expression"));
-        return Optional.of(new Initialization(id, null, type.get(), false, expression, position));
+        var expression = expressionParser.parseMustBeExpression();
+        return new Initialization(id, null, type, false, expression, position);
     }
 
     // identifier "=" expression
-    private Optional<Initialization> parseInitialization(String userType) {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.IDENTIFIER)) {
-            return Optional.empty();
-        }
-        var id = (String) token().value();
+    private Initialization parseInitialization(String userType) {
+        var position = tokenPosition();
+        var id = tokenString();
         consumeToken();
         mustBe(TokenType.ASSIGNMENT);
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                .orElseThrow(() -> getParserException("Expected expression"));
-        return Optional.of(new Initialization(id, userType, VariableType.USER_TYPE, false, expression, position));
+        var expression = expressionParser.parseMustBeExpression();
+        return new Initialization(id, userType, VariableType.USER_TYPE, false, expression, position);
     }
 
     // return ::= "return", [expression];
-    public Optional<Instruction> parseReturn() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_RETURN)) {
-            return Optional.empty();
-        }
+    private ReturnStatement parseReturn() {
+        var position = tokenPosition();
         consumeToken();
-        var expression = expressionParser.parseExpression();
-        if (expression.isEmpty()) {
-            return Optional.of(new ReturnStatement(null, position));
-        }
-        return Optional.of(new ReturnStatement(expression.get(), position));
+        return new ReturnStatement(expressionParser.parseExpressionOrNull(), position);
     }
 
     // var                      ::= "var" initialization
     // initialization           ::= primitiveType identifier "=" expression;
     //                            | identifier identifier "=" expression;
-    private Optional<Initialization> parseVar() {
-        var position = getTokenPosition();
-        if (!tokenIsOfType(TokenType.KW_VAR)) {
-            return Optional.empty();
-        }
+    private Initialization parseVar() {
+        var position = tokenPosition();
         consumeToken();
-        var type = VariableType.parse(token())
+        var type = VariableType.parse(tokenType())
                 .orElseThrow(() -> getParserException("Expected type"));
         String userType = null;
         if (type == VariableType.USER_TYPE) {
-            userType = (String) token().value();
+            userType = tokenString();
         }
         consumeToken();
         var id = parseMustBeIdentifier();
         mustBe(TokenType.ASSIGNMENT);
         consumeToken();
-        var expression = expressionParser.parseExpression()
-                .orElseThrow(() -> getParserException("Expected expression"));
-        return Optional.of(new Initialization(id, userType, type, true, expression, position));
+        var expression = expressionParser.parseMustBeExpression();
+        return new Initialization(id, userType, type, true, expression, position);
     }
 }
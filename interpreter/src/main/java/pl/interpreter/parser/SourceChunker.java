@@ -0,0 +1,181 @@
+package pl.interpreter.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits source code into chunks holding top level definitions, by matching curly brackets outside of strings and
+ * comments. Every chunk but the first starts at the first token of a definition and ends where the next one starts,
+ * so a chunk lexed on its own reports EOF exactly where the whole source would report the following token.
+ * When brackets do not balance the rest of the source is left as a single chunk.
+ */
+final class SourceChunker {
+
+    record Chunk(int start, int end, int row, int col) {}
+
+    private final CharSequence source;
+    private int position;
+    private int row;
+    private int col;
+    private boolean done;
+    private boolean balanced;
+
+    // chunking starts at given offset of the source, which must be the start of a chunk
+    SourceChunker(CharSequence source, int start, int row, int col) {
+        this.source = source;
+        this.position = start;
+        this.row = row;
+        this.col = col;
+    }
+
+    static List<Chunk> split(CharSequence source) {
+        var chunker = new SourceChunker(source, 0, 1, 1);
+        var chunks = new ArrayList<Chunk>();
+        for (var chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    // row and col of the source position following the last returned chunk
+    int row() {
+        return row;
+    }
+
+    int col() {
+        return col;
+    }
+
+    // false if the last returned chunk holds the rest of the source because its brackets do not balance or it ends
+    // inside of a comment
+    boolean isBalanced() {
+        return balanced;
+    }
+
+    Chunk next() {
+        if (done) {
+            return null;
+        }
+        var start = position;
+        var startRow = row;
+        var startCol = col;
+        skipTrivia();
+        balanced = position < source.length() && skipDefinition() && skipTrivia();
+        if (!balanced) {
+            position = source.length();
+        }
+        done = position == source.length();
+        return new Chunk(start, position, startRow, startCol);
+    }
+
+    // returns false if the definition does not end with a balanced closing bracket
+    private boolean skipDefinition() {
+        var depth = 0;
+        while (position < source.length()) {
+            var c = source.charAt(position);
+            if (c == '"') {
+                if (!skipString()) {
+                    return false;
+                }
+                continue;
+            }
+            if (c == '/' && startsComment()) {
+                if (!skipComment()) {
+                    return false;
+                }
+                continue;
+            }
+            advance();
+            if (c == '{') {
+                ++depth;
+            } else if (c == '}') {
+                if (--depth < 0) {
+                    return false;
+                }
+                if (depth == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // returns false if the source ends inside of a comment
+    private boolean skipTrivia() {
+        while (position < source.length()) {
+            var c = source.charAt(position);
+            if (Character.isWhitespace(c)) {
+                advance();
+            } else if (c == '/' && startsComment()) {
+                if (!skipComment()) {
+                    position = source.length();
+                    return false;
+                }
+            } else {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsComment() {
+        if (position + 1 >= source.length()) {
+            return false;
+        }
+        var next = source.charAt(position + 1);
+        return next == '/' || next == '*';
+    }
+
+    private boolean skipComment() {
+        advance();
+        if (source.charAt(position) == '/') {
+            while (position < source.length() && source.charAt(position) != '\n') {
+                advance();
+            }
+            if (position < source.length()) {
+                advance();
+            }
+            return true;
+        }
+        advance();
+        var last = ' ';
+        while (position < source.length()) {
+            var c = source.charAt(position);
+            advance();
+            if (last == '*' && c == '/') {
+                return true;
+            }
+            last = c;
+        }
+        return false;
+    }
+
+    private boolean skipString() {
+        advance();
+        var escapeNext = false;
+        while (position < source.length()) {
+            var c = source.charAt(position);
+            if (c == '\n') {
+                return false;
+            }
+            advance();
+            if (escapeNext) {
+                escapeNext = false;
+            } else if (c == '\\') {
+                escapeNext = true;
+            } else if (c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void advance() {
+        if (source.charAt(position++) == '\n') {
+            ++row;
+            col = 1;
+        } else {
+            ++col;
+        }
+    }
+}
@@ -1,15 +1,57 @@
 package pl.interpreter.parser;
 
-import lombok.Getter;
-
 public abstract class Statement {
 
-    @Getter
-    private final Position position;
+    // frame slot of a variable not resolved by VariableResolver, looked up by name
+    public static final int NO_SLOT = -1;
+
+    // packed with Position.pack, parser and snapshots never allocate a Position per node
+    private final long position;
+    // set by the type checker for expressions, null until checked and for calls of void functions
+    private VariableType resolvedType;
+    // set by the constant folder for expressions with a value known before execution
+    private Constant constant;
 
     public Statement(Position tokenPosition) {
+        this(Position.pack(tokenPosition));
+    }
+
+    public Statement(long tokenPosition) {
         this.position = tokenPosition;
     }
 
+    // materialized on each call, null if the node has no position
+    public Position getPosition() {
+        return Position.unpack(position);
+    }
+
+    public long getPackedPosition() {
+        return position;
+    }
+
+    public int getRow() {
+        return Position.rowOf(position);
+    }
+
+    public int getCol() {
+        return Position.colOf(position);
+    }
+
+    public VariableType getResolvedType() {
+        return resolvedType;
+    }
+
+    public void setResolvedType(VariableType resolvedType) {
+        this.resolvedType = resolvedType;
+    }
+
+    public Constant getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Constant constant) {
+        this.constant = constant;
+    }
+
     public abstract void accept(StatementVisitor visitor);
 }
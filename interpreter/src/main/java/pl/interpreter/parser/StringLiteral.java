@@ -8,6 +8,10 @@ public class StringLiteral extends Statement implements Expression {
     private String value;
 
     public StringLiteral(String value, Position tokenPosition) {
+        this(value, Position.pack(tokenPosition));
+    }
+
+    public StringLiteral(String value, long tokenPosition) {
         super(tokenPosition);
         this.value = value;
     }
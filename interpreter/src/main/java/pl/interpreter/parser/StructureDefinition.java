@@ -10,6 +10,10 @@ public class StructureDefinition extends Statement implements Definition {
     private final List<Parameter> parameters;
 
     public StructureDefinition(String id, List<Parameter> parameters, Position tokenPosition) {
+        this(id, parameters, Position.pack(tokenPosition));
+    }
+
+    public StructureDefinition(String id, List<Parameter> parameters, long tokenPosition) {
         super(tokenPosition);
         this.id = id;
         this.parameters = parameters;
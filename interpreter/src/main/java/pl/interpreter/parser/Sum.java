@@ -10,6 +10,10 @@ public class Sum extends Statement implements Expression {
     private Expression right;
 
     public Sum(Expression left, AdditionOperator operator, Expression right, Position tokenPosition) {
+        this(left, operator, right, Position.pack(tokenPosition));
+    }
+
+    public Sum(Expression left, AdditionOperator operator, Expression right, long tokenPosition) {
         super(tokenPosition);
         this.left = left;
         this.operator = operator;
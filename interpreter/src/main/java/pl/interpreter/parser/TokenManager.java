@@ -1,27 +1,197 @@
 package pl.interpreter.parser;
 
 import pl.interpreter.Token;
+import pl.interpreter.TokenBuffer;
 import pl.interpreter.TokenType;
 import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.SymbolTable;
 
 public class TokenManager {
 
+    public static final int MAX_LOOKAHEAD = 3;
+    private static final int RING_SIZE = 4;
+
     private final LexicalAnalyzer lexicalAnalyzer;
+    private final TokenBuffer tokenBuffer;
+    private int index = -1;
     private Token token;
 
+    // tokens scanned ahead of the streamed one, the ring holds the current token first and the lexer is positioned
+    // at its last token, ring is not used when nothing was peeked
+    private final TokenType[] ringTypes = new TokenType[RING_SIZE];
+    private final int[] ringRows = new int[RING_SIZE];
+    private final int[] ringCols = new int[RING_SIZE];
+    private final int[] ringOffsets = new int[RING_SIZE];
+    private final int[] ringInts = new int[RING_SIZE];
+    private final float[] ringFloats = new float[RING_SIZE];
+    private final int[] ringSymbols = new int[RING_SIZE];
+    private final String[] ringStrings = new String[RING_SIZE];
+    private final Object[] ringValues = new Object[RING_SIZE];
+    private int ringHead;
+    private int ringCount;
+
     public TokenManager(LexicalAnalyzer lexicalAnalyzer) {
         this.lexicalAnalyzer = lexicalAnalyzer;
+        this.tokenBuffer = null;
+        next();
+    }
+
+    public TokenManager(TokenBuffer tokenBuffer) {
+        if (tokenBuffer.size() == 0 || tokenBuffer.getType(tokenBuffer.size() - 1) != TokenType.EOF) {
+            throw new IllegalArgumentException("Token buffer must end with EOF token");
+        }
+        this.lexicalAnalyzer = null;
+        this.tokenBuffer = tokenBuffer;
         next();
     }
 
+    public SymbolTable getSymbolTable() {
+        return tokenBuffer == null ? lexicalAnalyzer.getSymbolTable() : tokenBuffer.getSymbolTable();
+    }
+
     public Token getCurrentToken() {
+        if (token == null) {
+            if (tokenBuffer != null) {
+                token = tokenBuffer.getToken(index);
+            } else if (ringCount == 0) {
+                token = new Token(lexicalAnalyzer.getTokenType(), lexicalAnalyzer.getTokenValue(),
+                        lexicalAnalyzer.getTokenRow(), lexicalAnalyzer.getTokenCol());
+            } else {
+                token = new Token(ringTypes[ringHead], ringValues[ringHead], ringRows[ringHead], ringCols[ringHead]);
+            }
+        }
         return token;
     }
 
-    public Token next() {
+    public TokenType getCurrentType() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getType(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenType() : ringTypes[ringHead];
+    }
+
+    public int getCurrentRow() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getRow(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenRow() : ringRows[ringHead];
+    }
+
+    public int getCurrentCol() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getCol(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenCol() : ringCols[ringHead];
+    }
+
+    // offset of the current token in characters from the start of the lexed source
+    public int getCurrentOffset() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getStart(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenOffset() : ringOffsets[ringHead];
+    }
+
+    public String getCurrentString() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getString(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenText() : ringStrings[ringHead];
+    }
+
+    public int getCurrentSymbol() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getSymbol(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenSymbol() : ringSymbols[ringHead];
+    }
+
+    public int getCurrentInt() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getInt(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenInt() : ringInts[ringHead];
+    }
+
+    public float getCurrentFloat() {
+        if (tokenBuffer != null) {
+            return tokenBuffer.getFloat(index);
+        }
+        return ringCount == 0 ? lexicalAnalyzer.getTokenFloat() : ringFloats[ringHead];
+    }
+
+    // type of the token given distance after the current one, 0 being the current token
+    public TokenType peekType(int distance) {
+        if (distance < 0 || distance > MAX_LOOKAHEAD) {
+            throw new IllegalArgumentException("Lookahead distance out of range: " + distance);
+        }
+        if (tokenBuffer != null) {
+            var peeked = index;
+            for (var i = 0; i < distance; ++i) {
+                peeked = nextBufferIndex(peeked);
+            }
+            return tokenBuffer.getType(peeked);
+        }
+        if (distance == 0) {
+            return getCurrentType();
+        }
+        if (ringCount == 0) {
+            pushScannedToken();
+        }
+        while (ringCount <= distance) {
+            scanSkippingComments();
+            pushScannedToken();
+        }
+        return ringTypes[(ringHead + distance) & (RING_SIZE - 1)];
+    }
+
+    public void next() {
+        token = null;
+        if (tokenBuffer != null) {
+            index = nextBufferIndex(index);
+            return;
+        }
+        if (ringCount == 0) {
+            scanSkippingComments();
+            return;
+        }
+        ringValues[ringHead] = null;
+        ringStrings[ringHead] = null;
+        ringHead = (ringHead + 1) & (RING_SIZE - 1);
+        // the only token left is the one lexer is positioned at
+        if (--ringCount == 1) {
+            ringCount = 0;
+        }
+    }
+
+    private int nextBufferIndex(int from) {
+        var next = from;
         do {
-            token = lexicalAnalyzer.getNextToken();
-        } while (token.type() == TokenType.COMMENT);
-        return token;
+            if (next < tokenBuffer.size() - 1) {
+                ++next;
+            }
+        } while (tokenBuffer.getType(next) == TokenType.COMMENT);
+        return next;
+    }
+
+    private void scanSkippingComments() {
+        TokenType type;
+        do {
+            type = lexicalAnalyzer.scanNextToken();
+        } while (type == TokenType.COMMENT);
+    }
+
+    private void pushScannedToken() {
+        var slot = (ringHead + ringCount) & (RING_SIZE - 1);
+        ringTypes[slot] = lexicalAnalyzer.getTokenType();
+        ringRows[slot] = lexicalAnalyzer.getTokenRow();
+        ringCols[slot] = lexicalAnalyzer.getTokenCol();
+        ringOffsets[slot] = lexicalAnalyzer.getTokenOffset();
+        ringInts[slot] = lexicalAnalyzer.getTokenInt();
+        ringFloats[slot] = lexicalAnalyzer.getTokenFloat();
+        ringSymbols[slot] = lexicalAnalyzer.getTokenSymbol();
+        ringStrings[slot] = lexicalAnalyzer.getTokenText();
+        ringValues[slot] = lexicalAnalyzer.getTokenValue();
+        ++ringCount;
     }
 }
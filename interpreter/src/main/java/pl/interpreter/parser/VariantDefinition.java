@@ -10,6 +10,10 @@ public class VariantDefinition extends Statement implements Definition {
     private final List<String> structureIds;
 
     public VariantDefinition(String id, List<String> structureIds, Position tokenPosition) {
+        this(id, structureIds, Position.pack(tokenPosition));
+    }
+
+    public VariantDefinition(String id, List<String> structureIds, long tokenPosition) {
         super(tokenPosition);
         this.id = id;
         this.structureIds = structureIds;
@@ -9,6 +9,10 @@ public class WhileStatement extends Statement implements Instruction{
     private final Instruction instruction;
 
     public WhileStatement(Expression expression, Instruction instruction, Position tokenPosition) {
+        this(expression, instruction, Position.pack(tokenPosition));
+    }
+
+    public WhileStatement(Expression expression, Instruction instruction, long tokenPosition) {
         super(tokenPosition);
         this.expression = expression;
         this.instruction = instruction;
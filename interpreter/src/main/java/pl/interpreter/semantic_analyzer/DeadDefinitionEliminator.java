@@ -0,0 +1,166 @@
+package pl.interpreter.semantic_analyzer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Builds the program with only the functions and structures reachable from an entry point, through calls and
+ * types of parameters, variables and fields. Variants are always kept, along with their members. Bodies of
+ * unreachable functions are never parsed.
+ */
+public class DeadDefinitionEliminator {
+
+    private final Program program;
+    private final Map<String, Definition> definitions;
+    private final Set<String> reachable = new HashSet<>();
+    private final Deque<String> pending = new ArrayDeque<>();
+
+    public DeadDefinitionEliminator(Program program) {
+        this.program = program;
+        this.definitions = program.getDefinitions();
+    }
+
+    public Program eliminate(String entryPoint) {
+        reach(entryPoint);
+        definitions.values().stream()
+                .filter(VariantDefinition.class::isInstance)
+                .forEach(d -> reach(d.getId()));
+        while (!pending.isEmpty()) {
+            visitDefinition(definitions.get(pending.pop()));
+        }
+        var live = new LinkedHashMap<String, Definition>();
+        definitions.forEach((id, definition) -> {
+            if (reachable.contains(id)) {
+                live.put(id, definition);
+            }
+        });
+        return new Program(live, program.getPackedPosition(), program::getRowOffset);
+    }
+
+    private void visitDefinition(Definition definition) {
+        switch (definition) {
+            case FunctionDefinition functionDefinition -> {
+                reach(functionDefinition.getReturnType().userType());
+                functionDefinition.getParameters().forEach(this::visitParameter);
+                visitBlock(functionDefinition.getBlock());
+            }
+            case StructureDefinition structureDefinition ->
+                    structureDefinition.getParameters().forEach(this::visitParameter);
+            case VariantDefinition variantDefinition -> variantDefinition.getStructureIds().forEach(this::reach);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void visitParameter(Parameter parameter) {
+        reach(parameter.getType().userType());
+    }
+
+    private void visitBlock(Block block) {
+        block.getInstructions().forEach(this::visitInstruction);
+    }
+
+    private void visitInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> visitBlock(block);
+            case Initialization initialization -> {
+                reach(initialization.getUserType());
+                visitExpression(initialization.getExpression());
+            }
+            case Assignment assignment -> visitExpression(assignment.getExpression());
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() != null) {
+                    visitExpression(returnStatement.getExpression());
+                }
+            }
+            case FunctionCall functionCall -> visitExpression(functionCall);
+            case IfStatement ifStatement -> {
+                visitExpression(ifStatement.getExpression());
+                visitInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    visitInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                visitExpression(whileStatement.getExpression());
+                visitInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> {
+                visitExpression(matchStatement.getExpression());
+                for (var branch : matchStatement.getBranches()) {
+                    reach(branch.getStructureId());
+                    visitInstruction(branch.getInstruction());
+                }
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void visitExpression(Expression expression) {
+        switch (expression) {
+            case Identifier identifier -> {}
+            case IntLiteral intLiteral -> {}
+            case FloatLiteral floatLiteral -> {}
+            case StringLiteral stringLiteral -> {}
+            case BooleanLiteral booleanLiteral -> {}
+            case Sum sum -> visitBinary(sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> visitBinary(multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> visitBinary(relation.getLeft(), relation.getRight());
+            case Conjunction conjunction -> visitBinary(conjunction.getLeft(), conjunction.getRight());
+            case Alternative alternative -> visitBinary(alternative.getLeft(), alternative.getRight());
+            case Negation negation -> visitExpression(negation.getExpression());
+            case Cast cast -> visitExpression(cast.getExpression());
+            case DotAccess dotAccess -> visitExpression(dotAccess.getExpression());
+            case FunctionCall functionCall -> {
+                reach(functionCall.getFunctionId());
+                functionCall.getArguments().forEach(this::visitExpression);
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void visitBinary(Expression left, Expression right) {
+        visitExpression(left);
+        visitExpression(right);
+    }
+
+    // names of primitive types and unknown definitions are ignored, the type checker and linker report the latter
+    private void reach(String id) {
+        if (id != null && definitions.containsKey(id) && reachable.add(id)) {
+            pending.push(id);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pl.interpreter.semantic_analyzer;
+
+public class SemanticException extends RuntimeException {
+
+    public SemanticException(String message, int row, int col) {
+        super("%s at row: %d, col: %d".formatted(message, row, col));
+    }
+}
@@ -0,0 +1,34 @@
+package pl.interpreter.semantic_analyzer;
+
+import pl.interpreter.parser.VariableType;
+
+record StaticType(VariableType variableType, String userType) {
+
+    static final StaticType INT = new StaticType(VariableType.INT, null);
+    static final StaticType FLOAT = new StaticType(VariableType.FLOAT, null);
+    static final StaticType STRING = new StaticType(VariableType.STRING, null);
+    static final StaticType BOOL = new StaticType(VariableType.BOOL, null);
+
+    static StaticType of(VariableType variableType, String userType) {
+        return switch (variableType) {
+            case INT -> INT;
+            case FLOAT -> FLOAT;
+            case STRING -> STRING;
+            case BOOL -> BOOL;
+            case USER_TYPE -> new StaticType(VariableType.USER_TYPE, userType);
+        };
+    }
+
+    boolean isNumeric() {
+        return variableType == VariableType.INT || variableType == VariableType.FLOAT;
+    }
+
+    boolean isUserType() {
+        return variableType == VariableType.USER_TYPE;
+    }
+
+    @Override
+    public String toString() {
+        return isUserType() ? userType : variableType.toString();
+    }
+}
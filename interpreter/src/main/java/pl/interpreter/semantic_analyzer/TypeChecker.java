@@ -0,0 +1,383 @@
+package pl.interpreter.semantic_analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.parser.AdditionOperator;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.FunctionReturnType;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.PrimitiveType;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariableType;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Checks types of all definitions of a program before it is executed and annotates every expression with its
+ * resolved type. A program that passes can run in verified mode, without the executor's dynamic type checks.
+ * Types follow the executor: ints and floats mix in arithmetic and relations, strings only concatenate and a
+ * structure is accepted wherever a variant listing it is expected.
+ */
+public class TypeChecker {
+
+    private record Variable(StaticType type, boolean mutable) {}
+
+    private final Program program;
+    private final Map<String, StructureDefinition> structures = new HashMap<>();
+    private final Map<String, VariantDefinition> variants = new HashMap<>();
+    private final Map<String, FunctionDefinition> functions = new HashMap<>();
+    private final List<Map<String, Variable>> scopes = new ArrayList<>();
+    // null while checking a void function
+    private StaticType returnType;
+    // of the definition being checked
+    private int rowOffset;
+
+    public TypeChecker(Program program) {
+        this.program = program;
+    }
+
+    public void check() {
+        program.getDefinitions().values().forEach(this::register);
+        structures.values().forEach(this::checkStructure);
+        variants.values().forEach(this::checkVariant);
+        functions.values().forEach(this::checkFunction);
+    }
+
+    private void register(Definition definition) {
+        switch (definition) {
+            case FunctionDefinition functionDefinition -> functions.put(functionDefinition.getId(), functionDefinition);
+            case StructureDefinition structureDefinition ->
+                    structures.put(structureDefinition.getId(), structureDefinition);
+            case VariantDefinition variantDefinition -> variants.put(variantDefinition.getId(), variantDefinition);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void checkStructure(StructureDefinition structure) {
+        rowOffset = program.getRowOffset(structure);
+        structure.getParameters().forEach(parameter -> resolve(parameter.getType(), structure));
+    }
+
+    private void checkVariant(VariantDefinition variant) {
+        rowOffset = program.getRowOffset(variant);
+        for (var structureId : variant.getStructureIds()) {
+            if (!structures.containsKey(structureId)) {
+                throw error("Variant member \"" + structureId + "\" is not a structure", variant);
+            }
+        }
+    }
+
+    private void checkFunction(FunctionDefinition function) {
+        rowOffset = program.getRowOffset(function);
+        returnType = resolve(function.getReturnType(), function);
+        openScope();
+        for (var parameter : function.getParameters()) {
+            declare(parameter.getId(), resolve(parameter.getType(), function), false, function);
+        }
+        checkBlock(function.getBlock());
+        closeScope();
+    }
+
+    private void checkInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> checkBlock(block);
+            case Initialization initialization -> checkInitialization(initialization);
+            case Assignment assignment -> checkAssignment(assignment);
+            case ReturnStatement returnStatement -> checkReturn(returnStatement);
+            case FunctionCall functionCall -> checkCall(functionCall);
+            case IfStatement ifStatement -> {
+                checkCondition(ifStatement.getExpression());
+                checkInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    checkInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                checkCondition(whileStatement.getExpression());
+                checkInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> checkMatch(matchStatement);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void checkBlock(Block block) {
+        openScope();
+        block.getInstructions().forEach(this::checkInstruction);
+        closeScope();
+    }
+
+    private void checkInitialization(Initialization initialization) {
+        var type = resolveUserType(StaticType.of(initialization.getType(), initialization.getUserType()),
+                initialization);
+        checkAssignable(type, checkValue(initialization.getExpression()), initialization);
+        declare(initialization.getId(), type, initialization.isVar(), initialization);
+    }
+
+    private void checkAssignment(Assignment assignment) {
+        var variable = lookup(assignment.getId(), assignment);
+        if (!variable.mutable()) {
+            throw error("Variable \"" + assignment.getId() + "\" is immutable", assignment);
+        }
+        checkAssignable(variable.type(), checkValue(assignment.getExpression()), assignment);
+    }
+
+    private void checkReturn(ReturnStatement returnStatement) {
+        if (returnStatement.getExpression() == null) {
+            if (returnType != null) {
+                throw error("Expected a value of type " + returnType + " to return", returnStatement);
+            }
+            return;
+        }
+        if (returnType == null) {
+            throw error("Void function can not return a value", returnStatement);
+        }
+        checkAssignable(returnType, checkValue(returnStatement.getExpression()), returnStatement);
+    }
+
+    private void checkCondition(Expression condition) {
+        expect(StaticType.BOOL, checkValue(condition), condition);
+    }
+
+    private void checkMatch(MatchStatement matchStatement) {
+        var type = checkValue(matchStatement.getExpression());
+        if (!type.isUserType()) {
+            throw error("Only structures and variants can be matched", matchStatement);
+        }
+        for (var branch : matchStatement.getBranches()) {
+            openScope();
+            if (branch.getStructureId() != null) {
+                var branchType = new StaticType(VariableType.USER_TYPE, branch.getStructureId());
+                if (!isAssignable(type, branchType)) {
+                    throw error("\"" + branch.getStructureId() + "\" is not a member of " + type, branch);
+                }
+                declare(branch.getFieldName(), branchType, false, branch);
+            }
+            checkInstruction(branch.getInstruction());
+            closeScope();
+        }
+    }
+
+    // null for calls of void functions
+    private StaticType checkExpression(Expression expression) {
+        var type = switch (expression) {
+            case IntLiteral intLiteral -> StaticType.INT;
+            case FloatLiteral floatLiteral -> StaticType.FLOAT;
+            case StringLiteral stringLiteral -> StaticType.STRING;
+            case BooleanLiteral booleanLiteral -> StaticType.BOOL;
+            case Identifier identifier -> lookup(identifier.getValue(), identifier).type();
+            case Sum sum -> checkSum(sum);
+            case Multiplication multiplication ->
+                    checkArithmetic(checkValue(multiplication.getLeft()), checkValue(multiplication.getRight()),
+                            multiplication);
+            case Relation relation -> {
+                checkArithmetic(checkValue(relation.getLeft()), checkValue(relation.getRight()), relation);
+                yield StaticType.BOOL;
+            }
+            case Conjunction conjunction -> checkLogical(conjunction.getLeft(), conjunction.getRight());
+            case Alternative alternative -> checkLogical(alternative.getLeft(), alternative.getRight());
+            case Negation negation -> {
+                checkCondition(negation.getExpression());
+                yield StaticType.BOOL;
+            }
+            case Cast cast -> checkCast(cast);
+            case DotAccess dotAccess -> checkDotAccess(dotAccess);
+            case FunctionCall functionCall -> checkCall(functionCall);
+            default -> throw new UnknownNodeException();
+        };
+        ((Statement) expression).setResolvedType(type == null ? null : type.variableType());
+        return type;
+    }
+
+    private StaticType checkValue(Expression expression) {
+        var type = checkExpression(expression);
+        if (type == null) {
+            throw error("Void function call does not have a value", (Statement) expression);
+        }
+        return type;
+    }
+
+    private StaticType checkSum(Sum sum) {
+        var left = checkValue(sum.getLeft());
+        var right = checkValue(sum.getRight());
+        if (left.equals(StaticType.STRING)) {
+            if (sum.getOperator() != AdditionOperator.PLUS) {
+                throw error("Expected \"+\" operator", sum);
+            }
+            expect(StaticType.STRING, right, sum);
+            return StaticType.STRING;
+        }
+        return checkArithmetic(left, right, sum);
+    }
+
+    private StaticType checkArithmetic(StaticType left, StaticType right, Statement expression) {
+        if (!left.isNumeric() || !right.isNumeric()) {
+            throw error("Only int and float operands are allowed, got " + left + " and " + right, expression);
+        }
+        return left.equals(StaticType.INT) && right.equals(StaticType.INT) ? StaticType.INT : StaticType.FLOAT;
+    }
+
+    private StaticType checkLogical(Expression left, Expression right) {
+        checkCondition(left);
+        checkCondition(right);
+        return StaticType.BOOL;
+    }
+
+    private StaticType checkCast(Cast cast) {
+        var type = checkValue(cast.getExpression());
+        return switch (cast.getToType()) {
+            case INT, FLOAT -> {
+                if (!type.isNumeric()) {
+                    throw error("Conversion to " + cast.getToType() + " is only allowed for int and float types",
+                            cast);
+                }
+                yield cast.getToType() == PrimitiveType.INT ? StaticType.INT : StaticType.FLOAT;
+            }
+            case STRING -> {
+                if (type.isUserType()) {
+                    throw error("Can't cast " + type + " to string", cast);
+                }
+                yield StaticType.STRING;
+            }
+            case BOOL -> throw error("Can't cast to boolean values", cast);
+        };
+    }
+
+    private StaticType checkDotAccess(DotAccess dotAccess) {
+        var type = checkValue(dotAccess.getExpression());
+        var structure = type.isUserType() ? structures.get(type.userType()) : null;
+        if (structure == null) {
+            throw error("Can only access fields of structures, got " + type, dotAccess);
+        }
+        return structure.getParameters().stream()
+                .filter(parameter -> parameter.getId().equals(dotAccess.getFieldName()))
+                .findFirst()
+                .map(parameter -> resolve(parameter.getType(), structure))
+                .orElseThrow(() -> error("Structure " + type + " does not have a field: " + dotAccess.getFieldName(),
+                        dotAccess));
+    }
+
+    private StaticType checkCall(FunctionCall functionCall) {
+        var id = functionCall.getFunctionId();
+        var function = functions.get(id);
+        var structure = structures.get(id);
+        if (function == null && structure == null) {
+            throw error("Function \"" + id + "\" does not exist", functionCall);
+        }
+        Statement owner = function != null ? function : structure;
+        var parameters = function != null ? function.getParameters() : structure.getParameters();
+        var arguments = functionCall.getArguments();
+        if (arguments.size() != parameters.size()) {
+            throw error("Function \"" + id + "\" expects " + parameters.size() + " arguments, got "
+                    + arguments.size(), functionCall);
+        }
+        for (var i = 0; i < arguments.size(); ++i) {
+            checkAssignable(resolve(parameters.get(i).getType(), owner), checkValue(arguments.get(i)),
+                    (Statement) arguments.get(i));
+        }
+        if (function == null) {
+            return new StaticType(VariableType.USER_TYPE, id);
+        }
+        return resolve(function.getReturnType(), function);
+    }
+
+    private StaticType resolve(ParameterType parameterType, Statement node) {
+        return resolveUserType(StaticType.of(parameterType.variableType(), parameterType.userType()), node);
+    }
+
+    // null for void
+    private StaticType resolve(FunctionReturnType functionReturnType, Statement node) {
+        return switch (functionReturnType.type()) {
+            case VOID -> null;
+            case INT -> StaticType.INT;
+            case FLOAT -> StaticType.FLOAT;
+            case STRING -> StaticType.STRING;
+            case BOOL -> StaticType.BOOL;
+            case USER_TYPE -> resolveUserType(new StaticType(VariableType.USER_TYPE, functionReturnType.userType()),
+                    node);
+        };
+    }
+
+    private StaticType resolveUserType(StaticType type, Statement node) {
+        if (type.isUserType() && !structures.containsKey(type.userType()) && !variants.containsKey(type.userType())) {
+            throw error("Unknown type \"" + type.userType() + "\"", node);
+        }
+        return type;
+    }
+
+    private void checkAssignable(StaticType target, StaticType source, Statement node) {
+        if (!isAssignable(target, source)) {
+            throw error("Expected " + target + ", got " + source, node);
+        }
+    }
+
+    private boolean isAssignable(StaticType target, StaticType source) {
+        if (target.equals(source)) {
+            return true;
+        }
+        var variant = target.isUserType() ? variants.get(target.userType()) : null;
+        return variant != null && source.isUserType() && variant.getStructureIds().contains(source.userType());
+    }
+
+    private void expect(StaticType expected, StaticType actual, Expression expression) {
+        if (!expected.equals(actual)) {
+            throw error("Expected " + expected + ", got " + actual, (Statement) expression);
+        }
+    }
+
+    private void openScope() {
+        scopes.add(new HashMap<>());
+    }
+
+    private void closeScope() {
+        scopes.removeLast();
+    }
+
+    private void declare(String id, StaticType type, boolean mutable, Statement node) {
+        if (scopes.getLast().putIfAbsent(id, new Variable(type, mutable)) != null) {
+            throw error("Variable \"" + id + "\" is already defined in this scope", node);
+        }
+    }
+
+    private Variable lookup(String id, Statement node) {
+        for (var i = scopes.size() - 1; i >= 0; --i) {
+            var variable = scopes.get(i).get(id);
+            if (variable != null) {
+                return variable;
+            }
+        }
+        throw error("Could not resolve variable: \"" + id + "\"", node);
+    }
+
+    private SemanticException error(String message, Statement node) {
+        return new SemanticException(message, node.getRow() + rowOffset, node.getCol());
+    }
+}
@@ -0,0 +1,158 @@
+package pl.interpreter.semantic_analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Assigns every parameter and local variable of a function a slot in a flat frame, parameters first, and stores it
+ * on the identifiers, assignments, initializations and match branches using the variable. Slots of a block are
+ * reused once it ends, so the frame is as large as the deepest set of variables alive at once. Names that do not
+ * resolve keep {@link Statement#NO_SLOT} and are looked up by name when executed. A variable declared again in its
+ * scope keeps its slot, so the declaration can not change the type of the variable.
+ */
+public class VariableResolver {
+
+    // first slot of a scope is the one free before it was opened
+    private record Scope(Map<String, Integer> slots, int firstSlot) {}
+
+    private final List<Scope> scopes = new ArrayList<>();
+    private int nextSlot;
+    private int frameSize;
+
+    // returns the number of slots a frame of the function needs
+    public int resolve(List<String> parameterIds, Block block) {
+        openScope();
+        parameterIds.forEach(this::declare);
+        resolveBlock(block);
+        closeScope();
+        return frameSize;
+    }
+
+    private void resolveInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> resolveBlock(block);
+            case Initialization initialization -> {
+                resolveExpression(initialization.getExpression());
+                var declared = scopes.getLast().slots().get(initialization.getId());
+                initialization.setRedeclaration(declared != null);
+                initialization.setSlot(declared != null ? declared : declare(initialization.getId()));
+            }
+            case Assignment assignment -> {
+                resolveExpression(assignment.getExpression());
+                assignment.setSlot(lookup(assignment.getId()));
+            }
+            case ReturnStatement returnStatement -> {
+                if (returnStatement.getExpression() != null) {
+                    resolveExpression(returnStatement.getExpression());
+                }
+            }
+            case FunctionCall functionCall -> resolveExpression(functionCall);
+            case IfStatement ifStatement -> {
+                resolveExpression(ifStatement.getExpression());
+                resolveInstruction(ifStatement.getInstruction());
+                if (ifStatement.getElseInstruction() != null) {
+                    resolveInstruction(ifStatement.getElseInstruction());
+                }
+            }
+            case WhileStatement whileStatement -> {
+                resolveExpression(whileStatement.getExpression());
+                resolveInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> {
+                resolveExpression(matchStatement.getExpression());
+                for (var branch : matchStatement.getBranches()) {
+                    openScope();
+                    if (branch.getFieldName() != null) {
+                        branch.setSlot(declare(branch.getFieldName()));
+                    }
+                    resolveInstruction(branch.getInstruction());
+                    closeScope();
+                }
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void resolveBlock(Block block) {
+        openScope();
+        block.getLiveInstructions().forEach(this::resolveInstruction);
+        closeScope();
+    }
+
+    private void resolveExpression(Expression expression) {
+        switch (expression) {
+            case Identifier identifier -> identifier.setSlot(lookup(identifier.getValue()));
+            case IntLiteral intLiteral -> {}
+            case FloatLiteral floatLiteral -> {}
+            case StringLiteral stringLiteral -> {}
+            case BooleanLiteral booleanLiteral -> {}
+            case Sum sum -> resolveBinary(sum.getLeft(), sum.getRight());
+            case Multiplication multiplication -> resolveBinary(multiplication.getLeft(), multiplication.getRight());
+            case Relation relation -> resolveBinary(relation.getLeft(), relation.getRight());
+            case Conjunction conjunction -> resolveBinary(conjunction.getLeft(), conjunction.getRight());
+            case Alternative alternative -> resolveBinary(alternative.getLeft(), alternative.getRight());
+            case Negation negation -> resolveExpression(negation.getExpression());
+            case Cast cast -> resolveExpression(cast.getExpression());
+            case DotAccess dotAccess -> resolveExpression(dotAccess.getExpression());
+            case FunctionCall functionCall -> functionCall.getArguments().forEach(this::resolveExpression);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void resolveBinary(Expression left, Expression right) {
+        resolveExpression(left);
+        resolveExpression(right);
+    }
+
+    private void openScope() {
+        scopes.add(new Scope(new HashMap<>(), nextSlot));
+    }
+
+    private void closeScope() {
+        nextSlot = scopes.removeLast().firstSlot();
+    }
+
+    private int declare(String id) {
+        var slot = nextSlot++;
+        frameSize = Math.max(frameSize, nextSlot);
+        scopes.getLast().slots().put(id, slot);
+        return slot;
+    }
+
+    private int lookup(String id) {
+        for (var i = scopes.size() - 1; i >= 0; --i) {
+            var slot = scopes.get(i).slots().get(id);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return Statement.NO_SLOT;
+    }
+}
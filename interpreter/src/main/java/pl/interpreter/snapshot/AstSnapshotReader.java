@@ -0,0 +1,351 @@
+package pl.interpreter.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+import pl.interpreter.parser.AdditionOperator;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.FunctionReturnType;
+import pl.interpreter.parser.FunctionReturnTypeEnum;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.MultiplicationOperator;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.ParameterType;
+import pl.interpreter.parser.Position;
+import pl.interpreter.parser.PrimitiveType;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.RelationalOperator;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.VariableType;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Rebuilds a {@link Program} from bytes written by {@link AstSnapshotWriter}. Names that were interned when the
+ * program was parsed are interned again in given symbol table.
+ */
+public class AstSnapshotReader {
+
+    private static final VariableType[] VARIABLE_TYPES = VariableType.values();
+    private static final FunctionReturnTypeEnum[] RETURN_TYPES = FunctionReturnTypeEnum.values();
+    private static final PrimitiveType[] PRIMITIVE_TYPES = PrimitiveType.values();
+    private static final RelationalOperator[] RELATIONAL_OPERATORS = RelationalOperator.values();
+    private static final AdditionOperator[] ADDITION_OPERATORS = AdditionOperator.values();
+    private static final MultiplicationOperator[] MULTIPLICATION_OPERATORS = MultiplicationOperator.values();
+
+    private final byte[] bytes;
+    private final SymbolTable symbolTable;
+    private int position;
+    private byte[] sourceHash;
+    private String[] strings;
+    private int[] symbols;
+
+    private AstSnapshotReader(byte[] bytes, SymbolTable symbolTable) {
+        this.bytes = bytes;
+        this.symbolTable = symbolTable;
+    }
+
+    // returns hash of the source the snapshot was written for, null if bytes are not a snapshot of this version
+    public static byte[] readSourceHash(byte[] bytes) {
+        var reader = new AstSnapshotReader(bytes, null);
+        try {
+            return reader.readHeader() ? reader.sourceHash : null;
+        } catch (SnapshotFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    public static Program read(byte[] bytes, SymbolTable symbolTable) {
+        var reader = new AstSnapshotReader(bytes, symbolTable);
+        try {
+            if (!reader.readHeader()) {
+                throw new SnapshotFormatException("Not a snapshot of version " + AstSnapshots.VERSION);
+            }
+            reader.readStrings();
+            var program = reader.readProgram();
+            if (reader.position != bytes.length) {
+                throw new SnapshotFormatException("Unexpected data after program at " + reader.position);
+            }
+            return program;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SnapshotFormatException("Truncated or malformed snapshot");
+        }
+    }
+
+    private boolean readHeader() {
+        for (var b : AstSnapshots.MAGIC) {
+            if (bytes[position++] != b) {
+                return false;
+            }
+        }
+        if (readByte() != AstSnapshots.VERSION) {
+            return false;
+        }
+        var hashLength = readLength();
+        sourceHash = Arrays.copyOfRange(bytes, position, position + hashLength);
+        position += hashLength;
+        return true;
+    }
+
+    private void readStrings() {
+        strings = new String[readLength()];
+        symbols = new int[strings.length];
+        Arrays.fill(symbols, SymbolTable.NO_SYMBOL);
+        for (var i = 0; i < strings.length; ++i) {
+            var length = readLength();
+            strings[i] = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+    }
+
+    private Program readProgram() {
+        var position = readPosition();
+        var count = readLength();
+        var definitions = new HashMap<String, Definition>(count * 4 / 3 + 1);
+        for (var i = 0; i < count; ++i) {
+            var definition = readDefinition();
+            definitions.put(definition.getId(), definition);
+        }
+        return new Program(definitions, position);
+    }
+
+    private Definition readDefinition() {
+        var tag = readByte();
+        var position = readPosition();
+        return switch (tag) {
+            case NodeTags.FUNCTION_DEFINITION -> {
+                var returnType = new FunctionReturnType(RETURN_TYPES[readByte()], readNullableString());
+                var id = readString();
+                var parameters = readParameters();
+                if (readByte() != NodeTags.BLOCK) {
+                    throw new SnapshotFormatException("Expected function block");
+                }
+                yield new FunctionDefinition(returnType, id, parameters, readBlock(readPosition()), position);
+            }
+            case NodeTags.STRUCTURE_DEFINITION -> new StructureDefinition(readString(), readParameters(), position);
+            case NodeTags.VARIANT_DEFINITION -> {
+                var id = readString();
+                var count = readLength();
+                var structureIds = new ArrayList<String>(count);
+                for (var i = 0; i < count; ++i) {
+                    structureIds.add(readString());
+                }
+                yield new VariantDefinition(id, structureIds, position);
+            }
+            default -> throw unknownTag(tag);
+        };
+    }
+
+    private List<Parameter> readParameters() {
+        var count = readLength();
+        var parameters = new ArrayList<Parameter>(count);
+        for (var i = 0; i < count; ++i) {
+            var position = readPosition();
+            var type = new ParameterType(VARIABLE_TYPES[readByte()], readNullableString());
+            parameters.add(new Parameter(type, readString(), position));
+        }
+        return parameters;
+    }
+
+    private Block readBlock(long position) {
+        var count = readLength();
+        var instructions = new ArrayList<Instruction>(count);
+        for (var i = 0; i < count; ++i) {
+            instructions.add(readInstruction());
+        }
+        return new Block(instructions, position);
+    }
+
+    private Instruction readInstruction() {
+        var tag = readByte();
+        if (tag == NodeTags.NULL) {
+            return null;
+        }
+        var position = readPosition();
+        return switch (tag) {
+            case NodeTags.BLOCK -> readBlock(position);
+            case NodeTags.RETURN -> new ReturnStatement(readExpression(), position);
+            case NodeTags.ASSIGNMENT -> {
+                var reference = readVarInt();
+                yield new Assignment(symbolString(reference), symbol(reference), readExpression(), position);
+            }
+            case NodeTags.INITIALIZATION -> {
+                var id = readString();
+                var userType = readNullableString();
+                var type = VARIABLE_TYPES[readByte()];
+                var var = readByte() != 0;
+                yield new Initialization(id, userType, type, var, readExpression(), position);
+            }
+            case NodeTags.FUNCTION_CALL -> readFunctionCall(position);
+            case NodeTags.IF -> new IfStatement(readExpression(), readInstruction(), readInstruction(), position);
+            case NodeTags.WHILE -> new WhileStatement(readExpression(), readInstruction(), position);
+            case NodeTags.MATCH -> {
+                var expression = readExpression();
+                var count = readLength();
+                var branches = new ArrayList<MatchBranch>(count);
+                for (var i = 0; i < count; ++i) {
+                    var branchPosition = readPosition();
+                    branches.add(new MatchBranch(readNullableString(), readNullableString(), readInstruction(),
+                            branchPosition));
+                }
+                yield new MatchStatement(expression, branches, position);
+            }
+            default -> throw unknownTag(tag);
+        };
+    }
+
+    private FunctionCall readFunctionCall(long position) {
+        var reference = readVarInt();
+        var count = readLength();
+        var arguments = new ArrayList<Expression>(count);
+        for (var i = 0; i < count; ++i) {
+            arguments.add(readExpression());
+        }
+        return new FunctionCall(symbolString(reference), symbol(reference), arguments, position);
+    }
+
+    private Expression readExpression() {
+        var tag = readByte();
+        if (tag == NodeTags.NULL) {
+            return null;
+        }
+        var position = readPosition();
+        return switch (tag) {
+            case NodeTags.ALTERNATIVE -> new Alternative(readExpression(), readExpression(), position);
+            case NodeTags.CONJUNCTION -> new Conjunction(readExpression(), readExpression(), position);
+            case NodeTags.RELATION -> {
+                var operator = RELATIONAL_OPERATORS[readByte()];
+                yield new Relation(readExpression(), operator, readExpression(), position);
+            }
+            case NodeTags.CAST -> {
+                var type = PRIMITIVE_TYPES[readByte()];
+                yield new Cast(readExpression(), type, position);
+            }
+            case NodeTags.SUM -> {
+                var operator = ADDITION_OPERATORS[readByte()];
+                yield new Sum(readExpression(), operator, readExpression(), position);
+            }
+            case NodeTags.MULTIPLICATION -> {
+                var operator = MULTIPLICATION_OPERATORS[readByte()];
+                yield new Multiplication(readExpression(), operator, readExpression(), position);
+            }
+            case NodeTags.NEGATION -> new Negation(readExpression(), position);
+            case NodeTags.BOOLEAN_LITERAL -> new BooleanLiteral(readByte() != 0, position);
+            case NodeTags.INT_LITERAL -> new IntLiteral(readSignedVarInt(), position);
+            case NodeTags.FLOAT_LITERAL -> {
+                var bits = 0;
+                for (var shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+                    bits |= readByte() << shift;
+                }
+                yield new FloatLiteral(Float.intBitsToFloat(bits), position);
+            }
+            case NodeTags.STRING_LITERAL -> new StringLiteral(readString(), position);
+            case NodeTags.IDENTIFIER -> {
+                var reference = readVarInt();
+                yield new Identifier(symbolString(reference), symbol(reference), position);
+            }
+            case NodeTags.DOT_ACCESS -> {
+                var reference = readVarInt();
+                yield new DotAccess(readExpression(), symbolString(reference), symbol(reference), position);
+            }
+            case NodeTags.FUNCTION_CALL -> readFunctionCall(position);
+            default -> throw unknownTag(tag);
+        };
+    }
+
+    private long readPosition() {
+        var row = readVarInt();
+        return Position.pack(row, readVarInt());
+    }
+
+    private String symbolString(int reference) {
+        return string(reference >>> 1);
+    }
+
+    private int symbol(int reference) {
+        if ((reference & 1) == 0 || symbolTable == null) {
+            return SymbolTable.NO_SYMBOL;
+        }
+        var index = reference >>> 1;
+        if (symbols[index] == SymbolTable.NO_SYMBOL) {
+            symbols[index] = symbolTable.intern(strings[index]);
+        }
+        return symbols[index];
+    }
+
+    private String readString() {
+        return string(readVarInt());
+    }
+
+    private String readNullableString() {
+        var index = readVarInt();
+        return index == 0 ? null : string(index - 1);
+    }
+
+    private String string(int index) {
+        if (index < 0 || index >= strings.length) {
+            throw new SnapshotFormatException("String index out of range: " + index);
+        }
+        return strings[index];
+    }
+
+    // lengths and element counts, every element takes at least one of the remaining bytes
+    private int readLength() {
+        var length = readVarInt();
+        if (length < 0 || length > bytes.length - position) {
+            throw new SnapshotFormatException("Invalid length " + length + " at " + position);
+        }
+        return length;
+    }
+
+    private int readSignedVarInt() {
+        var value = readVarInt();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private int readVarInt() {
+        var value = 0;
+        for (var shift = 0; shift < Integer.SIZE; shift += 7) {
+            var b = bytes[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new SnapshotFormatException("Malformed varint at " + position);
+    }
+
+    private int readByte() {
+        return bytes[position++] & 0xFF;
+    }
+
+    private static SnapshotFormatException unknownTag(int tag) {
+        return new SnapshotFormatException("Unknown node tag: " + tag);
+    }
+}
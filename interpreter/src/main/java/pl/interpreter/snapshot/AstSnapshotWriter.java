@@ -0,0 +1,326 @@
+package pl.interpreter.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.Expression;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.Instruction;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Serializes a {@link Program} into the snapshot format read by {@link AstSnapshotReader}: a header with the source
+ * hash, a string table and nodes in preorder, each as a tag followed by its varint encoded position and fields.
+ */
+public class AstSnapshotWriter {
+
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private byte[] body = new byte[4096];
+    private int bodySize;
+    // of the definition being written
+    private int rowOffset;
+
+    public static byte[] write(Program program, byte[] sourceHash) {
+        var writer = new AstSnapshotWriter();
+        writer.writeProgram(program);
+        return writer.toBytes(sourceHash);
+    }
+
+    private AstSnapshotWriter() {
+    }
+
+    private byte[] toBytes(byte[] sourceHash) {
+        var header = new AstSnapshotWriter();
+        for (var b : AstSnapshots.MAGIC) {
+            header.writeByte(b);
+        }
+        header.writeByte(AstSnapshots.VERSION);
+        header.writeVarInt(sourceHash.length);
+        for (var b : sourceHash) {
+            header.writeByte(b);
+        }
+        header.writeVarInt(strings.size());
+        for (var string : strings) {
+            var bytes = string.getBytes(StandardCharsets.UTF_8);
+            header.writeVarInt(bytes.length);
+            for (var b : bytes) {
+                header.writeByte(b);
+            }
+        }
+        var result = Arrays.copyOf(header.body, header.bodySize + bodySize);
+        System.arraycopy(body, 0, result, header.bodySize, bodySize);
+        return result;
+    }
+
+    private void writeProgram(Program program) {
+        writePosition(program);
+        writeVarInt(program.getDefinitions().size());
+        for (var definition : program.getDefinitions().values()) {
+            rowOffset = program.getRowOffset(definition);
+            writeDefinition(definition);
+        }
+    }
+
+    private void writeDefinition(Definition definition) {
+        switch (definition) {
+            case FunctionDefinition functionDefinition -> {
+                writeNode(NodeTags.FUNCTION_DEFINITION, functionDefinition);
+                writeByte(functionDefinition.getReturnType().type().ordinal());
+                writeNullableString(functionDefinition.getReturnType().userType());
+                writeString(functionDefinition.getId());
+                writeParameters(functionDefinition.getParameters());
+                writeBlock(functionDefinition.getBlock());
+            }
+            case StructureDefinition structureDefinition -> {
+                writeNode(NodeTags.STRUCTURE_DEFINITION, structureDefinition);
+                writeString(structureDefinition.getId());
+                writeParameters(structureDefinition.getParameters());
+            }
+            case VariantDefinition variantDefinition -> {
+                writeNode(NodeTags.VARIANT_DEFINITION, variantDefinition);
+                writeString(variantDefinition.getId());
+                writeVarInt(variantDefinition.getStructureIds().size());
+                variantDefinition.getStructureIds().forEach(this::writeString);
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void writeParameters(List<Parameter> parameters) {
+        writeVarInt(parameters.size());
+        for (var parameter : parameters) {
+            writePosition(parameter);
+            writeByte(parameter.getType().variableType().ordinal());
+            writeNullableString(parameter.getType().userType());
+            writeString(parameter.getId());
+        }
+    }
+
+    private void writeBlock(Block block) {
+        writeNode(NodeTags.BLOCK, block);
+        writeVarInt(block.getInstructions().size());
+        block.getInstructions().forEach(this::writeInstruction);
+    }
+
+    private void writeInstruction(Instruction instruction) {
+        switch (instruction) {
+            case Block block -> writeBlock(block);
+            case ReturnStatement returnStatement -> {
+                writeNode(NodeTags.RETURN, returnStatement);
+                writeExpression(returnStatement.getExpression());
+            }
+            case Assignment assignment -> {
+                writeNode(NodeTags.ASSIGNMENT, assignment);
+                writeSymbolString(assignment.getId(), assignment.getSymbol());
+                writeExpression(assignment.getExpression());
+            }
+            case Initialization initialization -> {
+                writeNode(NodeTags.INITIALIZATION, initialization);
+                writeString(initialization.getId());
+                writeNullableString(initialization.getUserType());
+                writeByte(initialization.getType().ordinal());
+                writeByte(initialization.isVar() ? 1 : 0);
+                writeExpression(initialization.getExpression());
+            }
+            case FunctionCall functionCall -> writeFunctionCall(functionCall);
+            case IfStatement ifStatement -> {
+                writeNode(NodeTags.IF, ifStatement);
+                writeExpression(ifStatement.getExpression());
+                writeInstruction(ifStatement.getInstruction());
+                writeNullableInstruction(ifStatement.getElseInstruction());
+            }
+            case WhileStatement whileStatement -> {
+                writeNode(NodeTags.WHILE, whileStatement);
+                writeExpression(whileStatement.getExpression());
+                writeInstruction(whileStatement.getInstruction());
+            }
+            case MatchStatement matchStatement -> {
+                writeNode(NodeTags.MATCH, matchStatement);
+                writeExpression(matchStatement.getExpression());
+                writeVarInt(matchStatement.getBranches().size());
+                matchStatement.getBranches().forEach(this::writeMatchBranch);
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void writeNullableInstruction(Instruction instruction) {
+        if (instruction == null) {
+            writeByte(NodeTags.NULL);
+        } else {
+            writeInstruction(instruction);
+        }
+    }
+
+    private void writeMatchBranch(MatchBranch matchBranch) {
+        writePosition(matchBranch);
+        writeNullableString(matchBranch.getStructureId());
+        writeNullableString(matchBranch.getFieldName());
+        writeInstruction(matchBranch.getInstruction());
+    }
+
+    private void writeFunctionCall(FunctionCall functionCall) {
+        writeNode(NodeTags.FUNCTION_CALL, functionCall);
+        writeSymbolString(functionCall.getFunctionId(), functionCall.getFunctionSymbol());
+        writeVarInt(functionCall.getArguments().size());
+        functionCall.getArguments().forEach(this::writeExpression);
+    }
+
+    private void writeExpression(Expression expression) {
+        switch (expression) {
+            case null -> writeByte(NodeTags.NULL);
+            case Alternative alternative -> {
+                writeNode(NodeTags.ALTERNATIVE, alternative);
+                writeExpression(alternative.getLeft());
+                writeExpression(alternative.getRight());
+            }
+            case Conjunction conjunction -> {
+                writeNode(NodeTags.CONJUNCTION, conjunction);
+                writeExpression(conjunction.getLeft());
+                writeExpression(conjunction.getRight());
+            }
+            case Relation relation -> {
+                writeNode(NodeTags.RELATION, relation);
+                writeByte(relation.getOperator().ordinal());
+                writeExpression(relation.getLeft());
+                writeExpression(relation.getRight());
+            }
+            case Cast cast -> {
+                writeNode(NodeTags.CAST, cast);
+                writeByte(cast.getToType().ordinal());
+                writeExpression(cast.getExpression());
+            }
+            case Sum sum -> {
+                writeNode(NodeTags.SUM, sum);
+                writeByte(sum.getOperator().ordinal());
+                writeExpression(sum.getLeft());
+                writeExpression(sum.getRight());
+            }
+            case Multiplication multiplication -> {
+                writeNode(NodeTags.MULTIPLICATION, multiplication);
+                writeByte(multiplication.getOperator().ordinal());
+                writeExpression(multiplication.getLeft());
+                writeExpression(multiplication.getRight());
+            }
+            case Negation negation -> {
+                writeNode(NodeTags.NEGATION, negation);
+                writeExpression(negation.getExpression());
+            }
+            case BooleanLiteral booleanLiteral -> {
+                writeNode(NodeTags.BOOLEAN_LITERAL, booleanLiteral);
+                writeByte(booleanLiteral.isTruthy() ? 1 : 0);
+            }
+            case IntLiteral intLiteral -> {
+                writeNode(NodeTags.INT_LITERAL, intLiteral);
+                writeSignedVarInt(intLiteral.getValue());
+            }
+            case FloatLiteral floatLiteral -> {
+                writeNode(NodeTags.FLOAT_LITERAL, floatLiteral);
+                var bits = Float.floatToRawIntBits(floatLiteral.getValue());
+                for (var shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+                    writeByte(bits >>> shift);
+                }
+            }
+            case StringLiteral stringLiteral -> {
+                writeNode(NodeTags.STRING_LITERAL, stringLiteral);
+                writeString(stringLiteral.getValue());
+            }
+            case Identifier identifier -> {
+                writeNode(NodeTags.IDENTIFIER, identifier);
+                writeSymbolString(identifier.getValue(), identifier.getSymbol());
+            }
+            case DotAccess dotAccess -> {
+                writeNode(NodeTags.DOT_ACCESS, dotAccess);
+                writeSymbolString(dotAccess.getFieldName(), dotAccess.getFieldSymbol());
+                writeExpression(dotAccess.getExpression());
+            }
+            case FunctionCall functionCall -> writeFunctionCall(functionCall);
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void writeNode(int tag, Statement statement) {
+        writeByte(tag);
+        writePosition(statement);
+    }
+
+    private void writePosition(Statement statement) {
+        writeVarInt(statement.getRow() + rowOffset);
+        writeVarInt(statement.getCol());
+    }
+
+    // the low bit tells whether the name was interned, so a reader can intern it again
+    private void writeSymbolString(String string, int symbol) {
+        writeVarInt(stringIndex(string) << 1 | (symbol == SymbolTable.NO_SYMBOL ? 0 : 1));
+    }
+
+    private void writeString(String string) {
+        writeVarInt(stringIndex(string));
+    }
+
+    private void writeNullableString(String string) {
+        writeVarInt(string == null ? 0 : stringIndex(string) + 1);
+    }
+
+    private int stringIndex(String string) {
+        var index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    private void writeSignedVarInt(int value) {
+        writeVarInt(value << 1 ^ value >> 31);
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int value) {
+        if (bodySize == body.length) {
+            body = Arrays.copyOf(body, body.length * 2);
+        }
+        body[bodySize++] = (byte) value;
+    }
+}
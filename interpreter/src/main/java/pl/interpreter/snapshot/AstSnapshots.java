@@ -0,0 +1,90 @@
+package pl.interpreter.snapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.StringCharacterSource;
+import pl.interpreter.lexical_analyzer.SymbolTable;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+/**
+ * Caches parsed programs in snapshot files stored next to their sources. A snapshot is used only if it was written
+ * for a source with the same content hash, otherwise the source is parsed and the snapshot rewritten.
+ */
+public final class AstSnapshots {
+
+    public static final String EXTENSION = ".ast";
+
+    static final byte[] MAGIC = {'P', 'L', 'A', 'S'};
+    static final int VERSION = 1;
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private AstSnapshots() {
+    }
+
+    public static Path snapshotPath(Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    public static Program loadOrParse(Path source, SymbolTable symbolTable) throws IOException {
+        var sourceBytes = Files.readAllBytes(source);
+        var sourceHash = hash(sourceBytes);
+        var snapshot = snapshotPath(source);
+        if (Files.isRegularFile(snapshot)) {
+            var snapshotBytes = Files.readAllBytes(snapshot);
+            if (Arrays.equals(AstSnapshotReader.readSourceHash(snapshotBytes), sourceHash)) {
+                try {
+                    return AstSnapshotReader.read(snapshotBytes, symbolTable);
+                } catch (SnapshotFormatException e) {
+                    // damaged snapshot, parsing rewrites it
+                }
+            }
+        }
+        var program = parse(sourceBytes, symbolTable);
+        try {
+            write(snapshot, AstSnapshotWriter.write(program, sourceHash));
+        } catch (IOException e) {
+            // snapshots are only a cache, sources in read-only locations are parsed every time
+        }
+        return program;
+    }
+
+    public static Program parse(byte[] source, SymbolTable symbolTable) {
+        var text = new String(source, StandardCharsets.UTF_8);
+        var lexer = new LexicalAnalyzer(new StringCharacterSource(text), symbolTable);
+        return new ProgramParser(new TokenManager(lexer)).parse();
+    }
+
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    // written to a temporary file first, so concurrent runs never read a partial snapshot
+    private static void write(Path snapshot, byte[] bytes) throws IOException {
+        var temporary = Files.createTempFile(snapshot.toAbsolutePath().getParent(), snapshot.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
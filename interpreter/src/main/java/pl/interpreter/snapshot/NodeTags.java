@@ -0,0 +1,34 @@
+package pl.interpreter.snapshot;
+
+// node kind tags of the snapshot format, values must not change without bumping AstSnapshots.VERSION
+final class NodeTags {
+
+    static final int NULL = 0;
+    static final int FUNCTION_DEFINITION = 1;
+    static final int STRUCTURE_DEFINITION = 2;
+    static final int VARIANT_DEFINITION = 3;
+    static final int BLOCK = 4;
+    static final int RETURN = 5;
+    static final int ASSIGNMENT = 6;
+    static final int INITIALIZATION = 7;
+    static final int IF = 8;
+    static final int WHILE = 9;
+    static final int MATCH = 10;
+    static final int FUNCTION_CALL = 11;
+    static final int ALTERNATIVE = 12;
+    static final int CONJUNCTION = 13;
+    static final int RELATION = 14;
+    static final int CAST = 15;
+    static final int SUM = 16;
+    static final int MULTIPLICATION = 17;
+    static final int NEGATION = 18;
+    static final int BOOLEAN_LITERAL = 19;
+    static final int INT_LITERAL = 20;
+    static final int FLOAT_LITERAL = 21;
+    static final int STRING_LITERAL = 22;
+    static final int IDENTIFIER = 23;
+    static final int DOT_ACCESS = 24;
+
+    private NodeTags() {
+    }
+}
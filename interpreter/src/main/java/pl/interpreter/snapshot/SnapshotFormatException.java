@@ -0,0 +1,7 @@
+package pl.interpreter.snapshot;
+
+public class SnapshotFormatException extends RuntimeException {
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,161 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import pl.interpreter.lexical_analyzer.SymbolTable
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.snapshot.AstSnapshotReader
+import pl.interpreter.snapshot.AstSnapshotWriter
+import pl.interpreter.snapshot.AstSnapshots
+import pl.interpreter.snapshot.SnapshotFormatException
+import spock.lang.Specification
+
+class AstSnapshotSpec extends Specification {
+
+    def treeStr(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+
+    def roundTrip(String code) {
+        def source = code.getBytes("UTF-8")
+        def program = AstSnapshots.parse(source, new SymbolTable())
+        def bytes = AstSnapshotWriter.write(program, AstSnapshots.hash(source))
+        return [program, AstSnapshotReader.read(bytes, new SymbolTable())]
+    }
+
+    def "Should read the same program as written"() {
+        given:
+            def (written, read) = roundTrip(code)
+        expect:
+            treeStr(read) == treeStr(written)
+
+        where:
+            code << [
+                    "",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "variant Shape { Circle, Square } struct Circle { float r, Point center }",
+                    "int f(int a) { if (!a or b.c < 1 as float) { return \"zażółć\"; } else { while (a) a = a - 2147483647 * 0.5; } return; }",
+                    "void main() { Point p = Point(1, 2.5); var int x = 3; f(x, p.x); { { x = x % 2; } } }",
+            ]
+    }
+
+    def "Should intern names in given symbol table"() {
+        given:
+            def symbolTable = new SymbolTable()
+            def source = "int f(int a) { g(a.b); return a; }".getBytes("UTF-8")
+            def bytes = AstSnapshotWriter.write(AstSnapshots.parse(source, new SymbolTable()), AstSnapshots.hash(source))
+            def function = AstSnapshotReader.read(bytes, symbolTable).getDefinitions()["f"]
+            def call = function.getBlock().getInstructions()[0]
+        expect:
+            symbolTable.getName(call.getFunctionSymbol()) == "g"
+            symbolTable.getName(call.getArguments()[0].getFieldSymbol()) == "b"
+            call.getArguments()[0].getExpression().getSymbol() == symbolTable.lookup("a")
+    }
+
+    def "Should load program from snapshot written for the same source"() {
+        given:
+            def directory = Files.createTempDirectory("snapshot")
+            def source = directory.resolve("main.lang")
+            Files.writeString(source, "int main() { return 1; }")
+            def first = AstSnapshots.loadOrParse(source, new SymbolTable())
+            def snapshot = AstSnapshots.snapshotPath(source)
+            def written = Files.exists(snapshot)
+            // a snapshot of other program keyed by the same source hash proves the source is not parsed again
+            def other = AstSnapshots.parse("int other() {}".getBytes("UTF-8"), new SymbolTable())
+            Files.write(snapshot, AstSnapshotWriter.write(other, AstSnapshots.hash(Files.readAllBytes(source))))
+            def second = AstSnapshots.loadOrParse(source, new SymbolTable())
+            Files.writeString(source, "int changed() { return 2; }")
+            def third = AstSnapshots.loadOrParse(source, new SymbolTable())
+        expect:
+            written
+            snapshot.getFileName().toString() == "main.lang.ast"
+            first.getDefinitions().keySet() == ["main"] as Set
+            second.getDefinitions().keySet() == ["other"] as Set
+            third.getDefinitions().keySet() == ["changed"] as Set
+            treeStr(AstSnapshots.loadOrParse(source, new SymbolTable())) == treeStr(third)
+    }
+
+    def "Should parse source again if snapshot is damaged"() {
+        given:
+            def directory = Files.createTempDirectory("snapshot")
+            def source = directory.resolve("main.lang")
+            Files.writeString(source, "int main() { return 1; }")
+            AstSnapshots.loadOrParse(source, new SymbolTable())
+            def snapshot = AstSnapshots.snapshotPath(source)
+            def bytes = Files.readAllBytes(snapshot)
+            Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3))
+            def program = AstSnapshots.loadOrParse(source, new SymbolTable())
+        expect:
+            program.getDefinitions().keySet() == ["main"] as Set
+            Files.readAllBytes(snapshot) == bytes
+    }
+
+    def "Should reject truncated snapshot"() {
+        given:
+            def source = "int main() { return 1; }".getBytes("UTF-8")
+            def bytes = AstSnapshotWriter.write(AstSnapshots.parse(source, new SymbolTable()), AstSnapshots.hash(source))
+        when:
+            AstSnapshotReader.read(Arrays.copyOf(bytes, bytes.length - 1), new SymbolTable())
+        then:
+            SnapshotFormatException e = thrown()
+    }
+
+    def "Should parse source again if snapshot header is damaged"() {
+        given:
+            def directory = Files.createTempDirectory("snapshot")
+            def source = directory.resolve("main.lang")
+            Files.writeString(source, "int main() { return 1; }")
+            AstSnapshots.loadOrParse(source, new SymbolTable())
+            def snapshot = AstSnapshots.snapshotPath(source)
+            def bytes = Files.readAllBytes(snapshot)
+            def damaged = bytes.clone()
+            // the source hash length follows the magic and the version
+            hashLength.eachWithIndex { b, i -> damaged[5 + i] = (byte) b }
+            Files.write(snapshot, damaged)
+            def program = AstSnapshots.loadOrParse(source, new SymbolTable())
+        expect:
+            AstSnapshotReader.readSourceHash(damaged) == null
+            program.getDefinitions().keySet() == ["main"] as Set
+            Files.readAllBytes(snapshot) == bytes
+
+        where:
+            hashLength << [
+                    [0xFF, 0xFF, 0xFF, 0xFF, 0xFF],
+                    [0xFF, 0xFF, 0xFF, 0xFF, 0x07],
+                    [0xFF, 0xFF, 0xFF, 0xFF, 0x0F],
+            ]
+    }
+
+    def "Should reject negative and oversized lengths"() {
+        given:
+            def source = """
+struct P { int x }
+variant V { P }
+int main(int a) { var int b = f(a, 2); while (b > 0) { b = b - 1; } return b; }
+int f(int a, int b) { match (a) { P p -> { return 1; } } }""".getBytes("UTF-8")
+            def bytes = AstSnapshotWriter.write(AstSnapshots.parse(source, new SymbolTable()), AstSnapshots.hash(source))
+            def length = [[0xFF, 0xFF, 0xFF, 0xFF, 0x0F], [0xFF, 0xFF, 0xFF, 0xFF, 0x07]]
+        expect:
+            length.every { varInt ->
+                (0..<bytes.length).every { offset -> failure(splice(bytes, offset, varInt)) in [null, SnapshotFormatException] }
+            }
+    }
+
+    def splice(byte[] bytes, int offset, List<Integer> varInt) {
+        def result = new ByteArrayOutputStream()
+        result.write(bytes, 0, offset)
+        varInt.each { result.write(it) }
+        result.write(bytes, offset + 1, bytes.length - offset - 1)
+        return result.toByteArray()
+    }
+
+    def failure(byte[] bytes) {
+        try {
+            AstSnapshotReader.read(bytes, new SymbolTable())
+        } catch (RuntimeException e) {
+            return e.getClass()
+        }
+        return null
+    }
+}
@@ -0,0 +1,168 @@
+package pl.interpreter
+
+import pl.interpreter.executor.BooleanValue
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StringValue
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException
+import pl.interpreter.executor.exceptions.InvalidValueTypeException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class ConstantFolderSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def "Should fold expressions with constant operands"() {
+        given:
+        def program = getTree("""
+int main(int a) {
+    var string s = (2 + 2) as string;
+    var float f = a * (1.5 + 1);
+    var bool b = !(3 > 2) or a == 1;
+    var bool c = false and a == 1;
+    return a + 2 * 3;
+}""")
+        def environment = new Environment(program)
+        def instructions = environment.@functions["main"].getBlock().getInstructions()
+        def sum = instructions[4].getExpression()
+        expect:
+        instructions[0].getExpression().getConstant() == new StringValue("4")
+        instructions[1].getExpression().getConstant() == null
+        instructions[1].getExpression().getRight().getConstant() == new FloatValue(2.5)
+        instructions[2].getExpression().getConstant() == null
+        instructions[2].getExpression().getLeft().getConstant() == new BooleanValue(false)
+        instructions[3].getExpression().getConstant() == new BooleanValue(false)
+        sum.getConstant() == null
+        sum.getLeft().getConstant() == null
+        sum.getRight().getConstant() == new IntValue(6)
+    }
+
+    def "Should share equal constants"() {
+        given:
+        def program = getTree("int f() { return 1 + 0; } int main() { var int a = 1; return a + 1; }")
+        def environment = new Environment(program)
+        def f = environment.@functions["f"].getBlock().getInstructions()[0].getExpression()
+        def main = environment.@functions["main"].getBlock().getInstructions()
+        expect:
+        f.getConstant().is(main[0].getExpression().getConstant())
+        f.getConstant().is(main[1].getExpression().getRight().getConstant())
+    }
+
+    def "Should leave failing expressions to fail when executed"() {
+        given:
+        def program = getTree("int main(bool fail) { if (fail) { return 1 / 0; } return 1 + 1 / 2; }")
+        def environment = new Environment(program)
+        def division = environment.@functions["main"].getBlock().getInstructions()[0].getInstruction()
+                .getInstructions()[0].getExpression()
+        expect:
+        division.getConstant() == null
+        environment.executeUserFunction("main", [new BooleanValue(false)]) == new IntValue(1)
+
+        when:
+        environment.executeUserFunction("main", [new BooleanValue(true)])
+        then:
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+    }
+
+    def "Should propagate immutable constant variables"() {
+        given:
+        def program = getTree("""
+int main(int a) {
+    int size = 4;
+    int doubled = size * 2;
+    var int counter = 0;
+    int mutated = 1;
+    mutated = 2;
+    float mismatched = 1;
+    if (a > 0) {
+        int size = a;
+        counter = counter + size;
+    }
+    return doubled + counter + size;
+}""")
+        def environment = new Environment(program)
+        def block = environment.@functions["main"].getBlock()
+        def instructions = block.getLiveInstructions()
+        def returned = instructions[5].getExpression()
+        expect:
+        block.getInstructions().size() == 8
+        instructions.size() == 6
+        instructions[0].getId() == "counter"
+        instructions[1].getId() == "mutated"
+        instructions[3].getId() == "mismatched"
+        instructions[4].getInstruction().getLiveInstructions()[1].getExpression().getRight().getConstant() == null
+        returned.getLeft().getLeft().getConstant() == new IntValue(8)
+        returned.getRight().getConstant() == new IntValue(4)
+    }
+
+    def "Should execute programs with propagated variables"() {
+        given:
+        def code = """
+int main() {
+    int step = 2;
+    int limit = step * 5;
+    string label = "sum: ";
+    var int i = 0;
+    var int sum = 0;
+    while (i < limit) {
+        int weight = 3;
+        sum = sum + i * weight;
+        i = i + step;
+    }
+    if (true) {
+        int step = sum;
+        return step + limit;
+    }
+}"""
+        expect:
+        new Environment(getTree(code)).executeUserFunction("main", []) == new IntValue(70)
+        Environment.verified(getTree(code)).executeUserFunction("main", []) == new IntValue(70)
+    }
+
+    def "Should keep failing type of propagated candidates"() {
+        when:
+        new Environment(getTree("int main() { int a = \"a\"; return 0; }")).executeUserFunction("main", [])
+        then:
+        InvalidValueTypeException e = thrown()
+        e.getMessage() == "Value does not match type of variable \"a\""
+    }
+
+    def "Should leave the parsed program to other environments"() {
+        given:
+        def program = getTree("""
+int main() {
+    int step = 2;
+    var int i = 0;
+    while (i < 10) {
+        i = i + step;
+    }
+    if (false) {
+        int unused = 1;
+        return unused;
+    }
+    return i * step;
+    i = 0;
+}""")
+        def printed = print(program)
+        def checked = new Environment(program)
+        expect:
+        checked.executeUserFunction("main", []) == new IntValue(20)
+        Environment.verified(program).executeUserFunction("main", []) == new IntValue(20)
+        checked.executeUserFunction("main", []) == new IntValue(20)
+        print(program) == printed
+    }
+
+    def print(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+}
@@ -0,0 +1,84 @@
+package pl.interpreter
+
+import pl.interpreter.executor.BooleanValue
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.exceptions.InvalidValueTypeException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.Assignment
+import pl.interpreter.parser.Block
+import pl.interpreter.parser.IfStatement
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.ReturnStatement
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.parser.WhileStatement
+import spock.lang.Specification
+
+class DeadCodeEliminatorSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def "Should remove unreachable instructions"() {
+        given:
+        def program = getTree("""
+int main(bool flag) {
+    var int a = 0;
+    bool debug = false;
+    if (debug) { a = 1; }
+    if (!debug) a = 2; else a = 3;
+    while (debug and flag) { a = 4; }
+    while (flag) { if (true) { return a; } a = 5; }
+    if (flag) { return a; a = 6; }
+    { return a; }
+    a = 7;
+}""")
+        def environment = new Environment(program)
+        def block = environment.@functions["main"].getBlock()
+        def instructions = block.getLiveInstructions()
+        expect:
+        block.getInstructions().size() == 9
+        instructions.collect { it.getClass() } == [pl.interpreter.parser.Initialization, Assignment, WhileStatement, IfStatement, Block]
+        instructions[1].getExpression().getConstant() == new IntValue(2)
+        instructions[2].getInstruction().getLiveInstructions().size() == 1
+        instructions[3].getInstruction().getLiveInstructions().collect { it.getClass() } == [ReturnStatement]
+    }
+
+    def "Should keep conditions which are not boolean constants"() {
+        given:
+        def environment = new Environment(getTree("int main(bool flag) { if (flag) { return 1; } if (1) { return 2; } return 0; }"))
+        expect:
+        environment.executeUserFunction("main", [new BooleanValue(true)]) == new IntValue(1)
+
+        when:
+        environment.executeUserFunction("main", [new BooleanValue(false)])
+        then:
+        InvalidValueTypeException e = thrown()
+        e.getMessage() == "Expected boolean"
+    }
+
+    def "Should execute programs with removed code like before"() {
+        given:
+        def code = """
+int main() {
+    bool verbose = false;
+    var int sum = 0;
+    var int i = 0;
+    while (i < 5) {
+        if (verbose) {
+            sum = sum * 100;
+        } else {
+            sum = sum + i;
+        }
+        while (verbose) { i = 0; }
+        i = i + 1;
+    }
+    return sum;
+    sum = 0;
+}"""
+        expect:
+        new Environment(getTree(code)).executeUserFunction("main", []) == new IntValue(10)
+        Environment.verified(getTree(code)).executeUserFunction("main", []) == new IntValue(10)
+    }
+}
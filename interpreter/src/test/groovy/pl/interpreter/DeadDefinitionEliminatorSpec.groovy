@@ -0,0 +1,69 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.exceptions.InvalidFunctionCallException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.LazyProgramParser
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.semantic_analyzer.DeadDefinitionEliminator
+import spock.lang.Specification
+
+class DeadDefinitionEliminatorSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def "Should keep only definitions reachable from entry point"() {
+        given:
+        def program = getTree("""
+struct Used { int a }
+struct Field { Used u }
+struct Returned { int a }
+struct Unused { int a }
+struct Member { int a }
+variant V { Member }
+int helper(Field f) { return f.u.a; }
+Returned make() { return Returned(1); }
+int unused() { return helper(Field(Used(1))); }
+int recursive(int n) { if (n == 0) { return 0; } return recursive(n - 1); }
+int main() {
+    Returned r = make();
+    return helper(Field(Used(2))) + recursive(3) + r.a;
+}""")
+        def live = new DeadDefinitionEliminator(program).eliminate("main")
+        expect:
+        live.getDefinitions().keySet() == ["Used", "Field", "Returned", "Member", "V", "helper", "make", "recursive", "main"] as Set
+        new Environment(live).executeUserFunction("main", []) == new IntValue(3)
+        Environment.verified(live).executeUserFunction("main", []) == new IntValue(3)
+    }
+
+    def "Should not parse bodies of unreachable functions"() {
+        given:
+        def program = new LazyProgramParser("int main() { return used(); } int used() { return 1; } int unused() { return 2; }").parse()
+        def live = new DeadDefinitionEliminator(program).eliminate("main")
+        expect:
+        live.getDefinitions().keySet() == ["main", "used"] as Set
+        !program.getDefinitions()["unused"].isBlockParsed()
+        new Environment(live).executeUserFunction("main", []) == new IntValue(1)
+    }
+
+    def "Should load only definitions reachable from the entry point"() {
+        given:
+        def code = "int main() { return used(); } int used() { return 1; } int unused() { return missing(); }"
+        expect:
+        ExecutionEngine.values().every {
+            def environment = Environment.forEntryPoint(getTree(code), "main", it)
+            environment.executeUserFunction("main", []) == new IntValue(1) && !environment.@functions.containsKey("unused")
+        }
+
+        when:
+        new Environment(getTree(code))
+        then:
+        InvalidFunctionCallException e = thrown()
+        e.getMessage() == "Function \"missing\" does not exist"
+    }
+}
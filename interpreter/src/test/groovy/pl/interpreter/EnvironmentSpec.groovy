@@ -1,6 +1,8 @@
 package pl.interpreter
 
 import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.IntValue
 import pl.interpreter.lexical_analyzer.LexicalAnalyzer
 import pl.interpreter.parser.ProgramParser
 import pl.interpreter.parser.TokenManager
@@ -28,4 +30,33 @@ class EnvironmentSpec extends Specification {
         new Environment(getTree("struct Point { int x, int y } int main() { }"))
     }
 
+
+    def "Should check structures against declared user types"() {
+        expect:
+        ExecutionEngine.values().every { failure(STRUCTURES + code, it) == message }
+
+        where:
+        code                                                            | message
+        "int main() { P p = Q(1); return p.x; }"                        | "Value does not match type of variable \"p\""
+        "int f(P p) { return p.x; } int main() { return f(Q(1)); }"     | "Argument types do not match parameters"
+        "int main() { R r = R(Q(1)); return 0; }"                       | "Invalid parameter type"
+    }
+
+    def "Should accept structures where their variants are expected"() {
+        given:
+        def code = STRUCTURES + "int f(V v) { return 1; } int main() { V v = Q(1); R r = R(P(2)); return f(P(2)) + f(v); }"
+        expect:
+        ExecutionEngine.values().every { new Environment(getTree(code), it).executeUserFunction("main", []) == new IntValue(2) }
+    }
+
+    static final String STRUCTURES = "struct P { int x } struct Q { int x } struct R { P p } variant V { P, Q } "
+
+    def failure(code, engine) {
+        try {
+            new Environment(getTree(code), engine).executeUserFunction("main", [])
+        } catch (RuntimeException e) {
+            return e.getMessage()
+        }
+        return null
+    }
 }
@@ -0,0 +1,93 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StringValue
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class ExecutionEngineSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def run(code, engine) {
+        return new Environment(getTree(code), engine).executeUserFunction("main", [])
+    }
+
+    def runVerified(code, engine) {
+        return Environment.verified(getTree(code), engine).executeUserFunction("main", [])
+    }
+
+    def failure(code, engine) {
+        try {
+            run(code, engine)
+        } catch (RuntimeException e) {
+            return [e.getClass(), e.getMessage()]
+        }
+        return null
+    }
+
+    def "Should compute the same values on every engine"() {
+        expect:
+        ExecutionEngine.values().every { run(code, it) == expected && runVerified(code, it) == expected }
+
+        where:
+        code                                                                                    | expected
+        "int main() { var int i = 0; var int s = 0; while (i < 10) { s = s + i * i % 7; i = i + 1; } return s; }" | new IntValue(19)
+        "float main() { var float a = 1.0; var int i = 0; while (i < 4) { a = a * 2 + i / 2; i = i + 1; } return a; }" | new FloatValue(19.0)
+        "int fib(int n) { if (n < 2) { return n; } return fib(n - 1) + fib(n - 2); } int main() { return fib(15); }" | new IntValue(610)
+        "string main() { int a = 7; string s = (a as string) + \"!\"; return s + ((2.5 * 2) as string); }" | new StringValue("7!5")
+        "int main() { var int a = 0; var int b = 3; if (a == 0 or b / a > 1) { a = 1; } if (a > 5 and b / 0 > 1) { a = 2; } return a; }" | new IntValue(1)
+        "int main() { var int a = 1; if (!(a >= 1) and a <= 1) { return 0; } else { a = a - 5; } return a; }" | new IntValue(-4)
+        "struct P { int x, float y } float main() { P p = P(3, 1.5); Q q = Q(p, 2); return p.x + p.y * q.n; } struct Q { P p, int n }" | new FloatValue(6.0)
+        "void f() { return; } int main() { f(); { int a = 1; } { int b = 2; return b; } }"     | new IntValue(2)
+    }
+
+    def "Should match structures on every engine"() {
+        given:
+        def code = """
+struct A { int a }
+struct B { int b }
+variant V { A, B }
+int main() {
+    return value(A(1)) + value(B(2)) * 10;
+}
+int value(V v) {
+    match (v) {
+        A a -> { return a.a; }
+        default -> { int b = 4; return b; }
+    }
+}"""
+        expect:
+        ExecutionEngine.values().every { run(code, it) == new IntValue(41) && runVerified(code, it) == new IntValue(41) }
+    }
+
+    def "Should fail like the tree walker on every engine"() {
+        expect:
+        def expected = failure(code, ExecutionEngine.AST)
+        expected != null
+        ExecutionEngine.values().every { failure(code, it) == expected }
+
+        where:
+        code << [
+                "int main() { var int a = 1; return a / (a - 1); }",
+                "int main() { var int a = 1; a = \"a\"; return a; }",
+                "int main() { var int a = 1; int b = a + \"a\"; return b; }",
+                "int main() { var string a = \"a\"; int b = a; return b; }",
+                "int main() { var int a = 1; if (a) { return 1; } return 0; }",
+                "int main() { var bool a = true; if (a and 1) { return 1; } return 0; }",
+                "int main() { { int a = 1; } return a; }",
+                "int main() { x = 1; return 0; }",
+                "int f(int a) { return a; } int main() { return f(); }",
+                "int f(int a) { return a; } int main() { return f(\"a\"); }",
+                "struct P { int x } int main() { P p = P(1); return p.y; }",
+                "int main() { var int a = 1; return (a as bool) as int; }",
+        ]
+    }
+}
@@ -367,6 +367,19 @@ class ExpressionEvaluatingVisitorSpec extends Specification {
         (result as BooleanValue).isTruthy()
     }
 
+    def "Should compare mixed int and float operands in order"() {
+        expect:
+        evaluateExpression(code) == new BooleanValue(expected)
+
+        where:
+        code        | expected
+        "1.5 < 1"   | false
+        "1.5 > 1"   | true
+        "1 < 1.5"   | true
+        "2.0 >= 3"  | false
+        "2.0 <= 3"  | true
+    }
+
     def "Should evaluate conjunction correctly"() {
         expect:
         result == (evaluateExpression(expression) as BooleanValue)
@@ -2,8 +2,11 @@ package pl.interpreter
 
 import pl.interpreter.lexical_analyzer.LexicalAnalyzer
 
+import pl.interpreter.parser.Conjunction
 import pl.interpreter.parser.ExpressionParser
+import pl.interpreter.parser.ParserException
 import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.Sum
 import pl.interpreter.parser.TokenManager;
 import spock.lang.Specification;
 
@@ -187,4 +190,49 @@ class ExpressionParserSpec extends Specification {
 |-Identifier <row: 1, col: 11> id=c
 """
     }
+
+    def "Should not chain relations and casts"() {
+        given:
+            def tokenManager = new TokenManager(new LexicalAnalyzer(new StringReader(code)))
+            def expression = new ExpressionParser(tokenManager).parseExpression().get()
+            def writer = new StringWriter()
+            (new PrintVisitor(writer)).visit(expression)
+        expect:
+            writer.toString().readLines()[0] == root
+            tokenManager.getCurrentType() == rest
+
+        where:
+            code                | root                                         | rest
+            "a < b < c"         | 'Relation <row: 1, col: 1> operator="<"'     | TokenType.LESS_THAN_OPERATOR
+            "x or a < b < c"    | "Alternative <row: 1, col: 1> "              | TokenType.LESS_THAN_OPERATOR
+            "a as int as float" | "Cast <row: 1, col: 1> type=int"             | TokenType.KW_AS
+            "a as int + b"      | "Cast <row: 1, col: 1> type=int"             | TokenType.ADD_OPERATOR
+    }
+
+    def "Should report missing operands"() {
+        when:
+            treeStr(code)
+        then:
+            ParserException e = thrown()
+            e.getMessage() == message
+
+        where:
+            code         | message
+            "a and"      | "Expected operand: 1, col: 6"
+            "a < )"      | "Expected operand: 1, col: 5"
+            "a + b * !"  | "Expected expression: 1, col: 10"
+            "a as b"     | " Expected primitive type: 1, col: 6"
+            "f(a, )"     | "Expected expression: 1, col: 6"
+    }
+
+    def "Should parse long expressions"() {
+        given:
+            def code = (0..<20000).collect { "a * $it" }.join(" + ") + " and " + "(" * 300 + "1" + ")" * 300
+            def expression = getExpressionParser(code).parseExpression().get()
+        expect:
+            expression instanceof Conjunction
+            expression.getLeft() instanceof Sum
+            expression.getLeft().getRight().getRight().getValue() == 19999
+            expression.getRight().getValue() == 1
+    }
 }
@@ -0,0 +1,154 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.IntValue
+import pl.interpreter.flat_ast.FlatAst
+import pl.interpreter.flat_ast.FlatNodeKind
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.lexical_analyzer.SymbolTable
+import pl.interpreter.parser.ParserException
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.snapshot.AstSnapshots
+import spock.lang.Specification
+
+class FlatAstSpec extends Specification {
+
+    def treeStr(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+
+    def parse(String code) {
+        return AstSnapshots.parse(code.getBytes("UTF-8"), new SymbolTable())
+    }
+
+    def "Should expose the same program as flattened"() {
+        given:
+            def program = parse(code)
+        expect:
+            treeStr(FlatAst.of(program).toProgram()) == treeStr(program)
+
+        where:
+            code << [
+                    "",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "variant Shape { Circle, Square } struct Circle { float r, Point center }",
+                    "int f(int a) { if (!a or b.c < 1 as float) { return \"zażółć\"; } else { while (a) a = a - 2147483647 * 0.5; } return; }",
+                    "void main() { Point p = Point(1, 2.5); var int x = 3; f(x, p.x); { { x = x % 2; } } }",
+            ]
+    }
+
+    def "Should flatten definitions while parsing"() {
+        given:
+            def tokenManager = new TokenManager(new LexicalAnalyzer(new StringReader(code)))
+        expect:
+            treeStr(FlatAst.parse(tokenManager).toProgram()) == treeStr(parse(code))
+
+        where:
+            code << [
+                    "",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "variant Shape { Circle, Square } struct Circle { float r, Point center }",
+                    "int f(int a) { match (a) { Circle c -> { return 1; } default -> return; } }",
+            ]
+    }
+
+    def "Should reject duplicated ids while flattening"() {
+        given:
+            def tokenManager = new TokenManager(new LexicalAnalyzer(new StringReader("int f() {} int f() {}")))
+        when:
+            FlatAst.parse(tokenManager)
+        then:
+            ParserException e = thrown()
+    }
+
+    def "Should print the tree as the print visitor"() {
+        given:
+            def program = parse(code)
+            def writer = new StringWriter()
+        when:
+            FlatAst.of(program).print(writer)
+        then:
+            writer.toString() == treeStr(program)
+
+        where:
+            code << [
+                    "",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "variant Shape { Circle, Square } struct Circle { float r, Point center }",
+                    "int f(int a) { if (!a or b.c < 1 as float) { return \"zażółć \"; } else { while (a) a = a - 2147483647 * 0.5; } return; }",
+                    "void main() { Point p = Point(1, 2.5); var int x = 3; f(x, p.x); { { x = x % 2; } } }",
+                    "int f(Shape s) { match (s) { Circle c -> { return 1; } default -> return 0; } }",
+            ]
+    }
+
+    def "Should store nodes in preorder with contiguous children"() {
+        given:
+            def ast = FlatAst.of(parse("int f(int a) { return a + 2; }"))
+            def function = ast.getChild(FlatAst.ROOT, 0)
+            def block = ast.getChild(function, 1)
+            def sum = ast.getChild(ast.getChild(block, 0), 0)
+        expect:
+            ast.size() == 8
+            ast.getKind(FlatAst.ROOT) == FlatNodeKind.PROGRAM
+            ast.getKind(function) == FlatNodeKind.FUNCTION_DEFINITION
+            ast.getString(ast.getPayloadA(function)) == "f"
+            ast.getKind(ast.getChild(function, 0)) == FlatNodeKind.PARAMETER
+            ast.getKind(sum) == FlatNodeKind.SUM
+            ast.getKind(ast.getChild(sum, 0)) == FlatNodeKind.IDENTIFIER
+            ast.getPayloadA(ast.getChild(sum, 1)) == 2
+            ast.getRow(sum) == 1
+            [FlatAst.ROOT, function, ast.getChild(function, 0), block, ast.getChild(block, 0), sum] == (0..5).toList()
+    }
+
+    def "Should deduplicate strings"() {
+        given:
+            def ast = FlatAst.of(parse("int f(int a) { a = a + a; return a; }"))
+            def block = ast.getChild(ast.getChild(FlatAst.ROOT, 0), 1)
+            def assignment = ast.getChild(block, 0)
+            def sum = ast.getChild(assignment, 0)
+        expect:
+            ast.getPayloadA(assignment) == ast.getPayloadA(ast.getChild(sum, 0))
+            ast.getPayloadA(ast.getChild(sum, 0)) == ast.getPayloadA(ast.getChild(sum, 1))
+    }
+
+    def "Should materialize each definition once and its body on first use"() {
+        given:
+            def program = FlatAst.of(parse("int f() { return 1; } struct Point { int x }")).toProgram()
+            def f = program.getDefinitions()["f"]
+        expect:
+            program.getDefinitions().keySet() == ["f", "Point"] as Set
+            f.getId() == "f"
+            f.is(program.getDefinitions()["f"])
+            program.getDefinitions().values().any { it.is(f) }
+            !f.isBlockParsed()
+            f.getBlock().is(f.getBlock())
+            f.isBlockParsed()
+            program.getDefinitions()["g"] == null
+    }
+
+    def "Should materialize only the bodies of called functions"() {
+        given:
+            def program = FlatAst.of(parse("int main() { return twice(3); } int twice(int a) { return a * 2; } int unused() { return 0; }"))
+                    .toProgram()
+        when:
+            def result = new Environment(program).executeUserFunction("main", [])
+        then:
+            result == new IntValue(6)
+            program.getDefinitions()["main"].isBlockParsed()
+            program.getDefinitions()["twice"].isBlockParsed()
+            !program.getDefinitions()["unused"].isBlockParsed()
+    }
+
+    def "Should reject child index out of range"() {
+        given:
+            def ast = FlatAst.of(parse("int f() {}"))
+        when:
+            ast.getChild(FlatAst.ROOT, 1)
+        then:
+            IndexOutOfBoundsException e = thrown()
+    }
+}
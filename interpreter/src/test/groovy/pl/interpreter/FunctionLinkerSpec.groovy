@@ -0,0 +1,91 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StructureConstructor
+import pl.interpreter.executor.UserFunction
+import pl.interpreter.executor.exceptions.InvalidFunctionCallException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.IncrementalProgramParser
+import pl.interpreter.parser.LazyProgramParser
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class FunctionLinkerSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def "Should bind calls to their functions when environment is loaded"() {
+        given:
+        def program = getTree("""
+struct Point { int x, int y }
+int f(int a) { return a; }
+int main() {
+    Point p = Point(1, f(2));
+    return f(p.x);
+}""")
+        def environment = new Environment(program)
+        def instructions = environment.@functions["main"].getBlock().getInstructions()
+        def constructorCall = instructions[0].getExpression()
+        expect:
+        constructorCall.getTarget() in StructureConstructor
+        constructorCall.getArguments()[1].getTarget() in UserFunction
+        instructions[1].getExpression().getTarget() in UserFunction
+    }
+
+    def "Should link a copy of the bodies of each environment"() {
+        given:
+        def code = "int f() { return 1; } int main() { return f(); } int g() { return 2; }"
+        def parser = new IncrementalProgramParser(code)
+        def parsed = parser.getProgram()
+        def first = new Environment(parsed)
+        def start = code.indexOf("2;")
+        def edited = parser.applyEdit(start, start + 1, "3")
+        def second = new Environment(edited)
+        def call = { environment -> environment.@functions["main"].getBlock().getInstructions()[0].getExpression() }
+        expect:
+        edited.getDefinitions()["main"].is(parsed.getDefinitions()["main"])
+        edited.getDefinitions()["main"].getBlock().getInstructions()[0].getExpression().getTarget() == null
+        call(first).getTarget().is(first.@functions["f"])
+        call(second).getTarget().is(second.@functions["f"])
+        first.executeUserFunction("main", []) == new IntValue(1)
+    }
+
+    def "Should report calls of unknown functions before execution"() {
+        when:
+        new Environment(getTree("int main() { return 0; } void f() { if (false) { g(); } }"))
+        then:
+        InvalidFunctionCallException e = thrown()
+        e.getMessage() == "Function \"g\" does not exist"
+    }
+
+    def "Should link lazily parsed functions on their first call"() {
+        given:
+        def program = new LazyProgramParser("int main() { return g(); } int f() { return 1; }").parse()
+        def environment = new Environment(program)
+        when:
+        environment.executeUserFunction("main", [])
+        then:
+        InvalidFunctionCallException e = thrown()
+        e.getMessage() == "Function \"g\" does not exist"
+        !program.getDefinitions()["f"].isBlockParsed()
+    }
+
+    def "Should execute recursive calls through linked call sites"() {
+        given:
+        def code = """
+int fib(int n) {
+    if (n == 0 or n == 1) {
+        return n;
+    }
+    return fib(n - 1) + fib(n - 2);
+}"""
+        expect:
+        new Environment(getTree(code)).executeUserFunction("fib", [new IntValue(15)]) == new IntValue(610)
+        Environment.verified(getTree(code)).executeUserFunction("fib", [new IntValue(15)]) == new IntValue(610)
+        new Environment(new LazyProgramParser(code).parse()).executeUserFunction("fib", [new IntValue(15)]) == new IntValue(610)
+    }
+}
@@ -0,0 +1,200 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.IncrementalProgramParser
+import pl.interpreter.parser.PersistentDefinitionMap
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.parser.VariantDefinition
+import pl.interpreter.semantic_analyzer.TypeChecker
+import spock.lang.Specification
+
+class IncrementalProgramParserSpec extends Specification {
+
+    def treeStr(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+
+    def serial(String code) {
+        return treeStr(new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse())
+    }
+
+    // printed tree or the error reported while parsing
+    def outcome(Closure parse) {
+        try {
+            return parse()
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage()
+        }
+    }
+
+    def edit(String code, int start, int end, String replacement) {
+        return code.substring(0, start) + replacement + code.substring(end)
+    }
+
+    def "Should parse the same program as serial parser after edit"() {
+        given:
+            def parser = new IncrementalProgramParser(code)
+            def start = code.indexOf(find)
+            def edited = edit(code, start, start + find.length(), replacement)
+        expect:
+            outcome { treeStr(parser.applyEdit(start, start + find.length(), replacement)) } == outcome { serial(edited) }
+            parser.getSource() == edited
+
+        where:
+            code                                                      | find          | replacement
+            "int f() { return 1; }\nint g() { return 2; }"            | "1"           | "1 + 3"
+            "int f() { return 1; }\nint g() { return 2; }"            | "return 1;"   | "a = 1;\n\n  return a;"
+            "int f() { return 1; }\n\n\nint g() { return 2; }"        | "\n\n\n"      | " "
+            "int f() { return 1; }\nint g() { return 2; }"            | "}\nint g()"  | "\nint g()"
+            "int f() { return 1; }\nint g() { return 2; }"            | "int g"       | "}\nint g"
+            "int f() { return 1; }\nint g() { return 2; }"            | "\n"          | ""
+            "int f() { return 1; }\nint g() { return 2; }"            | "int f"       | "struct S {}\nint f"
+            "int f() { return 1; }\nint g() { return 2; }"            | "}"           | "} /* comment"
+            "int f() { return 1; }\nint g() { return 2; }"            | "int g() { return 2; }" | ""
+            "int f() { return 1; }\nvariant V { A, B }\nint g() { return 2; }" | "variant V { A, B }\n" | ""
+    }
+
+    def "Should parse the same program as serial parser after series of edits"() {
+        given:
+            def code = Files.readString(LexicalAnalyzerSpec.sourceCode1) + "\nint last() { return 0; }"
+            def parser = new IncrementalProgramParser(code)
+            def edits = [["return", "return 2 * "], ["{", "{\n\n"], ["last", "first"], ["int first", "\n\nint first"],
+                         ["}\n", "\n"], ["\n", "}\n"]]
+        expect:
+            edits.every { find, replacement ->
+                def start = code.indexOf(find)
+                code = edit(code, start, start + find.length(), replacement)
+                outcome { treeStr(parser.applyEdit(start, start + find.length(), replacement)) } == outcome { serial(code) }
+            }
+    }
+
+    def "Should report errors the same way as serial parser after edit"() {
+        given:
+            def code = "int f() { return 1; }\nint g() { return 2; }\nint h() { return 3 }"
+            def parser = new IncrementalProgramParser(code)
+            def edited = "\n\n" + code
+        when:
+            serial(edited)
+        then:
+            RuntimeException serialException = thrown()
+
+        when:
+            parser.applyEdit(0, 0, "\n\n")
+        then:
+            RuntimeException incrementalException = thrown()
+            incrementalException.getClass() == serialException.getClass()
+            incrementalException.getMessage() == serialException.getMessage()
+    }
+
+    def "Should reuse definitions outside of edited range"() {
+        given:
+            def builder = new StringBuilder()
+            (0..<500).each { builder.append("int f${ParallelProgramParserSpec.name(it)}() {\n    return $it;\n}\n") }
+            def code = builder.toString()
+            def parser = new IncrementalProgramParser(code)
+            def before = parser.getProgram().getDefinitions()
+            def start = code.indexOf("return 250;")
+            def program = parser.applyEdit(start, start, "\n")
+        expect:
+            program.getDefinitions()["f" + ParallelProgramParserSpec.name(0)].is(before["f" + ParallelProgramParserSpec.name(0)])
+            program.getDefinitions()["f" + ParallelProgramParserSpec.name(499)].is(before["f" + ParallelProgramParserSpec.name(499)])
+            !program.getDefinitions()["f" + ParallelProgramParserSpec.name(250)].is(before["f" + ParallelProgramParserSpec.name(250)])
+            program.getDefinitions()["f" + ParallelProgramParserSpec.name(499)].getPosition().row() == 1498
+            program.getRowOffset(program.getDefinitions()["f" + ParallelProgramParserSpec.name(499)]) == 1
+            treeStr(program) == serial(parser.getSource())
+    }
+
+    def "Should leave programs of earlier edits unchanged"() {
+        given:
+            def code = "int f() {\n    return 1;\n}\nint g() {\n    return f();\n}\n"
+            def parser = new IncrementalProgramParser(code)
+            def before = parser.getProgram()
+            def printed = treeStr(before)
+            def call = before.getDefinitions()["g"].getBlock().getInstructions()[0]
+            def start = code.indexOf("return 1;")
+            def after = parser.applyEdit(start, start, "\n\n")
+        expect:
+            treeStr(before) == printed
+            call.getPosition().row() == 5
+            after.getDefinitions()["g"].is(before.getDefinitions()["g"])
+            after.getRowOffset(after.getDefinitions()["g"]) == 2
+            before.getRowOffset(before.getDefinitions()["g"]) == 0
+            treeStr(after) == serial(parser.getSource())
+    }
+
+    def "Should report type errors on the rows of the edited source"() {
+        given:
+            def code = "int f() {\n    return 1;\n}\nint g() {\n    return \"a\";\n}\n"
+            def parser = new IncrementalProgramParser(code)
+            def start = code.indexOf("return 1;")
+            def program = parser.applyEdit(start, start, "\n\n\n")
+            def serialProgram = new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(parser.getSource())))).parse()
+        expect:
+            outcome { new TypeChecker(program).check() } == outcome { new TypeChecker(serialProgram).check() }
+            outcome { new TypeChecker(program).check() }.contains("row: 8")
+    }
+
+    def "Should merge all definitions again after an edit fixing a duplicate"() {
+        given:
+            def code = "int f() { return 1; }\nint g() { return 2; }\nint h() { return 3; }\n"
+            def parser = new IncrementalProgramParser(code)
+            def start = code.indexOf("g()")
+        when:
+            def duplicate = outcome { treeStr(parser.applyEdit(start, start + 1, "f")) }
+        then:
+            duplicate == outcome { serial(parser.getSource()) }
+            duplicate.contains("Multiple functions with same id found")
+
+        when:
+            def program = parser.applyEdit(start, start + 1, "g")
+        then:
+            program.getDefinitions().keySet() == ["f", "g", "h"] as Set
+            treeStr(program) == serial(code)
+    }
+
+    def "Should keep the definitions of a hash map over a series of updates"() {
+        given:
+            def random = new Random(7)
+            def letters = ("A".."Z") + ("a".."z")
+            def expected = [:]
+            def map = PersistentDefinitionMap.EMPTY
+            def earlier = null
+            def earlierExpected = null
+            10000.times {
+                // two letter ids, many of them with the same hash like "Aa" and "BB"
+                def id = letters[random.nextInt(letters.size())] + letters[random.nextInt(letters.size())]
+                if (random.nextInt(3) == 0) {
+                    map = map.without(id)
+                    expected.remove(id)
+                } else {
+                    def definition = new VariantDefinition(id, [], 0L)
+                    map = map.with(definition)
+                    expected[id] = definition
+                }
+                if (it == 5000) {
+                    earlier = map
+                    earlierExpected = new HashMap(expected)
+                }
+            }
+        expect:
+            map == expected
+            map.size() == expected.size()
+            map.keySet() == expected.keySet()
+            earlier == earlierExpected
+            earlier.size() == earlierExpected.size()
+    }
+
+    def "Should reject invalid edit range"() {
+        given:
+            def parser = new IncrementalProgramParser("int f() {}")
+        when:
+            parser.applyEdit(5, 11, "")
+        then:
+            IndexOutOfBoundsException e = thrown()
+    }
+}
@@ -0,0 +1,104 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import pl.interpreter.executor.Environment
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.LazyProgramParser
+import pl.interpreter.parser.ParserException
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class LazyProgramParserSpec extends Specification {
+
+    def treeStr(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+
+    def serial(String code) {
+        return treeStr(new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse())
+    }
+
+    def "Should parse the same program as serial parser once bodies are parsed"() {
+        expect:
+            treeStr(new LazyProgramParser(code).parse()) == serial(code)
+
+        where:
+            code << [
+                    "",
+                    "  // only a comment",
+                    "struct Rectangle{int a, int b}",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "/* lead */ struct A { int a }\n// between\nvariant V { A, B }  int main() { return \"}{\"; } /* tail */",
+                    "int f() { if (a) { b = 1; } else { while (c) { d(); } } } int g() { return 1; }",
+                    "int f() {} } int g() {}",
+                    "int f(int a, Point p)\n{\n    return p.x;\n}\n\n\nint g() { return 1; }",
+            ]
+    }
+
+    def "Should not parse bodies until they are needed"() {
+        given:
+            def program = new LazyProgramParser("int f() { return 1 } int main() { return 2; }").parse()
+            def main = program.getDefinitions()["main"]
+            def f = program.getDefinitions()["f"]
+            def block = main.getBlock()
+        expect:
+            program.getDefinitions().keySet() == ["f", "main"] as Set
+            !f.isBlockParsed()
+            main.isBlockParsed()
+            main.getBlock().is(block)
+            block.getPosition().row() == 1
+            block.getPosition().col() == 33
+    }
+
+    def "Should report errors inside a body when it is parsed"() {
+        given:
+            def code = "struct A {}\nint f() { return 1 }"
+            def f = new LazyProgramParser(code).parse().getDefinitions()["f"]
+        when:
+            serial(code)
+        then:
+            ParserException serialException = thrown()
+
+        when:
+            f.getBlock()
+        then:
+            ParserException lazyException = thrown()
+            lazyException.getMessage() == serialException.getMessage()
+    }
+
+    def "Should report errors outside of bodies at the same position as serial parser"() {
+        when:
+            serial(code)
+        then:
+            RuntimeException serialException = thrown()
+
+        when:
+            new LazyProgramParser(code).parse()
+        then:
+            RuntimeException lazyException = thrown()
+            lazyException.getClass() == serialException.getClass()
+            lazyException.getMessage() == serialException.getMessage()
+
+        where:
+            code << [
+                    "int main() {}\n  int main() {}\n\n  struct B {}",
+                    "int main() {}\nstruct S { int a, }",
+                    "int f() {} garbage int g() {}",
+                    "int f(int a {}",
+                    "int f() { s = \"unterminated }\n int g() {}",
+                    "int f() {}\nint g() {} /* unterminated",
+            ]
+    }
+
+    def "Should load environment without parsing bodies"() {
+        given:
+            def program = new LazyProgramParser("int main() { return 0; } int helper() { broken }").parse()
+            new Environment(program)
+        expect:
+            !program.getDefinitions()["helper"].isBlockParsed()
+    }
+}
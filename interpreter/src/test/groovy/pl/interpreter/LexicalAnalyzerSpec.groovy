@@ -1,5 +1,6 @@
 package pl.interpreter
 
+import pl.interpreter.lexical_analyzer.CharacterSource
 import pl.interpreter.lexical_analyzer.LexicalAnalyzer
 import pl.interpreter.lexical_analyzer.LexicalAnalyzerException
 import spock.lang.Specification
@@ -290,4 +291,51 @@ class LexicalAnalyzerSpec extends Specification {
                     new Token(TokenType.EOF, null, 1, 11)
             ]
     }
-}
\ No newline at end of file
+
+    def 'Should tokenize the same way when source delivers single characters'() {
+        given:
+        def code = "int main() { // comment\n    string s = \"a \\\" b\" + 12.5 as string; /* x\n */ return variable_name; }"
+        def reader = new StringReader(code)
+        CharacterSource source = { char[] block -> reader.read(block, 0, 1) }
+        def lexicalAnalyzer = new LexicalAnalyzer(source)
+
+        expect:
+        getAllTokens(lexicalAnalyzer) == tokenize(code)
+    }
+
+    def 'Should throw when multiline comment has not been closed'() {
+        when:
+        tokenize("/* abc")
+        then:
+        LexicalAnalyzerException e = thrown()
+    }
+
+    def 'Should match longest operator'() {
+        expect:
+        tokenize(code).collect { it.type() } == types
+
+        where:
+        code     | types
+        "->-"    | [TokenType.ARROW, TokenType.SUBTRACT_OPERATOR, TokenType.EOF]
+        "<=<"    | [TokenType.LESS_THAN_OR_EQUALS_OPERATOR, TokenType.LESS_THAN_OPERATOR, TokenType.EOF]
+        "===!"   | [TokenType.EQUALS_OPERATOR, TokenType.ASSIGNMENT, TokenType.NEGATION_OPERATOR, TokenType.EOF]
+        "=>"     | [TokenType.ASSIGNMENT, TokenType.GREATER_THAN_OPERATOR, TokenType.EOF]
+        "/ /*/*/" | [TokenType.DIVIDE_OPERATOR, TokenType.COMMENT, TokenType.EOF]
+    }
+
+    def 'Should expose scanned token attributes without building tokens'() {
+        given:
+        def lexicalAnalyzer = new LexicalAnalyzer(new StringReader("x >= 4.5"))
+
+        expect:
+        lexicalAnalyzer.scanNextToken() == TokenType.IDENTIFIER
+        lexicalAnalyzer.getTokenText() == "x"
+        lexicalAnalyzer.scanNextToken() == TokenType.GREATER_THAN_OR_EQUALS_OPERATOR
+        lexicalAnalyzer.getTokenValue() == ">="
+        lexicalAnalyzer.getTokenCol() == 3
+        lexicalAnalyzer.scanNextToken() == TokenType.FLOAT_CONST
+        TestUtils.isClose(lexicalAnalyzer.getTokenFloat(), 4.5f)
+        lexicalAnalyzer.getTokenLength() == 3
+        lexicalAnalyzer.scanNextToken() == TokenType.EOF
+    }
+}
@@ -0,0 +1,85 @@
+package pl.interpreter
+
+import pl.interpreter.lexical_analyzer.InterpreterIOException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.lexical_analyzer.LexicalAnalyzerException
+import pl.interpreter.lexical_analyzer.MappedUtf8CharacterSource
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+class MappedUtf8CharacterSourceSpec extends Specification {
+
+    private static def getAllTokens(LexicalAnalyzer analyzer) {
+        def tokens = new ArrayList<Token>()
+        def token = null
+        do {
+            token = analyzer.getNextToken()
+            tokens.add(token)
+        } while (token.type() != TokenType.EOF)
+        return tokens
+    }
+
+    private static def tokenizeWithReader(String code) {
+        return getAllTokens(new LexicalAnalyzer(new StringReader(code)))
+    }
+
+    private static def tokenizeMapped(String code) {
+        def file = Files.createTempFile("source", ".lang")
+        try {
+            Files.writeString(file, code, StandardCharsets.UTF_8)
+            return getAllTokens(new LexicalAnalyzer(MappedUtf8CharacterSource.open(file)))
+        } finally {
+            Files.delete(file)
+        }
+    }
+
+    def 'Should produce the same tokens as reader based lexer'() {
+        expect:
+        tokenizeMapped(code) == tokenizeWithReader(code)
+
+        where:
+        code << [
+                "",
+                "+ - * / % < > ! . = ( ) { } ;",
+                "== != <= >= ->",
+                "== !=\n >= + \n   !\n--  \n",
+                "1 1.5 21.37 0 0.75.",
+                "\"hello world\"",
+                "\"   hello   \"\n\"world hello\"",
+                "hello world int",
+                "/*\ndemo software\n*/\nint a = b; // this is an assignment",
+                "string quote = \"Albert Einstain said \\\"Reality is merely an illusion, albeit a very persistent one.\\\"\";",
+                "string hint = \"To type quotes use backslash \\\"\\\\\\\".\";",
+                "\"abc\\ndef\"",
+                "string zażółć = \"gęślą jaźń\"; // komentarz ąę",
+                "string emoji = \"😀 €\";"
+        ]
+    }
+
+    def 'Should tokenize source_code_1 the same way as reader based lexer'() {
+        given:
+        def code = Files.readString(LexicalAnalyzerSpec.sourceCode1)
+
+        expect:
+        getAllTokens(new LexicalAnalyzer(MappedUtf8CharacterSource.open(LexicalAnalyzerSpec.sourceCode1))) == tokenizeWithReader(code)
+    }
+
+    def 'Should throw lexical exceptions the same way as reader based lexer'() {
+        when:
+        tokenizeMapped("1. 1")
+        then:
+        LexicalAnalyzerException e = thrown()
+    }
+
+    def 'Should throw on malformed UTF-8 input'() {
+        given:
+        def bytes = ByteBuffer.wrap([0x61, 0xC3, 0x28] as byte[])
+        when:
+        getAllTokens(new LexicalAnalyzer(new MappedUtf8CharacterSource(bytes)))
+        then:
+        InterpreterIOException e = thrown()
+    }
+}
@@ -0,0 +1,80 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StringValue
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class NodeEngineSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    // operator returned by the first statement of the function
+    def returnedNode(environment, functionId) {
+        def body = environment.@functions[functionId].getNodes().@body
+        return body.@statements[0].@children[0].getClass().getSimpleName()
+    }
+
+    def "Should specialize operators for the types they see"() {
+        given:
+        def environment = new Environment(getTree("""
+int add(int a, int b) { return a + b; }
+float scale(float a, float b) { return a * b; }
+string concat(string a, string b) { return a + b; }
+bool less(int a, float b) { return a < b; }
+"""), ExecutionEngine.NODES)
+        when:
+        environment.executeUserFunction("add", [new IntValue(1), new IntValue(2)])
+        environment.executeUserFunction("scale", [new FloatValue(1.5), new FloatValue(2.0)])
+        environment.executeUserFunction("concat", [new StringValue("a"), new StringValue("b")])
+        environment.executeUserFunction("less", [new IntValue(1), new FloatValue(2.0)])
+        then:
+        returnedNode(environment, "add") == "IntBinaryNode"
+        returnedNode(environment, "scale") == "FloatBinaryNode"
+        returnedNode(environment, "concat") == "StringBinaryNode"
+        returnedNode(environment, "less") == "GenericBinaryNode"
+    }
+
+    def "Should fall back to the generic operator when operand types change"() {
+        given:
+        def environment = new Environment(getTree("""
+struct I { int v }
+struct F { float v }
+variant N { I, F }
+int ints() { return twice(I(2)); }
+float floats() { return twice(F(1.5)); }
+int twice(N n) { return n.v + n.v; }
+"""), ExecutionEngine.NODES)
+        when:
+        def first = environment.executeUserFunction("ints", [])
+        def firstNode = returnedNode(environment, "twice")
+        def second = environment.executeUserFunction("floats", [])
+        def third = environment.executeUserFunction("ints", [])
+        then:
+        first == new IntValue(4)
+        firstNode == "IntBinaryNode"
+        second == new FloatValue(3.0)
+        third == new IntValue(4)
+        returnedNode(environment, "twice") == "GenericBinaryNode"
+    }
+
+    def "Should keep the specialization after a division by zero"() {
+        given:
+        def environment = new Environment(getTree("int divide(int a, int b) { return a / b; }"), ExecutionEngine.NODES)
+        environment.executeUserFunction("divide", [new IntValue(4), new IntValue(2)])
+        when:
+        environment.executeUserFunction("divide", [new IntValue(4), new IntValue(0)])
+        then:
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+        returnedNode(environment, "divide") == "IntBinaryNode"
+    }
+}
@@ -0,0 +1,56 @@
+package pl.interpreter
+
+import pl.interpreter.executor.BooleanValue
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.OperatorKernels
+import pl.interpreter.executor.StringValue
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException
+import pl.interpreter.executor.exceptions.InvalidValueTypeException
+import spock.lang.Specification
+
+class OperatorKernelsSpec extends Specification {
+
+    def "Should apply operators by operand types"() {
+        expect:
+        OperatorKernels.apply(operator, lhs, rhs) == expected
+
+        where:
+        operator                                        | lhs                   | rhs                   | expected
+        OperatorKernels.Operator.ADD                    | new IntValue(2)       | new IntValue(3)       | new IntValue(5)
+        OperatorKernels.Operator.SUBTRACT               | new IntValue(2)       | new FloatValue(0.5)   | new FloatValue(1.5)
+        OperatorKernels.Operator.ADD                    | new StringValue("a")  | new StringValue("b")  | new StringValue("ab")
+        OperatorKernels.Operator.MULTIPLY               | new FloatValue(1.5)   | new IntValue(4)       | new FloatValue(6.0)
+        OperatorKernels.Operator.DIVIDE                 | new IntValue(7)       | new IntValue(2)       | new IntValue(3)
+        OperatorKernels.Operator.MODULO                 | new IntValue(-7)      | new IntValue(3)       | new IntValue(-1)
+        OperatorKernels.Operator.DIVIDE                 | new IntValue(7)       | new FloatValue(2.0)   | new FloatValue(3.5)
+        OperatorKernels.Operator.LESS_THAN              | new IntValue(1)       | new IntValue(2)       | new BooleanValue(true)
+        OperatorKernels.Operator.EQUAL                  | new FloatValue(2.0)   | new IntValue(2)       | new BooleanValue(true)
+        OperatorKernels.Operator.GREATER_THAN_OR_EQUAL  | new IntValue(1)       | new FloatValue(1.5)   | new BooleanValue(false)
+    }
+
+    def "Should share cached booleans and small ints"() {
+        expect:
+        OperatorKernels.apply(OperatorKernels.Operator.NOT_EQUAL, new IntValue(1), new IntValue(2)).is(BooleanValue.TRUE)
+        OperatorKernels.negate(BooleanValue.TRUE).is(BooleanValue.FALSE)
+        OperatorKernels.apply(OperatorKernels.Operator.ADD, new IntValue(500), new IntValue(500)).is(IntValue.of(1000))
+        !IntValue.of(5000).is(IntValue.of(5000))
+        IntValue.of(5000) == new IntValue(5000)
+    }
+
+    def "Should report division by zero"() {
+        when:
+        OperatorKernels.apply(OperatorKernels.Operator.MODULO, new FloatValue(1.0), new IntValue(0))
+        then:
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+    }
+
+    def "Should leave invalid operands to the evaluators"() {
+        when:
+        OperatorKernels.apply(OperatorKernels.Operator.ADD, new IntValue(1), new BooleanValue(true))
+        then:
+        InvalidValueTypeException e = thrown()
+        e.getMessage() == "Only int and float sum operations are allowed"
+    }
+}
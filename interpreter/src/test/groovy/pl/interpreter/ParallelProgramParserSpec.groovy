@@ -0,0 +1,86 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import java.util.concurrent.ForkJoinPool
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ParallelProgramParser
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class ParallelProgramParserSpec extends Specification {
+
+    def treeStr(program) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(program)
+        return writer.toString()
+    }
+
+    def serial(String code) {
+        return treeStr(new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse())
+    }
+
+    def parallel(String code) {
+        return treeStr(new ParallelProgramParser(code, new ForkJoinPool(4)).parse())
+    }
+
+    def "Should parse the same program as serial parser"() {
+        expect:
+            parallel(code) == serial(code)
+
+        where:
+            code << [
+                    "",
+                    "  // only a comment",
+                    "struct Rectangle{int a, int b}",
+                    Files.readString(LexicalAnalyzerSpec.sourceCode1),
+                    "/* lead */ struct A { int a }\n// between\nvariant V { A, B }  int main() { return \"}{\"; } /* tail */",
+                    "int f() { if (a) { b = 1; } else { while (c) { d(); } } } int g() { return 1; }",
+                    "int f() {} } int g() {}",
+            ]
+    }
+
+    // identifiers may not contain digits
+    static def name(int number) {
+        return Integer.toString(number, 26).collect { (char) (Character.digit(it as char, 26) + ('a' as char)) }.join()
+    }
+
+    def "Should parse many definitions"() {
+        given:
+            def builder = new StringBuilder()
+            (0..<2000).each { builder.append("int f${name(it)}(int a) {\n    return a + $it;\n}\n") }
+            def code = builder.toString()
+            def parser = new ParallelProgramParser(code, new ForkJoinPool(4))
+            def program = parser.parse()
+        expect:
+            program.getDefinitions().size() == 2000
+            program.getDefinitions()["f" + name(1999)].getPosition().row() == 5998
+            treeStr(program) == serial(code)
+            parser.getSymbolTable().lookup("f" + name(1999)) != -1
+    }
+
+    def "Should report errors at the same position as serial parser"() {
+        when:
+            serial(code)
+        then:
+            RuntimeException serialException = thrown()
+
+        when:
+            parallel(code)
+        then:
+            RuntimeException parallelException = thrown()
+            parallelException.getClass() == serialException.getClass()
+            parallelException.getMessage() == serialException.getMessage()
+
+        where:
+            code << [
+                    "int main() {}\n  int main() {}\n\n  struct B {}",
+                    "int main() {}\nstruct S { int a, }",
+                    "struct A {}\nint f() { return 1 }",
+                    "int f() {} garbage int g() {}",
+                    "int f() { s = \"unterminated }\n int g() {}",
+                    "int f() {}\nint g() {} /* unterminated",
+            ]
+    }
+}
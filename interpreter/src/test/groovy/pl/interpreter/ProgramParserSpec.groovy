@@ -1,7 +1,9 @@
 package pl.interpreter;
 
 import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.IntLiteral
 import pl.interpreter.parser.ParserException;
+import pl.interpreter.parser.Position
 import pl.interpreter.parser.PrintVisitor
 import pl.interpreter.parser.ProgramParser;
 import pl.interpreter.parser.TokenManager;
@@ -668,4 +670,16 @@ float getCoordinatesSum(Point p) {
 """
     }
 
+    def "Should materialize positions of nodes on demand"() {
+        given:
+            def function = getProgramParser("\n  int f() {\n    return 7;\n}").parse().getDefinitions()["f"]
+            def returnStatement = function.getBlock().getInstructions()[0]
+        expect:
+            function.getPosition() == new Position(2, 3)
+            returnStatement.getRow() == 3
+            returnStatement.getCol() == 5
+            returnStatement.getExpression().getPosition() == new Position(3, 12)
+            Position.unpack(returnStatement.getPackedPosition()) == new Position(3, 5)
+            new IntLiteral(1, null).getPosition() == null
+    }
 }
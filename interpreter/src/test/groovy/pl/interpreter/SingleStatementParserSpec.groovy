@@ -64,6 +64,14 @@ class SingleStatementParserSpec extends Specification {
         ParserException e = thrown()
     }
 
+    def "Should throw if identifier does not start a statement"() {
+        when:
+        treeStr("a + 1;")
+        then:
+        ParserException e = thrown()
+        e.getMessage() == "Invalid token at row: 1, col: 3"
+    }
+
     def "Should parse assignment"() {
         expect:
         treeStr("a = 1;") == """Assignment <row: 1, col: 3> id=a
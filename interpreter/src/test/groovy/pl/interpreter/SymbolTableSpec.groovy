@@ -0,0 +1,76 @@
+package pl.interpreter
+
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.lexical_analyzer.SymbolTable
+import pl.interpreter.parser.ExpressionParser
+import pl.interpreter.parser.SingleStatementParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class SymbolTableSpec extends Specification {
+
+    def "Should intern words with dense symbols"() {
+        given:
+            def symbolTable = new SymbolTable()
+            def keywordCount = symbolTable.size()
+        expect:
+            symbolTable.getWordTokenType(symbolTable.lookup("while")) == TokenType.KW_WHILE
+            symbolTable.lookup("counter") == SymbolTable.NO_SYMBOL
+            symbolTable.intern("counter") == keywordCount
+            symbolTable.intern(new StringBuilder("counter")) == keywordCount
+            symbolTable.intern("other") == keywordCount + 1
+            symbolTable.getWordTokenType(keywordCount) == TokenType.IDENTIFIER
+            symbolTable.getName(keywordCount).is(symbolTable.getName(symbolTable.intern("counter")))
+    }
+
+    def "Should keep symbols after growing"() {
+        given:
+            def symbolTable = new SymbolTable()
+            def symbols = (0..<1000).collect { symbolTable.intern("id" + it) }
+        expect:
+            (0..<1000).every { symbolTable.lookup("id" + it) == symbols[it] }
+            (0..<1000).every { symbolTable.getName(symbols[it]) == "id" + it }
+    }
+
+    def "Should share identifier instances across occurrences"() {
+        given:
+            def lexer = new LexicalAnalyzer(new StringReader("abc abc"))
+            def first = lexer.getNextToken()
+            def firstSymbol = lexer.getTokenSymbol()
+            def second = lexer.getNextToken()
+        expect:
+            first.value().is(second.value())
+            lexer.getTokenSymbol() == firstSymbol
+            lexer.getSymbolTable().getName(firstSymbol) == "abc"
+    }
+
+    def "Should carry symbols into parsed nodes"() {
+        given:
+            def tokenManager = new TokenManager(TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader("a = f(a.b);"))))
+            def parser = new SingleStatementParser(new ExpressionParser(tokenManager), tokenManager)
+            def symbolTable = tokenManager.getSymbolTable()
+            def assignment = parser.parseSingleStatement().get()
+            def call = assignment.getExpression()
+            def dotAccess = call.getArguments()[0]
+        expect:
+            assignment.getSymbol() == symbolTable.lookup("a")
+            call.getFunctionSymbol() == symbolTable.lookup("f")
+            dotAccess.getFieldSymbol() == symbolTable.lookup("b")
+            dotAccess.getExpression().getSymbol() == symbolTable.lookup("a")
+    }
+
+    def "Should share numbering between views"() {
+        given:
+            def symbolTable = new SymbolTable()
+            def first = symbolTable.newView()
+            def second = symbolTable.newView()
+            def a = first.intern("alpha")
+            def b = second.intern("beta")
+        expect:
+            second.intern("alpha") == a
+            first.lookup("beta") == b
+            first.getName(b) == "beta"
+            symbolTable.getName(a) == "alpha"
+            first.getWordTokenType(first.intern("return")) == TokenType.KW_RETURN
+    }
+}
@@ -0,0 +1,143 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StringValue
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class TieredEngineSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def isCompiled(environment, functionId) {
+        return environment.@functions[functionId].getJitted() != null
+    }
+
+    def compiledLoop(environment, loopIndex) {
+        def loop = environment.@functions["main"].getBlock().getInstructions()[loopIndex]
+        return environment.@loops[loop]?.@compiled
+    }
+
+    def "Should compute the same values once functions are compiled"() {
+        expect:
+        def environment = new Environment(getTree(code), ExecutionEngine.TIERED)
+        environment.executeUserFunction("main", []) == expected
+        Environment.verified(getTree(code), ExecutionEngine.TIERED).executeUserFunction("main", []) == expected
+        isCompiled(environment, "f")
+
+        where:
+        code                                                                                    | expected
+        "int f(int n) { if (n < 2) { return n; } return f(n - 1) + f(n - 2); } int main() { return f(20); }" | new IntValue(6765)
+        "int f(int i) { return i * i % 7 - i / 3; } int main() { var int i = 0; var int s = 0; while (i < 1500) { s = s + f(i); i = i + 1; } return s; }" | new IntValue(-371253)
+        "float f(float a, int i) { return a * 0.5 + i / 2 + (i as float) / 4; } float main() { var float a = 1.0; var int i = 0; while (i < 1500) { a = f(a, i % 10); i = i + 1; } return a; }" | new FloatValue(11.347996)
+        "bool f(int a, float b) { return !(a < b) and (a == 3 or b >= 2.5) and a != 4; } int main() { var int i = 0; var int s = 0; while (i < 1500) { if (f(i % 5, 2.5)) { s = s + 1; } i = i + 1; } return s; }" | new IntValue(300)
+        "int g(int a) { return (((a as float) * 1.5) as int); } void h() { return; } int f(int a) { var int r = 0; while (true) { r = r + g(a); if (r > 10) { h(); return r; } } } int main() { var int i = 0; var int s = 0; while (i < 1500) { s = s + f(i % 4 + 1); i = i + 1; } return s; }" | new IntValue(17625)
+    }
+
+    def "Should leave functions it cannot compile to the interpreter"() {
+        given:
+        def code = """
+struct P { int x }
+string f(int i) { return (i as string) + "!"; }
+int g(P p) { return p.x; }
+string main() {
+    var int i = 0;
+    var int s = 0;
+    while (i < 1500) { s = s + g(P(i)); i = i + 1; }
+    return f(s);
+}"""
+        def environment = new Environment(getTree(code), ExecutionEngine.TIERED)
+        expect:
+        environment.executeUserFunction("main", []) == new StringValue("1124250!")
+        !isCompiled(environment, "g")
+    }
+
+    def "Should report division by zero from compiled code"() {
+        given:
+        def environment = new Environment(getTree("int f(int a, int b) { return a / b; }"), ExecutionEngine.TIERED)
+        (0..<1000).each { environment.executeUserFunction("f", [new IntValue(it), new IntValue(1)]) }
+        when:
+        environment.executeUserFunction("f", [new IntValue(1), new IntValue(0)])
+        then:
+        isCompiled(environment, "f")
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+    }
+
+    def "Should validate arguments of compiled functions"() {
+        given:
+        def environment = new Environment(getTree("int f(int a) { return a; }"), ExecutionEngine.TIERED)
+        (0..<1000).each { environment.executeUserFunction("f", [new IntValue(it)]) }
+        when:
+        environment.executeUserFunction("f", [new FloatValue(1.0)])
+        then:
+        isCompiled(environment, "f")
+        RuntimeException e = thrown()
+        e.getMessage() == "Argument types do not match parameters"
+    }
+
+    def "Should continue hot loops in compiled code"() {
+        given:
+        def environment = new Environment(getTree(code), ExecutionEngine.TIERED)
+        expect:
+        environment.executeUserFunction("main", []) == expected
+        Environment.verified(getTree(code), ExecutionEngine.TIERED).executeUserFunction("main", []) == expected
+        compiledLoop(environment, loopIndex) != null
+
+        where:
+        code                                                                                    | loopIndex | expected
+        "int main() { var int i = 0; var int s = 0; while (i < 100000) { s = s + i % 7; i = i + 1; } return s; }" | 2 | new IntValue(299995)
+        "float main() { var float a = 0.0; var int i = 0; var bool odd = false; while (i < 5000) { int j = i * 2; if (odd) { a = a + (j as float) / 3.0; } odd = !odd; i = i + 1; } return a + i; }" | 3 | new FloatValue(4171666.8)
+        "int main() { var int i = 0; while (true) { i = i + 1; if (i == 4321) { return i * 2; } } }" | 1 | new IntValue(8642)
+        "int g(int a) { return a + 1; } int main() { var int i = 0; var int n = 0; while (i < 2000) { var int k = 0; while (k < 3) { n = g(n); k = k + 1; } i = i + 1; } return n; }" | 2 | new IntValue(6000)
+    }
+
+    def "Should count and compile loops of each environment separately"() {
+        given:
+        def program = getTree("int main() { var int i = 0; while (i < 1500) { i = i + 1; } return i; }")
+        def first = new Environment(program, ExecutionEngine.TIERED)
+        def second = new Environment(program, ExecutionEngine.TIERED)
+        expect:
+        first.executeUserFunction("main", []) == new IntValue(1500)
+        compiledLoop(first, 1) != null
+        second.@loops.isEmpty()
+        second.executeUserFunction("main", []) == new IntValue(1500)
+        compiledLoop(second, 1) != null
+        !compiledLoop(second, 1).is(compiledLoop(first, 1))
+    }
+
+    def "Should leave loops it cannot compile to the tree walker"() {
+        given:
+        def program = getTree("""
+string main() {
+    var int i = 0;
+    var string s = "";
+    while (i < 1500) {
+        if (i % 500 == 0) { s = s + "."; }
+        i = i + 1;
+    }
+    return s;
+}""")
+        def environment = new Environment(program, ExecutionEngine.TIERED)
+        expect:
+        environment.executeUserFunction("main", []) == new StringValue("...")
+        compiledLoop(environment, 2) == null
+    }
+
+    def "Should report division by zero from a compiled loop"() {
+        when:
+        new Environment(getTree("int main() { var int i = 2000; var int s = 0; while (true) { s = s + 100 / i; i = i - 1; } }"),
+                ExecutionEngine.TIERED).executeUserFunction("main", [])
+        then:
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+    }
+}
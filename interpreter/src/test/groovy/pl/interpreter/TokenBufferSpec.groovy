@@ -0,0 +1,107 @@
+package pl.interpreter
+
+import java.nio.file.Files
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.PrintVisitor
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class TokenBufferSpec extends Specification {
+
+    def getAllTokens(LexicalAnalyzer lexicalAnalyzer) {
+        def tokens = []
+        def token
+        do {
+            token = lexicalAnalyzer.getNextToken()
+            if (token.type() != TokenType.COMMENT) {
+                tokens << token
+            }
+        } while (token.type() != TokenType.EOF)
+        return tokens
+    }
+
+    def treeStr(TokenManager tokenManager) {
+        var writer = new StringWriter()
+        (new PrintVisitor(writer)).visit(new ProgramParser(tokenManager).parse())
+        return writer.toString()
+    }
+
+    def "Should store the same tokens as the lexer produces"() {
+        given:
+            def expected = getAllTokens(new LexicalAnalyzer(Files.newBufferedReader(LexicalAnalyzerSpec.sourceCode1)))
+            def buffer = TokenBuffer.tokenize(new LexicalAnalyzer(Files.newBufferedReader(LexicalAnalyzerSpec.sourceCode1)))
+        expect:
+            buffer.size() == expected.size()
+            (0..<buffer.size()).every { buffer.getToken(it) == expected[it] }
+    }
+
+    def "Should record token offsets and lengths"() {
+        given:
+            def code = "int a = 12; // c\nstring b = \"xy\";"
+            def buffer = TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(code)))
+        expect:
+            (0..<buffer.size() - 1).collect { code.substring(buffer.getStart(it), buffer.getStart(it) + buffer.getLength(it)) } ==
+                    ["int", "a", "=", "12", ";", "string", "b", "=", "\"xy\"", ";"]
+            buffer.getType(buffer.size() - 1) == TokenType.EOF
+            buffer.getInt(3) == 12
+            buffer.getString(8) == "xy"
+    }
+
+    def "Should grow past initial capacity"() {
+        given:
+            def buffer = new TokenBuffer(1)
+            def lexer = new LexicalAnalyzer(new StringReader("a + 1.5 - b"))
+            getAllTokens(lexer).each { buffer.add(it, 0, 0) }
+        expect:
+            buffer.size() == 6
+            buffer.getValue(1) == '+' as char
+            TestUtils.isClose(buffer.getFloat(2), 1.5f)
+            buffer.getValue(4) == "b"
+            buffer.getValue(5) == null
+    }
+
+    def "Should parse from token buffer the same as from lexer"() {
+        given:
+            def code = Files.readString(LexicalAnalyzerSpec.sourceCode1)
+            def streamed = treeStr(new TokenManager(new LexicalAnalyzer(new StringReader(code))))
+            def buffered = treeStr(new TokenManager(TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(code)))))
+        expect:
+            buffered == streamed
+    }
+
+    def "Should peek tokens ahead without consuming them"() {
+        given:
+            def code = "a /* c */ = f(1);"
+            def streamed = new TokenManager(new LexicalAnalyzer(new StringReader(code)))
+            def buffered = new TokenManager(TokenBuffer.tokenize(new LexicalAnalyzer(new StringReader(code))))
+        expect:
+            [streamed, buffered].every { tokenManager ->
+                def peeked = (0..3).collect { tokenManager.peekType(it) }
+                def types = []
+                while (tokenManager.getCurrentType() != TokenType.EOF) {
+                    types << tokenManager.getCurrentType()
+                    tokenManager.next()
+                }
+                peeked == [TokenType.IDENTIFIER, TokenType.ASSIGNMENT, TokenType.IDENTIFIER, TokenType.LEFT_PARENTHESES] &&
+                        types == [TokenType.IDENTIFIER, TokenType.ASSIGNMENT, TokenType.IDENTIFIER,
+                                  TokenType.LEFT_PARENTHESES, TokenType.INT_CONST, TokenType.RIGHT_PARENTHESES, TokenType.SEMICOLON] &&
+                        tokenManager.peekType(3) == TokenType.EOF
+            }
+    }
+
+    def "Should keep current token attributes while peeking"() {
+        given:
+            def tokenManager = new TokenManager(new LexicalAnalyzer(new StringReader("x 12 \"s\"")))
+            tokenManager.peekType(2)
+            def first = [tokenManager.getCurrentString(), tokenManager.getCurrentCol(), tokenManager.getCurrentToken()]
+            tokenManager.next()
+            def second = [tokenManager.getCurrentInt(), tokenManager.getCurrentCol()]
+            tokenManager.next()
+        expect:
+            first == ["x", 1, new Token(TokenType.IDENTIFIER, "x", 1, 1)]
+            second == [12, 3]
+            tokenManager.getCurrentString() == "s"
+            tokenManager.peekType(1) == TokenType.EOF
+    }
+}
@@ -0,0 +1,141 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.exceptions.ExpressionEvaluationException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.parser.VariableType
+import pl.interpreter.semantic_analyzer.SemanticException
+import pl.interpreter.semantic_analyzer.TypeChecker
+import spock.lang.Specification
+
+class TypeCheckerSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def check(code) {
+        var program = getTree(code)
+        new TypeChecker(program).check()
+        return program
+    }
+
+    def "Should annotate expressions with resolved types"() {
+        given:
+        def program = check("""
+struct Point { int x, float y }
+float main() {
+    Point p = Point(1, 2.5);
+    return p.x + p.y * 2;
+}""")
+        def returned = program.getDefinitions()["main"].getBlock().getInstructions()[1].getExpression()
+        expect:
+        returned.getResolvedType() == VariableType.FLOAT
+        returned.getLeft().getResolvedType() == VariableType.INT
+        returned.getRight().getResolvedType() == VariableType.FLOAT
+        returned.getLeft().getExpression().getResolvedType() == VariableType.USER_TYPE
+    }
+
+    def "Should accept well typed programs"() {
+        expect:
+        check(code)
+
+        where:
+        code << [
+                "",
+                "int main() { var int a = 1; a = a + 2; return a; }",
+                "void f() { return; } int main() { f(); return 0; }",
+                "string f(int a) { return (((a as float) / 2.0) as string) + \"!\"; }",
+                "bool f(int a, float b) { return a < b and !(a == 1) or false; }",
+                "int main() { int a = 1; if (true) { int a = 2; } return a; }",
+                "struct A { int a } struct B { A a } variant V { A, B } V f(B b) { return b.a; }",
+        ]
+    }
+
+    def "Should reject ill typed programs"() {
+        when:
+        check(code)
+        then:
+        SemanticException e = thrown()
+        e.getMessage() == message
+
+        where:
+        code                                                      | message
+        "int main() { return 1.5; }"                              | "Expected int, got float at row: 1, col: 14"
+        "int main() { int a = 1; a = 2; return a; }"              | "Variable \"a\" is immutable at row: 1, col: 27"
+        "int main() { return b; }"                                | "Could not resolve variable: \"b\" at row: 1, col: 21"
+        "int main() { return \"a\" - \"b\"; }"                    | "Expected \"+\" operator at row: 1, col: 21"
+        "int main() { return 1 + true; }"                         | "Only int and float operands are allowed, got int and boolean at row: 1, col: 21"
+        "void main() { if (1) { return; } }"                      | "Expected boolean, got int at row: 1, col: 19"
+        "void main() { return 1; }"                               | "Void function can not return a value at row: 1, col: 15"
+        "void f() {} int main() { int a = f(); return a; }"       | "Void function call does not have a value at row: 1, col: 34"
+        "int f(int a) { return a; } int main() { return f(); }"   | "Function \"f\" expects 1 arguments, got 0 at row: 1, col: 48"
+        "int main() { return g(); }"                              | "Function \"g\" does not exist at row: 1, col: 21"
+        "int main() { int a = 1; int a = 2; return a; }"          | "Variable \"a\" is already defined in this scope at row: 1, col: 25"
+        "struct A { int a } int main() { A v = A(1); return v.b; }" | "Structure A does not have a field: b at row: 1, col: 52"
+        "int main() { Unknown u = 1; return 0; }"                 | "Unknown type \"Unknown\" at row: 1, col: 22"
+        "bool main() { return 1 as bool; }"                       | "Can't cast to boolean values at row: 1, col: 22"
+        "variant V { A }"                                         | "Variant member \"A\" is not a structure at row: 1, col: 1"
+    }
+
+    def "Should execute verified programs like checked ones"() {
+        given:
+        def code = """
+struct Point { int x, float y }
+int fib(int n) {
+    if (n == 0 or n == 1) {
+        return n;
+    }
+    return fib(n - 1) + fib(n - 2);
+}
+float main() {
+    var int i = 0;
+    var float sum = 0.0;
+    while (i < 20) {
+        sum = sum + i * 3 % 7 - 1.5 / 2;
+        if (sum > 10 and !(i < 5)) {
+            float i = 100.0;
+            sum = sum - i;
+        }
+        i = i + 1;
+    }
+    Point p = Point(fib(10), sum);
+    return p.x + p.y;
+}"""
+        def checked = new Environment(getTree(code)).executeUserFunction("main", [])
+        def verified = Environment.verified(getTree(code)).executeUserFunction("main", [])
+        expect:
+        checked in FloatValue
+        verified == checked
+    }
+
+    def "Should still reject division by zero in verified mode"() {
+        given:
+        def environment = Environment.verified(getTree("int main() { int a = 0; return 1 / a; }"))
+        when:
+        environment.executeUserFunction("main", [])
+        then:
+        ExpressionEvaluationException e = thrown()
+        e.getMessage() == "Division by zero is forbidden"
+    }
+
+    def "Should not create verified environment for ill typed program"() {
+        when:
+        Environment.verified(getTree("int main() { return 1 + \"a\"; }"))
+        then:
+        SemanticException e = thrown()
+        e.getMessage() == "Only int and float operands are allowed, got int and string at row: 1, col: 21"
+    }
+
+    def "Should compare floats with ints in both modes"() {
+        given:
+        def code = "int main() { if (3.0 > 1) { return 1; } return 0; }"
+        expect:
+        new Environment(getTree(code)).executeUserFunction("main", []) == new IntValue(1)
+        Environment.verified(getTree(code)).executeUserFunction("main", []) == new IntValue(1)
+    }
+}
@@ -0,0 +1,83 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.FloatValue
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.StringValue
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.TokenManager
+import spock.lang.Specification
+
+class UserFunctionCallingVisitorSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def run(code) {
+        return new Environment(getTree(code)).executeUserFunction("main", [])
+    }
+
+    def failure(code) {
+        try {
+            run(code)
+        } catch (RuntimeException e) {
+            return e.getMessage()
+        }
+        return null
+    }
+
+    def "Should execute statements of user functions"() {
+        expect:
+        run(code) == expected
+
+        where:
+        code                                                                                    | expected
+        "int main() { var int i = 0; var int s = 0; while (i < 5) { s = s + i; i = i + 1; } return s; }" | new IntValue(10)
+        "int main() { var int a = 1; if (a > 1) { a = 2; } else { a = 3; } return a; }"          | new IntValue(3)
+        "int main() { var int a = 1; { var int a = 5; a = a + 1; } return a; }"                 | new IntValue(1)
+        "int main() { var int a = 1; { a = 7; } return a; }"                                    | new IntValue(7)
+        "int main() { while (true) { return 4; } }"                                             | new IntValue(4)
+        "int twice(int a) { return a * 2; } int main() { return twice(twice(3)); }"             | new IntValue(12)
+        "float half(int a) { return a / 2.0; } float main() { return half(3); }"                | new FloatValue(1.5)
+        "string main() { string s = \"a\"; return s + \"b\"; }"                                   | new StringValue("ab")
+        "void f() { return; } int main() { f(); return 1; }"                                    | new IntValue(1)
+    }
+
+    def "Should run the branch matching the structure"() {
+        given:
+        def code = """
+struct A { int a }
+struct B { int b }
+variant V { A, B }
+int main() {
+    return value(A(1)) + value(B(2)) * 10;
+}
+int value(V v) {
+    match (v) {
+        A a -> { return a.a; }
+        default -> { return 4; }
+    }
+}"""
+        expect:
+        run(code) == new IntValue(41)
+    }
+
+    def "Should report errors of executed statements"() {
+        expect:
+        failure(code) == message
+
+        where:
+        code                                                                | message
+        "int main() { var int a = 1; a = \"a\"; return a; }"                | "Changing variable type is forbidden"
+        "int main() { int a = \"a\"; return 0; }"                           | "Value does not match type of variable \"a\""
+        "int main() { var int a = 1; if (a) { return 1; } return 0; }"     | "Expected boolean"
+        "int main() { { int a = 1; } return a; }"                          | "Could not resolve variable: \"a\" in this context"
+        "int main() { b = 1; return 0; }"                                   | "Could not resolve variable: \"b\" in this context"
+        "int f(int a) { return a; } int main() { return f(); }"            | "Argument count does not match parameters"
+        "int f(int a) { return a; } int main() { return f(\"a\"); }"       | "Argument types do not match parameters"
+        "int main() { return g(); }"                                        | "Function \"g\" does not exist"
+        "int main() { var int a = 1; match (a) { default -> { return 1; } } }" | "Only structures can be matched"
+    }
+}
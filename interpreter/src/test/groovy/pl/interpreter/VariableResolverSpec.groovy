@@ -0,0 +1,152 @@
+package pl.interpreter
+
+import pl.interpreter.executor.Environment
+import pl.interpreter.executor.ExecutionEngine
+import pl.interpreter.executor.IntValue
+import pl.interpreter.executor.exceptions.EnvironmentException
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer
+import pl.interpreter.parser.ProgramParser
+import pl.interpreter.parser.Statement
+import pl.interpreter.parser.TokenManager
+import pl.interpreter.semantic_analyzer.VariableResolver
+import spock.lang.Specification
+
+class VariableResolverSpec extends Specification {
+
+    def getTree(code) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(code)))).parse()
+    }
+
+    def resolve(function) {
+        return new VariableResolver().resolve(function.getParameters().collect { it.getId() }, function.getBlock())
+    }
+
+    def "Should assign parameters and locals frame slots"() {
+        given:
+        def function = getTree("""
+int f(int a, int b) {
+    int c = a;
+    if (true) {
+        int a = b;
+        c = a;
+    }
+    { int d = 1; int e = d; }
+    return c + a;
+}""").getDefinitions()["f"]
+        def frameSize = resolve(function)
+        def instructions = function.getBlock().getInstructions()
+        def ifBlock = instructions[1].getInstruction().getInstructions()
+        def siblingBlock = instructions[2].getInstructions()
+        def returned = instructions[3].getExpression()
+        expect:
+        frameSize == 5
+        instructions[0].getSlot() == 2
+        instructions[0].getExpression().getSlot() == 0
+        ifBlock[0].getSlot() == 3
+        ifBlock[0].getExpression().getSlot() == 1
+        ifBlock[1].getSlot() == 2
+        ifBlock[1].getExpression().getSlot() == 3
+        siblingBlock[0].getSlot() == 3
+        siblingBlock[1].getSlot() == 4
+        siblingBlock[1].getExpression().getSlot() == 3
+        returned.getLeft().getSlot() == 2
+        returned.getRight().getSlot() == 0
+    }
+
+    def "Should leave unknown names unresolved"() {
+        given:
+        def function = getTree("int f() { { int a = 1; } x = a; return x; }").getDefinitions()["f"]
+        resolve(function)
+        def assignment = function.getBlock().getInstructions()[1]
+        expect:
+        assignment.getSlot() == Statement.NO_SLOT
+        assignment.getExpression().getSlot() == Statement.NO_SLOT
+    }
+
+    def "Should execute functions with variables in frame slots"() {
+        given:
+        def code = """
+int fib(int n) {
+    if (n < 2) {
+        return n;
+    }
+    int a = fib(n - 1);
+    int b = fib(n - 2);
+    return a + b;
+}
+int main() {
+    var int sum = 0;
+    var int i = 0;
+    while (i < 10) {
+        int j = i * 2;
+        sum = sum + j;
+        i = i + 1;
+    }
+    if (true) {
+        int sum = 1000;
+    }
+    { int other = 1; }
+    { var int reused = 2; reused = reused + sum; sum = reused; }
+    return sum + fib(10);
+}"""
+        expect:
+        new Environment(getTree(code)).executeUserFunction("main", []) == new IntValue(147)
+        Environment.verified(getTree(code)).executeUserFunction("main", []) == new IntValue(147)
+    }
+
+    def "Should report variables out of scope"() {
+        when:
+        new Environment(getTree("int main() { { int a = 1; } return a; }")).executeUserFunction("main", [])
+        then:
+        EnvironmentException e = thrown()
+        e.getMessage() == "Could not resolve variable: \"a\" in this context"
+    }
+
+    def "Should not change type of a variable in a slot"() {
+        when:
+        new Environment(getTree("int main() { var int a = 1; a = \"a\"; return 0; }")).executeUserFunction("main", [])
+        then:
+        EnvironmentException e = thrown()
+        e.getMessage() == "Changing variable type is forbidden"
+    }
+
+    def "Should keep the slot of a variable declared again in its scope"() {
+        given:
+        def function = getTree("int f() { int a = 1; int a = 2; { int a = 3; } return a; }").getDefinitions()["f"]
+        def frameSize = resolve(function)
+        def instructions = function.getBlock().getInstructions()
+        expect:
+        frameSize == 2
+        instructions[1].getSlot() == instructions[0].getSlot()
+        instructions[1].isRedeclaration()
+        !instructions[0].isRedeclaration()
+        instructions[2].getInstructions()[0].getSlot() == 1
+        !instructions[2].getInstructions()[0].isRedeclaration()
+    }
+
+    def "Should not change type of a variable declared again in its scope"() {
+        given:
+        // enough calls for the tiered engine to compile the function
+        def calls = 1001
+        expect:
+        ExecutionEngine.values().every { engine ->
+            def environment = new Environment(getTree(code), engine)
+            (1..calls).collect { outcome(environment) }.every { it == result }
+        }
+
+        where:
+        code                                                                    | result
+        "int main() { int x = 1; string x = \"a\"; return 0; }"                 | "Changing variable type is forbidden"
+        "int main() { var int x = 1; x = 2; float x = 1.5; return 0; }"         | "Changing variable type is forbidden"
+        "int main() { int x = 1; int x = x + 1; return x; }"                    | new IntValue(2)
+        "int main() { int x = 1; { string x = \"a\"; } int x = 3; return x; }"  | new IntValue(3)
+    }
+
+    def outcome(environment) {
+        try {
+            return environment.executeUserFunction("main", [])
+        } catch (EnvironmentException e) {
+            return e.getMessage()
+        }
+    }
+}
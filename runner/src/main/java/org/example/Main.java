@@ -1,10 +1,51 @@
 package org.example;
 
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import org.example.dump.AstDumper;
+import org.example.dump.DumpFormat;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzerException;
+import pl.interpreter.parser.ParserException;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
 public class Main {
+
+    private static final String FORMAT_OPTION = "--format";
+    private static final String USAGE = "Usage: runner [--format tree|json|binary] < source";
+
     /**
      * Print AST of standard input
-     * @param args
+     * @param args optional {@code --format tree|json|binary}, tree by default
      */
     public static void main(String[] args) {
+        DumpFormat format;
+        try {
+            format = parseFormat(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        try {
+            var program = new ProgramParser(new TokenManager(new LexicalAnalyzer(
+                    new InputStreamReader(System.in, StandardCharsets.UTF_8)))).parse();
+            new AstDumper(format, System.out).dump(program);
+        } catch (ParserException | LexicalAnalyzerException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static DumpFormat parseFormat(String[] args) {
+        if (args.length == 0) {
+            return DumpFormat.TREE;
+        }
+        if (args.length == 2 && args[0].equals(FORMAT_OPTION)) {
+            return DumpFormat.parse(args[1]);
+        }
+        throw new IllegalArgumentException("Unexpected arguments");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,300 @@
+package org.example.dump;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import pl.interpreter.parser.Alternative;
+import pl.interpreter.parser.Assignment;
+import pl.interpreter.parser.Block;
+import pl.interpreter.parser.BooleanLiteral;
+import pl.interpreter.parser.Cast;
+import pl.interpreter.parser.Conjunction;
+import pl.interpreter.parser.Definition;
+import pl.interpreter.parser.DotAccess;
+import pl.interpreter.parser.FloatLiteral;
+import pl.interpreter.parser.FunctionCall;
+import pl.interpreter.parser.FunctionDefinition;
+import pl.interpreter.parser.Identifier;
+import pl.interpreter.parser.IfStatement;
+import pl.interpreter.parser.Initialization;
+import pl.interpreter.parser.IntLiteral;
+import pl.interpreter.parser.MatchBranch;
+import pl.interpreter.parser.MatchStatement;
+import pl.interpreter.parser.Multiplication;
+import pl.interpreter.parser.Negation;
+import pl.interpreter.parser.Parameter;
+import pl.interpreter.parser.Position;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.Relation;
+import pl.interpreter.parser.ReturnStatement;
+import pl.interpreter.parser.Statement;
+import pl.interpreter.parser.StringLiteral;
+import pl.interpreter.parser.StructureDefinition;
+import pl.interpreter.parser.Sum;
+import pl.interpreter.parser.UnknownNodeException;
+import pl.interpreter.parser.VariantDefinition;
+import pl.interpreter.parser.WhileStatement;
+
+/**
+ * Writes a program in one of {@link DumpFormat}s. Nodes are walked in preorder with an explicit stack, so deeply
+ * nested programs do not overflow the call stack, and written through a buffer reused by all dumps. Definitions are
+ * ordered by id, parameters and variant members are written without positions, as by
+ * {@link pl.interpreter.parser.PrintVisitor}.
+ */
+public class AstDumper {
+
+    private static final int INITIAL_STACK_CAPACITY = 64;
+
+    private static final String ID = "id";
+    private static final String TYPE = "type";
+    private static final String VALUE = "value";
+    private static final String OPERATOR = "operator";
+    private static final String FUNCTION_ID = "function_id";
+    private static final String FIELD_NAME = "field_name";
+    private static final String RETURN_TYPE = "return_type";
+    private static final String USER_TYPE = "user_type";
+    private static final String PARAMETER_USER_TYPE = "userType";
+    private static final String VAR = "var";
+
+    private final DumpFormat format;
+    private final DumpBuffer buffer;
+    private NodeWriter writer;
+    // nodes waiting to be written, variant members are their structure id strings
+    private Object[] stackNodes = new Object[INITIAL_STACK_CAPACITY];
+    private int[] stackLevels = new int[INITIAL_STACK_CAPACITY];
+    private int stackSize;
+    private Program program;
+    // of the definition being written, its nodes are written before the next one is popped
+    private int rowOffset;
+
+    public AstDumper(DumpFormat format, OutputStream out) {
+        this.format = format;
+        this.buffer = new DumpBuffer(out);
+    }
+
+    public void dump(Program program) {
+        writer = format.createWriter(buffer);
+        this.program = program;
+        rowOffset = 0;
+        push(program, 0);
+        while (stackSize > 0) {
+            --stackSize;
+            var node = stackNodes[stackSize];
+            var level = stackLevels[stackSize];
+            stackNodes[stackSize] = null;
+            if (node instanceof String structureId) {
+                writer.beginNode("Type", level, Position.NONE);
+                writer.attribute(ID, structureId);
+                writer.endNode();
+            } else {
+                writeNode((Statement) node, level);
+            }
+        }
+        buffer.flush();
+    }
+
+    private void writeNode(Statement node, int level) {
+        var childLevel = level + 1;
+        switch (node) {
+            case Program program -> {
+                begin(program, level);
+                writer.endNode();
+                var definitions = program.getDefinitions().values().toArray(new Definition[0]);
+                Arrays.sort(definitions, Comparator.comparing(Definition::getId));
+                for (var i = definitions.length - 1; i >= 0; --i) {
+                    push(definitions[i], childLevel);
+                }
+            }
+            case FunctionDefinition functionDefinition -> {
+                rowOffset = program.getRowOffset(functionDefinition);
+                begin(functionDefinition, level);
+                writer.attribute(ID, functionDefinition.getId());
+                writer.attribute(RETURN_TYPE, functionDefinition.getReturnType().type().toString());
+                if (functionDefinition.getReturnType().userType() != null) {
+                    writer.attribute(USER_TYPE, functionDefinition.getReturnType().userType());
+                }
+                writer.endNode();
+                push(functionDefinition.getBlock(), childLevel);
+                pushAll(functionDefinition.getParameters().toArray(), childLevel);
+            }
+            case StructureDefinition structureDefinition -> {
+                rowOffset = program.getRowOffset(structureDefinition);
+                begin(structureDefinition, level);
+                writer.attribute(ID, structureDefinition.getId());
+                writer.endNode();
+                pushAll(structureDefinition.getParameters().toArray(), childLevel);
+            }
+            case VariantDefinition variantDefinition -> {
+                rowOffset = program.getRowOffset(variantDefinition);
+                begin(variantDefinition, level);
+                writer.attribute(ID, variantDefinition.getId());
+                writer.endNode();
+                pushAll(variantDefinition.getStructureIds().toArray(), childLevel);
+            }
+            case Parameter parameter -> {
+                writer.beginNode("Parameter", level, Position.NONE);
+                writer.attribute(ID, parameter.getId());
+                writer.attribute(TYPE, parameter.getType().variableType().toString());
+                if (parameter.getType().userType() != null) {
+                    writer.attribute(PARAMETER_USER_TYPE, parameter.getType().userType());
+                }
+                writer.endNode();
+            }
+            case Block block -> {
+                begin(block, level);
+                writer.endNode();
+                pushAll(block.getInstructions().toArray(), childLevel);
+            }
+            case ReturnStatement returnStatement -> {
+                begin(returnStatement, level);
+                writer.endNode();
+                if (returnStatement.getExpression() != null) {
+                    push(returnStatement.getExpression(), childLevel);
+                }
+            }
+            case Assignment assignment -> {
+                begin(assignment, level);
+                writer.attribute(ID, assignment.getId());
+                writer.endNode();
+                push(assignment.getExpression(), childLevel);
+            }
+            case Initialization initialization -> {
+                begin(initialization, level);
+                writer.attribute(ID, initialization.getId());
+                writer.attribute(VAR, String.valueOf(initialization.isVar()));
+                writer.attribute(TYPE, initialization.getType().toString());
+                if (initialization.getUserType() != null) {
+                    writer.attribute(USER_TYPE, initialization.getUserType());
+                }
+                writer.endNode();
+                push(initialization.getExpression(), childLevel);
+            }
+            case IfStatement ifStatement -> {
+                begin(ifStatement, level);
+                writer.endNode();
+                if (ifStatement.getElseInstruction() != null) {
+                    push(ifStatement.getElseInstruction(), childLevel);
+                }
+                push(ifStatement.getInstruction(), childLevel);
+                push(ifStatement.getExpression(), childLevel);
+            }
+            case WhileStatement whileStatement -> {
+                begin(whileStatement, level);
+                writer.endNode();
+                push(whileStatement.getInstruction(), childLevel);
+                push(whileStatement.getExpression(), childLevel);
+            }
+            case MatchStatement matchStatement -> {
+                begin(matchStatement, level);
+                writer.endNode();
+                pushAll(matchStatement.getBranches().toArray(), childLevel);
+                push(matchStatement.getExpression(), childLevel);
+            }
+            case MatchBranch matchBranch -> {
+                begin(matchBranch, level);
+                writer.attribute(TYPE, matchBranch.getStructureId());
+                writer.attribute(FIELD_NAME, matchBranch.getFieldName());
+                writer.endNode();
+                push(matchBranch.getInstruction(), childLevel);
+            }
+            case FunctionCall functionCall -> {
+                begin(functionCall, level);
+                writer.attribute(FUNCTION_ID, functionCall.getFunctionId());
+                writer.endNode();
+                pushAll(functionCall.getArguments().toArray(), childLevel);
+            }
+            case Alternative alternative ->
+                    writeBinary(alternative, level, alternative.getLeft(), alternative.getRight());
+            case Conjunction conjunction ->
+                    writeBinary(conjunction, level, conjunction.getLeft(), conjunction.getRight());
+            case Relation relation -> {
+                begin(relation, level);
+                writer.quotedAttribute(OPERATOR, relation.getOperator().toString());
+                writer.endNode();
+                pushPair(relation.getLeft(), relation.getRight(), childLevel);
+            }
+            case Sum sum -> {
+                begin(sum, level);
+                writer.quotedAttribute(OPERATOR, sum.getOperator().toString());
+                writer.endNode();
+                pushPair(sum.getLeft(), sum.getRight(), childLevel);
+            }
+            case Multiplication multiplication -> {
+                begin(multiplication, level);
+                writer.quotedAttribute(OPERATOR, multiplication.getOperator().toString());
+                writer.endNode();
+                pushPair(multiplication.getLeft(), multiplication.getRight(), childLevel);
+            }
+            case Cast cast -> {
+                begin(cast, level);
+                writer.attribute(TYPE, cast.getToType().toString());
+                writer.endNode();
+                push(cast.getExpression(), childLevel);
+            }
+            case Negation negation -> {
+                begin(negation, level);
+                writer.endNode();
+                push(negation.getExpression(), childLevel);
+            }
+            case DotAccess dotAccess -> {
+                begin(dotAccess, level);
+                writer.attribute(FIELD_NAME, dotAccess.getFieldName());
+                writer.endNode();
+                push(dotAccess.getExpression(), childLevel);
+            }
+            case Identifier identifier -> writeLeaf(identifier, level, ID, identifier.getValue());
+            case BooleanLiteral booleanLiteral -> writeLeaf(booleanLiteral, level, VALUE,
+                    String.valueOf(booleanLiteral.isTruthy()));
+            case FloatLiteral floatLiteral -> writeLeaf(floatLiteral, level, VALUE,
+                    String.valueOf(floatLiteral.getValue()));
+            case StringLiteral stringLiteral -> writeLeaf(stringLiteral, level, VALUE, stringLiteral.getValue());
+            case IntLiteral intLiteral -> {
+                begin(intLiteral, level);
+                writer.attribute(VALUE, intLiteral.getValue());
+                writer.endNode();
+            }
+            default -> throw new UnknownNodeException();
+        }
+    }
+
+    private void begin(Statement node, int level) {
+        var position = node.getPackedPosition();
+        if (rowOffset != 0 && position != Position.NONE) {
+            position = Position.pack(Position.rowOf(position) + rowOffset, Position.colOf(position));
+        }
+        writer.beginNode(node.getClass().getSimpleName(), level, position);
+    }
+
+    private void writeBinary(Statement node, int level, Object left, Object right) {
+        begin(node, level);
+        writer.endNode();
+        pushPair(left, right, level + 1);
+    }
+
+    private void writeLeaf(Statement node, int level, String name, String value) {
+        begin(node, level);
+        writer.attribute(name, value);
+        writer.endNode();
+    }
+
+    private void pushPair(Object left, Object right, int level) {
+        push(right, level);
+        push(left, level);
+    }
+
+    // children are pushed last to first, so they are popped in order
+    private void pushAll(Object[] children, int level) {
+        for (var i = children.length - 1; i >= 0; --i) {
+            push(children[i], level);
+        }
+    }
+
+    private void push(Object node, int level) {
+        if (stackSize == stackNodes.length) {
+            stackNodes = Arrays.copyOf(stackNodes, stackSize * 2);
+            stackLevels = Arrays.copyOf(stackLevels, stackSize * 2);
+        }
+        stackNodes[stackSize] = node;
+        stackLevels[stackSize++] = level;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.dump;
+
+import java.util.HashMap;
+import java.util.Map;
+import pl.interpreter.parser.Position;
+
+/**
+ * Compact binary form. The dump starts with magic bytes "PLAD" and a version byte, then every node is written as
+ * its kind, varint level, varint row and col (both 0 if unknown), varint attribute count and name and value of each
+ * attribute. Int values are written as decimal strings. Strings are deduplicated while streaming: varint 0 stands
+ * for null, 1 is followed by varint UTF-8 length and bytes of a new string, n + 2 refers to the n-th new string.
+ */
+final class BinaryNodeWriter implements NodeWriter {
+
+    static final byte[] MAGIC = {'P', 'L', 'A', 'D'};
+    static final int VERSION = 1;
+    private static final int MAX_ATTRIBUTES = 8;
+
+    private final DumpBuffer buffer;
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    // attributes are counted before they are written, so they wait here until the node ends
+    private final String[] names = new String[MAX_ATTRIBUTES];
+    private final String[] values = new String[MAX_ATTRIBUTES];
+    private int attributeCount;
+
+    BinaryNodeWriter(DumpBuffer buffer) {
+        this.buffer = buffer;
+        for (var b : MAGIC) {
+            buffer.writeByte(b);
+        }
+        buffer.writeByte(VERSION);
+    }
+
+    @Override
+    public void beginNode(String kind, int level, long position) {
+        writeString(kind);
+        buffer.writeVarInt(level);
+        buffer.writeVarInt(position == Position.NONE ? 0 : Position.rowOf(position));
+        buffer.writeVarInt(position == Position.NONE ? 0 : Position.colOf(position));
+        attributeCount = 0;
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        names[attributeCount] = name;
+        values[attributeCount++] = value;
+    }
+
+    @Override
+    public void attribute(String name, int value) {
+        attribute(name, Integer.toString(value));
+    }
+
+    @Override
+    public void quotedAttribute(String name, String value) {
+        attribute(name, value);
+    }
+
+    @Override
+    public void endNode() {
+        buffer.writeVarInt(attributeCount);
+        for (var i = 0; i < attributeCount; ++i) {
+            writeString(names[i]);
+            writeString(values[i]);
+            names[i] = null;
+            values[i] = null;
+        }
+    }
+
+    private void writeString(String string) {
+        if (string == null) {
+            buffer.writeVarInt(0);
+            return;
+        }
+        var index = stringIndexes.get(string);
+        if (index != null) {
+            buffer.writeVarInt(index + 2);
+            return;
+        }
+        stringIndexes.put(string, stringIndexes.size());
+        buffer.writeVarInt(1);
+        buffer.writeVarInt(DumpBuffer.utf8Length(string));
+        buffer.writeUtf8(string);
+    }
+}
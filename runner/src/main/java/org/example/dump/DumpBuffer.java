@@ -0,0 +1,166 @@
+package org.example.dump;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Byte buffer in front of an output stream. Numbers are formatted and strings encoded to UTF-8 straight into the
+ * buffer, so writing a node allocates nothing.
+ */
+final class DumpBuffer {
+
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    // longest UTF-8 encoding of a code point, varint or decimal int
+    private static final int MAX_ENCODED_LENGTH = 11;
+
+    private final OutputStream out;
+    private final byte[] bytes;
+    private int size;
+
+    DumpBuffer(OutputStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    DumpBuffer(OutputStream out, int capacity) {
+        this.out = out;
+        this.bytes = new byte[Math.max(capacity, MAX_ENCODED_LENGTH)];
+    }
+
+    void writeByte(int b) {
+        ensure(1);
+        bytes[size++] = (byte) b;
+    }
+
+    // string must consist of ASCII characters only
+    void writeAscii(String string) {
+        var length = string.length();
+        for (var i = 0; i < length; ++i) {
+            if (size == bytes.length) {
+                drain();
+            }
+            bytes[size++] = (byte) string.charAt(i);
+        }
+    }
+
+    void writeUtf8(String string) {
+        var length = string.length();
+        for (var i = 0; i < length; ++i) {
+            var c = string.charAt(i);
+            if (c < 0x80) {
+                if (size == bytes.length) {
+                    drain();
+                }
+                bytes[size++] = (byte) c;
+            } else {
+                ensure(MAX_ENCODED_LENGTH);
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    writeCodePoint(Character.toCodePoint(c, string.charAt(++i)));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[size++] = '?';
+                } else {
+                    writeCodePoint(c);
+                }
+            }
+        }
+    }
+
+    // unpaired surrogates are written as '?'
+    static int utf8Length(String string) {
+        var length = string.length();
+        var encoded = length;
+        for (var i = 0; i < length; ++i) {
+            var c = string.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    encoded += 2;
+                    ++i;
+                } else {
+                    encoded += Character.isSurrogate(c) ? 0 : 2;
+                }
+            } else if (c >= 0x80) {
+                encoded += 1;
+            }
+        }
+        return encoded;
+    }
+
+    void writeDecimal(int value) {
+        ensure(MAX_ENCODED_LENGTH);
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                writeAscii(Integer.toString(value));
+                return;
+            }
+            bytes[size++] = '-';
+            value = -value;
+        }
+        var end = size + decimalLength(value);
+        var position = end;
+        do {
+            bytes[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        size = end;
+    }
+
+    void writeVarInt(int value) {
+        ensure(MAX_ENCODED_LENGTH);
+        while ((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCodePoint(int codePoint) {
+        if (codePoint < 0x800) {
+            bytes[size++] = (byte) (0xC0 | codePoint >> 6);
+        } else {
+            if (codePoint < 0x10000) {
+                bytes[size++] = (byte) (0xE0 | codePoint >> 12);
+            } else {
+                bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            }
+            bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        }
+        bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+
+    private static int decimalLength(int value) {
+        var length = 1;
+        while (value >= 10) {
+            value /= 10;
+            ++length;
+        }
+        return length;
+    }
+
+    private void ensure(int count) {
+        if (bytes.length - size < count) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (size == 0) {
+            return;
+        }
+        try {
+            out.write(bytes, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.dump;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum DumpFormat {
+    TREE,
+    JSON,
+    BINARY;
+
+    public static DumpFormat parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format \"%s\", expected one of %s"
+                    .formatted(name, Arrays.toString(values()).toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    NodeWriter createWriter(DumpBuffer buffer) {
+        return switch (this) {
+            case TREE -> new TreeNodeWriter(buffer);
+            case JSON -> new JsonNodeWriter(buffer);
+            case BINARY -> new BinaryNodeWriter(buffer);
+        };
+    }
+}
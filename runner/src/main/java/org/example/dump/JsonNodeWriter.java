@@ -0,0 +1,91 @@
+package org.example.dump;
+
+import pl.interpreter.parser.Position;
+
+/**
+ * Newline-delimited JSON, one object per node with its kind, level, position if known and attributes.
+ */
+final class JsonNodeWriter implements NodeWriter {
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+    private final DumpBuffer buffer;
+
+    JsonNodeWriter(DumpBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void beginNode(String kind, int level, long position) {
+        buffer.writeAscii("{\"node\":\"");
+        buffer.writeAscii(kind);
+        buffer.writeAscii("\",\"level\":");
+        buffer.writeDecimal(level);
+        if (position != Position.NONE) {
+            buffer.writeAscii(",\"row\":");
+            buffer.writeDecimal(Position.rowOf(position));
+            buffer.writeAscii(",\"col\":");
+            buffer.writeDecimal(Position.colOf(position));
+        }
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        writeName(name);
+        if (value == null) {
+            buffer.writeAscii("null");
+        } else {
+            writeString(value);
+        }
+    }
+
+    @Override
+    public void attribute(String name, int value) {
+        writeName(name);
+        buffer.writeDecimal(value);
+    }
+
+    @Override
+    public void quotedAttribute(String name, String value) {
+        attribute(name, value);
+    }
+
+    @Override
+    public void endNode() {
+        buffer.writeByte('}');
+        buffer.writeByte('\n');
+    }
+
+    private void writeName(String name) {
+        buffer.writeAscii(",\"");
+        buffer.writeAscii(name);
+        buffer.writeAscii("\":");
+    }
+
+    private void writeString(String value) {
+        buffer.writeByte('"');
+        var start = 0;
+        for (var i = 0; i < value.length(); ++i) {
+            var c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            buffer.writeUtf8(value.substring(start, i));
+            buffer.writeByte('\\');
+            switch (c) {
+                case '"', '\\' -> buffer.writeByte(c);
+                case '\n' -> buffer.writeByte('n');
+                case '\r' -> buffer.writeByte('r');
+                case '\t' -> buffer.writeByte('t');
+                default -> {
+                    buffer.writeAscii("u00");
+                    buffer.writeByte(HEX_DIGITS[c >> 4]);
+                    buffer.writeByte(HEX_DIGITS[c & 0xF]);
+                }
+            }
+            start = i + 1;
+        }
+        buffer.writeUtf8(start == 0 ? value : value.substring(start));
+        buffer.writeByte('"');
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.dump;
+
+/**
+ * Output format of {@link AstDumper}. Nodes come in preorder, each one as a begin call followed by its attributes and
+ * an end call. Level is the depth of the node, the program being at level 0.
+ */
+interface NodeWriter {
+
+    // position is packed, Position.NONE for nodes dumped without one
+    void beginNode(String kind, int level, long position);
+
+    void attribute(String name, String value);
+
+    void attribute(String name, int value);
+
+    // operators, quoted by the tree format
+    void quotedAttribute(String name, String value);
+
+    void endNode();
+}
@@ -0,0 +1,72 @@
+package org.example.dump;
+
+import pl.interpreter.parser.Position;
+
+/**
+ * Indented tree, the same text as written by {@link pl.interpreter.parser.PrintVisitor}.
+ */
+final class TreeNodeWriter implements NodeWriter {
+
+    private final DumpBuffer buffer;
+    private boolean firstAttribute;
+
+    TreeNodeWriter(DumpBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void beginNode(String kind, int level, long position) {
+        for (var i = 2; i < level * 2; ++i) {
+            buffer.writeByte(' ');
+        }
+        if (level > 0) {
+            buffer.writeByte('|');
+            buffer.writeByte('-');
+        }
+        buffer.writeAscii(kind);
+        buffer.writeByte(' ');
+        if (position != Position.NONE) {
+            buffer.writeAscii("<row: ");
+            buffer.writeDecimal(Position.rowOf(position));
+            buffer.writeAscii(", col: ");
+            buffer.writeDecimal(Position.colOf(position));
+            buffer.writeAscii("> ");
+        }
+        firstAttribute = true;
+    }
+
+    @Override
+    public void attribute(String name, String value) {
+        writeName(name);
+        buffer.writeUtf8(String.valueOf(value));
+    }
+
+    @Override
+    public void attribute(String name, int value) {
+        writeName(name);
+        buffer.writeDecimal(value);
+    }
+
+    @Override
+    public void quotedAttribute(String name, String value) {
+        writeName(name);
+        buffer.writeByte('"');
+        buffer.writeUtf8(value);
+        buffer.writeByte('"');
+    }
+
+    @Override
+    public void endNode() {
+        buffer.writeByte('\n');
+    }
+
+    private void writeName(String name) {
+        if (!firstAttribute) {
+            buffer.writeByte(',');
+            buffer.writeByte(' ');
+        }
+        firstAttribute = false;
+        buffer.writeAscii(name);
+        buffer.writeByte('=');
+    }
+}
@@ -0,0 +1,277 @@
+package org.example.dump;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pl.interpreter.lexical_analyzer.LexicalAnalyzer;
+import pl.interpreter.parser.PrintVisitor;
+import pl.interpreter.parser.Program;
+import pl.interpreter.parser.ProgramParser;
+import pl.interpreter.parser.TokenManager;
+
+class AstDumperTest {
+
+    // every kind of node, a string needing JSON escapes and names repeated for the binary string table
+    private static final String SOURCE = """
+            struct Point { int x, float y }
+            struct Circle { Point center, float radius }
+            variant Shape { Point, Circle }
+            int main() {
+                var int i = 0;
+                string label = "a \\"quoted\\"\ttab \u0001 ł";
+                bool flag = !(i >= 2) and (i == 0 or i != 1);
+                while (i < 10) {
+                    i = i + 1 * 2 - i / 3 % 2;
+                }
+                if (flag) {
+                    print(label);
+                } else {
+                    print((i as string));
+                }
+                Point p = Point(1, 2.5);
+                return p.x;
+            }
+            float area(Shape shape) {
+                match (shape) {
+                    Circle c -> { return c.radius * c.radius * 3.14; }
+                    default -> { return 0.0; }
+                }
+            }
+            """;
+
+    @Test
+    void treeIsTheTextOfPrintVisitor() {
+        var program = parse(SOURCE);
+        var printed = new StringWriter();
+        new PrintVisitor(printed).visit(program);
+
+        Assertions.assertArrayEquals(printed.toString().getBytes(StandardCharsets.UTF_8),
+                dump(DumpFormat.TREE, program));
+    }
+
+    @Test
+    void jsonIsOneObjectPerLine() {
+        var program = parse(SOURCE);
+        var lines = new String(dump(DumpFormat.JSON, program), StandardCharsets.UTF_8).split("\n", -1);
+        var treeLines = new String(dump(DumpFormat.TREE, program), StandardCharsets.UTF_8).split("\n", -1);
+
+        Assertions.assertEquals(treeLines.length, lines.length);
+        Assertions.assertEquals("", lines[lines.length - 1]);
+        var nodes = Arrays.stream(lines, 0, lines.length - 1).map(JsonLine::parse).toList();
+        Assertions.assertEquals("Program", nodes.getFirst().get("node"));
+        Assertions.assertEquals("0", nodes.getFirst().get("level"));
+        Assertions.assertTrue(nodes.stream().anyMatch(n -> "a \"quoted\"\ttab \u0001 ł".equals(n.get("value"))));
+        Assertions.assertTrue(nodes.stream().anyMatch(n -> n.containsKey("field_name") && n.get("field_name") == null));
+    }
+
+    @Test
+    void binaryReadsBackAsTheJsonNodes() {
+        var program = parse(SOURCE);
+        var binary = new BinaryDump(dump(DumpFormat.BINARY, program));
+        var json = new String(dump(DumpFormat.JSON, program), StandardCharsets.UTF_8).lines()
+                .map(JsonLine::parse)
+                .toList();
+
+        Assertions.assertEquals(json, binary.nodes);
+    }
+
+    @Test
+    void binaryWritesEveryStringOnce() {
+        var source = new StringBuilder("int main() { var int counter = 0;");
+        for (var i = 0; i < 100; ++i) {
+            source.append(" counter = counter + 1;");
+        }
+        source.append(" return counter; }");
+        var binary = new BinaryDump(dump(DumpFormat.BINARY, parse(source.toString())));
+
+        Assertions.assertEquals(new HashSet<>(binary.strings).size(), binary.strings.size());
+        // the name is written by the initialization and referred to by the other 201 uses
+        Assertions.assertEquals(201, (int) binary.references.get("counter"));
+    }
+
+    private static Program parse(String source) {
+        return new ProgramParser(new TokenManager(new LexicalAnalyzer(new StringReader(source)))).parse();
+    }
+
+    private static byte[] dump(DumpFormat format, Program program) {
+        var out = new ByteArrayOutputStream();
+        new AstDumper(format, out).dump(program);
+        return out.toByteArray();
+    }
+
+    // strict reader of the flat objects written by JsonNodeWriter, numbers are kept as their text
+    private static final class JsonLine {
+
+        private final String text;
+        private int position;
+
+        private JsonLine(String text) {
+            this.text = text;
+        }
+
+        static Map<String, String> parse(String line) {
+            var reader = new JsonLine(line);
+            var object = reader.object();
+            if (reader.position != line.length()) {
+                throw new IllegalArgumentException("Trailing characters in " + line);
+            }
+            return object;
+        }
+
+        private Map<String, String> object() {
+            var object = new LinkedHashMap<String, String>();
+            expect('{');
+            do {
+                var name = string();
+                expect(':');
+                if (object.containsKey(name)) {
+                    throw new IllegalArgumentException("Duplicate member " + name);
+                }
+                object.put(name, value());
+            } while (accept(','));
+            expect('}');
+            return object;
+        }
+
+        private String value() {
+            if (peek() == '"') {
+                return string();
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            var start = position;
+            while (position < text.length() && Character.isDigit(text.charAt(position))) {
+                ++position;
+            }
+            if (start == position) {
+                throw new IllegalArgumentException("Expected a value at " + position + " in " + text);
+            }
+            return text.substring(start, position);
+        }
+
+        private String string() {
+            expect('"');
+            var value = new StringBuilder();
+            while (peek() != '"') {
+                var c = text.charAt(position++);
+                if (c < 0x20) {
+                    throw new IllegalArgumentException("Unescaped control character in " + text);
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                c = text.charAt(position++);
+                switch (c) {
+                    case '"', '\\', '/' -> value.append(c);
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape in " + text);
+                }
+            }
+            ++position;
+            return value.toString();
+        }
+
+        private char peek() {
+            if (position == text.length()) {
+                throw new IllegalArgumentException("Unexpected end of " + text);
+            }
+            return text.charAt(position);
+        }
+
+        private boolean accept(char c) {
+            if (position < text.length() && text.charAt(position) == c) {
+                ++position;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + position + " in " + text);
+            }
+        }
+    }
+
+    // decodes the format of BinaryNodeWriter into the members JsonNodeWriter writes for each node
+    private static final class BinaryDump {
+
+        private final byte[] bytes;
+        private int position;
+        private final List<Map<String, String>> nodes = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> references = new HashMap<>();
+
+        BinaryDump(byte[] bytes) {
+            this.bytes = bytes;
+            Assertions.assertArrayEquals(BinaryNodeWriter.MAGIC, Arrays.copyOf(bytes, BinaryNodeWriter.MAGIC.length));
+            position = BinaryNodeWriter.MAGIC.length;
+            Assertions.assertEquals(BinaryNodeWriter.VERSION, bytes[position++]);
+            while (position < bytes.length) {
+                var node = new LinkedHashMap<String, String>();
+                node.put("node", string());
+                node.put("level", Integer.toString(varInt()));
+                var row = varInt();
+                var col = varInt();
+                if (row != 0 || col != 0) {
+                    node.put("row", Integer.toString(row));
+                    node.put("col", Integer.toString(col));
+                }
+                var attributeCount = varInt();
+                for (var i = 0; i < attributeCount; ++i) {
+                    node.put(string(), string());
+                }
+                nodes.add(node);
+            }
+        }
+
+        private String string() {
+            var reference = varInt();
+            if (reference == 0) {
+                return null;
+            }
+            if (reference > 1) {
+                var string = strings.get(reference - 2);
+                references.merge(string, 1, Integer::sum);
+                return string;
+            }
+            var length = varInt();
+            var string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            strings.add(string);
+            return string;
+        }
+
+        private int varInt() {
+            var value = 0;
+            var shift = 0;
+            while (true) {
+                var b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+    }
+}